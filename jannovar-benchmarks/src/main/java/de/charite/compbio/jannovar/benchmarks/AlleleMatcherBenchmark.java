@@ -0,0 +1,95 @@
+package de.charite.compbio.jannovar.benchmarks;
+
+import de.charite.compbio.jannovar.vardbs.base.AlleleMatcher;
+import htsjdk.samtools.reference.FastaSequenceIndex;
+import htsjdk.samtools.reference.FastaSequenceIndexEntry;
+import htsjdk.samtools.reference.IndexedFastaSequenceFile;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for {@link AlleleMatcher#matchGenotypes(VariantContext, VariantContext)}
+ *
+ * Each synthetic variant is matched against itself, such that indels go through normalization against the reference.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlleleMatcherBenchmark {
+
+	/**
+	 * Number of variants per benchmark invocation
+	 */
+	private static final int NUM_VARIANTS = 1024;
+
+	/**
+	 * Path to FAI-indexed FASTA file, empty for the bundled one (variants are placed on its first contig)
+	 */
+	@Param({""})
+	public String fastaPath;
+
+	/**
+	 * Type of the synthetic variants
+	 */
+	@Param({"SNV", "INSERTION", "DELETION"})
+	public SyntheticVariants.VariantType variantType;
+
+	/**
+	 * The matcher to benchmark
+	 */
+	private AlleleMatcher matcher;
+
+	/**
+	 * The variants to match
+	 */
+	private VariantContext[] variants;
+
+	@Setup
+	public void setup() throws Exception {
+		final String path = BenchmarkResources.getFastaPath(fastaPath);
+		matcher = new AlleleMatcher(path);
+
+		final String contig;
+		final String sequence;
+		final FastaSequenceIndexEntry entry = new FastaSequenceIndex(new File(path + ".fai")).iterator().next();
+		try (IndexedFastaSequenceFile fasta = new IndexedFastaSequenceFile(new File(path))) {
+			contig = entry.getContig();
+			final int length = (int) Math.min(entry.getSize(), 1_000_000);
+			sequence = fasta.getSubsequenceAt(contig, 1, length).getBaseString().toUpperCase();
+		}
+		final List<SyntheticVariants.Record> records = SyntheticVariants.buildOnSequence(contig, sequence,
+			variantType, NUM_VARIANTS, 42);
+		variants = records.stream().map(SyntheticVariants.Record::toVariantContext).toArray(VariantContext[]::new);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_VARIANTS)
+	public void matchGenotypes(Blackhole blackhole) {
+		for (VariantContext vc : variants) {
+			blackhole.consume(matcher.matchGenotypes(vc, vc));
+			matcher.clearMemo(); // one query per variant, as in the annotation drivers
+		}
+	}
+
+}
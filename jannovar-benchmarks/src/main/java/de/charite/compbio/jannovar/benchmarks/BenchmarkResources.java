@@ -0,0 +1,92 @@
+package de.charite.compbio.jannovar.benchmarks;
+
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.JannovarDataSerializer;
+import de.charite.compbio.jannovar.data.SerializationException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Helper for locating the data files used by the benchmarks
+ *
+ * The benchmarks take file paths through JMH parameters (<code>-p dbPath=...</code>). An empty path selects the small
+ * database bundled with the benchmarks, which is enough for smoke-testing but not for meaningful numbers; use a full
+ * database (e.g., <code>hg19_refseq.ser</code> from <code>jannovar download</code>) for the latter.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class BenchmarkResources {
+
+	/**
+	 * Name of the bundled transcript database resource
+	 */
+	public static final String BUNDLED_DB = "/hg19_refseq_indels.ser";
+
+	/**
+	 * Name of the bundled FASTA resource, contig "1" of length 20kbp, FAI file is next to it
+	 */
+	public static final String BUNDLED_FASTA = "/chr1.fasta";
+
+	/**
+	 * Temporary directory that bundled resources are extracted to, created on first use
+	 */
+	private static File tmpDir;
+
+	private BenchmarkResources() {
+	}
+
+	/**
+	 * @param dbPath path to the transcript database, empty for the bundled one
+	 * @return path to the transcript database, the bundled one is extracted to a temporary file
+	 */
+	public static String getDatabasePath(String dbPath) throws IOException {
+		if (!dbPath.isEmpty())
+			return dbPath;
+		return extractResource(BUNDLED_DB).getAbsolutePath();
+	}
+
+	/**
+	 * @param fastaPath path to FAI-indexed FASTA file, empty for the bundled one
+	 * @return path to the FASTA file, the bundled one is extracted together with its FAI file
+	 */
+	public static String getFastaPath(String fastaPath) throws IOException {
+		if (!fastaPath.isEmpty())
+			return fastaPath;
+		extractResource(BUNDLED_FASTA + ".fai");
+		return extractResource(BUNDLED_FASTA).getAbsolutePath();
+	}
+
+	/**
+	 * @param dbPath path to the transcript database, empty for the bundled one
+	 * @return the loaded {@link JannovarData}
+	 */
+	public static JannovarData loadDatabase(String dbPath) throws IOException, SerializationException {
+		return new JannovarDataSerializer(getDatabasePath(dbPath)).load();
+	}
+
+	/**
+	 * Copy class path resource to a temporary directory, keeping the file name; deleted on exit
+	 *
+	 * @param path absolute class path of the resource
+	 * @return the extracted file
+	 */
+	public static synchronized File extractResource(String path) throws IOException {
+		if (tmpDir == null) {
+			tmpDir = Files.createTempDirectory("jannovar-benchmark").toFile();
+			tmpDir.deleteOnExit();
+		}
+		final File file = new File(tmpDir, new File(path).getName());
+		file.deleteOnExit();
+		try (InputStream input = BenchmarkResources.class.getResourceAsStream(path)) {
+			if (input == null)
+				throw new IOException("Could not find resource " + path);
+			Files.copy(input, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		return file;
+	}
+
+}
@@ -0,0 +1,68 @@
+package de.charite.compbio.jannovar.benchmarks;
+
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.JannovarDataSerializer;
+import de.charite.compbio.jannovar.data.MappedJannovarDataSerializer;
+import de.charite.compbio.jannovar.data.SerializationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for {@link JannovarDataSerializer#load()}, for the <code>.ser</code> and the memory-mapped format
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseLoadBenchmark {
+
+	/**
+	 * Path to the transcript database to use, empty for the bundled one
+	 */
+	@Param({""})
+	public String dbPath;
+
+	/**
+	 * Format to load from, <code>ser</code> or <code>mapped</code> (converted from the <code>.ser</code> file)
+	 */
+	@Param({"ser", "mapped"})
+	public String format;
+
+	/**
+	 * Path to the file to load
+	 */
+	private String path;
+
+	@Setup
+	public void setup() throws Exception {
+		path = BenchmarkResources.getDatabasePath(dbPath);
+		if (format.equals("mapped")) {
+			final File mapped = File.createTempFile("jannovar-benchmark-", ".jvdb");
+			mapped.deleteOnExit();
+			MappedJannovarDataSerializer.convert(path, mapped.getAbsolutePath());
+			path = mapped.getAbsolutePath();
+		}
+	}
+
+	@Benchmark
+	public JannovarData load() throws SerializationException {
+		return new JannovarDataSerializer(path).load();
+	}
+
+}
@@ -0,0 +1,68 @@
+package de.charite.compbio.jannovar.benchmarks;
+
+import de.charite.compbio.jannovar.hgvs.parser.HGVSParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for {@link HGVSParser#parseHGVSString(String)} on a mix of nucleotide changes
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HGVSParserBenchmark {
+
+	/**
+	 * Number of strings in {@link #HGVS_STRINGS}
+	 */
+	private static final int NUM_STRINGS = 14;
+
+	/**
+	 * The HGVS strings to parse
+	 */
+	private static final String[] HGVS_STRINGS = {"NM_000138.4:c.7339G>A", "NM_000138.4(FBN1):c.7339G>A",
+		"NM_000109.3:c.76_78del", "NM_000109.3:c.76_78delACT", "NM_000109.3:c.301-3delT",
+		"NM_000109.3:c.77+1G>T", "NM_000109.3:c.-14G>C", "NM_000109.3:c.*46delT", "NM_000109.3:c.76_77delinsTT",
+		"NM_000109.3:c.77_79dup", "NM_000109.3:c.76_77insT", "NM_000109.3:c.112_117delinsTG",
+		"NM_000109.3:c.76A>C", "NM_000109.3:c.88+1G>T"};
+
+	/**
+	 * The parser to benchmark
+	 */
+	private HGVSParser parser;
+
+	@Setup
+	public void setup() {
+		if (HGVS_STRINGS.length != NUM_STRINGS)
+			throw new IllegalStateException("NUM_STRINGS out of sync with HGVS_STRINGS");
+		parser = new HGVSParser();
+		for (String hgvs : HGVS_STRINGS)
+			if (parser.parseHGVSString(hgvs) == null)
+				throw new IllegalStateException("Could not parse " + hgvs);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_STRINGS)
+	public void parseHGVSString(Blackhole blackhole) {
+		for (String hgvs : HGVS_STRINGS)
+			blackhole.consume(parser.parseHGVSString(hgvs));
+	}
+
+}
@@ -0,0 +1,160 @@
+package de.charite.compbio.jannovar.benchmarks;
+
+import de.charite.compbio.jannovar.data.Chromosome;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.impl.intervals.Interval;
+import de.charite.compbio.jannovar.impl.intervals.IntervalArray;
+import de.charite.compbio.jannovar.impl.intervals.PrimitiveIntervalArray;
+import de.charite.compbio.jannovar.reference.TranscriptIntervalEndExtractor;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the transcript lookup of {@link IntervalArray} with {@link PrimitiveIntervalArray}
+ *
+ * Both structures are built from the transcripts of each chromosome of the database. The queries are points and
+ * short intervals close to random transcripts, such that both hits and neighbour lookups are covered.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntervalArrayBenchmark {
+
+	/**
+	 * Number of queries per benchmark invocation
+	 */
+	private static final int NUM_QUERIES = 4096;
+
+	/**
+	 * Path to the transcript database to use, empty for the bundled one
+	 */
+	@Param({""})
+	public String dbPath;
+
+	/**
+	 * Length of the query intervals, not used for the point queries
+	 */
+	@Param({"1", "100"})
+	public int queryLength;
+
+	/**
+	 * Per-chromosome {@link IntervalArray}s
+	 */
+	private List<IntervalArray<TranscriptModel>> objectArrays;
+
+	/**
+	 * Per-chromosome {@link PrimitiveIntervalArray}s, same order as {@link #objectArrays}
+	 */
+	private List<PrimitiveIntervalArray<TranscriptModel>> primitiveArrays;
+
+	/**
+	 * Reused query result for {@link #primitiveArrays}
+	 */
+	private PrimitiveIntervalArray.QueryResult<TranscriptModel> primitiveResult;
+
+	/**
+	 * Index into the per-chromosome lists for each query
+	 */
+	private int[] queryChroms;
+
+	/**
+	 * Begin position of each query
+	 */
+	private int[] queryBegins;
+
+	@Setup
+	public void setup() throws Exception {
+		final JannovarData data = BenchmarkResources.loadDatabase(dbPath);
+
+		objectArrays = new ArrayList<>();
+		primitiveArrays = new ArrayList<>();
+		for (Chromosome chrom : data.getChromosomes().values()) {
+			final List<TranscriptModel> transcripts = new ArrayList<>();
+			for (Interval<TranscriptModel> interval : chrom.getTMIntervalTree().getIntervals())
+				transcripts.add(interval.getValue());
+			if (transcripts.isEmpty())
+				continue;
+			objectArrays.add(new IntervalArray<>(transcripts, new TranscriptIntervalEndExtractor()));
+			primitiveArrays.add(new PrimitiveIntervalArray<>(transcripts, new TranscriptIntervalEndExtractor()));
+		}
+		primitiveResult = primitiveArrays.get(0).newQueryResult();
+
+		final Random rng = new Random(42);
+		queryChroms = new int[NUM_QUERIES];
+		queryBegins = new int[NUM_QUERIES];
+		for (int i = 0; i < NUM_QUERIES; ++i) {
+			queryChroms[i] = rng.nextInt(objectArrays.size());
+			final List<Interval<TranscriptModel>> intervals = objectArrays.get(queryChroms[i]).getIntervals();
+			final Interval<TranscriptModel> interval = intervals.get(rng.nextInt(intervals.size()));
+			// Around the transcript, +/- 10kbp
+			final int lo = Math.max(0, interval.getBegin() - 10_000);
+			queryBegins[i] = lo + rng.nextInt(interval.getEnd() + 10_000 - lo);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_QUERIES)
+	public void intervalArray(Blackhole blackhole) {
+		for (int i = 0; i < NUM_QUERIES; ++i) {
+			final IntervalArray<TranscriptModel>.QueryResult result = objectArrays.get(queryChroms[i])
+				.findOverlappingWithInterval(queryBegins[i], queryBegins[i] + queryLength);
+			blackhole.consume(result.getEntries().size());
+			blackhole.consume(result.getLeft());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_QUERIES)
+	public void primitiveIntervalArray(Blackhole blackhole) {
+		for (int i = 0; i < NUM_QUERIES; ++i) {
+			primitiveArrays.get(queryChroms[i]).findOverlappingWithInterval(queryBegins[i],
+				queryBegins[i] + queryLength, primitiveResult);
+			blackhole.consume(primitiveResult.getEntries().size());
+			blackhole.consume(primitiveResult.getLeft());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_QUERIES)
+	public void intervalArrayPoint(Blackhole blackhole) {
+		for (int i = 0; i < NUM_QUERIES; ++i) {
+			final IntervalArray<TranscriptModel>.QueryResult result = objectArrays.get(queryChroms[i])
+				.findOverlappingWithPoint(queryBegins[i]);
+			blackhole.consume(result.getEntries().size());
+			blackhole.consume(result.getLeft());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_QUERIES)
+	public void primitiveIntervalArrayPoint(Blackhole blackhole) {
+		for (int i = 0; i < NUM_QUERIES; ++i) {
+			primitiveArrays.get(queryChroms[i]).findOverlappingWithPoint(queryBegins[i], primitiveResult);
+			blackhole.consume(primitiveResult.getEntries().size());
+			blackhole.consume(primitiveResult.getLeft());
+		}
+	}
+
+}
@@ -0,0 +1,145 @@
+package de.charite.compbio.jannovar.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.mendel.filter.GeneWiseMendelianAnnotationProcessor;
+import de.charite.compbio.jannovar.pedigree.Disease;
+import de.charite.compbio.jannovar.pedigree.PedFileContents;
+import de.charite.compbio.jannovar.pedigree.PedPerson;
+import de.charite.compbio.jannovar.pedigree.Pedigree;
+import de.charite.compbio.jannovar.pedigree.Sex;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for {@link GeneWiseMendelianAnnotationProcessor}, annotating the variants of a synthetic trio
+ *
+ * The synthetic variants are placed in the exons of the database's coding transcripts, sorted by position, and get
+ * random genotypes for mother, father, and affected child, mostly homozygous reference as in whole-genome VCF files.
+ * The more variants, the denser they are and the more genes are active at the same time.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MendelianAnnotationBenchmark {
+
+	/**
+	 * Names of the samples, mother, father, and child
+	 */
+	private static final ImmutableList<String> SAMPLES = ImmutableList.of("mother", "father", "child");
+
+	/**
+	 * Path to the transcript database to use, empty for the bundled one
+	 */
+	@Param({""})
+	public String dbPath;
+
+	/**
+	 * Number of synthetic variants to annotate per benchmark invocation
+	 */
+	@Param({"1000", "4000"})
+	public int numVariants;
+
+	/**
+	 * Number of threads for checking the genes
+	 */
+	@Param({"1", "4"})
+	public int numThreads;
+
+	/**
+	 * The transcript database to take the genes from
+	 */
+	private JannovarData data;
+
+	/**
+	 * Pedigree of the trio
+	 */
+	private Pedigree pedigree;
+
+	/**
+	 * The variants to annotate, sorted by position
+	 */
+	private List<VariantContext> variants;
+
+	/**
+	 * The processor to benchmark, constructed anew for each invocation as building its gene list is not measured
+	 */
+	private GeneWiseMendelianAnnotationProcessor processor;
+
+	/**
+	 * Number of variants written out by {@link #processor}
+	 */
+	private int numWritten;
+
+	@Setup
+	public void setup() throws Exception {
+		data = BenchmarkResources.loadDatabase(dbPath);
+
+		final ImmutableList.Builder<PedPerson> individuals = new ImmutableList.Builder<>();
+		individuals.add(new PedPerson("trio", "mother", "0", "0", Sex.FEMALE, Disease.UNAFFECTED));
+		individuals.add(new PedPerson("trio", "father", "0", "0", Sex.MALE, Disease.UNAFFECTED));
+		individuals.add(new PedPerson("trio", "child", "father", "mother", Sex.MALE, Disease.AFFECTED));
+		pedigree = new Pedigree(new PedFileContents(ImmutableList.of(), individuals.build()), "trio");
+
+		final List<SyntheticVariants.Record> records = new ArrayList<>(SyntheticVariants.build(data,
+			SyntheticVariants.VariantType.SNV, numVariants, 42));
+		records.sort(Comparator.<SyntheticVariants.Record>comparingInt(r -> r.chr).thenComparingInt(r -> r.pos));
+
+		final Random rng = new Random(42);
+		variants = new ArrayList<>(records.size());
+		for (SyntheticVariants.Record record : records) {
+			final VariantContext vc = record.toVariantContext();
+			final List<Genotype> genotypes = new ArrayList<>();
+			for (String sample : SAMPLES) {
+				// 80% homozygous reference, 15% heterozygous, 5% homozygous alternative
+				final int draw = rng.nextInt(100);
+				final Allele first = (draw < 95) ? vc.getReference() : vc.getAlternateAllele(0);
+				final Allele second = (draw < 80) ? vc.getReference() : vc.getAlternateAllele(0);
+				genotypes.add(new GenotypeBuilder(sample, ImmutableList.of(first, second)).make());
+			}
+			variants.add(new VariantContextBuilder(vc).genotypes(genotypes).make());
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void setupProcessor() {
+		numWritten = 0;
+		processor = new GeneWiseMendelianAnnotationProcessor(pedigree, data, vc -> ++numWritten, false,
+			numThreads);
+	}
+
+	@Benchmark
+	public int annotateTrio() {
+		for (VariantContext vc : variants)
+			processor.put(vc);
+		processor.close();
+		return numWritten;
+	}
+
+}
@@ -0,0 +1,161 @@
+package de.charite.compbio.jannovar.benchmarks;
+
+import de.charite.compbio.jannovar.data.JannovarData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and throughput of a locally running <code>jannovar rest-server</code>
+ * <p>
+ * Start the server first and pass the same database to the benchmark, such that the synthetic variants fall into its
+ * transcripts, e.g.:
+ *
+ * <pre>
+ * java -jar jannovar-cli.jar rest-server -d hg19_refseq.ser &amp;
+ * java -jar jannovar-benchmarks.jar RestServerBenchmark -p dbPath=hg19_refseq.ser -p database=refseq/hg19 -t 8
+ * </pre>
+ * <p>
+ * <code>annotateVar</code> reports the latency distribution of single-variant requests, <code>annotateBatch</code>
+ * the number of variants per second annotated through <code>/annotate-batch</code>.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RestServerBenchmark {
+
+	/**
+	 * Number of variants per batch request
+	 */
+	private static final int BATCH_SIZE = 4096;
+
+	/**
+	 * Base URL of the server
+	 */
+	@Param({"http://127.0.0.1:5050"})
+	public String url;
+
+	/**
+	 * Database on the server, as "$release/$database" in the request URLs
+	 */
+	@Param({"refseq/hg19"})
+	public String database;
+
+	/**
+	 * Path to the transcript database to draw variants from, empty for the bundled one
+	 */
+	@Param({""})
+	public String dbPath;
+
+	/**
+	 * URLs for the single-variant requests
+	 */
+	private URL[] varURLs;
+
+	/**
+	 * Index of the next single-variant request
+	 */
+	private int nextVar;
+
+	/**
+	 * URL for the batch requests
+	 */
+	private URL batchURL;
+
+	/**
+	 * Body of the batch requests, NDJSON
+	 */
+	private byte[] batchBody;
+
+	@Setup
+	public void setup() throws Exception {
+		final JannovarData data = BenchmarkResources.loadDatabase(dbPath);
+		final List<SyntheticVariants.Record> records = SyntheticVariants.build(data,
+			SyntheticVariants.VariantType.SNV, BATCH_SIZE, 42);
+
+		varURLs = new URL[records.size()];
+		final StringBuilder body = new StringBuilder();
+		for (int i = 0; i < records.size(); ++i) {
+			final SyntheticVariants.Record r = records.get(i);
+			varURLs[i] = new URL(
+				url + "/annotate-var/" + database + "/" + r.contig + "/" + r.pos + "/" + r.ref + "/" + r.alt);
+			body.append("{\"chromosome\":\"").append(r.contig).append("\",\"position\":").append(r.pos)
+				.append(",\"reference\":\"").append(r.ref).append("\",\"alternative\":\"").append(r.alt)
+				.append("\"}\n");
+		}
+		batchURL = new URL(url + "/annotate-batch/" + database);
+		batchBody = body.toString().getBytes(StandardCharsets.UTF_8);
+
+		try {
+			annotateVar();
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not query " + url + ", start the server with the database "
+				+ database + " first", e);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long annotateVar() throws IOException {
+		final HttpURLConnection conn = (HttpURLConnection) varURLs[nextVar].openConnection();
+		nextVar = (nextVar + 1) % varURLs.length;
+		return readResponse(conn);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(BATCH_SIZE)
+	public long annotateBatch() throws IOException {
+		final HttpURLConnection conn = (HttpURLConnection) batchURL.openConnection();
+		conn.setRequestMethod("POST");
+		conn.setDoOutput(true);
+		conn.setRequestProperty("Content-Type", "application/x-ndjson");
+		conn.setFixedLengthStreamingMode(batchBody.length);
+		try (OutputStream out = conn.getOutputStream()) {
+			out.write(batchBody);
+		}
+		return readResponse(conn);
+	}
+
+	/**
+	 * Read response body, such that the connection can be reused
+	 *
+	 * @return number of bytes read
+	 */
+	private static long readResponse(HttpURLConnection conn) throws IOException {
+		if (conn.getResponseCode() != HttpURLConnection.HTTP_OK)
+			throw new IOException("Server answered " + conn.getResponseCode() + " for " + conn.getURL());
+		final byte[] buf = new byte[64 * 1024];
+		long numBytes = 0;
+		try (InputStream in = conn.getInputStream()) {
+			int n;
+			while ((n = in.read(buf)) != -1)
+				numBytes += n;
+		}
+		return numBytes;
+	}
+
+}
@@ -0,0 +1,214 @@
+package de.charite.compbio.jannovar.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.reference.GenomeInterval;
+import de.charite.compbio.jannovar.reference.GenomePosition;
+import de.charite.compbio.jannovar.reference.GenomeVariant;
+import de.charite.compbio.jannovar.reference.PositionType;
+import de.charite.compbio.jannovar.reference.Strand;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generation of reproducible synthetic variant sets for the benchmarks
+ *
+ * The variants are placed into the exons of random coding transcripts of a database and described VCF-style (1-based
+ * position, indels with leading anchor base). The reference bases are random and thus not necessarily the ones of the
+ * genome; annotation does not check them.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class SyntheticVariants {
+
+	/**
+	 * Types of synthetic variants
+	 */
+	public enum VariantType {
+		/** single nucleotide variant */
+		SNV,
+		/** insertion of 1-6 bases */
+		INSERTION,
+		/** deletion of 1-6 bases */
+		DELETION,
+		/** replacement of 2-6 bases by 2-6 others */
+		BLOCK_SUBSTITUTION
+	}
+
+	/**
+	 * VCF-style description of a synthetic variant
+	 */
+	public static final class Record {
+		/** numeric chromosome ID */
+		public final int chr;
+		/** contig name */
+		public final String contig;
+		/** 1-based position */
+		public final int pos;
+		/** reference bases */
+		public final String ref;
+		/** alternative bases */
+		public final String alt;
+
+		Record(int chr, String contig, int pos, String ref, String alt) {
+			this.chr = chr;
+			this.contig = contig;
+			this.pos = pos;
+			this.ref = ref;
+			this.alt = alt;
+		}
+
+		/**
+		 * @return {@link GenomeVariant} for this record
+		 */
+		public GenomeVariant toGenomeVariant(ReferenceDictionary refDict) {
+			return new GenomeVariant(new GenomePosition(refDict, Strand.FWD, chr, pos, PositionType.ONE_BASED), ref,
+				alt);
+		}
+
+		/**
+		 * @return {@link VariantContext} for this record, without genotypes
+		 */
+		public VariantContext toVariantContext() {
+			return new VariantContextBuilder("synthetic", contig, pos, pos + ref.length() - 1,
+				ImmutableList.of(Allele.create(ref, true), Allele.create(alt))).make();
+		}
+
+		@Override
+		public String toString() {
+			return contig + ":" + pos + ":" + ref + ">" + alt;
+		}
+	}
+
+	/**
+	 * The nucleotides to draw from
+	 */
+	private static final char[] BASES = {'A', 'C', 'G', 'T'};
+
+	private SyntheticVariants() {
+	}
+
+	/**
+	 * Build synthetic variants in the exons of coding transcripts
+	 *
+	 * @param data  {@link JannovarData} with the transcripts to place the variants in
+	 * @param type  {@link VariantType} of the variants to generate
+	 * @param count number of variants to generate
+	 * @param seed  seed for the random number generator
+	 * @return list of <code>count</code> synthetic variants
+	 */
+	public static List<Record> build(JannovarData data, VariantType type, int count, long seed) {
+		final List<TranscriptModel> transcripts = new ArrayList<>();
+		for (TranscriptModel tm : data.getTmByAccession().values())
+			if (tm.isCoding())
+				transcripts.add(tm);
+		if (transcripts.isEmpty())
+			throw new IllegalArgumentException("Database has no coding transcripts");
+
+		final Random rng = new Random(seed);
+		final List<Record> result = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			final TranscriptModel tm = transcripts.get(rng.nextInt(transcripts.size()));
+			final GenomeInterval exon = tm.getExonRegions().get(rng.nextInt(tm.getExonRegions().size()))
+				.withStrand(Strand.FWD);
+			final int pos = exon.getBeginPos() + 1 + rng.nextInt(exon.length());
+			final String contig = data.getRefDict().getContigIDToName().get(tm.getChr());
+			result.add(buildRecord(rng, type, tm.getChr(), contig, pos));
+		}
+		return result;
+	}
+
+	/**
+	 * Build synthetic variants with reference bases taken from <code>sequence</code>
+	 *
+	 * @param contig   name of the contig
+	 * @param sequence sequence of the contig
+	 * @param type     {@link VariantType} of the variants to generate
+	 * @param count    number of variants to generate
+	 * @param seed     seed for the random number generator
+	 * @return list of <code>count</code> synthetic variants, with numeric chromosome ID <code>1</code>
+	 */
+	public static List<Record> buildOnSequence(String contig, String sequence, VariantType type, int count,
+		long seed) {
+		final Random rng = new Random(seed);
+		final List<Record> result = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			final int pos = 1 + rng.nextInt(sequence.length() - 20);
+			final Record record = buildRecord(rng, type, 1, contig, pos);
+			final String ref = sequence.substring(pos - 1, pos - 1 + record.ref.length());
+			String alt = record.alt;
+			if (type != VariantType.BLOCK_SUBSTITUTION && type != VariantType.SNV)
+				alt = ref.charAt(0) + alt.substring(1); // keep anchor base
+			else if (alt.charAt(0) == ref.charAt(0))
+				alt = otherBase(rng, ref.charAt(0)) + alt.substring(1);
+			result.add(new Record(1, contig, pos, ref, alt));
+		}
+		return result;
+	}
+
+	/**
+	 * Build one record of the given type at the given position with random bases
+	 */
+	private static Record buildRecord(Random rng, VariantType type, int chr, String contig, int pos) {
+		switch (type) {
+			case SNV: {
+				final char ref = randomBase(rng);
+				return new Record(chr, contig, pos, String.valueOf(ref), String.valueOf(otherBase(rng, ref)));
+			}
+			case INSERTION: {
+				final String ref = randomBases(rng, 1);
+				return new Record(chr, contig, pos, ref, ref + randomBases(rng, 1 + rng.nextInt(6)));
+			}
+			case DELETION: {
+				final String ref = randomBases(rng, 2 + rng.nextInt(6));
+				return new Record(chr, contig, pos, ref, ref.substring(0, 1));
+			}
+			case BLOCK_SUBSTITUTION: {
+				final String ref = randomBases(rng, 2 + rng.nextInt(5));
+				// first and last base differ such that no common prefix or suffix is trimmed
+				final StringBuilder alt = new StringBuilder(randomBases(rng, 2 + rng.nextInt(5)));
+				alt.setCharAt(0, otherBase(rng, ref.charAt(0)));
+				alt.setCharAt(alt.length() - 1, otherBase(rng, ref.charAt(ref.length() - 1)));
+				return new Record(chr, contig, pos, ref, alt.toString());
+			}
+			default:
+				throw new IllegalArgumentException("Unknown variant type " + type);
+		}
+	}
+
+	/**
+	 * @return random nucleotide
+	 */
+	private static char randomBase(Random rng) {
+		return BASES[rng.nextInt(BASES.length)];
+	}
+
+	/**
+	 * @return random nucleotide different from <code>base</code>
+	 */
+	private static char otherBase(Random rng, char base) {
+		char result;
+		do {
+			result = randomBase(rng);
+		} while (result == base);
+		return result;
+	}
+
+	/**
+	 * @return string of <code>length</code> random nucleotides
+	 */
+	public static String randomBases(Random rng, int length) {
+		final StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; ++i)
+			builder.append(randomBase(rng));
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,81 @@
+package de.charite.compbio.jannovar.benchmarks;
+
+import de.charite.compbio.jannovar.hgvs.Translator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for {@link Translator#translateDNA(String)} and the buffer-based window translation on random coding
+ * sequences
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranslatorBenchmark {
+
+	/**
+	 * Number of sequences per benchmark invocation
+	 */
+	private static final int NUM_SEQUENCES = 64;
+
+	/**
+	 * Length of the sequences to translate, in nucleotides
+	 */
+	@Param({"30", "300", "3000"})
+	public int length;
+
+	/**
+	 * The sequences to translate
+	 */
+	private String[] sequences;
+
+	/**
+	 * Reusable buffer for the window translation
+	 */
+	private char[] buffer;
+
+	@Setup
+	public void setup() {
+		final Random rng = new Random(42);
+		sequences = new String[NUM_SEQUENCES];
+		for (int i = 0; i < NUM_SEQUENCES; ++i)
+			sequences[i] = SyntheticVariants.randomBases(rng, length);
+		buffer = new char[length / 3];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_SEQUENCES)
+	public void translateDNA(Blackhole blackhole) {
+		final Translator translator = Translator.getTranslator();
+		for (String sequence : sequences)
+			blackhole.consume(translator.translateDNA(sequence));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_SEQUENCES)
+	public void translateDNAWindow(Blackhole blackhole) {
+		final Translator translator = Translator.getTranslator();
+		for (String sequence : sequences)
+			blackhole.consume(translator.translateDNA(sequence, 0, sequence.length(), buffer, 0));
+	}
+
+}
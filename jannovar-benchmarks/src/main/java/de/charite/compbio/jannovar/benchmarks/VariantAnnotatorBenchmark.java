@@ -0,0 +1,79 @@
+package de.charite.compbio.jannovar.benchmarks;
+
+import de.charite.compbio.jannovar.annotation.AnnotationException;
+import de.charite.compbio.jannovar.annotation.VariantAnnotator;
+import de.charite.compbio.jannovar.annotation.builders.AnnotationBuilderOptions;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.reference.GenomeVariant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for {@link VariantAnnotator#buildAnnotations(GenomeVariant)} on synthetic exonic variants
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariantAnnotatorBenchmark {
+
+	/**
+	 * Number of variants per benchmark invocation
+	 */
+	private static final int NUM_VARIANTS = 1024;
+
+	/**
+	 * Path to the transcript database to use, empty for the bundled one
+	 */
+	@Param({""})
+	public String dbPath;
+
+	/**
+	 * Type of the synthetic variants
+	 */
+	@Param({"SNV", "INSERTION", "DELETION", "BLOCK_SUBSTITUTION"})
+	public SyntheticVariants.VariantType variantType;
+
+	/**
+	 * The annotator to benchmark
+	 */
+	private VariantAnnotator annotator;
+
+	/**
+	 * The variants to annotate
+	 */
+	private GenomeVariant[] variants;
+
+	@Setup
+	public void setup() throws Exception {
+		final JannovarData data = BenchmarkResources.loadDatabase(dbPath);
+		annotator = new VariantAnnotator(data.getRefDict(), data.getChromosomes(), new AnnotationBuilderOptions());
+		variants = SyntheticVariants.build(data, variantType, NUM_VARIANTS, 42).stream()
+			.map(r -> r.toGenomeVariant(data.getRefDict())).toArray(GenomeVariant[]::new);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_VARIANTS)
+	public void buildAnnotations(Blackhole blackhole) throws AnnotationException {
+		for (GenomeVariant variant : variants)
+			blackhole.consume(annotator.buildAnnotations(variant));
+	}
+
+}
@@ -0,0 +1,90 @@
+package de.charite.compbio.jannovar.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.annotation.VariantAnnotations;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.htsjdk.VariantContextAnnotator;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for {@link VariantContextAnnotator#applyAnnotations(VariantContext, List)}
+ *
+ * The annotations of the synthetic variants are built in the setup such that only writing the <code>ANN</code> field is
+ * measured.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariantContextAnnotatorBenchmark {
+
+	/**
+	 * Number of variants per benchmark invocation, per variant type
+	 */
+	private static final int NUM_VARIANTS = 256;
+
+	/**
+	 * Path to the transcript database to use, empty for the bundled one
+	 */
+	@Param({""})
+	public String dbPath;
+
+	/**
+	 * The annotator to benchmark
+	 */
+	private VariantContextAnnotator annotator;
+
+	/**
+	 * The variants to write the annotations to
+	 */
+	private List<VariantContext> variants;
+
+	/**
+	 * The annotations for each of {@link #variants}
+	 */
+	private List<ImmutableList<VariantAnnotations>> annotations;
+
+	@Setup
+	public void setup() throws Exception {
+		final JannovarData data = BenchmarkResources.loadDatabase(dbPath);
+		annotator = new VariantContextAnnotator(data.getRefDict(), data.getChromosomes());
+		variants = new ArrayList<>();
+		annotations = new ArrayList<>();
+		for (SyntheticVariants.VariantType type : SyntheticVariants.VariantType.values()) {
+			for (SyntheticVariants.Record record : SyntheticVariants.build(data, type, NUM_VARIANTS, 42)) {
+				final VariantContext vc = record.toVariantContext();
+				variants.add(vc);
+				annotations.add(annotator.buildAnnotations(vc));
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(4 * NUM_VARIANTS)
+	public void applyAnnotations(Blackhole blackhole) {
+		for (int i = 0; i < variants.size(); ++i)
+			blackhole.consume(annotator.applyAnnotations(variants.get(i), annotations.get(i)));
+	}
+
+}
@@ -4,11 +4,13 @@ import de.charite.compbio.jannovar.cmd.JannovarCommand;
 import de.charite.compbio.jannovar.cmd.annotate_csv.JannovarAnnotateCSVOptions;
 import de.charite.compbio.jannovar.cmd.annotate_pos.JannovarAnnotatePosOptions;
 import de.charite.compbio.jannovar.cmd.annotate_vcf.JannovarAnnotateVCFOptions;
+import de.charite.compbio.jannovar.cmd.db_convert.JannovarDBConvertOptions;
 import de.charite.compbio.jannovar.cmd.db_list.JannovarDBListOptions;
 import de.charite.compbio.jannovar.cmd.download.JannovarDownloadOptions;
 import de.charite.compbio.jannovar.cmd.hgvs_to_vcf.ProjectTranscriptToChromosomeOptions;
 import de.charite.compbio.jannovar.cmd.rest_server.RestServerOptions;
 import de.charite.compbio.jannovar.cmd.statistics.JannovarGatherStatisticsOptions;
+import de.charite.compbio.jannovar.cmd.tsv_import.JannovarTSVImportOptions;
 import java.util.function.BiFunction;
 import net.sourceforge.argparse4j.ArgumentParsers;
 import net.sourceforge.argparse4j.impl.Arguments;
@@ -40,6 +42,8 @@ public final class Jannovar {
 		JannovarAnnotateCSVOptions.setupParser(subParsers);
 		JannovarAnnotateVCFOptions.setupParser(subParsers);
 		JannovarDBListOptions.setupParser(subParsers);
+		JannovarDBConvertOptions.setupParser(subParsers);
+		JannovarTSVImportOptions.setupParser(subParsers);
 		JannovarDownloadOptions.setupParser(subParsers);
 		JannovarGatherStatisticsOptions.setupParser(subParsers);
 		RestServerOptions.setupParser(subParsers);
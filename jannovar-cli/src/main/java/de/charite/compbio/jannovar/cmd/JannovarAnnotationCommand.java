@@ -5,7 +5,12 @@ import de.charite.compbio.jannovar.JannovarException;
 import de.charite.compbio.jannovar.data.Chromosome;
 import de.charite.compbio.jannovar.data.JannovarData;
 import de.charite.compbio.jannovar.data.JannovarDataSerializer;
+import de.charite.compbio.jannovar.data.MappedJannovarDataSerializer;
+import de.charite.compbio.jannovar.data.MappedTranscriptStore;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+
+import java.util.function.Function;
 
 /**
  * Base class for commands needing annotation data.
@@ -29,8 +34,17 @@ public abstract class JannovarAnnotationCommand extends JannovarCommand {
 	 */
 	protected ImmutableMap<Integer, Chromosome> chromosomeMap = null;
 
+	/**
+	 * {@link MappedTranscriptStore} of a data file in the columnar format, <code>null</code> for <code>.ser</code>
+	 * files
+	 */
+	protected MappedTranscriptStore transcriptStore = null;
+
 	/**
 	 * Deserialize the transcript definition file from {@link pathToDataFile}.
+	 * <p>
+	 * The annotators need the interval trees over all transcripts, so all transcripts of a file in the columnar
+	 * format are built here, from the mapped {@link #transcriptStore}.
 	 *
 	 * @param pathToDataFile String with the path to the data file to deserialize
 	 * @throws JannovarException      when there is a problem with the deserialization
@@ -38,9 +52,41 @@ public abstract class JannovarAnnotationCommand extends JannovarCommand {
 	 */
 	protected void deserializeTranscriptDefinitionFile(String pathToDataFile)
 		throws JannovarException, HelpRequestedException {
-		this.jannovarData = new JannovarDataSerializer(pathToDataFile).load();
-		this.refDict = this.jannovarData.getRefDict();
+		openTranscriptDefinitionFile(pathToDataFile);
+		if (this.jannovarData == null)
+			this.jannovarData = this.transcriptStore.toJannovarData();
 		this.chromosomeMap = this.jannovarData.getChromosomes();
 	}
 
+	/**
+	 * Open the transcript definition file from {@link pathToDataFile} for looking up transcripts by accession.
+	 * <p>
+	 * A file in the columnar format is only mapped into {@link #transcriptStore}, its transcripts are built on first
+	 * access and {@link #jannovarData} stays <code>null</code>. A <code>.ser</code> file is deserialized into
+	 * {@link #jannovarData}.
+	 *
+	 * @param pathToDataFile String with the path to the data file to open
+	 * @throws JannovarException when there is a problem with opening the file
+	 */
+	protected void openTranscriptDefinitionFile(String pathToDataFile) throws JannovarException {
+		if (MappedJannovarDataSerializer.isMappedFormat(pathToDataFile)) {
+			this.transcriptStore = new MappedJannovarDataSerializer(pathToDataFile).open();
+			this.refDict = this.transcriptStore.getRefDict();
+		} else {
+			this.jannovarData = new JannovarDataSerializer(pathToDataFile).load();
+			this.refDict = this.jannovarData.getRefDict();
+		}
+	}
+
+	/**
+	 * @return lookup of {@link TranscriptModel} by accession in the opened transcript definition file, returning
+	 * <code>null</code> for unknown accessions
+	 */
+	protected Function<String, TranscriptModel> getTranscriptByAccession() {
+		if (this.transcriptStore != null)
+			return this.transcriptStore::findByAccession;
+		else
+			return this.jannovarData.getTmByAccession()::get;
+	}
+
 }
@@ -1,5 +1,6 @@
 package de.charite.compbio.jannovar.cmd;
 
+import de.charite.compbio.jannovar.annotation.VariantAnnotationsCache;
 import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentGroup;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
@@ -34,6 +35,16 @@ public class JannovarAnnotationOptions extends JannovarBaseOptions {
 	 */
 	private String databaseFilePath = null;
 
+	/**
+	 * Maximal number of cached variant annotations, <code>0</code> to disable caching
+	 */
+	private long annotationCacheSize = 0;
+
+	/**
+	 * Number of seconds after which cached variant annotations expire, <code>0</code> for no expiry
+	 */
+	private long annotationCacheTTL = 0;
+
 	/**
 	 * Setup {@link ArgumentParser}
 	 *
@@ -46,10 +57,24 @@ public class JannovarAnnotationOptions extends JannovarBaseOptions {
 			.dest("3_prime_shifting").setDefault(true).action(Arguments.storeFalse());
 		optionalGroup.addArgument("--3-letter-amino-acids").help("Enable usage of 3 letter amino acid codes")
 			.setDefault(false).action(Arguments.storeTrue());
+		setupAnnotationCacheParser(optionalGroup);
 
 		JannovarBaseOptions.setupParser(subParser);
 	}
 
+	/**
+	 * Add <code>--annotation-cache-size</code> and <code>--annotation-cache-ttl</code> to <code>group</code>
+	 *
+	 * @param group {@link ArgumentGroup} to add the arguments to
+	 */
+	public static void setupAnnotationCacheParser(ArgumentGroup group) {
+		group.addArgument("--annotation-cache-size").type(Long.class).setDefault(0L)
+			.help("Cache the annotations of up to this many distinct variants, useful when the same variants "
+				+ "are annotated repeatedly; 0 to disable");
+		group.addArgument("--annotation-cache-ttl").type(Long.class).setDefault(0L)
+			.help("Number of seconds after which cached annotations expire; 0 for no expiry");
+	}
+
 
 	@Override
 	public void setFromArgs(Namespace args) throws CommandLineParsingException {
@@ -59,6 +84,33 @@ public class JannovarAnnotationOptions extends JannovarBaseOptions {
 		nt3PrimeShifting = !args.getBoolean("3_prime_shifting");
 		databaseFilePath = args.getString("database");
 		showAll = args.getBoolean("show_all");
+		// not all subcommands offer the cache
+		if (args.get("annotation_cache_size") != null)
+			annotationCacheSize = args.getLong("annotation_cache_size");
+		if (args.get("annotation_cache_ttl") != null)
+			annotationCacheTTL = args.getLong("annotation_cache_ttl");
+		checkAnnotationCacheArgs(annotationCacheSize, annotationCacheTTL);
+	}
+
+	/**
+	 * Check values of <code>--annotation-cache-size</code> and <code>--annotation-cache-ttl</code>
+	 *
+	 * @throws CommandLineParsingException if a value is negative
+	 */
+	public static void checkAnnotationCacheArgs(long size, long ttl) throws CommandLineParsingException {
+		if (size < 0)
+			throw new CommandLineParsingException("--annotation-cache-size must not be negative");
+		if (ttl < 0)
+			throw new CommandLineParsingException("--annotation-cache-ttl must not be negative");
+	}
+
+	/**
+	 * @return new {@link VariantAnnotationsCache} as configured, <code>null</code> if caching is disabled
+	 */
+	public VariantAnnotationsCache buildAnnotationsCache() {
+		if (annotationCacheSize == 0)
+			return null;
+		return new VariantAnnotationsCache(annotationCacheSize, annotationCacheTTL);
 	}
 
 	public boolean isUseThreeLetterAminoAcidCode() {
@@ -93,11 +145,28 @@ public class JannovarAnnotationOptions extends JannovarBaseOptions {
 		this.showAll = showAll;
 	}
 
+	public long getAnnotationCacheSize() {
+		return annotationCacheSize;
+	}
+
+	public void setAnnotationCacheSize(long annotationCacheSize) {
+		this.annotationCacheSize = annotationCacheSize;
+	}
+
+	public long getAnnotationCacheTTL() {
+		return annotationCacheTTL;
+	}
+
+	public void setAnnotationCacheTTL(long annotationCacheTTL) {
+		this.annotationCacheTTL = annotationCacheTTL;
+	}
+
 	@Override
 	public String toString() {
 		return "JannovarAnnotationOptions [useThreeLetterAminoAcidCode=" + useThreeLetterAminoAcidCode
 			+ ", nt3PrimeShifting=" + nt3PrimeShifting + ", showAll=" + showAll + ", databaseFilePath="
-			+ databaseFilePath + ", toString()=" + super.toString() + "]";
+			+ databaseFilePath + ", annotationCacheSize=" + annotationCacheSize + ", annotationCacheTTL="
+			+ annotationCacheTTL + ", toString()=" + super.toString() + "]";
 	}
 
 }
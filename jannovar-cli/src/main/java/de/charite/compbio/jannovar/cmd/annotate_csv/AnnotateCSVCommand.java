@@ -59,7 +59,8 @@ public class AnnotateCSVCommand extends JannovarAnnotationCommand {
 		System.err.println("Deserializing transcripts...");
 		deserializeTranscriptDefinitionFile(options.getDatabaseFilePath());
 
-		final VariantAnnotator annotator = new VariantAnnotator(refDict, chromosomeMap, new AnnotationBuilderOptions());
+		final VariantAnnotator annotator = new VariantAnnotator(refDict, chromosomeMap, new AnnotationBuilderOptions(),
+			options.buildAnnotationsCache());
 
 		try {
 			Reader in = new FileReader(options.getCsv());
@@ -111,6 +112,8 @@ public class AnnotateCSVCommand extends JannovarAnnotationCommand {
 			}
 			parser.close();
 			printer.close();
+			if (annotator.getCache() != null)
+				System.err.println(annotator.getCache());
 		} catch (IOException e1) {
 			e1.printStackTrace();
 			throw new JannovarException(e1.getMessage());
@@ -51,7 +51,8 @@ public class AnnotatePositionCommand extends JannovarAnnotationCommand {
 		System.err.println("Deserializing transcripts...");
 		deserializeTranscriptDefinitionFile(options.getDatabaseFilePath());
 
-		final VariantAnnotator annotator = new VariantAnnotator(refDict, chromosomeMap, new AnnotationBuilderOptions());
+		final VariantAnnotator annotator = new VariantAnnotator(refDict, chromosomeMap, new AnnotationBuilderOptions(),
+			options.buildAnnotationsCache());
 		System.out.println("#change\teffect\thgvs_annotation\tmessages");
 		for (String chromosomalChange : options.getGenomicChanges()) {
 			// Parse the chromosomal change string into a GenomeChange object.
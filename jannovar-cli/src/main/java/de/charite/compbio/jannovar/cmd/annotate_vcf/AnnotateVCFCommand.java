@@ -4,12 +4,14 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import de.charite.compbio.jannovar.Jannovar;
 import de.charite.compbio.jannovar.JannovarException;
+import de.charite.compbio.jannovar.annotation.VariantAnnotationsCache;
 import de.charite.compbio.jannovar.cmd.CommandLineParsingException;
 import de.charite.compbio.jannovar.cmd.JannovarAnnotationCommand;
 import de.charite.compbio.jannovar.cmd.annotate_vcf.JannovarAnnotateVCFOptions.BedAnnotationOptions;
 import de.charite.compbio.jannovar.filter.facade.*;
 import de.charite.compbio.jannovar.filter.impl.var.VariantThresholdFilterAnnotator;
 import de.charite.compbio.jannovar.hgvs.AminoAcidCode;
+import de.charite.compbio.jannovar.htsjdk.SampleIndex;
 import de.charite.compbio.jannovar.htsjdk.VariantContextAnnotator;
 import de.charite.compbio.jannovar.htsjdk.VariantContextWriterConstructionHelper;
 import de.charite.compbio.jannovar.htsjdk.VariantEffectHeaderExtender;
@@ -20,13 +22,10 @@ import de.charite.compbio.jannovar.pedigree.*;
 import de.charite.compbio.jannovar.progress.GenomeRegionListFactoryFromSAMSequenceDictionary;
 import de.charite.compbio.jannovar.progress.ProgressReporter;
 import de.charite.compbio.jannovar.vardbs.base.DBAnnotationOptions;
-import de.charite.compbio.jannovar.vardbs.base.DBAnnotationOptions.MultipleMatchBehaviour;
 import de.charite.compbio.jannovar.vardbs.facade.DBVariantContextAnnotator;
 import de.charite.compbio.jannovar.vardbs.facade.DBVariantContextAnnotatorFactory;
 import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVAnnotationDriver;
 import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVAnnotationOptions;
-import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVAnnotationTarget;
-import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVValueColumnDescription;
 import de.charite.compbio.jannovar.vardbs.generic_vcf.GenericVCFAnnotationDriver;
 import de.charite.compbio.jannovar.vardbs.generic_vcf.GenericVCFAnnotationOptions;
 import htsjdk.samtools.SAMSequenceDictionary;
@@ -43,11 +42,10 @@ import net.sourceforge.argparse4j.inf.Namespace;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Run annotation steps (read in VCF, write out VCF or Jannovar file format).
@@ -72,6 +70,11 @@ public class AnnotateVCFCommand extends JannovarAnnotationCommand {
 	 */
 	private JannovarAnnotateVCFOptions options;
 
+	/**
+	 * Cache for the variant annotations, shared by all threads, <code>null</code> if disabled
+	 */
+	private VariantAnnotationsCache annotationsCache = null;
+
 	public AnnotateVCFCommand(String[] argv, Namespace args) throws CommandLineParsingException {
 		this.argv = argv;
 		this.options = new JannovarAnnotateVCFOptions();
@@ -91,6 +94,7 @@ public class AnnotateVCFCommand extends JannovarAnnotationCommand {
 
 		System.err.println("Deserializing transcripts...");
 		deserializeTranscriptDefinitionFile(options.getDatabaseFilePath());
+		annotationsCache = options.buildAnnotationsCache();
 
 		final String vcfPath = options.getPathInputVCF();
 
@@ -137,150 +141,13 @@ public class AnnotateVCFCommand extends JannovarAnnotationCommand {
 				iter = vcfReader.iterator();
 			}
 
-			// Obtain Java 8 stream from iterator
-			Stream<VariantContext> stream = iter.stream();
-
-			// If configured, annotate using dbSNP VCF file (extend header to
-			// use for writing out)
-			if (options.pathVCFDBSNP != null) {
-				DBAnnotationOptions dbSNPOptions = DBAnnotationOptions.createDefaults();
-				dbSNPOptions.setIdentifierPrefix(options.prefixDBSNP);
-				DBVariantContextAnnotator dbSNPAnno = new DBVariantContextAnnotatorFactory()
-					.constructDBSNP(options.pathVCFDBSNP, options.pathFASTARef, dbSNPOptions);
-				dbSNPAnno.extendHeader(vcfHeader);
-				stream = stream.map(dbSNPAnno::annotateVariantContext);
-			}
-
-			// If configured, annotate using ExAC VCF file (extend header to use
-			// for writing out)
-			if (options.pathVCFExac != null) {
-				DBAnnotationOptions exacOptions = DBAnnotationOptions.createDefaults();
-				exacOptions.setIdentifierPrefix(options.prefixExac);
-				DBVariantContextAnnotator exacAnno = new DBVariantContextAnnotatorFactory()
-					.constructExac(options.pathVCFExac, options.pathFASTARef, exacOptions);
-				exacAnno.extendHeader(vcfHeader);
-				stream = stream.map(exacAnno::annotateVariantContext);
-			}
-
-			// If configured, annotate using gnomAD exomes VCF file (extend
-			// header to use for
-			// writing out)
-			if (options.pathVCFGnomadExomes != null) {
-				DBAnnotationOptions gnomadOptions = DBAnnotationOptions.createDefaults();
-				gnomadOptions.setIdentifierPrefix(options.prefixGnomadExomes);
-				DBVariantContextAnnotator gnomadExomesAnno = new DBVariantContextAnnotatorFactory()
-					.constructGnomad(options.pathVCFGnomadExomes, options.pathFASTARef,
-						gnomadOptions);
-				gnomadExomesAnno.extendHeader(vcfHeader);
-				stream = stream.map(gnomadExomesAnno::annotateVariantContext);
-			}
-
-			// If configured, annotate using gnomAD genomes VCF file (extend
-			// header to use for
-			// writing out)
-			if (options.pathVCFGnomadGenomes != null) {
-				DBAnnotationOptions gnomadOptions = DBAnnotationOptions.createDefaults();
-				gnomadOptions.setIdentifierPrefix(options.prefixGnomadGenomes);
-				DBVariantContextAnnotator gnomadGenomesAnno = new DBVariantContextAnnotatorFactory()
-					.constructGnomad(options.pathVCFGnomadGenomes, options.pathFASTARef,
-						gnomadOptions);
-				gnomadGenomesAnno.extendHeader(vcfHeader);
-				stream = stream.map(gnomadGenomesAnno::annotateVariantContext);
-			}
-
-			// If configured, annotate using thousand genomes VCF file (extend
-			// header to use for writing out)
-			if (options.pathThousandGenomes != null) {
-				DBAnnotationOptions thousandGenomesOptions = DBAnnotationOptions.createDefaults();
-				thousandGenomesOptions.setIdentifierPrefix(options.prefixThousandGenomes);
-				DBVariantContextAnnotator thousandGenomesAnno = new DBVariantContextAnnotatorFactory()
-					.constructThousandGenomes(options.pathThousandGenomes, options.pathFASTARef,
-						thousandGenomesOptions);
-				thousandGenomesAnno.extendHeader(vcfHeader);
-				stream = stream.map(thousandGenomesAnno::annotateVariantContext);
-			}
-
-			// If configured, annotate using UK10K VCF file (extend header to
-			// use for writing out)
-			if (options.pathVCFUK10K != null) {
-				DBAnnotationOptions exacOptions = DBAnnotationOptions.createDefaults();
-				exacOptions.setIdentifierPrefix(options.prefixUK10K);
-				DBVariantContextAnnotator uk10kAnno = new DBVariantContextAnnotatorFactory()
-					.constructUK10K(options.pathVCFUK10K, options.pathFASTARef, exacOptions);
-				uk10kAnno.extendHeader(vcfHeader);
-				stream = stream.map(uk10kAnno::annotateVariantContext);
-			}
-
-			// If configured, annotate using ClinVar VCF file (extend header to
-			// use for writing out)
-			if (options.pathClinVar != null) {
-				DBAnnotationOptions clinVarOptions = DBAnnotationOptions.createDefaults();
-				clinVarOptions.setIdentifierPrefix(options.prefixClinVar);
-				DBVariantContextAnnotator clinvarAnno = new DBVariantContextAnnotatorFactory()
-					.constructClinVar(options.pathClinVar, options.pathFASTARef,
-						clinVarOptions);
-				clinvarAnno.extendHeader(vcfHeader);
-				stream = stream.map(clinvarAnno::annotateVariantContext);
-			}
-
-			// If configured, annotate using COSMIC VCF file (extend header to
-			// use for writing out)
-			if (options.pathCosmic != null) {
-				DBAnnotationOptions cosmicOptions = DBAnnotationOptions.createDefaults();
-				cosmicOptions.setIdentifierPrefix(options.prefixCosmic);
-				DBVariantContextAnnotator cosmicAnno = new DBVariantContextAnnotatorFactory()
-					.constructCosmic(options.pathCosmic, options.pathFASTARef, cosmicOptions);
-				cosmicAnno.extendHeader(vcfHeader);
-				stream = stream.map(cosmicAnno::annotateVariantContext);
-			}
-
-			// Add step for annotating with variant effect
-			VariantEffectHeaderExtender extender = new VariantEffectHeaderExtender();
-			extender.addHeaders(vcfHeader);
-			VariantContextAnnotator variantEffectAnnotator = new VariantContextAnnotator(refDict,
-				chromosomeMap,
-				new VariantContextAnnotator.Options(!options.isShowAll(),
-					(options.isUseThreeLetterAminoAcidCode() ? AminoAcidCode.THREE_LETTER
-						: AminoAcidCode.ONE_LETTER),
-					options.isEscapeAnnField(), options.isNt3PrimeShifting(),
-					options.isOffTargetFilterEnabled(),
-					options.isOffTargetFilterUtrIsOffTarget(),
-					options.isOffTargetFilterIntronicSpliceIsOffTarget()));
-			stream = stream.map(variantEffectAnnotator::annotateVariantContext);
-
-			// If configured, use threshold-based annotation (extend header to
-			// use for writing out)
+			// Load pedigree and build list of affecteds for the threshold filter; take from pedigree
+			// file if given. Otherwise, assume one single individual is always affected and otherwise
+			// warn about missing pedigree.
+			Pedigree pedigree = null;
 			ArrayList<String> affecteds = new ArrayList<>();
 			if (options.useThresholdFilters) {
-				// Build options object for threshold filter
-				ThresholdFilterOptions thresholdFilterOptions = new ThresholdFilterOptions(
-					options.getThreshFiltMinGtCovHet(), options.getThreshFiltMinGtCovHomAlt(),
-					options.getThreshFiltMaxCov(), options.getThreshFiltMinGtGq(),
-					options.getThreshFiltMinGtAafHet(), options.getThreshFiltMaxGtAafHet(),
-					options.getThreshFiltMinGtAafHomAlt(),
-					options.getThreshFiltMaxGtAafHomRef(), options.getPrefixExac(),
-					options.getPrefixDBSNP(), options.getPrefixGnomadGenomes(),
-					options.getPrefixGnomadExomes(),
-					options.getPrefixThousandGenomes(),
-					options.getThreshFiltMaxAlleleFrequencyAd(),
-					options.getThreshFiltMaxAlleleFrequencyAr(),
-					options.getThreshFiltMaxExacHomAlt(),
-					options.getThreshFiltMaxThousandGenomesHomAlt());
-				// Add headers
-				new ThresholdFilterHeaderExtender(thresholdFilterOptions).addHeaders(vcfHeader);
-				// Build list of affecteds; take from pedigree file if given.
-				// Otherwise, assume one single individual is always affected and otherwise warn
-				// about missing pedigree.
-				if (options.pathPedFile == null) {
-					if (vcfHeader.getNGenotypeSamples() == 1) {
-						System.err.println(
-							"INFO: No pedigree file given and single individual. Assuming it is affected for the threshold filter");
-					} else {
-						System.err.println(
-							"WARNING: no pedigree file given. Threshold filter will not annotate FILTER field, only genotype FT");
-					}
-				} else {
-					Pedigree pedigree;
+				if (options.pathPedFile != null || options.useAdvancedPedigreeFilters) {
 					try {
 						pedigree = loadPedigree(vcfHeader);
 					} catch (IOException e) {
@@ -290,6 +157,16 @@ public class AnnotateVCFCommand extends JannovarAnnotationCommand {
 						e.printStackTrace(System.err);
 						return;
 					}
+				}
+				if (options.pathPedFile == null) {
+					if (vcfHeader.getNGenotypeSamples() == 1) {
+						System.err.println(
+							"INFO: No pedigree file given and single individual. Assuming it is affected for the threshold filter");
+					} else {
+						System.err.println(
+							"WARNING: no pedigree file given. Threshold filter will not annotate FILTER field, only genotype FT");
+					}
+				} else {
 					for (Person person : pedigree.getMembers()) {
 						if (person.isAffected())
 							affecteds.add(person.getName());
@@ -300,94 +177,14 @@ public class AnnotateVCFCommand extends JannovarAnnotationCommand {
 								+ "only genotype FT");
 					}
 				}
-				GenotypeThresholdFilterAnnotator gtThresholdFilterAnno = new GenotypeThresholdFilterAnnotator(
-					thresholdFilterOptions);
-				stream = stream.map(gtThresholdFilterAnno::annotateVariantContext);
-
-				// When configured to use advanced pedigree filters (must come
-				// after threshold-based filtration)
-				if (options.useAdvancedPedigreeFilters) {
-					// Build options object from configuration and extend headers
-					PedigreeFilterOptions pedFilterOptions = new PedigreeFilterOptions(
-						options.getThreshDeNovoParentAd2(), options.isUseParentGtIsFiltered(),
-						options.isOneParentGtFilteredFiltersAffected());
-					new PedigreeFilterHeaderExtender(pedFilterOptions).addHeaders(vcfHeader);
-
-					// Load pedigree
-					Pedigree pedigree;
-					try {
-						pedigree = loadPedigree(vcfHeader);
-					} catch (IOException e) {
-						System.err.println("Problem loading pedigree from " + options.pathPedFile);
-						System.err.println(e.getMessage());
-						System.err.println("\n");
-						e.printStackTrace(System.err);
-						return;
-					}
-
-					// Construct annotator and register with pipeline
-					PedigreeFilterAnnotator pedFilterAnnotator = new PedigreeFilterAnnotator(
-						pedFilterOptions, pedigree);
-					stream = stream.map(pedFilterAnnotator::annotateVariantContext);
-				}
-
-				if (options.useThresholdFilters) {
-					VariantThresholdFilterAnnotator varThresholdFilterAnno = new VariantThresholdFilterAnnotator(
-						thresholdFilterOptions, affecteds);
-					stream = stream.map(varThresholdFilterAnno::annotateVariantContext);
-				}
-			}
-
-			// Annotate from BED files
-			List<BedFileAnnotator> bedFileAnnotators = new ArrayList<>();
-			for (BedAnnotationOptions bedAnnotationOptions : options.getBedAnnotationOptions()) {
-				BedFileAnnotator annotator = new BedFileAnnotator(bedAnnotationOptions);
-				bedFileAnnotators.add(annotator);
-				annotator.extendHeader(vcfHeader);
-				stream = stream.map(annotator::annotateVariantContext);
-			}
-
-			// Annotate using dbNSFP
-			GenericTSVAnnotationDriver dbNsfpAnnotator;
-			if (options.getPathDbNsfp() != null) {
-				Map<String, GenericTSVValueColumnDescription> descriptions = new HashMap<>();
-				for (String colName : options.getColumnsDbNsfp()) {
-					descriptions.put(colName, DbNsfpFields.DBNSFP_FIELDS.get(colName));
-				}
-				GenericTSVAnnotationOptions dbNsfpAnnotationOptions = new GenericTSVAnnotationOptions(
-					true, false, options.getPrefixDbNsfp(), MultipleMatchBehaviour.BEST_ONLY,
-					new File(options.getPathDbNsfp()), GenericTSVAnnotationTarget.VARIANT, true,
-					options.getDbNsfpColContig(), options.getDbNsfpColPosition(),
-					options.getDbNsfpColPosition(), 3, 4, false, options.getColumnsDbNsfp(),
-					descriptions);
-				dbNsfpAnnotator = new GenericTSVAnnotationDriver(options.getPathFASTARef(),
-					dbNsfpAnnotationOptions);
-				dbNsfpAnnotator.constructVCFHeaderExtender().addHeaders(vcfHeader);
-				stream = stream.map(dbNsfpAnnotator::annotateVariantContext);
-			}
-
-			// Annotate from generic TSV files
-			List<GenericTSVAnnotationDriver> tsvAnnotators = new ArrayList<>();
-			for (GenericTSVAnnotationOptions tsvAnnotationOptions : options
-				.getTsvAnnotationOptions()) {
-				GenericTSVAnnotationDriver annotator = new GenericTSVAnnotationDriver(
-					options.getPathFASTARef(), tsvAnnotationOptions);
-				tsvAnnotators.add(annotator);
-				annotator.constructVCFHeaderExtender().addHeaders(vcfHeader);
-				stream = stream.map(annotator::annotateVariantContext);
 			}
 
-			// Annotate from generic VCF files
-			List<GenericVCFAnnotationDriver> vcfAnnotators = new ArrayList<>();
-			for (GenericVCFAnnotationOptions vcfAnnotationOptions : options
-				.getVcfAnnotationOptions()) {
-				GenericVCFAnnotationDriver annotator = new GenericVCFAnnotationDriver(
-					vcfAnnotationOptions.getPathVcfFile(), options.getPathFASTARef(),
-					vcfAnnotationOptions);
-				vcfAnnotators.add(annotator);
-				annotator.constructVCFHeaderExtender().addHeaders(vcfHeader);
-				stream = stream.map(annotator::annotateVariantContext);
-			}
+			// Build annotation steps, extending the header for writing out. When running with multiple
+			// threads, the first worker thread uses these steps and each further one builds its own steps
+			// against a scratch copy of the header as the database readers are not safe for concurrent
+			// queries.
+			final Pedigree stepsPedigree = pedigree;
+			final AnnotationSteps steps = buildAnnotationSteps(vcfHeader, stepsPedigree, affecteds);
 
 			// Extend header with INHERITANCE filter
 			if (options.pathPedFile != null || options.annotateAsSingletonPedigree) {
@@ -401,19 +198,38 @@ public class AnnotateVCFCommand extends JannovarAnnotationCommand {
 				new VCFHeaderLine("jannovarCommand", Joiner.on(' ').join(argv)));
 
 			// Construct VariantContextWriter and start annotationg pipeline
-			try (VariantContextWriter vcfWriter = VariantContextWriterConstructionHelper
-				.openVariantContextWriter(vcfHeader, options.getPathOutputVCF(), jvHeaderLines);
+			try (AnnotationSteps closedSteps = steps;
+				 VariantContextWriter vcfWriter = VariantContextWriterConstructionHelper
+				.openVariantContextWriter(vcfHeader, options.getPathOutputVCF(), jvHeaderLines, false,
+					options.getNumThreads());
 				 VariantContextProcessor sink = buildMendelianProcessors(vcfWriter, vcfHeader)) {
 				// Make current VC available to progress printer
-				if (this.progressReporter != null)
-					stream = stream.peek(vc -> this.progressReporter.setCurrentVC(vc));
-
-				stream.forEachOrdered(sink::put);
+				final Consumer<VariantContext> consumer = vc -> {
+					if (this.progressReporter != null)
+						this.progressReporter.setCurrentVC(vc);
+					sink.put(vc);
+				};
+
+				if (options.getNumThreads() > 1) {
+					System.err.println("Annotating with " + options.getNumThreads() + " threads...");
+					final VCFHeader scratchHeader = new VCFHeader(vcfHeader);
+					final AtomicReference<AnnotationSteps> unusedSteps = new AtomicReference<>(steps);
+					new ParallelAnnotationPipeline(options.getNumThreads(), options.getChunkSize(), () -> {
+						final AnnotationSteps mainSteps = unusedSteps.getAndSet(null);
+						if (mainSteps != null)
+							return mainSteps;
+						return buildAnnotationSteps(new VCFHeader(scratchHeader), stepsPedigree, affecteds);
+					}).run(iter, consumer);
+				} else {
+					iter.stream().map(steps).forEachOrdered(consumer);
+				}
 			} catch (IOException e) {
 				throw new JannovarException("Problem opening file", e);
 			}
 
 			System.err.println("Wrote annotations to \"" + options.getPathOutputVCF() + "\"");
+			if (annotationsCache != null)
+				System.err.println(annotationsCache);
 			final long endTime = System.nanoTime();
 			System.err.println(String.format("Annotation and writing took %.2f sec.",
 				(endTime - startTime) / 1000.0 / 1000.0 / 1000.0));
@@ -441,6 +257,228 @@ public class AnnotateVCFCommand extends JannovarAnnotationCommand {
 			progressReporter.done();
 	}
 
+	/**
+	 * Build chain of annotation steps as configured in {@link #options}
+	 *
+	 * @param vcfHeader {@link VCFHeader} to extend with the header lines for the annotation steps
+	 * @param pedigree  {@link Pedigree} to use for the advanced pedigree filters, <code>null</code> if not used
+	 * @param affecteds names of the affected individuals, for the threshold filter
+	 * @return {@link AnnotationSteps} applying all annotation steps, in order, to close after use
+	 * @throws JannovarException on problems constructing the database annotators
+	 */
+	private AnnotationSteps buildAnnotationSteps(VCFHeader vcfHeader, Pedigree pedigree, List<String> affecteds)
+		throws JannovarException {
+		final AnnotationSteps steps = new AnnotationSteps();
+
+		// If configured, annotate using dbSNP VCF file (extend header to
+		// use for writing out)
+		if (options.pathVCFDBSNP != null) {
+			DBAnnotationOptions dbSNPOptions = DBAnnotationOptions.createDefaults();
+			dbSNPOptions.setIdentifierPrefix(options.prefixDBSNP);
+			dbSNPOptions.setStreamingQueries(options.isStreamingDBQueries());
+			DBVariantContextAnnotator dbSNPAnno = new DBVariantContextAnnotatorFactory()
+				.constructDBSNP(options.pathVCFDBSNP, options.pathFASTARef, dbSNPOptions);
+			dbSNPAnno.extendHeader(vcfHeader);
+			steps.then(dbSNPAnno::annotateVariantContext, dbSNPAnno);
+		}
+
+		// If configured, annotate using ExAC VCF file (extend header to use
+		// for writing out)
+		if (options.pathVCFExac != null) {
+			DBAnnotationOptions exacOptions = DBAnnotationOptions.createDefaults();
+			exacOptions.setIdentifierPrefix(options.prefixExac);
+			exacOptions.setStreamingQueries(options.isStreamingDBQueries());
+			DBVariantContextAnnotator exacAnno = new DBVariantContextAnnotatorFactory()
+				.constructExac(options.pathVCFExac, options.pathFASTARef, exacOptions);
+			exacAnno.extendHeader(vcfHeader);
+			steps.then(exacAnno::annotateVariantContext, exacAnno);
+		}
+
+		// If configured, annotate using gnomAD exomes VCF file (extend
+		// header to use for
+		// writing out)
+		if (options.pathVCFGnomadExomes != null) {
+			DBAnnotationOptions gnomadOptions = DBAnnotationOptions.createDefaults();
+			gnomadOptions.setIdentifierPrefix(options.prefixGnomadExomes);
+			gnomadOptions.setStreamingQueries(options.isStreamingDBQueries());
+			DBVariantContextAnnotator gnomadExomesAnno = new DBVariantContextAnnotatorFactory()
+				.constructGnomad(options.pathVCFGnomadExomes, options.pathFASTARef,
+					gnomadOptions);
+			gnomadExomesAnno.extendHeader(vcfHeader);
+			steps.then(gnomadExomesAnno::annotateVariantContext, gnomadExomesAnno);
+		}
+
+		// If configured, annotate using gnomAD genomes VCF file (extend
+		// header to use for
+		// writing out)
+		if (options.pathVCFGnomadGenomes != null) {
+			DBAnnotationOptions gnomadOptions = DBAnnotationOptions.createDefaults();
+			gnomadOptions.setIdentifierPrefix(options.prefixGnomadGenomes);
+			gnomadOptions.setStreamingQueries(options.isStreamingDBQueries());
+			DBVariantContextAnnotator gnomadGenomesAnno = new DBVariantContextAnnotatorFactory()
+				.constructGnomad(options.pathVCFGnomadGenomes, options.pathFASTARef,
+					gnomadOptions);
+			gnomadGenomesAnno.extendHeader(vcfHeader);
+			steps.then(gnomadGenomesAnno::annotateVariantContext, gnomadGenomesAnno);
+		}
+
+		// If configured, annotate using thousand genomes VCF file (extend
+		// header to use for writing out)
+		if (options.pathThousandGenomes != null) {
+			DBAnnotationOptions thousandGenomesOptions = DBAnnotationOptions.createDefaults();
+			thousandGenomesOptions.setIdentifierPrefix(options.prefixThousandGenomes);
+			thousandGenomesOptions.setStreamingQueries(options.isStreamingDBQueries());
+			DBVariantContextAnnotator thousandGenomesAnno = new DBVariantContextAnnotatorFactory()
+				.constructThousandGenomes(options.pathThousandGenomes, options.pathFASTARef,
+					thousandGenomesOptions);
+			thousandGenomesAnno.extendHeader(vcfHeader);
+			steps.then(thousandGenomesAnno::annotateVariantContext, thousandGenomesAnno);
+		}
+
+		// If configured, annotate using UK10K VCF file (extend header to
+		// use for writing out)
+		if (options.pathVCFUK10K != null) {
+			DBAnnotationOptions exacOptions = DBAnnotationOptions.createDefaults();
+			exacOptions.setIdentifierPrefix(options.prefixUK10K);
+			exacOptions.setStreamingQueries(options.isStreamingDBQueries());
+			DBVariantContextAnnotator uk10kAnno = new DBVariantContextAnnotatorFactory()
+				.constructUK10K(options.pathVCFUK10K, options.pathFASTARef, exacOptions);
+			uk10kAnno.extendHeader(vcfHeader);
+			steps.then(uk10kAnno::annotateVariantContext, uk10kAnno);
+		}
+
+		// If configured, annotate using ClinVar VCF file (extend header to
+		// use for writing out)
+		if (options.pathClinVar != null) {
+			DBAnnotationOptions clinVarOptions = DBAnnotationOptions.createDefaults();
+			clinVarOptions.setIdentifierPrefix(options.prefixClinVar);
+			clinVarOptions.setStreamingQueries(options.isStreamingDBQueries());
+			DBVariantContextAnnotator clinvarAnno = new DBVariantContextAnnotatorFactory()
+				.constructClinVar(options.pathClinVar, options.pathFASTARef,
+					clinVarOptions);
+			clinvarAnno.extendHeader(vcfHeader);
+			steps.then(clinvarAnno::annotateVariantContext, clinvarAnno);
+		}
+
+		// If configured, annotate using COSMIC VCF file (extend header to
+		// use for writing out)
+		if (options.pathCosmic != null) {
+			DBAnnotationOptions cosmicOptions = DBAnnotationOptions.createDefaults();
+			cosmicOptions.setIdentifierPrefix(options.prefixCosmic);
+			cosmicOptions.setStreamingQueries(options.isStreamingDBQueries());
+			DBVariantContextAnnotator cosmicAnno = new DBVariantContextAnnotatorFactory()
+				.constructCosmic(options.pathCosmic, options.pathFASTARef, cosmicOptions);
+			cosmicAnno.extendHeader(vcfHeader);
+			steps.then(cosmicAnno::annotateVariantContext, cosmicAnno);
+		}
+
+		// Add step for annotating with variant effect
+		VariantEffectHeaderExtender extender = new VariantEffectHeaderExtender();
+		extender.addHeaders(vcfHeader);
+		VariantContextAnnotator variantEffectAnnotator = new VariantContextAnnotator(refDict,
+			chromosomeMap,
+			new VariantContextAnnotator.Options(!options.isShowAll(),
+				(options.isUseThreeLetterAminoAcidCode() ? AminoAcidCode.THREE_LETTER
+					: AminoAcidCode.ONE_LETTER),
+				options.isEscapeAnnField(), options.isNt3PrimeShifting(),
+				options.isOffTargetFilterEnabled(),
+				options.isOffTargetFilterUtrIsOffTarget(),
+				options.isOffTargetFilterIntronicSpliceIsOffTarget()),
+			annotationsCache);
+		steps.then(variantEffectAnnotator::annotateVariantContext);
+
+		// If configured, use threshold-based annotation (extend header to
+		// use for writing out)
+		if (options.useThresholdFilters) {
+			// Build options object for threshold filter
+			ThresholdFilterOptions thresholdFilterOptions = new ThresholdFilterOptions(
+				options.getThreshFiltMinGtCovHet(), options.getThreshFiltMinGtCovHomAlt(),
+				options.getThreshFiltMaxCov(), options.getThreshFiltMinGtGq(),
+				options.getThreshFiltMinGtAafHet(), options.getThreshFiltMaxGtAafHet(),
+				options.getThreshFiltMinGtAafHomAlt(),
+				options.getThreshFiltMaxGtAafHomRef(), options.getPrefixExac(),
+				options.getPrefixDBSNP(), options.getPrefixGnomadGenomes(),
+				options.getPrefixGnomadExomes(),
+				options.getPrefixThousandGenomes(),
+				options.getThreshFiltMaxAlleleFrequencyAd(),
+				options.getThreshFiltMaxAlleleFrequencyAr(),
+				options.getThreshFiltMaxExacHomAlt(),
+				options.getThreshFiltMaxThousandGenomesHomAlt());
+			// Add headers
+			new ThresholdFilterHeaderExtender(thresholdFilterOptions).addHeaders(vcfHeader);
+			GenotypeThresholdFilterAnnotator gtThresholdFilterAnno = new GenotypeThresholdFilterAnnotator(
+				thresholdFilterOptions, vcfHeader);
+			steps.then(gtThresholdFilterAnno::annotateVariantContext);
+
+			// When configured to use advanced pedigree filters (must come
+			// after threshold-based filtration)
+			if (options.useAdvancedPedigreeFilters) {
+				// Build options object from configuration and extend headers
+				PedigreeFilterOptions pedFilterOptions = new PedigreeFilterOptions(
+					options.getThreshDeNovoParentAd2(), options.isUseParentGtIsFiltered(),
+					options.isOneParentGtFilteredFiltersAffected());
+				new PedigreeFilterHeaderExtender(pedFilterOptions).addHeaders(vcfHeader);
+
+				// Construct annotator and register with pipeline
+				PedigreeFilterAnnotator pedFilterAnnotator = new PedigreeFilterAnnotator(
+					pedFilterOptions, pedigree);
+				steps.then(pedFilterAnnotator::annotateVariantContext);
+			}
+
+			if (options.useThresholdFilters) {
+				VariantThresholdFilterAnnotator varThresholdFilterAnno = new VariantThresholdFilterAnnotator(
+					thresholdFilterOptions, affecteds, new SampleIndex(vcfHeader));
+				steps.then(varThresholdFilterAnno::annotateVariantContext);
+			}
+		}
+
+		// Annotate from BED files
+		List<BedFileAnnotator> bedFileAnnotators = new ArrayList<>();
+		for (BedAnnotationOptions bedAnnotationOptions : options.getBedAnnotationOptions()) {
+			BedFileAnnotator annotator = new BedFileAnnotator(bedAnnotationOptions);
+			bedFileAnnotators.add(annotator);
+			annotator.extendHeader(vcfHeader);
+			steps.then(annotator::annotateVariantContext, annotator);
+		}
+
+		// Annotate using dbNSFP
+		GenericTSVAnnotationDriver dbNsfpAnnotator;
+		if (options.getPathDbNsfp() != null) {
+			GenericTSVAnnotationOptions dbNsfpAnnotationOptions = DbNsfpFields.buildAnnotationOptions(
+				options.getPathDbNsfp(), options.getPrefixDbNsfp(), options.getDbNsfpColContig(),
+				options.getDbNsfpColPosition(), options.getColumnsDbNsfp());
+			dbNsfpAnnotator = new GenericTSVAnnotationDriver(options.getPathFASTARef(),
+				dbNsfpAnnotationOptions);
+			dbNsfpAnnotator.constructVCFHeaderExtender().addHeaders(vcfHeader);
+			steps.then(dbNsfpAnnotator::annotateVariantContext, dbNsfpAnnotator);
+		}
+
+		// Annotate from generic TSV files
+		List<GenericTSVAnnotationDriver> tsvAnnotators = new ArrayList<>();
+		for (GenericTSVAnnotationOptions tsvAnnotationOptions : options
+			.getTsvAnnotationOptions()) {
+			GenericTSVAnnotationDriver annotator = new GenericTSVAnnotationDriver(
+				options.getPathFASTARef(), tsvAnnotationOptions);
+			tsvAnnotators.add(annotator);
+			annotator.constructVCFHeaderExtender().addHeaders(vcfHeader);
+			steps.then(annotator::annotateVariantContext, annotator);
+		}
+
+		// Annotate from generic VCF files
+		List<GenericVCFAnnotationDriver> vcfAnnotators = new ArrayList<>();
+		for (GenericVCFAnnotationOptions vcfAnnotationOptions : options
+			.getVcfAnnotationOptions()) {
+			GenericVCFAnnotationDriver annotator = new GenericVCFAnnotationDriver(
+				vcfAnnotationOptions.getPathVcfFile(), options.getPathFASTARef(),
+				vcfAnnotationOptions);
+			vcfAnnotators.add(annotator);
+			annotator.constructVCFHeaderExtender().addHeaders(vcfHeader);
+			steps.then(annotator::annotateVariantContext, annotator);
+		}
+
+		return steps;
+	}
+
 	/**
 	 * Load pedigree from file given in configuration or construct singleton pedigree
 	 *
@@ -485,7 +523,7 @@ public class AnnotateVCFCommand extends JannovarAnnotationCommand {
 			checkPedigreeCompatibility(pedigree, vcfHeader);
 			final GeneWiseMendelianAnnotationProcessor mendelProcessor = new GeneWiseMendelianAnnotationProcessor(
 				pedigree, jannovarData, vc -> writer.add(vc),
-				options.isInheritanceAnnoUseFilters());
+				options.isInheritanceAnnoUseFilters(), options.getNumThreads());
 			return new CoordinateSortingChecker(mendelProcessor);
 		} else {
 			return new ConsumerProcessor(vc -> writer.add(vc));
@@ -0,0 +1,91 @@
+package de.charite.compbio.jannovar.cmd.annotate_vcf;
+
+import htsjdk.variant.variantcontext.VariantContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Chain of annotation steps of <code>annotate-vcf</code>, together with the annotators to close afterwards
+ *
+ * The annotators registered with {@link #then(Function, Closeable)} (e.g., the database annotators with their tabix
+ * and FASTA readers) are closed by {@link #close}, in the reverse order of registration. Closing more than once has
+ * no further effect. Instances are not thread-safe.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class AnnotationSteps implements Function<VariantContext, VariantContext>, Closeable {
+
+	/**
+	 * The steps registered so far, composed in order
+	 */
+	private Function<VariantContext, VariantContext> steps = Function.identity();
+
+	/**
+	 * The annotators to close, in order of registration
+	 */
+	private final List<Closeable> annotators = new ArrayList<>();
+
+	/**
+	 * Whether or not {@link #close} has been called
+	 */
+	private boolean closed = false;
+
+	/**
+	 * Append <code>step</code> to the chain
+	 *
+	 * @param step the annotation step to apply after the ones registered so far
+	 * @return <code>this</code>
+	 */
+	public AnnotationSteps then(Function<VariantContext, VariantContext> step) {
+		steps = steps.andThen(step);
+		return this;
+	}
+
+	/**
+	 * Append <code>step</code> to the chain and close <code>annotator</code> with the chain
+	 *
+	 * @param step      the annotation step to apply after the ones registered so far
+	 * @param annotator the annotator backing <code>step</code>, to close in {@link #close}
+	 * @return <code>this</code>
+	 */
+	public AnnotationSteps then(Function<VariantContext, VariantContext> step, Closeable annotator) {
+		annotators.add(annotator);
+		return then(step);
+	}
+
+	@Override
+	public VariantContext apply(VariantContext vc) {
+		return steps.apply(vc);
+	}
+
+	/**
+	 * Close the registered annotators, in reverse order
+	 *
+	 * @throws RuntimeException on problems closing an annotator, after trying to close all of them
+	 */
+	@Override
+	public void close() {
+		if (closed)
+			return;
+		closed = true;
+
+		RuntimeException error = null;
+		for (int i = annotators.size() - 1; i >= 0; --i) {
+			try {
+				annotators.get(i).close();
+			} catch (IOException | RuntimeException e) {
+				if (error == null)
+					error = new RuntimeException("Could not close annotator", e);
+				else
+					error.addSuppressed(e);
+			}
+		}
+		if (error != null)
+			throw error;
+	}
+
+}
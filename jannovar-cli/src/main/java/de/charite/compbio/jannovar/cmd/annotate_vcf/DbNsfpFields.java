@@ -1,10 +1,18 @@
 package de.charite.compbio.jannovar.cmd.annotate_vcf;
 
 import com.google.common.collect.ImmutableMap;
+import de.charite.compbio.jannovar.vardbs.base.DBAnnotationOptions.MultipleMatchBehaviour;
 import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVAccumulationStrategy;
+import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVAnnotationOptions;
+import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVAnnotationTarget;
 import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVValueColumnDescription;
 import htsjdk.variant.vcf.VCFHeaderLineType;
 
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Configuration for annotation with dbNSFP (v3.4).
  *
@@ -447,4 +455,25 @@ public class DbNsfpFields {
 		DBNSFP_FIELDS = builder.build();
 	}
 
+	/**
+	 * Build {@link GenericTSVAnnotationOptions} for annotation with dbNSFP
+	 *
+	 * @param pathDbNsfp  Path to the dbNSFP TSV file or binary store
+	 * @param prefix      Prefix for the INFO fields
+	 * @param colContig   1-based index of the contig column
+	 * @param colPosition 1-based index of the position column
+	 * @param columns     Names of the columns to annotate with, keys of {@link #DBNSFP_FIELDS}
+	 * @return {@link GenericTSVAnnotationOptions} with the given configuration
+	 */
+	public static GenericTSVAnnotationOptions buildAnnotationOptions(String pathDbNsfp, String prefix, int colContig,
+																	 int colPosition, List<String> columns) {
+		Map<String, GenericTSVValueColumnDescription> descriptions = new HashMap<>();
+		for (String colName : columns) {
+			descriptions.put(colName, DBNSFP_FIELDS.get(colName));
+		}
+		return new GenericTSVAnnotationOptions(true, false, prefix, MultipleMatchBehaviour.BEST_ONLY,
+			new File(pathDbNsfp), GenericTSVAnnotationTarget.VARIANT, true, colContig, colPosition, colPosition, 3, 4,
+			false, columns, descriptions);
+	}
+
 }
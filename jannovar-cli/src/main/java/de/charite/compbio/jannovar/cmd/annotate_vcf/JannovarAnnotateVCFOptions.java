@@ -221,6 +221,21 @@ public class JannovarAnnotateVCFOptions extends JannovarAnnotationOptions {
 	 */
 	private Integer threshDeNovoParentAd2;
 
+	/**
+	 * Number of threads to use for annotation.
+	 */
+	private int numThreads = 1;
+
+	/**
+	 * Number of records to annotate in one chunk when using multiple threads.
+	 */
+	private int chunkSize = 1000;
+
+	/**
+	 * Whether or not to read database VCF files by streaming instead of one indexed query per record.
+	 */
+	private boolean streamingDBQueries = false;
+
 	/**
 	 * Configuration for annotation with BED files.
 	 */
@@ -452,6 +467,14 @@ public class JannovarAnnotateVCFOptions extends JannovarAnnotationOptions {
 			.action(Arguments.storeTrue());
 		optionalGroup.addArgument("--disable-parent-gt-is-filtered").setDefault(true)
 			.dest("use_parent_gt_is_filtered").action(Arguments.storeFalse());
+		optionalGroup.addArgument("--threads").type(Integer.class)
+			.help("Number of threads to use for annotation, output stays in input order").setDefault(1);
+		optionalGroup.addArgument("--chunk-size").type(Integer.class)
+			.help("Number of records to annotate in one chunk when using multiple threads").setDefault(1000);
+		optionalGroup.addArgument("--streaming-db-queries")
+			.help("Read database VCF files by streaming alongside the coordinate-sorted input instead of one "
+				+ "indexed query per record").setDefault(false).action(Arguments.storeTrue());
+		JannovarAnnotationOptions.setupAnnotationCacheParser(optionalGroup);
 
 		JannovarBaseOptions.setupParser(subParser);
 	}
@@ -488,6 +511,13 @@ public class JannovarAnnotateVCFOptions extends JannovarAnnotationOptions {
 			.getBoolean("one_parent_gt_filtered_filters_affected");
 		inheritanceAnnoUseFilters = args.getBoolean("inheritance_anno_use_filters");
 		useParentGtIsFiltered = args.getBoolean("use_parent_gt_is_filtered");
+		numThreads = args.getInt("threads");
+		chunkSize = args.getInt("chunk_size");
+		streamingDBQueries = args.getBoolean("streaming_db_queries");
+		if (numThreads < 1)
+			throw new CommandLineParsingException("Number of threads must be >= 1 but was " + numThreads);
+		if (chunkSize < 1)
+			throw new CommandLineParsingException("Chunk size must be >= 1 but was " + chunkSize);
 
 		dbNsfpColContig = args.getInt("dbnsfp_col_contig");
 		dbNsfpColPosition = args.getInt("dbnsfp_col_position");
@@ -524,7 +554,9 @@ public class JannovarAnnotateVCFOptions extends JannovarAnnotationOptions {
 		if (args.getList("vcf_annotation") != null) {
 			for (Object o : args.getList("vcf_annotation")) {
 				final String s = (String) o;
-				vcfAnnotationOptions.add(GenericVCFAnnotationOptions.parseFrom(s));
+				final GenericVCFAnnotationOptions vcfOptions = GenericVCFAnnotationOptions.parseFrom(s);
+				vcfOptions.setStreamingQueries(streamingDBQueries);
+				vcfAnnotationOptions.add(vcfOptions);
 			}
 		}
 
@@ -949,6 +981,30 @@ public class JannovarAnnotateVCFOptions extends JannovarAnnotationOptions {
 		this.useParentGtIsFiltered = useParentGtIsFiltered;
 	}
 
+	public int getNumThreads() {
+		return numThreads;
+	}
+
+	public void setNumThreads(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	public boolean isStreamingDBQueries() {
+		return streamingDBQueries;
+	}
+
+	public void setStreamingDBQueries(boolean streamingDBQueries) {
+		this.streamingDBQueries = streamingDBQueries;
+	}
+
 	public String getPathThousandGenomes() {
 		return pathThousandGenomes;
 	}
@@ -1013,6 +1069,8 @@ public class JannovarAnnotateVCFOptions extends JannovarAnnotationOptions {
 			+ offTargetFilterIntronicSpliceIsOffTarget + ", oneParentGtFilteredFiltersAffected="
 			+ oneParentGtFilteredFiltersAffected + ", inheritanceAnnoUseFilters="
 			+ inheritanceAnnoUseFilters + ", useParentGtIsFiltered=" + useParentGtIsFiltered
+			+ ", numThreads=" + numThreads + ", chunkSize=" + chunkSize
+			+ ", streamingDBQueries=" + streamingDBQueries
 			+ ", threshDeNovoParentAd2=" + threshDeNovoParentAd2 + ", bedAnnotationOptions="
 			+ bedAnnotationOptions + ", dbNsfpColContig=" + dbNsfpColContig
 			+ ", dbNsfpColPosition=" + dbNsfpColPosition + ", prefixDbNsfp=" + prefixDbNsfp
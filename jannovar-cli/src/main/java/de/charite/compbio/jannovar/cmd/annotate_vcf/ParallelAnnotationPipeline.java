@@ -0,0 +1,189 @@
+package de.charite.compbio.jannovar.cmd.annotate_vcf;
+
+import de.charite.compbio.jannovar.JannovarException;
+import de.charite.compbio.jannovar.UncheckedJannovarException;
+import htsjdk.variant.variantcontext.VariantContext;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Apply the annotation steps of <code>annotate-vcf</code> on a pool of worker threads while keeping the input order
+ *
+ * The input is cut into chunks of at most <code>chunkSize</code> records that are annotated by the worker threads.
+ * Each worker thread builds its own chain of annotation steps through the {@link StepsFactory} on first use, such that
+ * state that is not safe for concurrent use (e.g., the tabix and FASTA readers of the database annotators) is never
+ * shared between threads. At most <code>2 * numThreads</code> chunks are in flight at any time and the annotated
+ * chunks are passed to the sink in input order on the calling thread. The per-thread steps are closed once
+ * {@link #run} has stopped the worker threads.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class ParallelAnnotationPipeline {
+
+	/**
+	 * Factory for the per-thread chain of annotation steps
+	 */
+	public interface StepsFactory {
+
+		/**
+		 * @return chain of annotation steps, to be used by a single thread only and closed by the pipeline
+		 * @throws JannovarException on problems constructing the annotation steps
+		 */
+		AnnotationSteps build() throws JannovarException;
+
+	}
+
+	/**
+	 * Number of worker threads
+	 */
+	private final int numThreads;
+
+	/**
+	 * Maximal number of records in one chunk
+	 */
+	private final int chunkSize;
+
+	/**
+	 * Per-thread annotation steps, lazily constructed through the factory
+	 */
+	private final ThreadLocal<AnnotationSteps> steps;
+
+	/**
+	 * All annotation steps constructed through the factory, for closing them
+	 */
+	private final List<AnnotationSteps> builtSteps = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * Construct pipeline
+	 *
+	 * @param numThreads number of worker threads to use
+	 * @param chunkSize  maximal number of records to annotate in one chunk
+	 * @param factory    {@link StepsFactory} to use for building the per-thread annotation steps
+	 */
+	public ParallelAnnotationPipeline(int numThreads, int chunkSize, StepsFactory factory) {
+		if (numThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be >= 1 but was " + numThreads);
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("Chunk size must be >= 1 but was " + chunkSize);
+		this.numThreads = numThreads;
+		this.chunkSize = chunkSize;
+		this.steps = ThreadLocal.withInitial(() -> {
+			try {
+				final AnnotationSteps result = factory.build();
+				builtSteps.add(result);
+				return result;
+			} catch (JannovarException e) {
+				throw new UncheckedJannovarException("Problem building annotation steps", e);
+			}
+		});
+	}
+
+	/**
+	 * Annotate all records from <code>input</code> and pass them to <code>sink</code> in input order
+	 *
+	 * @param input {@link Iterator} with the records to annotate
+	 * @param sink  {@link Consumer} to pass the annotated records to, called on the calling thread only
+	 * @throws JannovarException on problems in the annotation steps or when interrupted
+	 */
+	public void run(Iterator<VariantContext> input, Consumer<VariantContext> sink) throws JannovarException {
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(numThreads, r -> {
+			Thread thread = new Thread(r, "annotation-worker-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		final ArrayDeque<Future<List<VariantContext>>> inFlight = new ArrayDeque<>();
+		try {
+			while (input.hasNext()) {
+				final List<VariantContext> chunk = new ArrayList<>(chunkSize);
+				while (input.hasNext() && chunk.size() < chunkSize)
+					chunk.add(input.next());
+				inFlight.add(executor.submit(() -> annotateChunk(chunk)));
+
+				if (inFlight.size() >= 2 * numThreads)
+					emitChunk(inFlight.removeFirst(), sink);
+			}
+			while (!inFlight.isEmpty())
+				emitChunk(inFlight.removeFirst(), sink);
+		} finally {
+			for (Future<List<VariantContext>> future : inFlight)
+				future.cancel(true);
+			executor.shutdownNow();
+			// the steps may only be closed once no worker uses them any more
+			boolean interrupted = false;
+			while (!executor.isTerminated()) {
+				try {
+					executor.awaitTermination(1, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+				Thread.currentThread().interrupt();
+			closeSteps();
+		}
+	}
+
+	/**
+	 * Close all annotation steps built by the worker threads, even if closing one of them fails
+	 */
+	private void closeSteps() {
+		RuntimeException error = null;
+		synchronized (builtSteps) {
+			for (AnnotationSteps threadSteps : builtSteps) {
+				try {
+					threadSteps.close();
+				} catch (RuntimeException e) {
+					if (error == null)
+						error = e;
+					else
+						error.addSuppressed(e);
+				}
+			}
+			builtSteps.clear();
+		}
+		if (error != null)
+			throw error;
+	}
+
+	/**
+	 * Annotate chunk in-place using the steps of the current thread
+	 */
+	private List<VariantContext> annotateChunk(List<VariantContext> chunk) {
+		final AnnotationSteps threadSteps = steps.get();
+		for (int i = 0; i < chunk.size(); ++i)
+			chunk.set(i, threadSteps.apply(chunk.get(i)));
+		return chunk;
+	}
+
+	/**
+	 * Wait for the chunk from <code>future</code> and pass its records to <code>sink</code>
+	 */
+	private static void emitChunk(Future<List<VariantContext>> future, Consumer<VariantContext> sink)
+		throws JannovarException {
+		final List<VariantContext> chunk;
+		try {
+			chunk = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JannovarException("Interrupted while waiting for annotation", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new JannovarException("Problem during annotation", e.getCause());
+		}
+		chunk.forEach(sink);
+	}
+
+}
@@ -0,0 +1,41 @@
+package de.charite.compbio.jannovar.cmd.db_convert;
+
+import de.charite.compbio.jannovar.JannovarException;
+import de.charite.compbio.jannovar.cmd.CommandLineParsingException;
+import de.charite.compbio.jannovar.cmd.JannovarCommand;
+import de.charite.compbio.jannovar.data.MappedJannovarDataSerializer;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+/**
+ * Convert a <code>.ser</code> file to the memory-mappable columnar format.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class DatabaseConvertCommand extends JannovarCommand {
+
+	/**
+	 * Configuration
+	 */
+	private JannovarDBConvertOptions options;
+
+	public DatabaseConvertCommand(String argv[], Namespace args) throws CommandLineParsingException {
+		this.options = new JannovarDBConvertOptions();
+		this.options.setFromArgs(args);
+	}
+
+	/**
+	 * Perform the conversion.
+	 */
+	@Override
+	public void run() throws JannovarException {
+		System.err.println("Options");
+		System.err.println(options.toString());
+
+		System.err.println("Converting " + options.getPathInput() + " to " + options.getPathOutput() + "...");
+		final long startTime = System.nanoTime();
+		MappedJannovarDataSerializer.convert(options.getPathInput(), options.getPathOutput());
+		System.err.println(String.format("Conversion took %.2f sec.",
+			(System.nanoTime() - startTime) / 1000.0 / 1000.0 / 1000.0));
+	}
+
+}
@@ -0,0 +1,82 @@
+package de.charite.compbio.jannovar.cmd.db_convert;
+
+import de.charite.compbio.jannovar.UncheckedJannovarException;
+import de.charite.compbio.jannovar.cmd.CommandLineParsingException;
+import de.charite.compbio.jannovar.cmd.JannovarBaseOptions;
+import net.sourceforge.argparse4j.inf.*;
+
+import java.util.function.BiFunction;
+
+/**
+ * Configuration for the <tt>db-convert</tt> command
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class JannovarDBConvertOptions extends JannovarBaseOptions {
+
+	/**
+	 * Path to input <code>.ser</code> file
+	 */
+	private String pathInput;
+
+	/**
+	 * Path to output file in columnar format
+	 */
+	private String pathOutput;
+
+	/**
+	 * Setup {@link ArgumentParser}
+	 *
+	 * @param subParsers {@link Subparsers} to setup
+	 */
+	public static void setupParser(Subparsers subParsers) {
+		BiFunction<String[], Namespace, DatabaseConvertCommand> handler = (argv, args) -> {
+			try {
+				return new DatabaseConvertCommand(argv, args);
+			} catch (CommandLineParsingException e) {
+				throw new UncheckedJannovarException("Could not parse command line", e);
+			}
+		};
+
+		Subparser subParser = subParsers.addParser("db-convert", true)
+			.help("convert .ser database to memory-mappable columnar format").setDefault("cmd", handler);
+		subParser.description("Convert .ser database to memory-mappable columnar format, can be used in place of "
+			+ "the .ser file for all commands");
+
+		ArgumentGroup requiredGroup = subParser.addArgumentGroup("Required arguments");
+		requiredGroup.addArgument("-i", "--input").help("Path to input .ser file").required(true);
+		requiredGroup.addArgument("-o", "--output").help("Path to output file").required(true);
+
+		JannovarBaseOptions.setupParser(subParser);
+	}
+
+	@Override
+	public void setFromArgs(Namespace args) throws CommandLineParsingException {
+		super.setFromArgs(args);
+
+		pathInput = args.getString("input");
+		pathOutput = args.getString("output");
+	}
+
+	public String getPathInput() {
+		return pathInput;
+	}
+
+	public void setPathInput(String pathInput) {
+		this.pathInput = pathInput;
+	}
+
+	public String getPathOutput() {
+		return pathOutput;
+	}
+
+	public void setPathOutput(String pathOutput) {
+		this.pathOutput = pathOutput;
+	}
+
+	@Override
+	public String toString() {
+		return "JannovarDBConvertOptions [pathInput=" + pathInput + ", pathOutput=" + pathOutput + "]";
+	}
+
+}
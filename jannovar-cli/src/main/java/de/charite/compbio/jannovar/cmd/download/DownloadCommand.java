@@ -1,7 +1,9 @@
 package de.charite.compbio.jannovar.cmd.download;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import de.charite.compbio.jannovar.JannovarException;
+import de.charite.compbio.jannovar.UncheckedJannovarException;
 import de.charite.compbio.jannovar.cmd.CommandLineParsingException;
 import de.charite.compbio.jannovar.cmd.JannovarCommand;
 import de.charite.compbio.jannovar.data.JannovarData;
@@ -11,6 +13,12 @@ import de.charite.compbio.jannovar.datasource.DatasourceOptions;
 import de.charite.compbio.jannovar.impl.util.PathUtil;
 import net.sourceforge.argparse4j.inf.Namespace;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 /**
  * Implementation of download step in Jannovar.
  *
@@ -38,19 +46,72 @@ public final class DownloadCommand extends JannovarCommand {
 
 		DataSourceFactory factory =
 			new DataSourceFactory(dsOptions, Lists.reverse(options.dataSourceFiles));
-		for (String name : options.getDatabaseNames()) {
-			System.err.println("Downloading/parsing for data source \"" + name + "\"");
-			JannovarData data = factory.getDataSource(name).getDataFactory().build(options.getDownloadDir(),
-				options.isReportProgress(), options.getGeneIdentifiers());
-			final String filename;
-			if (options.getOutputFile() == null || options.getOutputFile().isEmpty()) {
-				filename = PathUtil.join(options.getDownloadDir(),
-					name.replace('/', '_').replace('\\', '_') + ".ser");
-			} else {
-				filename = options.getOutputFile();
+		if (options.getNumThreads() == 1) {
+			for (String name : options.getDatabaseNames())
+				buildAndSave(factory, name, null);
+			return;
+		}
+
+		// Build on a fork-join pool that is also passed to the parsers and JannovarData, so they work in parallel on it.
+		// Databases are built at once unless they are all written to the same output file, where the last one has to
+		// win.
+		final boolean sharedOutputFile = options.getOutputFile() != null && !options.getOutputFile().isEmpty();
+		final ForkJoinPool pool = new ForkJoinPool(options.getNumThreads());
+		try {
+			List<ForkJoinTask<?>> tasks = new ArrayList<>();
+			for (String name : options.getDatabaseNames()) {
+				ForkJoinTask<?> task = pool.submit(() -> {
+					try {
+						buildAndSave(factory, name, pool);
+					} catch (JannovarException e) {
+						throw new UncheckedJannovarException("Problem building data source \"" + name + "\"", e);
+					}
+				});
+				if (sharedOutputFile)
+					await(task);
+				else
+					tasks.add(task);
 			}
-			JannovarDataSerializer serializer = new JannovarDataSerializer(filename);
-			serializer.save(data);
+			for (ForkJoinTask<?> task : tasks)
+				await(task);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Download, build, and save the data source with the given name, on <code>pool</code> unless <code>null</code>.
+	 */
+	private void buildAndSave(DataSourceFactory factory, String name, ForkJoinPool pool) throws JannovarException {
+		System.err.println("Downloading/parsing for data source \"" + name + "\"");
+		JannovarData data = factory.getDataSource(name).getDataFactory().build(options.getDownloadDir(),
+			options.isReportProgress(), options.getGeneIdentifiers(), pool);
+		final String filename;
+		if (options.getOutputFile() == null || options.getOutputFile().isEmpty()) {
+			filename = PathUtil.join(options.getDownloadDir(),
+				name.replace('/', '_').replace('\\', '_') + ".ser");
+		} else {
+			filename = options.getOutputFile();
+		}
+		JannovarDataSerializer serializer = new JannovarDataSerializer(filename);
+		serializer.save(data);
+	}
+
+	/**
+	 * Wait for <code>task</code> to finish, rethrowing the {@link JannovarException} it failed with, if any.
+	 */
+	private static void await(ForkJoinTask<?> task) throws JannovarException {
+		try {
+			task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JannovarException("Interrupted while building data sources", e);
+		} catch (ExecutionException e) {
+			for (Throwable cause : Throwables.getCausalChain(e))
+				if (cause instanceof JannovarException)
+					throw (JannovarException) cause;
+			Throwables.throwIfUnchecked(e.getCause());
+			throw new JannovarException("Problem building data sources", e.getCause());
 		}
 	}
 
@@ -39,6 +39,11 @@ public class JannovarDownloadOptions extends JannovarDBOptions {
 	 */
 	private String outputFile = "";
 
+	/**
+	 * Number of threads for building the databases.
+	 */
+	private int numThreads = 1;
+
 	/**
 	 * Setup {@link ArgumentParser}
 	 *
@@ -69,6 +74,9 @@ public class JannovarDownloadOptions extends JannovarDBOptions {
 		optionalGroup.addArgument("--gene-ids").help("Optional list of genes to limit creation of database to")
 			.setDefault(new ArrayList<String>()).nargs("+");
 		optionalGroup.addArgument("-o", "--output-file").help("Optional path to output file").setDefault("");
+		optionalGroup.addArgument("--threads").type(Integer.class)
+			.help("Number of threads for building the databases; with more than one, input files are parsed "
+				+ "concurrently and multiple databases are built at once, using more memory").setDefault(1);
 
 		JannovarBaseOptions.setupParser(subParser);
 	}
@@ -81,6 +89,9 @@ public class JannovarDownloadOptions extends JannovarDBOptions {
 		databaseNames = args.getList("database");
 		geneIdentifiers = args.getList("gene_ids");
 		outputFile = args.getString("output_file");
+		numThreads = args.getInt("threads");
+		if (numThreads < 1)
+			throw new CommandLineParsingException("Number of threads must be >= 1 but was " + numThreads);
 	}
 
 	public String getDownloadDir() {
@@ -115,12 +126,20 @@ public class JannovarDownloadOptions extends JannovarDBOptions {
 		this.outputFile = outputFile;
 	}
 
+	public int getNumThreads() {
+		return numThreads;
+	}
+
+	public void setNumThreads(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
 	@Override
 	public String toString() {
 		return "JannovarDownloadOptions [downloadDir=" + downloadDir + ", getDataSourceFiles()=" + getDataSourceFiles()
 			+ ", isReportProgress()=" + isReportProgress() + ", getHttpProxy()=" + getHttpProxy()
 			+ ", getHttpsProxy()=" + getHttpsProxy() + ", getFtpProxy()=" + getFtpProxy() + ", geneIdentifiers="
-			+ geneIdentifiers + ", outputFile=" + outputFile + "]";
+			+ geneIdentifiers + ", outputFile=" + outputFile + ", numThreads=" + numThreads + "]";
 	}
 
 }
@@ -12,6 +12,7 @@ import de.charite.compbio.jannovar.hgvs.bridge.NucleotideChangeToGenomeVariantTr
 import de.charite.compbio.jannovar.hgvs.nts.variant.SingleAlleleNucleotideVariant;
 import de.charite.compbio.jannovar.hgvs.parser.HGVSParser;
 import de.charite.compbio.jannovar.hgvs.parser.HGVSParsingException;
+import de.charite.compbio.jannovar.htsjdk.VariantContextWriterConstructionHelper;
 import de.charite.compbio.jannovar.reference.GenomeVariant;
 import de.charite.compbio.jannovar.reference.Strand;
 import de.charite.compbio.jannovar.vardbs.base.VariantDescription;
@@ -21,9 +22,7 @@ import htsjdk.samtools.reference.IndexedFastaSequenceFile;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
-import htsjdk.variant.variantcontext.writer.Options;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
-import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
 import htsjdk.variant.vcf.*;
 import net.sourceforge.argparse4j.inf.Namespace;
 
@@ -68,7 +67,7 @@ public class ProjectTranscriptToChromosome extends JannovarAnnotationCommand {
 		System.err.println("Options");
 		System.err.println(options.toString());
 		System.err.println("Loading database file...");
-		deserializeTranscriptDefinitionFile(options.getDatabaseFilePath());
+		openTranscriptDefinitionFile(options.getDatabaseFilePath());
 		System.err.println("Loading FASTA index...");
 		loadFASTAIndex();
 		normalizer = new VariantNormalizer(options.getPathReferenceFASTA());
@@ -79,13 +78,11 @@ public class ProjectTranscriptToChromosome extends JannovarAnnotationCommand {
 	}
 
 	private VariantContextWriter openOutputFile() {
-		VariantContextWriterBuilder builder = new VariantContextWriterBuilder()
-			.setReferenceDictionary(fasta.getSequenceDictionary()).setOutputFile(options.getPathOutputVCF());
-		if (options.getPathOutputVCF().endsWith(".gz") || options.getPathOutputVCF().endsWith(".bcf"))
-			builder.setOption(Options.INDEX_ON_THE_FLY);
-		else
-			builder.unsetOption(Options.INDEX_ON_THE_FLY);
-		VariantContextWriter writer = builder.build();
+		final boolean generateIndex = options.getPathOutputVCF().endsWith(".gz")
+			|| options.getPathOutputVCF().endsWith(".bcf");
+		VariantContextWriter writer = VariantContextWriterConstructionHelper.openFileWriter(
+			fasta.getSequenceDictionary(), new File(options.getPathOutputVCF()), generateIndex,
+			options.getNumThreads());
 
 		VCFHeader header = new VCFHeader();
 		int i = 0;
@@ -120,7 +117,7 @@ public class ProjectTranscriptToChromosome extends JannovarAnnotationCommand {
 					+ "or samtools dict, version >=1.3)");
 		}
 
-		this.translator = new NucleotideChangeToGenomeVariantTranslator(jannovarData, fasta);
+		this.translator = new NucleotideChangeToGenomeVariantTranslator(refDict, getTranscriptByAccession(), fasta);
 	}
 
 	/**
@@ -186,13 +183,13 @@ public class ProjectTranscriptToChromosome extends JannovarAnnotationCommand {
 	 */
 	private String mapContigToFasta(String contigName) {
 		// Map genome variant's contig to unique ID
-		Integer contigID = jannovarData.getRefDict().getContigNameToID().get(contigName);
+		Integer contigID = refDict.getContigNameToID().get(contigName);
 		if (contigID == null)
 			throw new UncheckedJannovarException("Unknown contig name " + contigName);
 		// Try to find matching contig in fasta
 		String nameInFasta = null;
 		for (SAMSequenceRecord record : fasta.getSequenceDictionary().getSequences()) {
-			if (contigID.equals(jannovarData.getRefDict().getContigNameToID().get(record.getSequenceName()))) {
+			if (contigID.equals(refDict.getContigNameToID().get(record.getSequenceName()))) {
 				nameInFasta = record.getSequenceName();
 				break;
 			}
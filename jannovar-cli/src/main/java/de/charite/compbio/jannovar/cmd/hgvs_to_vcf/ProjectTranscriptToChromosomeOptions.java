@@ -31,6 +31,11 @@ public class ProjectTranscriptToChromosomeOptions extends JannovarAnnotationOpti
 	 */
 	private String pathReferenceFASTA;
 
+	/**
+	 * Number of threads for writing and compressing the output VCF file
+	 */
+	private int numThreads = 1;
+
 	/**
 	 * Setup {@link ArgumentParser}
 	 *
@@ -62,6 +67,8 @@ public class ProjectTranscriptToChromosomeOptions extends JannovarAnnotationOpti
 			.dest("3_prime_shifting").setDefault(true).action(Arguments.storeFalse());
 		optionalGroup.addArgument("--3-letter-amino-acids").help("Enable usage of 3 letter amino acid codes")
 			.setDefault(false).action(Arguments.storeTrue());
+		optionalGroup.addArgument("--threads").type(Integer.class)
+			.help("Number of threads for writing and compressing the output VCF file").setDefault(1);
 
 		subParser.epilog("Example: java -jar Jannovar.jar tx-to-chrom -i in.txt -o out.vcf");
 
@@ -75,6 +82,10 @@ public class ProjectTranscriptToChromosomeOptions extends JannovarAnnotationOpti
 		pathInputText = args.getString("input_txt");
 		pathOutputVCF = args.getString("output_vcf");
 		pathReferenceFASTA = args.getString("reference_fasta");
+		numThreads = args.getInt("threads");
+
+		if (numThreads < 1)
+			throw new CommandLineParsingException("Number of threads must be >= 1 but was " + numThreads);
 	}
 
 	public String getPathReferenceFASTA() {
@@ -101,11 +112,19 @@ public class ProjectTranscriptToChromosomeOptions extends JannovarAnnotationOpti
 		this.pathOutputVCF = pathOutputVCF;
 	}
 
+	public int getNumThreads() {
+		return numThreads;
+	}
+
+	public void setNumThreads(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
 	@Override
 	public String toString() {
 		return "ProjectTranscriptToChromosomeOptions [pathInputText=" + pathInputText + ", pathOutputVCF="
-			+ pathOutputVCF + ", pathReferenceFASTA=" + pathReferenceFASTA + ", toString()=" + super.toString()
-			+ "]";
+			+ pathOutputVCF + ", pathReferenceFASTA=" + pathReferenceFASTA + ", numThreads=" + numThreads
+			+ ", toString()=" + super.toString() + "]";
 	}
 
 }
@@ -0,0 +1,228 @@
+package de.charite.compbio.jannovar.cmd.rest_server;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import de.charite.compbio.jannovar.annotation.AnnotationException;
+import de.charite.compbio.jannovar.annotation.VariantAnnotator;
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.htsjdk.InvalidCoordinatesException;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Streaming annotation of variant batches for the <tt>/annotate-batch</tt> endpoint.
+ *
+ * <p>The variants are read either as a JSON array or as newline-delimited JSON (NDJSON) objects
+ * with the keys <code>chromosome</code>, <code>position</code> (one-based),
+ * <code>reference</code>, and <code>alternative</code>. They are annotated in chunks on the
+ * shared worker pool and the results are written in input order, in the same format as the
+ * input, as soon as the oldest chunk is done. At most {@link #maxChunksInFlight} chunks of a
+ * request are read ahead, so memory usage does not depend on the batch size.
+ *
+ * <p>Problems with single variants (e.g., unknown chromosomes) are reported in the
+ * <code>error</code> field of the respective result and do not abort the batch.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+class BatchAnnotationHandler {
+
+	/**
+	 * Number of variants per task submitted to the worker pool
+	 */
+	static final int CHUNK_SIZE = 256;
+
+	/**
+	 * Worker pool to annotate chunks on
+	 */
+	private final ExecutorService workers;
+
+	/**
+	 * Maximal number of chunks of one request that are submitted but not written yet
+	 */
+	private final int maxChunksInFlight;
+
+	/**
+	 * For converting from and to JSON, thread-safe
+	 */
+	private final Gson gson;
+
+	/**
+	 * Construct handler
+	 *
+	 * @param workers           worker pool to annotate chunks on
+	 * @param maxChunksInFlight maximal number of chunks of one request that are annotated ahead
+	 * @param gson              for converting from and to JSON
+	 */
+	BatchAnnotationHandler(ExecutorService workers, int maxChunksInFlight, Gson gson) {
+		this.workers = workers;
+		this.maxChunksInFlight = maxChunksInFlight;
+		this.gson = gson;
+	}
+
+	/**
+	 * Start reading batch.
+	 *
+	 * @param reader the {@link JsonReader} to read from, set to lenient such that NDJSON can be read
+	 * @return <code>true</code> if the batch is a JSON array, <code>false</code> for NDJSON
+	 * @throws IOException on problems reading or if the batch is neither a JSON array nor starts
+	 *                     with a JSON object
+	 */
+	static boolean startBatch(JsonReader reader) throws IOException {
+		reader.setLenient(true);
+		final JsonToken token = reader.peek();
+		if (token == JsonToken.BEGIN_ARRAY) {
+			reader.beginArray();
+			return true;
+		} else if (token == JsonToken.BEGIN_OBJECT) {
+			return false;
+		} else {
+			throw new IOException("Expected JSON array or NDJSON objects but found " + token);
+		}
+	}
+
+	/**
+	 * Annotate all variants from <code>reader</code> and write the results to <code>writer</code>
+	 *
+	 * @param annotator   the {@link VariantAnnotator} to use
+	 * @param refDict     the {@link ReferenceDictionary} of the annotator's database
+	 * @param reader      the {@link JsonReader} after {@link #startBatch}
+	 * @param isArray     the return value of {@link #startBatch}
+	 * @param writer      the {@link Writer} to write results to, flushed after each chunk
+	 * @return number of variants
+	 * @throws IOException on problems reading or writing
+	 */
+	long annotate(VariantAnnotator annotator, ReferenceDictionary refDict, JsonReader reader,
+		boolean isArray, Writer writer) throws IOException {
+		final Deque<Future<List<BatchResult>>> pending = new ArrayDeque<>();
+		long numVariants = 0;
+		if (isArray)
+			writer.write("[");
+		try {
+			while (true) {
+				final List<BatchVariant> chunk = readChunk(reader, isArray);
+				if (chunk.isEmpty())
+					break;
+				if (pending.size() >= maxChunksInFlight)
+					numVariants = writeResults(pending.removeFirst(), isArray, numVariants, writer);
+				pending.add(workers.submit(() -> annotateChunk(annotator, refDict, chunk)));
+			}
+			while (!pending.isEmpty())
+				numVariants = writeResults(pending.removeFirst(), isArray, numVariants, writer);
+		} finally {
+			for (Future<List<BatchResult>> future : pending)
+				future.cancel(false);
+		}
+		if (isArray) {
+			reader.endArray();
+			writer.write("]\n");
+		}
+		writer.flush();
+		return numVariants;
+	}
+
+	/**
+	 * @return up to {@link #CHUNK_SIZE} variants, empty at the end of the batch
+	 */
+	private List<BatchVariant> readChunk(JsonReader reader, boolean isArray) throws IOException {
+		final List<BatchVariant> chunk = new ArrayList<>(CHUNK_SIZE);
+		while (chunk.size() < CHUNK_SIZE) {
+			final JsonToken token = reader.peek();
+			if (token == JsonToken.END_ARRAY || token == JsonToken.END_DOCUMENT)
+				break;
+			chunk.add(gson.fromJson(reader, BatchVariant.class));
+		}
+		return chunk;
+	}
+
+	/**
+	 * Annotate chunk of variants, called on the worker pool.
+	 */
+	private static List<BatchResult> annotateChunk(VariantAnnotator annotator,
+		ReferenceDictionary refDict, List<BatchVariant> chunk) {
+		final List<BatchResult> results = new ArrayList<>(chunk.size());
+		for (BatchVariant variant : chunk) {
+			final BatchResult result = new BatchResult(variant);
+			if (variant == null || variant.chromosome == null || variant.position == null
+				|| variant.reference == null || variant.alternative == null) {
+				result.error = "Require chromosome, position, reference, and alternative";
+			} else {
+				try {
+					result.annotations = VariantAnnotationInfo.annotate(annotator, refDict,
+						variant.chromosome, variant.position, variant.reference,
+						variant.alternative);
+				} catch (InvalidCoordinatesException | AnnotationException | RuntimeException e) {
+					result.error = e.getMessage();
+				}
+			}
+			results.add(result);
+		}
+		return results;
+	}
+
+	/**
+	 * Wait for chunk and write its results.
+	 *
+	 * @return number of results written so far
+	 */
+	private long writeResults(Future<List<BatchResult>> future, boolean isArray, long numWritten,
+		Writer writer) throws IOException {
+		final List<BatchResult> results;
+		try {
+			results = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while annotating batch", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Problem annotating batch", e.getCause());
+		}
+
+		for (BatchResult result : results) {
+			if (isArray && numWritten > 0)
+				writer.write(",\n");
+			gson.toJson(result, writer);
+			if (!isArray)
+				writer.write("\n");
+			numWritten += 1;
+		}
+		writer.flush();
+		return numWritten;
+	}
+
+	/**
+	 * Variant from the request, for deserialization using Gson.
+	 */
+	static class BatchVariant {
+		String chromosome;
+		Integer position;
+		String reference;
+		String alternative;
+	}
+
+	/**
+	 * Result for one variant, for serialization using Gson.
+	 */
+	static class BatchResult {
+		final String chromosome;
+		final Integer position;
+		final String reference;
+		final String alternative;
+		List<VariantAnnotationInfo> annotations;
+		String error;
+
+		BatchResult(BatchVariant variant) {
+			this.chromosome = variant == null ? null : variant.chromosome;
+			this.position = variant == null ? null : variant.position;
+			this.reference = variant == null ? null : variant.reference;
+			this.alternative = variant == null ? null : variant.alternative;
+		}
+	}
+
+}
@@ -1,17 +1,21 @@
 package de.charite.compbio.jannovar.cmd.rest_server;
 
 import static spark.Spark.get;
+import static spark.Spark.halt;
 import static spark.Spark.ipAddress;
 import static spark.Spark.port;
+import static spark.Spark.post;
+import static spark.Spark.threadPool;
 
 import com.google.common.base.Joiner;
-import com.google.common.collect.ImmutableList;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import de.charite.compbio.jannovar.JannovarException;
-import de.charite.compbio.jannovar.annotation.Annotation;
-import de.charite.compbio.jannovar.annotation.AnnotationMessage;
-import de.charite.compbio.jannovar.annotation.VariantAnnotations;
+import de.charite.compbio.jannovar.annotation.VariantAnnotationsCache;
 import de.charite.compbio.jannovar.annotation.VariantAnnotator;
 import de.charite.compbio.jannovar.annotation.builders.AnnotationBuilderOptions;
 import de.charite.compbio.jannovar.cmd.CommandLineParsingException;
@@ -19,31 +23,69 @@ import de.charite.compbio.jannovar.cmd.JannovarAnnotationCommand;
 import de.charite.compbio.jannovar.data.JannovarData;
 import de.charite.compbio.jannovar.data.JannovarDataSerializer;
 import de.charite.compbio.jannovar.data.SerializationException;
-import de.charite.compbio.jannovar.hgvs.AminoAcidCode;
-import de.charite.compbio.jannovar.htsjdk.InvalidCoordinatesException;
-import de.charite.compbio.jannovar.reference.GenomePosition;
-import de.charite.compbio.jannovar.reference.GenomeVariant;
-import de.charite.compbio.jannovar.reference.PositionType;
-import de.charite.compbio.jannovar.reference.Strand;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import net.sourceforge.argparse4j.inf.Namespace;
+import spark.Request;
+import spark.Response;
+import spark.Route;
 
 /**
  * Allows running a simple REST server.
  *
+ * <p>The {@link VariantAnnotator}s are built once for each loaded database and shared between
+ * all requests. At most <code>--max-pending-requests</code> requests are handled at the same time,
+ * further requests are answered with status 503, such that clients can back off. Batches are
+ * annotated on a bounded pool of <code>--worker-threads</code> threads; when its queue is full, the
+ * request's thread annotates the chunk itself. With <code>--annotation-cache-size</code>, the
+ * annotations are cached per database; the cache statistics are available at
+ * <tt>/cache-stats</tt>.
+ *
  * @author <a href="mailto:manuel.holtgrewe@charite.de">Manuel Holtgrewe</a>
  */
 public class RestServerCommand extends JannovarAnnotationCommand {
 
+	/**
+	 * Number of queued chunks per worker thread
+	 */
+	private static final int QUEUED_CHUNKS_PER_WORKER = 4;
+
 	/**
 	 * Configuration
 	 */
 	private RestServerOptions options;
 
+	/**
+	 * For converting to JSON, thread-safe
+	 */
+	private final Gson gson = new Gson();
+
+	/**
+	 * Permits for the requests that are handled at the same time
+	 */
+	private Semaphore requestPermits;
+
+	/**
+	 * Annotators for each database, key is "$release/$database"
+	 */
+	private ImmutableMap<String, VariantAnnotator> annotators;
+
+	/**
+	 * Loaded databases, key is "$release/$database"
+	 */
+	private ImmutableMap<String, JannovarData> jvDatas;
+
 	public RestServerCommand(String argv[], Namespace args) throws CommandLineParsingException {
 		this.options = new RestServerOptions();
 		this.options.setFromArgs(args);
@@ -53,47 +95,125 @@ public class RestServerCommand extends JannovarAnnotationCommand {
 		System.err.println("Options: " + options);
 		ipAddress(options.getHost());
 		port(options.getPort());
+		// Leave Jetty enough threads for rejecting requests beyond the limit quickly
+		threadPool(Math.max(200, options.getMaxPendingRequests() + 32));
+		requestPermits = new Semaphore(options.getMaxPendingRequests());
 
 		System.err.println("Loading database");
-		final ImmutableMap<String, JannovarData> jvDatas = loadDatabases();
+		jvDatas = loadDatabases();
+		ImmutableMap.Builder<String, VariantAnnotator> builder = ImmutableMap.builder();
+		for (ImmutableMap.Entry<String, JannovarData> entry : jvDatas.entrySet()) {
+			final JannovarData jvData = entry.getValue();
+			final VariantAnnotationsCache cache = options.getAnnotationCacheSize() == 0 ? null
+				: new VariantAnnotationsCache(options.getAnnotationCacheSize(),
+				options.getAnnotationCacheTTL());
+			builder.put(entry.getKey(), new VariantAnnotator(jvData.getRefDict(),
+				jvData.getChromosomes(), new AnnotationBuilderOptions(true, false), cache));
+		}
+		annotators = builder.build();
+
+		final ThreadPoolExecutor workers = new ThreadPoolExecutor(options.getWorkerThreads(),
+			options.getWorkerThreads(), 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(QUEUED_CHUNKS_PER_WORKER * options.getWorkerThreads()),
+			new ThreadFactoryBuilder().setNameFormat("annotate-batch-%d").setDaemon(true).build(),
+			new ThreadPoolExecutor.CallerRunsPolicy());
+		final BatchAnnotationHandler batchHandler = new BatchAnnotationHandler(workers,
+			2 * options.getWorkerThreads(), gson);
 
 		get("/annotate-var/:release/:database/:chromosome/:position/:reference/:alternative",
-			(req, res) -> {
-				final String chromosome = req.params(":chromosome");
-				final int position = Integer.parseInt(req.params(":position"));
-				final String reference = req.params(":reference");
-				final String alternative = req.params(":alternative");
-
-				final String key = Joiner.on("/")
-					.join(req.params(":release"), req.params(":database"));
-				final JannovarData jvData = jvDatas.get(key);
-				final VariantAnnotator annotator = new VariantAnnotator(jvData.getRefDict(),
-					jvData.getChromosomes(), new AnnotationBuilderOptions(true, false));
-
-				final Integer boxedInt = jvData.getRefDict().getContigNameToID().get(chromosome);
-				if (boxedInt == null) {
-					throw new InvalidCoordinatesException("Unknown reference " + chromosome,
-						AnnotationMessage.ERROR_CHROMOSOME_NOT_FOUND);
-				}
-				final int chr = boxedInt.intValue();
-
-				final GenomePosition gPos = new GenomePosition(jvData.getRefDict(), Strand.FWD, chr,
-					position, PositionType.ONE_BASED);
-				final VariantAnnotations annotations = annotator
-					.buildAnnotations(new GenomeVariant(gPos, reference, alternative));
-
-				final List<VariantAnnotationInfo> result = new ArrayList<>(0);
-				for (Annotation anno : annotations.getAnnotations()) {
-					result.add(new VariantAnnotationInfo(anno.getTranscript().getAccession(),
-						anno.getEffects().stream().map(x -> x.toString().toLowerCase())
-							.collect(Collectors.toList()), anno.getTranscript().isCoding(),
-						anno.getProteinChangeStr(AminoAcidCode.ONE_LETTER),
-						anno.getCDSNTChangeStr()));
-				}
+			throttled((req, res) -> {
+				final String key = getKey(req);
+				final Object result = VariantAnnotationInfo.annotate(annotators.get(key),
+					jvDatas.get(key).getRefDict(), req.params(":chromosome"),
+					Integer.parseInt(req.params(":position")), req.params(":reference"),
+					req.params(":alternative"));
 
 				res.type("application/json");
-				return new Gson().toJson(result);
-			});
+				return gson.toJson(result);
+			}));
+
+		get("/cache-stats", (req, res) -> {
+			final Map<String, CacheStatsInfo> result = new TreeMap<>();
+			for (Map.Entry<String, VariantAnnotator> entry : annotators.entrySet()) {
+				if (entry.getValue().getCache() != null)
+					result.put(entry.getKey(), new CacheStatsInfo(entry.getValue().getCache()));
+			}
+			res.type("application/json");
+			return gson.toJson(result);
+		});
+
+		post("/annotate-batch/:release/:database", throttled((req, res) -> {
+			final String key = getKey(req);
+			final JsonReader reader = new JsonReader(
+				new InputStreamReader(req.raw().getInputStream(), StandardCharsets.UTF_8));
+			final boolean isArray;
+			try {
+				isArray = BatchAnnotationHandler.startBatch(reader);
+			} catch (IOException | JsonParseException e) {
+				throw halt(400, "Could not read batch: " + e.getMessage() + "\n");
+			}
+
+			res.type(isArray ? "application/json" : "application/x-ndjson");
+			res.status(200);
+			final Writer writer = new BufferedWriter(
+				new OutputStreamWriter(res.raw().getOutputStream(), StandardCharsets.UTF_8));
+			try {
+				batchHandler.annotate(annotators.get(key), jvDatas.get(key).getRefDict(), reader,
+					isArray, writer);
+			} catch (JsonParseException e) {
+				// Cannot change status any more, the client sees the truncated output
+				System.err.println("Problem reading batch: " + e.getMessage());
+			}
+			return "";
+		}));
+	}
+
+	/**
+	 * @return key of the database selected in the request's URL, halts with 404 if unknown
+	 */
+	private String getKey(Request req) {
+		final String key = Joiner.on("/").join(req.params(":release"), req.params(":database"));
+		if (!annotators.containsKey(key))
+			throw halt(404, "Unknown database " + key + "\n");
+		return key;
+	}
+
+	/**
+	 * @return {@link Route} that answers with 503 if <code>--max-pending-requests</code> are
+	 * handled already and otherwise calls <code>route</code>
+	 */
+	private Route throttled(Route route) {
+		return (Request req, Response res) -> {
+			if (!requestPermits.tryAcquire()) {
+				res.header("Retry-After", "1");
+				throw halt(503, "Too many pending requests\n");
+			}
+			try {
+				return route.handle(req, res);
+			} finally {
+				requestPermits.release();
+			}
+		};
+	}
+
+	/**
+	 * Helper class for serializing the statistics of a {@link VariantAnnotationsCache} using Gson.
+	 */
+	private static class CacheStatsInfo {
+		private final long size;
+		private final long hitCount;
+		private final long missCount;
+		private final double hitRate;
+		private final long evictionCount;
+
+		CacheStatsInfo(VariantAnnotationsCache cache) {
+			final CacheStats stats = cache.stats();
+			this.size = cache.size();
+			this.hitCount = stats.hitCount();
+			this.missCount = stats.missCount();
+			this.hitRate = stats.hitRate();
+			this.evictionCount = stats.evictionCount();
+		}
 	}
 
 	private ImmutableMap<String, JannovarData> loadDatabases() throws SerializationException {
@@ -111,24 +231,4 @@ public class RestServerCommand extends JannovarAnnotationCommand {
 		return builder.build();
 	}
 
-	/**
-	 * Helper class for simple serialization using Gson.
-	 */
-	private static class VariantAnnotationInfo {
-		private final String transcriptId;
-		private final ImmutableList variantEffects;
-		private final boolean isCoding;
-		private final String hgvsProtein;
-		private final String hgvsNucleotides;
-
-		public VariantAnnotationInfo(String transcriptId, Collection<String> variantEffects,
-			boolean isCoding, String hgvsProtein, String hgvsNucleotides) {
-			this.transcriptId = transcriptId;
-			this.variantEffects = ImmutableList.copyOf(variantEffects);
-			this.isCoding = isCoding;
-			this.hgvsProtein = hgvsProtein;
-			this.hgvsNucleotides = hgvsNucleotides;
-		}
-	}
-
 }
@@ -36,6 +36,26 @@ public class RestServerOptions extends JannovarBaseOptions {
 	 */
 	private int port = 5050;
 
+	/**
+	 * Number of worker threads for annotating batches.
+	 */
+	private int workerThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Maximal number of requests handled at the same time, further requests are rejected.
+	 */
+	private int maxPendingRequests = 64;
+
+	/**
+	 * Maximal number of cached variant annotations per database, <code>0</code> to disable caching.
+	 */
+	private long annotationCacheSize = 0;
+
+	/**
+	 * Number of seconds after which cached variant annotations expire, <code>0</code> for no expiry.
+	 */
+	private long annotationCacheTTL = 0;
+
 	/**
 	 * Setup {@link ArgumentParser}
 	 *
@@ -62,6 +82,14 @@ public class RestServerOptions extends JannovarBaseOptions {
 			"Path to .ser file(s) with database, naming is $genome_$label; can be given multiple times")
 			.action(Arguments.append()).required(true);
 
+		ArgumentGroup serverGroup = subParser.addArgumentGroup("Server configuration");
+		serverGroup.addArgument("--worker-threads").type(Integer.class)
+			.help("Number of threads for annotating batches, defaults to the number of CPUs")
+			.setDefault(Runtime.getRuntime().availableProcessors());
+		serverGroup.addArgument("--max-pending-requests").type(Integer.class).help(
+			"Maximal number of requests handled at the same time, further requests are answered "
+				+ "with status 503").setDefault(64);
+
 		subParser.epilog(
 			"Example: java -jar Jannovar.jar rest-server --host 0.0.0.0 --port 80 -d hg19_refseq.ser");
 
@@ -74,6 +102,15 @@ public class RestServerOptions extends JannovarBaseOptions {
 		host = args.getString("host");
 		port = args.getInt("port");
 		dbPaths = args.getList("database");
+		workerThreads = args.getInt("worker_threads");
+		maxPendingRequests = args.getInt("max_pending_requests");
+		if (workerThreads < 1)
+			throw new CommandLineParsingException("--worker-threads must be positive");
+		if (maxPendingRequests < 1)
+			throw new CommandLineParsingException("--max-pending-requests must be positive");
+		annotationCacheSize = args.getLong("annotation_cache_size");
+		annotationCacheTTL = args.getLong("annotation_cache_ttl");
+		JannovarAnnotationOptions.checkAnnotationCacheArgs(annotationCacheSize, annotationCacheTTL);
 	}
 
 	public List<String> getDbPaths() {
@@ -100,9 +137,43 @@ public class RestServerOptions extends JannovarBaseOptions {
 		this.port = port;
 	}
 
+	public int getWorkerThreads() {
+		return workerThreads;
+	}
+
+	public void setWorkerThreads(int workerThreads) {
+		this.workerThreads = workerThreads;
+	}
+
+	public int getMaxPendingRequests() {
+		return maxPendingRequests;
+	}
+
+	public void setMaxPendingRequests(int maxPendingRequests) {
+		this.maxPendingRequests = maxPendingRequests;
+	}
+
+	public long getAnnotationCacheSize() {
+		return annotationCacheSize;
+	}
+
+	public void setAnnotationCacheSize(long annotationCacheSize) {
+		this.annotationCacheSize = annotationCacheSize;
+	}
+
+	public long getAnnotationCacheTTL() {
+		return annotationCacheTTL;
+	}
+
+	public void setAnnotationCacheTTL(long annotationCacheTTL) {
+		this.annotationCacheTTL = annotationCacheTTL;
+	}
+
 	@Override public String toString() {
 		return "RestServerOptions{" + "dbPaths=" + dbPaths + ", host='" + host + '\'' + ", port="
-			+ port + '}';
+			+ port + ", workerThreads=" + workerThreads + ", maxPendingRequests="
+			+ maxPendingRequests + ", annotationCacheSize=" + annotationCacheSize
+			+ ", annotationCacheTTL=" + annotationCacheTTL + '}';
 	}
 
 }
@@ -0,0 +1,80 @@
+package de.charite.compbio.jannovar.cmd.rest_server;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.annotation.Annotation;
+import de.charite.compbio.jannovar.annotation.AnnotationException;
+import de.charite.compbio.jannovar.annotation.AnnotationMessage;
+import de.charite.compbio.jannovar.annotation.VariantAnnotations;
+import de.charite.compbio.jannovar.annotation.VariantAnnotator;
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.hgvs.AminoAcidCode;
+import de.charite.compbio.jannovar.htsjdk.InvalidCoordinatesException;
+import de.charite.compbio.jannovar.reference.GenomePosition;
+import de.charite.compbio.jannovar.reference.GenomeVariant;
+import de.charite.compbio.jannovar.reference.PositionType;
+import de.charite.compbio.jannovar.reference.Strand;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Helper class for simple serialization using Gson.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+class VariantAnnotationInfo {
+	private final String transcriptId;
+	private final ImmutableList variantEffects;
+	private final boolean isCoding;
+	private final String hgvsProtein;
+	private final String hgvsNucleotides;
+
+	public VariantAnnotationInfo(String transcriptId, Collection<String> variantEffects,
+		boolean isCoding, String hgvsProtein, String hgvsNucleotides) {
+		this.transcriptId = transcriptId;
+		this.variantEffects = ImmutableList.copyOf(variantEffects);
+		this.isCoding = isCoding;
+		this.hgvsProtein = hgvsProtein;
+		this.hgvsNucleotides = hgvsNucleotides;
+	}
+
+	/**
+	 * Annotate a variant given in one-based coordinates.
+	 *
+	 * @param annotator   the {@link VariantAnnotator} to use
+	 * @param refDict     the {@link ReferenceDictionary} of the annotator's database
+	 * @param chromosome  name of the chromosome
+	 * @param position    one-based position
+	 * @param reference   reference allele
+	 * @param alternative alternative allele
+	 * @return one {@link VariantAnnotationInfo} per annotated transcript
+	 * @throws InvalidCoordinatesException if the chromosome is not known
+	 * @throws AnnotationException         on problems with the annotation
+	 */
+	public static List<VariantAnnotationInfo> annotate(VariantAnnotator annotator,
+		ReferenceDictionary refDict, String chromosome, int position, String reference,
+		String alternative) throws InvalidCoordinatesException, AnnotationException {
+		final Integer boxedInt = refDict.getContigNameToID().get(chromosome);
+		if (boxedInt == null) {
+			throw new InvalidCoordinatesException("Unknown reference " + chromosome,
+				AnnotationMessage.ERROR_CHROMOSOME_NOT_FOUND);
+		}
+		final int chr = boxedInt.intValue();
+
+		final GenomePosition gPos = new GenomePosition(refDict, Strand.FWD, chr, position,
+			PositionType.ONE_BASED);
+		final VariantAnnotations annotations = annotator
+			.buildAnnotations(new GenomeVariant(gPos, reference, alternative));
+
+		final List<VariantAnnotationInfo> result = new ArrayList<>(0);
+		for (Annotation anno : annotations.getAnnotations()) {
+			result.add(new VariantAnnotationInfo(anno.getTranscript().getAccession(),
+				anno.getEffects().stream().map(x -> x.toString().toLowerCase())
+					.collect(Collectors.toList()), anno.getTranscript().isCoding(),
+				anno.getProteinChangeStr(AminoAcidCode.ONE_LETTER), anno.getCDSNTChangeStr()));
+		}
+		return result;
+	}
+
+}
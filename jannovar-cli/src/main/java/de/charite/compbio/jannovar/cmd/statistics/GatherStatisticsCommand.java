@@ -5,18 +5,34 @@ import de.charite.compbio.jannovar.cmd.CommandLineParsingException;
 import de.charite.compbio.jannovar.cmd.JannovarAnnotationCommand;
 import de.charite.compbio.jannovar.hgvs.AminoAcidCode;
 import de.charite.compbio.jannovar.htsjdk.InvalidCoordinatesException;
+import de.charite.compbio.jannovar.htsjdk.SampleIndex;
 import de.charite.compbio.jannovar.htsjdk.VariantContextAnnotator;
 import de.charite.compbio.jannovar.stats.facade.StatisticsCollector;
 import de.charite.compbio.jannovar.stats.facade.StatisticsWriter;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.samtools.util.RuntimeIOException;
+import htsjdk.tribble.Tribble;
+import htsjdk.tribble.TribbleException;
+import htsjdk.tribble.index.IndexFactory;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFFileReader;
 import net.sourceforge.argparse4j.inf.Namespace;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Jannovar command for gathering statistics about variant effect distribution etc.
@@ -37,6 +53,9 @@ public class GatherStatisticsCommand extends JannovarAnnotationCommand {
 
 	/**
 	 * Compute the statistics
+	 * <p>
+	 * With more than one thread and an indexed VCF file, the contigs from the index are processed in parallel, each
+	 * into its own {@link StatisticsCollector}, and the results are merged.
 	 */
 	@Override
 	public void run() throws JannovarException {
@@ -45,40 +64,30 @@ public class GatherStatisticsCommand extends JannovarAnnotationCommand {
 
 		System.err.println("Deserializing transcripts...");
 		deserializeTranscriptDefinitionFile(options.getDatabaseFilePath());
-		final boolean isUtrOffTarget = false;
-		final boolean isIntronicSpliceOffTarget = false;
-		VariantContextAnnotator annotator = new VariantContextAnnotator(refDict, chromosomeMap,
-			new VariantContextAnnotator.Options(false, AminoAcidCode.ONE_LETTER, false, false, false, isUtrOffTarget,
-				isIntronicSpliceOffTarget));
-
-		Map<String, Integer> errorMsgs = new TreeMap<>();
-
-		String prevChrom = null;
 
 		System.err.println("Opening VCF file...");
-		final String vcfPath = options.getPathInputVCF();
-		try (VCFFileReader vcfReader = new VCFFileReader(new File(vcfPath), false)) {
+		final File vcfFile = new File(options.getPathInputVCF());
+		try (VCFFileReader vcfReader = new VCFFileReader(vcfFile, false)) {
 			System.err.println("Gathering statistics...");
 			final long startTime = System.nanoTime();
-			StatisticsCollector statsCollector = new StatisticsCollector(
-				vcfReader.getFileHeader().getSampleNamesInOrder());
+			final SampleIndex sampleIndex = new SampleIndex(vcfReader.getFileHeader());
+			final List<String> contigs = (options.getNumThreads() > 1 && vcfReader.isQueryable())
+				? loadIndexedContigs(vcfFile) : null;
 
-			for (VariantContext vc : vcfReader) {
-				if (!vc.getContig().equals(prevChrom)) {
-					prevChrom = vc.getContig();
-					System.err.println("Starting on contig " + prevChrom);
-				}
-
-				try {
-					statsCollector.put(vc, annotator.buildAnnotations(vc));
-				} catch (InvalidCoordinatesException e) {
-					errorMsgs.putIfAbsent(e.getMessage(), 0);
-					errorMsgs.put(e.getMessage(), errorMsgs.get(e.getMessage()) + 1);
-				}
+			final PartialStatistics result;
+			if (contigs != null && !contigs.isEmpty()) {
+				System.err.println("Gathering statistics for each contig on " + options.getNumThreads()
+					+ " threads...");
+				result = gatherParallel(vcfFile, sampleIndex, contigs);
+			} else {
+				if (options.getNumThreads() > 1)
+					System.err.println("VCF file is not indexed or the index could not be read, using one thread...");
+				result = new PartialStatistics(sampleIndex);
+				result.gather(vcfReader.iterator(), buildAnnotator());
 			}
 
 			System.err.println("Writing out statistics...");
-			try (StatisticsWriter writer = new StatisticsWriter(statsCollector,
+			try (StatisticsWriter writer = new StatisticsWriter(result.statsCollector,
 				new File(options.getPathOutputReport()))) {
 				writer.writeStatistics();
 			} catch (FileNotFoundException e) {
@@ -90,7 +99,7 @@ public class GatherStatisticsCommand extends JannovarAnnotationCommand {
 			}
 
 			System.err.println("The following error messages occured");
-			for (Entry<String, Integer> e : errorMsgs.entrySet())
+			for (Entry<String, Integer> e : result.errorMsgs.entrySet())
 				System.err.println(e.getValue() + " times: " + e.getKey());
 
 			System.err.println("Wrote report to \"" + options.getPathOutputReport() + "\".");
@@ -100,4 +109,155 @@ public class GatherStatisticsCommand extends JannovarAnnotationCommand {
 		}
 	}
 
+	/**
+	 * @return newly constructed {@link VariantContextAnnotator}, to be used by a single thread only
+	 */
+	private VariantContextAnnotator buildAnnotator() {
+		final boolean isUtrOffTarget = false;
+		final boolean isIntronicSpliceOffTarget = false;
+		return new VariantContextAnnotator(refDict, chromosomeMap,
+			new VariantContextAnnotator.Options(false, AminoAcidCode.ONE_LETTER, false, false, false, isUtrOffTarget,
+				isIntronicSpliceOffTarget));
+	}
+
+	/**
+	 * Load the names of the contigs from the Tabix or Tribble index of <code>vcfFile</code>
+	 *
+	 * @return contig names in the order of the index, <code>null</code> if there is no index or it could not be read
+	 */
+	private static List<String> loadIndexedContigs(File vcfFile) {
+		File indexFile = Tribble.tabixIndexFile(vcfFile);
+		if (!indexFile.exists())
+			indexFile = Tribble.indexFile(vcfFile);
+		if (!indexFile.exists())
+			return null;
+		try {
+			return IndexFactory.loadIndex(indexFile.getPath()).getSequenceNames();
+		} catch (TribbleException | RuntimeIOException e) {
+			System.err.println("Could not read index " + indexFile + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Gather statistics for each of <code>contigs</code> on a worker pool, using the index of the VCF file
+	 * <p>
+	 * Each worker thread opens its own {@link VCFFileReader} once and uses it for all of its contigs.
+	 *
+	 * @return merged statistics for all contigs
+	 * @throws JannovarException on problems in the worker threads or when interrupted
+	 */
+	private PartialStatistics gatherParallel(File vcfFile, SampleIndex sampleIndex, List<String> contigs)
+		throws JannovarException {
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(options.getNumThreads(), r -> {
+			Thread thread = new Thread(r, "statistics-worker-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		final List<VCFFileReader> readers = Collections.synchronizedList(new ArrayList<>());
+		final ThreadLocal<VCFFileReader> threadReader = ThreadLocal.withInitial(() -> {
+			final VCFFileReader reader = new VCFFileReader(vcfFile, true);
+			readers.add(reader);
+			return reader;
+		});
+		final List<Future<PartialStatistics>> futures = new ArrayList<>();
+		try {
+			for (String contig : contigs) {
+				futures.add(executor.submit(() -> {
+					final PartialStatistics partial = new PartialStatistics(sampleIndex);
+					try (CloseableIterator<VariantContext> it = threadReader.get().query(contig, 1,
+						Integer.MAX_VALUE)) {
+						partial.gather(it, buildAnnotator());
+					}
+					return partial;
+				}));
+			}
+
+			final PartialStatistics result = new PartialStatistics(sampleIndex);
+			for (Future<PartialStatistics> future : futures) {
+				try {
+					result.merge(future.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new JannovarException("Interrupted while gathering statistics", e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException)
+						throw (RuntimeException) e.getCause();
+					throw new JannovarException("Problem gathering statistics", e.getCause());
+				}
+			}
+			return result;
+		} finally {
+			for (Future<PartialStatistics> future : futures)
+				future.cancel(true);
+			executor.shutdownNow();
+			// the readers may only be closed once no worker uses them any more
+			boolean interrupted = false;
+			while (!executor.isTerminated()) {
+				try {
+					executor.awaitTermination(1, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted)
+				Thread.currentThread().interrupt();
+			synchronized (readers) {
+				for (VCFFileReader reader : readers)
+					reader.close();
+			}
+		}
+	}
+
+	/**
+	 * Statistics and error messages gathered from a part of the VCF file
+	 */
+	private static class PartialStatistics {
+
+		/**
+		 * The collected statistics
+		 */
+		final StatisticsCollector statsCollector;
+
+		/**
+		 * Number of occurrences of each annotation error message
+		 */
+		final Map<String, Integer> errorMsgs = new TreeMap<>();
+
+		PartialStatistics(SampleIndex sampleIndex) {
+			this.statsCollector = new StatisticsCollector(sampleIndex);
+		}
+
+		/**
+		 * Annotate the records from <code>it</code> and register them
+		 */
+		void gather(Iterator<VariantContext> it, VariantContextAnnotator annotator) {
+			String prevChrom = null;
+			while (it.hasNext()) {
+				final VariantContext vc = it.next();
+				if (!vc.getContig().equals(prevChrom)) {
+					prevChrom = vc.getContig();
+					System.err.println("Starting on contig " + prevChrom);
+				}
+
+				try {
+					statsCollector.put(vc, annotator.buildAnnotations(vc));
+				} catch (InvalidCoordinatesException e) {
+					errorMsgs.merge(e.getMessage(), 1, Integer::sum);
+				}
+			}
+		}
+
+		/**
+		 * Add statistics and error messages from <code>other</code>
+		 */
+		void merge(PartialStatistics other) {
+			statsCollector.merge(other.statsCollector);
+			for (Entry<String, Integer> e : other.errorMsgs.entrySet())
+				errorMsgs.merge(e.getKey(), e.getValue(), Integer::sum);
+		}
+
+	}
+
 }
@@ -29,6 +29,11 @@ public class JannovarGatherStatisticsOptions extends JannovarBaseOptions {
 	 */
 	private String pathOutputReport = null;
 
+	/**
+	 * Number of threads for gathering statistics.
+	 */
+	private int numThreads = 1;
+
 	/**
 	 * Setup {@link ArgumentParser}
 	 *
@@ -52,6 +57,11 @@ public class JannovarGatherStatisticsOptions extends JannovarBaseOptions {
 		requiredGroup.addArgument("-o", "--output-report").help("Path to output report TXT file").required(true);
 		requiredGroup.addArgument("-d", "--database").help("Path to database .ser file").required(true);
 
+		ArgumentGroup optionalGroup = subParser.addArgumentGroup("Optional Arguments");
+		optionalGroup.addArgument("--threads").type(Integer.class)
+			.help("Number of threads for gathering statistics, the contigs from the index are processed in "
+				+ "parallel if the VCF file is indexed").setDefault(1);
+
 		JannovarBaseOptions.setupParser(subParser);
 	}
 
@@ -62,6 +72,9 @@ public class JannovarGatherStatisticsOptions extends JannovarBaseOptions {
 		pathInputVCF = args.getString("input_vcf");
 		pathOutputReport = args.getString("output_report");
 		databaseFilePath = args.getString("database");
+		numThreads = args.getInt("threads");
+		if (numThreads < 1)
+			throw new CommandLineParsingException("Number of threads must be >= 1 but was " + numThreads);
 	}
 
 	public String getPathInputVCF() {
@@ -88,10 +101,18 @@ public class JannovarGatherStatisticsOptions extends JannovarBaseOptions {
 		this.databaseFilePath = databaseFilePath;
 	}
 
+	public int getNumThreads() {
+		return numThreads;
+	}
+
+	public void setNumThreads(int numThreads) {
+		this.numThreads = numThreads;
+	}
+
 	@Override
 	public String toString() {
 		return "JannovarGatherStatisticsOptions [databaseFilePath=" + databaseFilePath + ", pathInputVCF="
-			+ pathInputVCF + ", pathOutputReport=" + pathOutputReport + "]";
+			+ pathInputVCF + ", pathOutputReport=" + pathOutputReport + ", numThreads=" + numThreads + "]";
 	}
 
 }
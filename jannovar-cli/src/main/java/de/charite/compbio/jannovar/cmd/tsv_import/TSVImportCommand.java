@@ -0,0 +1,47 @@
+package de.charite.compbio.jannovar.cmd.tsv_import;
+
+import de.charite.compbio.jannovar.JannovarException;
+import de.charite.compbio.jannovar.cmd.CommandLineParsingException;
+import de.charite.compbio.jannovar.cmd.JannovarCommand;
+import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVAnnotationOptions;
+import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVBinaryStoreWriter;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.File;
+
+/**
+ * Convert a TABIX-indexed TSV annotation file to the binary store format.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class TSVImportCommand extends JannovarCommand {
+
+	/**
+	 * Configuration
+	 */
+	private JannovarTSVImportOptions options;
+
+	public TSVImportCommand(String argv[], Namespace args) throws CommandLineParsingException {
+		this.options = new JannovarTSVImportOptions();
+		this.options.setFromArgs(args);
+	}
+
+	/**
+	 * Perform the conversion.
+	 */
+	@Override
+	public void run() throws JannovarException {
+		System.err.println("Options");
+		System.err.println(options.toString());
+
+		final GenericTSVAnnotationOptions importOptions = options.buildImportOptions();
+		System.err.println("Converting columns " + importOptions.getColumnNames() + " of "
+			+ importOptions.getTsvFile() + " to " + options.getPathOutput() + "...");
+		final long startTime = System.nanoTime();
+		final long numRecords = new GenericTSVBinaryStoreWriter(importOptions)
+			.write(new File(options.getPathOutput()));
+		System.err.println(String.format("Converted %d records in %.2f sec.", numRecords,
+			(System.nanoTime() - startTime) / 1000.0 / 1000.0 / 1000.0));
+	}
+
+}
@@ -74,4 +74,27 @@ public class JannovarAnnotateVCFInheritanceTest {
 		Assert.assertEquals(expected, actual);
 	}
 
+	// Same as testAnnotateAR() but with multiple threads and small chunks, output must stay in input order
+	@Test
+	public void testAnnotateARWithThreads() throws IOException, URISyntaxException {
+		final File outFolder = tmpFolder.newFolder();
+		final String inputVCFPath = this.getClass().getResource("/pedigree_vars.vcf").toURI().getPath();
+		final String inputPEDPath = this.getClass().getResource("/pedigree_ar.ped").toURI().getPath();
+		String[] argv = new String[]{"annotate-vcf", "-o", outFolder.toString() + "/pedigree_vars.jv_ar.vcf", "-d",
+			pathToSmallSer, "-i", inputVCFPath, "--pedigree-file", inputPEDPath, "--threads", "3", "--chunk-size",
+			"1"};
+		System.err.println(Joiner.on(" ").join(argv));
+
+		Jannovar.main(argv);
+
+		File f = new File(outFolder.getAbsolutePath() + File.separator + "pedigree_vars.jv_ar.vcf");
+		Assert.assertTrue(f.exists());
+
+		final File expectedFile = new File(this.getClass().getResource("/pedigree_vars.jv_ar.vcf").toURI().getPath());
+		final String expected = Files.asCharSource(expectedFile, Charsets.UTF_8).read();
+		final String actual = Files.asCharSource(f, Charsets.UTF_8).read().replaceAll("##jannovarCommand.*", "##jannovarCommand")
+			.replaceAll("##jannovarVersion.*", "##jannovarVersion");
+		Assert.assertEquals(expected, actual);
+	}
+
 }
@@ -0,0 +1,60 @@
+package de.charite.compbio.jannovar.cmd.annotate_vcf;
+
+import com.google.common.collect.ImmutableList;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link ParallelAnnotationPipeline} and {@link AnnotationSteps}
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class ParallelAnnotationPipelineTest {
+
+	private static List<VariantContext> buildRecords(int count) {
+		final List<Allele> alleles = ImmutableList.of(Allele.create("A", true), Allele.create("C"));
+		final List<VariantContext> records = new ArrayList<>();
+		for (int i = 0; i < count; ++i)
+			records.add(new VariantContextBuilder().chr("1").start(1000 + i).stop(1000 + i).alleles(alleles).make());
+		return records;
+	}
+
+	@Test
+	public void testKeepsOrderAndClosesSteps() throws Exception {
+		final AtomicInteger built = new AtomicInteger();
+		final AtomicInteger closed = new AtomicInteger();
+		final ParallelAnnotationPipeline pipeline = new ParallelAnnotationPipeline(3, 7, () -> {
+			built.incrementAndGet();
+			return new AnnotationSteps().then(vc -> new VariantContextBuilder(vc).id("rs" + vc.getStart()).make(),
+				closed::incrementAndGet);
+		});
+
+		final List<VariantContext> records = buildRecords(250);
+		final List<VariantContext> result = new ArrayList<>();
+		pipeline.run(records.iterator(), result::add);
+
+		Assert.assertEquals(records.size(), result.size());
+		for (int i = 0; i < records.size(); ++i)
+			Assert.assertEquals("rs" + records.get(i).getStart(), result.get(i).getID());
+		Assert.assertTrue(built.get() >= 1 && built.get() <= 3);
+		Assert.assertEquals(built.get(), closed.get());
+	}
+
+	@Test
+	public void testStepsClosedOnlyOnce() {
+		final AtomicInteger closed = new AtomicInteger();
+		final AnnotationSteps steps = new AnnotationSteps().then(vc -> vc, closed::incrementAndGet)
+			.then(vc -> vc, closed::incrementAndGet);
+		steps.close();
+		steps.close();
+		Assert.assertEquals(2, closed.get());
+	}
+
+}
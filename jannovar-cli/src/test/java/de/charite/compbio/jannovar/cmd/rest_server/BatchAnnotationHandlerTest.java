@@ -0,0 +1,94 @@
+package de.charite.compbio.jannovar.cmd.rest_server;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import de.charite.compbio.jannovar.annotation.VariantAnnotator;
+import de.charite.compbio.jannovar.annotation.builders.AnnotationBuilderOptions;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.JannovarDataSerializer;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the streaming annotation of batches in the REST server
+ */
+public class BatchAnnotationHandlerTest {
+
+	private static final String VARIANT = "{\"chromosome\":\"NC_000001.10\",\"position\":321052,"
+		+ "\"reference\":\"C\",\"alternative\":\"T\"}";
+
+	private static final String RESULT = "{\"chromosome\":\"NC_000001.10\",\"position\":321052,"
+		+ "\"reference\":\"C\",\"alternative\":\"T\",\"annotations\":[{\"transcriptId\":\"NR_026818.1\","
+		+ "\"variantEffects\":[\"intergenic_variant\"],\"isCoding\":false,\"hgvsProtein\":\"\","
+		+ "\"hgvsNucleotides\":\"\"}]}";
+
+	private JannovarData jvData;
+	private VariantAnnotator annotator;
+	private ExecutorService workers;
+	private BatchAnnotationHandler handler;
+
+	@Before
+	public void setUp() throws Exception {
+		jvData = new JannovarDataSerializer(
+			this.getClass().getResource("/hg19_small.ser").toURI().getPath()).load();
+		annotator = new VariantAnnotator(jvData.getRefDict(), jvData.getChromosomes(),
+			new AnnotationBuilderOptions(true, false));
+		workers = Executors.newFixedThreadPool(2);
+		handler = new BatchAnnotationHandler(workers, 2, new Gson());
+	}
+
+	@After
+	public void tearDown() {
+		workers.shutdownNow();
+	}
+
+	private String annotate(String input) throws IOException {
+		final JsonReader reader = new JsonReader(new StringReader(input));
+		final boolean isArray = BatchAnnotationHandler.startBatch(reader);
+		final StringWriter writer = new StringWriter();
+		handler.annotate(annotator, jvData.getRefDict(), reader, isArray, writer);
+		return writer.toString();
+	}
+
+	@Test
+	public void testArray() throws IOException {
+		Assert.assertEquals("[" + RESULT + ",\n{\"position\":3,\"error\":\"Require chromosome, position, "
+			+ "reference, and alternative\"}]\n", annotate("[" + VARIANT + ", {\"position\": 3}]"));
+	}
+
+	@Test
+	public void testEmptyArray() throws IOException {
+		Assert.assertEquals("[]\n", annotate("[]"));
+	}
+
+	@Test
+	public void testNDJSON() throws IOException {
+		Assert.assertEquals(RESULT + "\n" + RESULT + "\n", annotate(VARIANT + "\n" + VARIANT + "\n"));
+	}
+
+	@Test
+	public void testOrderKeptOverManyChunks() throws IOException {
+		final int numVariants = 10 * BatchAnnotationHandler.CHUNK_SIZE + 1;
+		final StringBuilder input = new StringBuilder();
+		for (int i = 0; i < numVariants; ++i)
+			input.append(VARIANT.replace("321052", Integer.toString(321052 + i))).append('\n');
+
+		final String[] lines = annotate(input.toString()).split("\n");
+		Assert.assertEquals(numVariants, lines.length);
+		for (int i = 0; i < numVariants; ++i)
+			Assert.assertTrue(lines[i].contains("\"position\":" + (321052 + i) + ","));
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidInput() throws IOException {
+		annotate("xx[");
+	}
+
+}
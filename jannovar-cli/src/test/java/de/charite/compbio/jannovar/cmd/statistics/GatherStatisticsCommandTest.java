@@ -0,0 +1,125 @@
+package de.charite.compbio.jannovar.cmd.statistics;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.io.Files;
+import de.charite.compbio.jannovar.Jannovar;
+import htsjdk.tribble.Tribble;
+import htsjdk.tribble.index.Index;
+import htsjdk.tribble.index.IndexFactory;
+import htsjdk.variant.vcf.VCFCodec;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Test for the <code>statistics</code> command
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class GatherStatisticsCommandTest {
+
+	@Rule
+	public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	// path to file with the first 93 lines of hg19 RefSeq (up to "Gnomon exon 459822 459929").
+	private String pathToSmallSer;
+
+	/**
+	 * Copy of <code>pedigree_vars.vcf</code> with a Tribble index next to it
+	 */
+	private File indexedVCF;
+
+	@Before
+	public void setUp() throws URISyntaxException, IOException {
+		this.pathToSmallSer = this.getClass().getResource("/hg19_small.ser").toURI().getPath();
+
+		indexedVCF = new File(tmpFolder.newFolder(), "pedigree_vars.vcf");
+		Files.copy(new File(this.getClass().getResource("/pedigree_vars.vcf").toURI()), indexedVCF);
+		Index index = IndexFactory.createDynamicIndex(indexedVCF, new VCFCodec());
+		index.write(Tribble.indexFile(indexedVCF));
+	}
+
+	/**
+	 * Write a copy of <code>pedigree_vars.vcf</code> with the given contig header lines and a Tribble index next to it
+	 */
+	private File writeIndexedVCF(String... contigLines) throws IOException {
+		final List<String> lines = new ArrayList<>();
+		for (String line : Files.readLines(indexedVCF, Charsets.UTF_8)) {
+			if (line.startsWith("#CHROM"))
+				lines.addAll(Arrays.asList(contigLines));
+			if (!line.startsWith("##contig="))
+				lines.add(line);
+		}
+		final File vcfFile = new File(tmpFolder.newFolder(), "pedigree_vars.vcf");
+		Files.asCharSink(vcfFile, Charsets.UTF_8).write(Joiner.on('\n').join(lines) + "\n");
+		Index index = IndexFactory.createDynamicIndex(vcfFile, new VCFCodec());
+		index.write(Tribble.indexFile(vcfFile));
+		return vcfFile;
+	}
+
+	/**
+	 * Run the <code>statistics</code> command and return the report
+	 */
+	private String runStatistics(String... extraArgs) throws IOException {
+		return runStatistics(indexedVCF, extraArgs);
+	}
+
+	/**
+	 * Run the <code>statistics</code> command on <code>vcfFile</code> and return the report
+	 */
+	private String runStatistics(File vcfFile, String... extraArgs) throws IOException {
+		final File report = new File(tmpFolder.newFolder(), "report.txt");
+		String[] argv = new String[]{"statistics", "-d", pathToSmallSer, "-i", vcfFile.toString(), "-o",
+			report.toString()};
+		String[] allArgs = new String[argv.length + extraArgs.length];
+		System.arraycopy(argv, 0, allArgs, 0, argv.length);
+		System.arraycopy(extraArgs, 0, allArgs, argv.length, extraArgs.length);
+
+		Jannovar.main(allArgs);
+
+		Assert.assertTrue(report.exists());
+		return Files.asCharSource(report, Charsets.UTF_8).read();
+	}
+
+	@Test
+	public void testStatistics() throws IOException {
+		final String report = runStatistics();
+		Assert.assertTrue(report.contains("[contig_counts]\ncontig\tALL\tfather\tindex\tmother\n1\t4\t3\t4\t2\n"
+			+ "10\t2\t2\t2\t2\n"));
+		Assert.assertTrue(report.contains("[is_filtered_count]\nis_filtered\tALL\tfather\tindex\tmother\n"
+			+ "PASS\t6\t5\t6\t4\nFILTER\t0\t0\t0\t0\n"));
+	}
+
+	@Test
+	public void testStatisticsWithThreads() throws IOException {
+		Assert.assertEquals(runStatistics(), runStatistics("--threads", "2"));
+	}
+
+	@Test
+	public void testStatisticsWithThreadsContigLinesWithoutLength() throws IOException {
+		// contig line without length, contig "10" is not declared at all
+		final File vcfFile = writeIndexedVCF("##contig=<ID=1>");
+		final String report = runStatistics(vcfFile);
+		Assert.assertTrue(report.contains("1\t4\t3\t4\t2\n10\t2\t2\t2\t2\n"));
+		Assert.assertEquals(report, runStatistics(vcfFile, "--threads", "2"));
+	}
+
+	@Test
+	public void testStatisticsWithThreadsRecordsPastContigLength() throws IOException {
+		final File vcfFile = writeIndexedVCF("##contig=<ID=1,length=20000>", "##contig=<ID=10,length=1000>");
+		final String report = runStatistics(vcfFile);
+		Assert.assertTrue(report.contains("1\t4\t3\t4\t2\n10\t2\t2\t2\t2\n"));
+		Assert.assertEquals(report, runStatistics(vcfFile, "--threads", "2"));
+	}
+
+}
@@ -0,0 +1,332 @@
+package de.charite.compbio.jannovar.annotation;
+
+import de.charite.compbio.jannovar.annotation.AnnotationLocation.RankType;
+import de.charite.compbio.jannovar.hgvs.AminoAcidCode;
+import de.charite.compbio.jannovar.reference.GenomeVariant;
+import de.charite.compbio.jannovar.reference.ProjectionException;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import de.charite.compbio.jannovar.reference.TranscriptPosition;
+import de.charite.compbio.jannovar.reference.TranscriptProjectionDecorator;
+
+import java.util.Iterator;
+
+/**
+ * Streaming encoder for the value of the <code>ANN</code> INFO field
+ * <p>
+ * Writes the same strings as {@link Annotation#toVCFAnnoString(String, boolean, AminoAcidCode)} but appends the
+ * fields directly to a reused buffer, escaping on the fly. The sequence ontology terms of the {@link VariantEffect}s
+ * and the per-transcript fields (gene symbol, gene ID, feature type, accession, and bio type) are encoded only once
+ * and then taken from a small cache.
+ * <p>
+ * Usage: call {@link #reset} for each VCF record, {@link #add} for each annotation, and {@link #toString} for the
+ * comma-separated <code>ANN</code> value. Instances are not thread-safe.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class VCFAnnotationEncoder {
+
+	/**
+	 * Number of slots in the transcript cache, must be a power of two
+	 */
+	private static final int TRANSCRIPT_CACHE_SIZE = 1024;
+
+	/**
+	 * Encoded fields for annotations without transcript
+	 */
+	private static final String NO_TRANSCRIPT_FIELDS = "||||";
+
+	/**
+	 * Whether or not to escape the invalid VCF characters
+	 */
+	private final boolean escape;
+
+	/**
+	 * Amino acid code to use for the protein change
+	 */
+	private final AminoAcidCode code;
+
+	/**
+	 * Encoded sequence ontology term for each {@link VariantEffect}, by ordinal
+	 */
+	private final String[] effectTerms;
+
+	/**
+	 * Transcripts in the cache, slot chosen by identity hash code
+	 */
+	private final TranscriptModel[] cachedTranscripts = new TranscriptModel[TRANSCRIPT_CACHE_SIZE];
+
+	/**
+	 * Encoded per-transcript fields for {@link #cachedTranscripts}
+	 */
+	private final String[] cachedTranscriptFields = new String[TRANSCRIPT_CACHE_SIZE];
+
+	/**
+	 * The buffer with the encoded annotations
+	 */
+	private final StringBuilder builder = new StringBuilder(1024);
+
+	/**
+	 * Number of annotations in {@link #builder}
+	 */
+	private int count = 0;
+
+	/**
+	 * @param escape whether or not to escape the invalid VCF characters, e.g. <code>'='</code>
+	 * @param code   amino acid code to use for the protein change
+	 */
+	public VCFAnnotationEncoder(boolean escape, AminoAcidCode code) {
+		this.escape = escape;
+		this.code = code;
+		final VariantEffect[] effects = VariantEffect.values();
+		this.effectTerms = new String[effects.length];
+		for (VariantEffect effect : effects) {
+			final String term = effect.getSequenceOntologyTerm();
+			effectTerms[effect.ordinal()] = (term == null) ? "" : encode(term);
+		}
+	}
+
+	/**
+	 * Remove all annotations, starting a new <code>ANN</code> value
+	 */
+	public void reset() {
+		builder.setLength(0);
+		count = 0;
+	}
+
+	/**
+	 * @return whether or not no annotation has been added since the last {@link #reset}
+	 */
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * @return number of annotations added since the last {@link #reset}
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Append the encoded <code>annotation</code>, separated by a comma from the previous one
+	 *
+	 * @param annotation the {@link Annotation} to encode
+	 * @param alt        alternative allele
+	 */
+	public void add(Annotation annotation, String alt) {
+		if (count++ > 0)
+			builder.append(',');
+
+		final TranscriptModel transcript = annotation.getTranscript();
+		final boolean isCoding = transcript != null && transcript.isCoding();
+
+		appendEscaped(alt);
+		builder.append('|');
+		appendEffects(annotation);
+		builder.append('|');
+		appendEscaped(annotation.getPutativeImpact().toString());
+		builder.append('|');
+		builder.append(getTranscriptFields(transcript));
+		builder.append('|');
+
+		final AnnotationLocation annoLoc = annotation.getAnnoLoc();
+		if (annoLoc != null && annoLoc.getRankType() != RankType.UNDEFINED)
+			builder.append(annoLoc.getRank() + 1).append('/').append(annoLoc.getTotalRank());
+		builder.append('|');
+		if (annotation.getCDSNTChange() != null) {
+			builder.append(isCoding ? "c." : "n.");
+			appendEscaped(annotation.getCDSNTChange().toHGVSString());
+		}
+		builder.append('|');
+		if (annotation.getProteinChange() != null) {
+			builder.append("p.");
+			appendEscaped(annotation.getProteinChange().toHGVSString(code));
+		}
+		builder.append('|');
+		appendPositions(annoLoc, isCoding);
+		builder.append('|');
+		appendDistance(annotation, transcript);
+		builder.append('|');
+		appendMessages(annotation);
+	}
+
+	/**
+	 * Encode a single annotation, equivalent to {@link #reset}, {@link #add}, and {@link #toString}
+	 *
+	 * @param annotation the {@link Annotation} to encode
+	 * @param alt        alternative allele
+	 * @return the encoded annotation
+	 */
+	public String encode(Annotation annotation, String alt) {
+		reset();
+		add(annotation, alt);
+		return toString();
+	}
+
+	/**
+	 * @return the comma-separated encoded annotations added since the last {@link #reset}
+	 */
+	@Override
+	public String toString() {
+		return builder.toString();
+	}
+
+	private void appendEffects(Annotation annotation) {
+		final Iterator<VariantEffect> it = annotation.getEffects().iterator();
+		while (it.hasNext()) {
+			builder.append(effectTerms[it.next().ordinal()]);
+			if (it.hasNext())
+				builder.append('&');
+		}
+	}
+
+	private void appendMessages(Annotation annotation) {
+		final Iterator<AnnotationMessage> it = annotation.getMessages().iterator();
+		while (it.hasNext()) {
+			appendEscaped(it.next().toString());
+			if (it.hasNext())
+				builder.append('&');
+		}
+	}
+
+	/**
+	 * Append transcript, CDS, and amino acid position fields, in the same way as {@link VCFAnnotationData}
+	 */
+	private void appendPositions(AnnotationLocation annoLoc, boolean isCoding) {
+		if (annoLoc == null) {
+			builder.append("||");
+			return;
+		}
+
+		final TranscriptModel transcript = annoLoc.getTranscript();
+		final TranscriptPosition txPos;
+		if (annoLoc.getTXLocation().length() == 0)
+			txPos = annoLoc.getTXLocation().getTranscriptBeginPos().shifted(-1); // change length == 0, insertion
+		else
+			txPos = annoLoc.getTXLocation().getTranscriptBeginPos(); // all other variants
+		if (txPos.getPos() != -1)
+			builder.append(txPos.getPos() + 1).append('/').append(transcript.getTXRegion().length());
+		builder.append('|');
+
+		if (!isCoding) {
+			builder.append('|');
+			return;
+		}
+		final TranscriptProjectionDecorator projector = new TranscriptProjectionDecorator(transcript);
+		final int cdsPos;
+		try {
+			cdsPos = projector.projectGenomeToCDSPosition(projector.transcriptToGenomePos(txPos)).getPos();
+		} catch (ProjectionException e) {
+			throw new Error("Bug: problem with projection!", e);
+		}
+		if (cdsPos != -1) {
+			final int cdsLength = transcript.cdsTranscriptLength();
+			builder.append(cdsPos + 1).append('/').append(cdsLength);
+			builder.append('|');
+			builder.append(cdsPos / 3 + 1).append('/').append(cdsLength / 3);
+		} else {
+			builder.append('|');
+		}
+	}
+
+	/**
+	 * Append distance to transcript for intergenic, upstream, and downstream variants
+	 */
+	private void appendDistance(Annotation annotation, TranscriptModel transcript) {
+		if (transcript == null)
+			return;
+		if (!annotation.getEffects().contains(VariantEffect.INTERGENIC_VARIANT)
+			&& !annotation.getEffects().contains(VariantEffect.UPSTREAM_GENE_VARIANT)
+			&& !annotation.getEffects().contains(VariantEffect.DOWNSTREAM_GENE_VARIANT))
+			return;
+
+		final GenomeVariant change = annotation.getGenomeVariant();
+		final int distance;
+		if (change.getGenomeInterval().isLeftOf(transcript.getTXRegion().getGenomeBeginPos()))
+			distance = transcript.getTXRegion().getGenomeBeginPos()
+				.differenceTo(change.getGenomeInterval().getGenomeEndPos());
+		else
+			distance = change.getGenomeInterval().getGenomeBeginPos()
+				.differenceTo(transcript.getTXRegion().getGenomeEndPos());
+		if (distance != -1)
+			builder.append(distance);
+	}
+
+	/**
+	 * @return encoded gene symbol, gene ID, feature type, accession, and bio type for <code>transcript</code>
+	 */
+	private String getTranscriptFields(TranscriptModel transcript) {
+		if (transcript == null)
+			return NO_TRANSCRIPT_FIELDS;
+		final int slot = System.identityHashCode(transcript) & (TRANSCRIPT_CACHE_SIZE - 1);
+		if (cachedTranscripts[slot] != transcript) {
+			final StringBuilder fields = new StringBuilder();
+			appendNullable(fields, transcript.getGeneSymbol());
+			fields.append('|');
+			appendNullable(fields, transcript.getGeneID());
+			fields.append("|transcript|");
+			appendNullable(fields, transcript.getAccession());
+			fields.append('|').append(transcript.isCoding() ? "Coding" : "Noncoding");
+			cachedTranscriptFields[slot] = encode(fields.toString());
+			cachedTranscripts[slot] = transcript;
+		}
+		return cachedTranscriptFields[slot];
+	}
+
+	private static void appendNullable(StringBuilder sb, String str) {
+		if (str != null)
+			sb.append(str);
+	}
+
+	/**
+	 * @return <code>str</code>, escaped if configured
+	 */
+	private String encode(String str) {
+		if (!escape)
+			return str;
+		final StringBuilder sb = new StringBuilder(str.length() + 8);
+		appendEscaped(sb, str, true);
+		return sb.toString();
+	}
+
+	private void appendEscaped(String str) {
+		appendEscaped(builder, str, escape);
+	}
+
+	/**
+	 * Append <code>str</code> to <code>sb</code>, escaping as {@link VCFAnnotationData} does if <code>escape</code>
+	 */
+	private static void appendEscaped(StringBuilder sb, String str, boolean escape) {
+		if (!escape) {
+			sb.append(str);
+			return;
+		}
+		// Escaping follows the requirements of (1) VCF 4.2 and (2) the "Variant annotations in VCF format document.
+		for (int i = 0; i < str.length(); ++i) {
+			final char c = str.charAt(i);
+			switch (c) {
+				case '%':
+					sb.append("%25");
+					break;
+				case ',':
+					sb.append("%2C");
+					break;
+				case ';':
+					sb.append("%3B");
+					break;
+				case '=':
+					sb.append("%3D");
+					break;
+				case ' ':
+					sb.append("%20");
+					break;
+				case '\t':
+					sb.append("%09");
+					break;
+				default:
+					sb.append(c);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+package de.charite.compbio.jannovar.annotation;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import de.charite.compbio.jannovar.annotation.builders.AnnotationBuilderOptions;
+import de.charite.compbio.jannovar.reference.GenomeVariant;
+import de.charite.compbio.jannovar.reference.Strand;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, thread-safe cache of {@link VariantAnnotations}
+ * <p>
+ * The entries are keyed by the {@link GenomeVariant} (which is normalized on construction, and converted to the
+ * forward strand here) and the {@link AnnotationBuilderOptions}. As {@link GenomeVariant}s only store the numeric
+ * chromosome ID, a cache must only be shared by {@link VariantAnnotator}s that use the same transcript database.
+ * Least recently used entries are evicted when the cache is full, and entries can expire after a given time. Hit and
+ * miss counts are recorded and can be obtained through {@link #stats()}.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class VariantAnnotationsCache {
+
+	/**
+	 * The underlying cache
+	 */
+	private final Cache<Key, VariantAnnotations> cache;
+
+	/**
+	 * Construct cache without expiry
+	 *
+	 * @param maximumSize maximal number of entries
+	 */
+	public VariantAnnotationsCache(long maximumSize) {
+		this(maximumSize, 0);
+	}
+
+	/**
+	 * Construct cache
+	 *
+	 * @param maximumSize       maximal number of entries
+	 * @param expireAfterSecond number of seconds after which entries expire, <code>0</code> for no expiry
+	 */
+	public VariantAnnotationsCache(long maximumSize, long expireAfterSecond) {
+		if (maximumSize <= 0)
+			throw new IllegalArgumentException("Cache size must be positive but was " + maximumSize);
+		if (expireAfterSecond < 0)
+			throw new IllegalArgumentException("Expiry time must not be negative but was " + expireAfterSecond);
+		CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats();
+		if (expireAfterSecond > 0)
+			builder = builder.expireAfterWrite(expireAfterSecond, TimeUnit.SECONDS);
+		this.cache = builder.build();
+	}
+
+	/**
+	 * Return cached annotations or build and cache them
+	 *
+	 * @param variant the {@link GenomeVariant} to annotate
+	 * @param options the {@link AnnotationBuilderOptions} used for building
+	 * @param loader  builds the annotations on cache misses
+	 * @return {@link VariantAnnotations} for <code>variant</code>
+	 * @throws AnnotationException if thrown by <code>loader</code>
+	 */
+	public VariantAnnotations get(GenomeVariant variant, AnnotationBuilderOptions options,
+								  Callable<VariantAnnotations> loader) throws AnnotationException {
+		try {
+			return cache.get(new Key(variant, options), loader);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof AnnotationException)
+				throw (AnnotationException) e.getCause();
+			throw new AnnotationException("Problem building annotations for " + variant, e.getCause());
+		} catch (UncheckedExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return current number of entries, approximate under concurrent modification
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * Remove all entries, the statistics are kept
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * @return snapshot of the hit, miss, and eviction counts
+	 */
+	public CacheStats stats() {
+		return cache.stats();
+	}
+
+	@Override
+	public String toString() {
+		final CacheStats stats = stats();
+		return String.format("VariantAnnotationsCache [size=%d, hits=%d, misses=%d, hitRate=%.3f, evictions=%d]",
+			size(), stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+	}
+
+	/**
+	 * Key of the cache entries
+	 */
+	private static final class Key {
+		/**
+		 * The variant, on the forward strand
+		 */
+		private final GenomeVariant variant;
+		/**
+		 * The builder configuration
+		 */
+		private final AnnotationBuilderOptions options;
+		/**
+		 * Precomputed hash code
+		 */
+		private final int hashCode;
+
+		Key(GenomeVariant variant, AnnotationBuilderOptions options) {
+			this.variant = variant.withStrand(Strand.FWD);
+			this.options = options;
+			this.hashCode = 31 * this.variant.hashCode() + options.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			final Key other = (Key) obj;
+			return hashCode == other.hashCode && variant.equals(other.variant) && options.equals(other.options);
+		}
+	}
+
+}
@@ -40,6 +40,11 @@ public final class VariantAnnotator {
 	 */
 	final private ImmutableMap<Integer, Chromosome> chromosomeMap;
 
+	/**
+	 * cache for the built annotations, <code>null</code> for no caching
+	 */
+	final private VariantAnnotationsCache cache;
+
 	/**
 	 * Construct new VariantAnnotator, given a chromosome map.
 	 *
@@ -49,9 +54,31 @@ public final class VariantAnnotator {
 	 */
 	public VariantAnnotator(ReferenceDictionary refDict, ImmutableMap<Integer, Chromosome> chromosomeMap,
 							AnnotationBuilderOptions options) {
+		this(refDict, chromosomeMap, options, null);
+	}
+
+	/**
+	 * Construct new VariantAnnotator, given a chromosome map and a cache.
+	 *
+	 * @param refDict       {@link ReferenceDictionary} with information about the genome.
+	 * @param chromosomeMap chromosome map to use for the annotator.
+	 * @param options       configuration to use for building the annotations
+	 * @param cache         {@link VariantAnnotationsCache} for the built annotations, may be shared between annotators
+	 *                      of the same database, <code>null</code> for no caching
+	 */
+	public VariantAnnotator(ReferenceDictionary refDict, ImmutableMap<Integer, Chromosome> chromosomeMap,
+							AnnotationBuilderOptions options, VariantAnnotationsCache cache) {
 		this.refDict = refDict;
 		this.chromosomeMap = chromosomeMap;
 		this.options = options;
+		this.cache = cache;
+	}
+
+	/**
+	 * @return the {@link VariantAnnotationsCache} used, <code>null</code> if there is none
+	 */
+	public VariantAnnotationsCache getCache() {
+		return cache;
 	}
 
 	// TODO(holtgrem): Remove this?
@@ -93,6 +120,13 @@ public final class VariantAnnotator {
 	 * @throws AnnotationException on problems building the annotation list
 	 */
 	public VariantAnnotations buildAnnotations(GenomeVariant change) throws AnnotationException {
+		if (cache == null)
+			return buildAnnotationsUncached(change);
+		else
+			return cache.get(change, options, () -> buildAnnotationsUncached(change));
+	}
+
+	private VariantAnnotations buildAnnotationsUncached(GenomeVariant change) throws AnnotationException {
 		// Get genomic change interval and reset the factory.
 		final GenomeInterval changeInterval = change.getGenomeInterval();
 
@@ -47,4 +47,26 @@ public class AnnotationBuilderOptions {
 		return overrideTxSeqWithGenomeVariantRef;
 	}
 
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (nt3PrimeShifting ? 1231 : 1237);
+		result = prime * result + (overrideTxSeqWithGenomeVariantRef ? 1231 : 1237);
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		AnnotationBuilderOptions other = (AnnotationBuilderOptions) obj;
+		return nt3PrimeShifting == other.nt3PrimeShifting
+			&& overrideTxSeqWithGenomeVariantRef == other.overrideTxSeqWithGenomeVariantRef;
+	}
+
 }
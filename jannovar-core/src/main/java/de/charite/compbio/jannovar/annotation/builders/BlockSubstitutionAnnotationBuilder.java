@@ -11,7 +11,6 @@ import de.charite.compbio.jannovar.hgvs.nts.change.NucleotideChange;
 import de.charite.compbio.jannovar.hgvs.nts.change.NucleotideIndel;
 import de.charite.compbio.jannovar.hgvs.protein.ProteinSeqDescription;
 import de.charite.compbio.jannovar.hgvs.protein.change.*;
-import de.charite.compbio.jannovar.impl.util.Translator;
 import de.charite.compbio.jannovar.reference.*;
 
 import java.util.EnumSet;
@@ -89,15 +88,11 @@ public final class BlockSubstitutionAnnotationBuilder extends AnnotationBuilder
 	/**
 	 * Helper class for generating annotations for exonic CDS variants.
 	 * <p>
-	 * We use this helper class to simplify the access to the parameters such as {@link #wtCDSSeq} etc.
+	 * We use this helper class to simplify the access to the parameters such as {@link #wtAASeq} etc.
 	 */
 	private class CDSExonicAnnotationBuilder {
 		final GenomeInterval changeInterval;
 
-		final Translator t = Translator.getTranslator();
-
-		final String wtCDSSeq;
-		final String varCDSSeq;
 		final int delFrameShift;
 
 		final String wtAASeq;
@@ -124,13 +119,11 @@ public final class BlockSubstitutionAnnotationBuilder extends AnnotationBuilder
 
 		public CDSExonicAnnotationBuilder() {
 			this.changeInterval = change.getGenomeInterval();
-			this.wtCDSSeq = projector.getTranscriptStartingAtCDS();
-			this.varCDSSeq = seqChangeHelper.getCDSWithGenomeVariant(change);
-			this.delFrameShift = (varCDSSeq.length() - wtCDSSeq.length()) % 3;
+			this.delFrameShift = seqChangeHelper.getCDSLengthChange(change) % 3;
 
 			// Translate the variant CDS sequence.
-			this.wtAASeq = t.translateDNA(wtCDSSeq);
-			this.varAASeq = t.translateDNA(varCDSSeq);
+			this.wtAASeq = seqChangeHelper.getWildTypeProtein();
+			this.varAASeq = seqChangeHelper.getProteinWithGenomeVariant(change);
 
 			// Get the reference change begin position as CDS coordinate, handling introns and positions outside of CDS.
 			this.refChangeBeginPos = projector.projectGenomeToCDSPosition(changeInterval.getGenomeBeginPos());
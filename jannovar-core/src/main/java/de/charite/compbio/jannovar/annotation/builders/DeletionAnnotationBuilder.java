@@ -9,7 +9,6 @@ import de.charite.compbio.jannovar.hgvs.nts.change.NucleotideChange;
 import de.charite.compbio.jannovar.hgvs.nts.change.NucleotideDeletion;
 import de.charite.compbio.jannovar.hgvs.protein.ProteinSeqDescription;
 import de.charite.compbio.jannovar.hgvs.protein.change.*;
-import de.charite.compbio.jannovar.impl.util.Translator;
 import de.charite.compbio.jannovar.reference.*;
 
 import java.util.EnumSet;
@@ -83,15 +82,11 @@ public final class DeletionAnnotationBuilder extends AnnotationBuilder {
 	/**
 	 * Helper class for generating annotations for exonic CDS variants.
 	 * <p>
-	 * We use this helper class to simplify the access to the parameters such as {@link #wtCDSSeq} etc.
+	 * We use this helper class to simplify the access to the parameters such as {@link #wtAASeq} etc.
 	 */
 	private class CDSExonicAnnotationBuilder {
 		final GenomeInterval changeInterval;
 
-		final Translator t = Translator.getTranslator();
-
-		final String wtCDSSeq;
-		final String varCDSSeq;
 		final int delFrameShift;
 
 		final String wtAASeq;
@@ -113,8 +108,6 @@ public final class DeletionAnnotationBuilder extends AnnotationBuilder {
 
 		public CDSExonicAnnotationBuilder() {
 			this.changeInterval = change.getGenomeInterval();
-			this.wtCDSSeq = projector.getTranscriptStartingAtCDS();
-			this.varCDSSeq = seqChangeHelper.getCDSWithGenomeVariant(change);
 			this.delFrameShift = DeletionAnnotationBuilder.this.change.getRef().length() % 3;
 
 			// Get the change begin position as CDS coordinate, handling introns and positions outside of CDS.
@@ -122,8 +115,8 @@ public final class DeletionAnnotationBuilder extends AnnotationBuilder {
 			this.changeLastPos = projector.projectGenomeToCDSPosition(changeInterval.getGenomeEndPos().shifted(-1));
 
 			// Translate the variant CDS sequence and look for stop codon.
-			this.wtAASeq = t.translateDNA(wtCDSSeq);
-			this.varAASeq = t.translateDNA(varCDSSeq);
+			this.wtAASeq = seqChangeHelper.getWildTypeProtein();
+			this.varAASeq = seqChangeHelper.getProteinWithGenomeVariant(change);
 			this.varAAStopPos = varAASeq.indexOf('*', this.changeBeginPos.getPos() / 3);
 
 			// protect against going behind transcript
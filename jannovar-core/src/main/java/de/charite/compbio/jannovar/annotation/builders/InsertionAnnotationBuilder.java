@@ -11,7 +11,6 @@ import de.charite.compbio.jannovar.hgvs.nts.change.NucleotideDuplication;
 import de.charite.compbio.jannovar.hgvs.nts.change.NucleotideInsertion;
 import de.charite.compbio.jannovar.hgvs.protein.ProteinSeqDescription;
 import de.charite.compbio.jannovar.hgvs.protein.change.*;
-import de.charite.compbio.jannovar.impl.util.Translator;
 import de.charite.compbio.jannovar.reference.*;
 
 import java.util.EnumSet;
@@ -121,16 +120,9 @@ public final class InsertionAnnotationBuilder extends AnnotationBuilder {
 	/**
 	 * Helper class for generating annotations for exonic CDS variants.
 	 * <p>
-	 * We use this helper class to simplify the access to the parameters such as {@link #wtCDSSeq} etc.
+	 * We use this helper class to simplify the access to the parameters such as {@link #wtAASeq} etc.
 	 */
 	private class CDSExonicAnnotationBuilder {
-		final Translator t = Translator.getTranslator();
-
-		// wild type CDS nucleotide sequence
-		final String wtCDSSeq;
-		// variant CDS nucleotide sequence
-		final String varCDSSeq;
-
 		// wild type amino acid sequence
 		final String wtAASeq;
 		// position of stop codon in wtAASeq, or -1 if none
@@ -156,16 +148,13 @@ public final class InsertionAnnotationBuilder extends AnnotationBuilder {
 		ProteinChange proteinChange;
 
 		public CDSExonicAnnotationBuilder() {
-			this.wtCDSSeq = projector.getTranscriptStartingAtCDS();
-			this.varCDSSeq = seqChangeHelper.getCDSWithGenomeVariant(change);
-
 			// Get position of insertion on CDS level, will obtain AA change pos after normalization.
 			this.insertPos = projector.projectGenomeToCDSPosition(change.getGenomePos());
 
 			// Translate the variant CDS sequence and look for stop codon.
-			this.wtAASeq = t.translateDNA(wtCDSSeq);
+			this.wtAASeq = seqChangeHelper.getWildTypeProtein();
 			this.wtAAStopPos = wtAASeq.indexOf('*', this.insertPos.getPos() / 3);
-			this.varAASeq = t.translateDNA(varCDSSeq);
+			this.varAASeq = seqChangeHelper.getProteinWithGenomeVariant(change);
 			this.varAAStopPos = varAASeq.indexOf('*', this.insertPos.getPos() / 3);
 
 			// Build initial aaChange. This is correct for non-FS insertions, and the first affected bases for FS
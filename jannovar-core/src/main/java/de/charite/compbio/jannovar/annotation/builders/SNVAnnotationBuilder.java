@@ -4,10 +4,10 @@ import de.charite.compbio.jannovar.annotation.Annotation;
 import de.charite.compbio.jannovar.annotation.AnnotationMessage;
 import de.charite.compbio.jannovar.annotation.InvalidGenomeVariant;
 import de.charite.compbio.jannovar.annotation.VariantEffect;
+import de.charite.compbio.jannovar.hgvs.Translator;
 import de.charite.compbio.jannovar.hgvs.nts.change.NucleotideChange;
 import de.charite.compbio.jannovar.hgvs.nts.change.NucleotideSubstitution;
 import de.charite.compbio.jannovar.hgvs.protein.change.*;
-import de.charite.compbio.jannovar.impl.util.Translator;
 import de.charite.compbio.jannovar.reference.*;
 
 import java.util.EnumSet;
@@ -126,8 +126,7 @@ public final class SNVAnnotationBuilder extends AnnotationBuilder {
 				varTypes.add(VariantEffect.STOP_RETAINED_VARIANT);
 			} else { // change in stop codon, AA change
 				varTypes.add(VariantEffect.STOP_LOST);
-				String varNTString = seqChangeHelper.getCDSWithGenomeVariant(change);
-				String varAAString = Translator.getTranslator().translateDNA(varNTString);
+				String varAAString = seqChangeHelper.getProteinWithGenomeVariant(change);
 				int stopCodonPos = varAAString.indexOf('*', cdsPos.getPos() / 3);
 				int shift = stopCodonPos - cdsPos.getPos() / 3;
 				proteinChange = ProteinExtension.build(true, wtAA, cdsPos.getPos() / 3, varAA, shift);
@@ -11,6 +11,10 @@ import de.charite.compbio.jannovar.reference.TranscriptModel;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * This data type is used for serialization after downloading.
@@ -54,8 +58,20 @@ public final class JannovarData implements Serializable {
 	 * @param transcriptModels the list of {@link TranscriptModel} objects to use in this object
 	 */
 	public JannovarData(ReferenceDictionary refDict, ImmutableList<TranscriptModel> transcriptModels) {
+		this(refDict, transcriptModels, null);
+	}
+
+	/**
+	 * Initialize the object with the given values, building the per-chromosome interval trees on <code>pool</code>.
+	 *
+	 * @param refDict          the {@link ReferenceDictionary} to use in this object
+	 * @param transcriptModels the list of {@link TranscriptModel} objects to use in this object
+	 * @param pool             {@link ForkJoinPool} to build on, <code>null</code> for building on the calling thread
+	 */
+	public JannovarData(ReferenceDictionary refDict, ImmutableList<TranscriptModel> transcriptModels,
+						ForkJoinPool pool) {
 		this.refDict = refDict;
-		this.chromosomes = makeChromsomes(refDict, transcriptModels);
+		this.chromosomes = makeChromsomes(refDict, transcriptModels, pool);
 		this.tmByAccession = makeTMByAccession(transcriptModels);
 		this.tmByGeneSymbol = makeTMByGeneSymbol(transcriptModels);
 	}
@@ -122,7 +138,8 @@ public final class JannovarData implements Serializable {
 	 * @return a mapping from numeric chromsome ID to {@link Chromosome} object
 	 */
 	private static ImmutableMap<Integer, Chromosome> makeChromsomes(ReferenceDictionary refDict,
-																	ImmutableList<TranscriptModel> transcriptModels) {
+																	ImmutableList<TranscriptModel> transcriptModels,
+																	ForkJoinPool pool) {
 		ImmutableMap.Builder<Integer, Chromosome> builder = new ImmutableMap.Builder<Integer, Chromosome>();
 
 		// First, factorize the TranscriptModel objects by chromosome ID.
@@ -135,12 +152,22 @@ public final class JannovarData implements Serializable {
 		for (TranscriptModel transcript : transcriptModels)
 			transcripts.get(transcript.getChr()).add(transcript);
 
-		// Then, construct an interval tree for each chromosome and add the lists of intervals.
-		for (Integer chrID : transcripts.keySet()) {
+		// Then, construct an interval tree for each chromosome and add the lists of intervals. The trees are
+		// independent, so they are built in parallel when a fork-join pool is given.
+		List<Integer> chrIDs = new ArrayList<Integer>(transcripts.keySet());
+		Function<Integer, Chromosome> buildChromosome = chrID -> {
 			IntervalArray<TranscriptModel> iTree = new IntervalArray<TranscriptModel>(transcripts.get(chrID),
 				new TranscriptIntervalEndExtractor());
-			builder.put(chrID, new Chromosome(refDict, chrID, iTree));
-		}
+			return new Chromosome(refDict, chrID, iTree);
+		};
+		List<Chromosome> chromosomes;
+		if (pool == null)
+			chromosomes = chrIDs.stream().map(buildChromosome).collect(Collectors.toList());
+		else
+			chromosomes = pool.submit(() -> chrIDs.parallelStream().map(buildChromosome).collect(Collectors.toList()))
+				.join();
+		for (int i = 0; i < chrIDs.size(); ++i)
+			builder.put(chrIDs.get(i), chromosomes.get(i));
 
 		return builder.build();
 	}
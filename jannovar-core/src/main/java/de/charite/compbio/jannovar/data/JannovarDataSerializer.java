@@ -121,11 +121,18 @@ public final class JannovarDataSerializer {
 
 	/**
 	 * Deserialize a {@link JannovarData} object from a file.
+	 * <p>
+	 * Files in the columnar format written by {@link MappedJannovarDataSerializer} are detected and loaded through
+	 * memory-mapping, building all transcript models. Use {@link MappedJannovarDataSerializer#open()} for building
+	 * them on first access.
 	 *
 	 * @return {@link JannovarData} object yielded by deserialization
 	 * @throws SerializationException on problems with the deserialization
 	 */
 	public JannovarData load() throws SerializationException {
+		if (MappedJannovarDataSerializer.isMappedFormat(filename))
+			return new MappedJannovarDataSerializer(filename).load();
+
 		logger.info(StringUtil.concatenate("Deserializing JannovarData from ", filename));
 		final long startTime = System.nanoTime();
 
@@ -0,0 +1,468 @@
+package de.charite.compbio.jannovar.data;
+
+import de.charite.compbio.jannovar.data.impl.VersionComparator;
+import de.charite.compbio.jannovar.impl.util.StringUtil;
+import de.charite.compbio.jannovar.reference.Anchor;
+import de.charite.compbio.jannovar.reference.GenomeInterval;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// NOTE(holtgrem): Part of the public interface of the Jannovar library.
+
+/**
+ * Manager for writing and memory-mapping {@link JannovarData} in the columnar on-disk format.
+ * <p>
+ * In contrast to the format of {@link JannovarDataSerializer} (Java serialization of the object graph in a gzip
+ * stream), this format keeps transcript coordinates, exon arrays, CDS bounds, alignments and sequences in flat
+ * <code>int</code> and <code>byte</code> regions with an offset index. The file starts with the same
+ * <code>JVDB</code> magic bytes, followed by the format magic <code>COL1</code>, the Jannovar version and a table
+ * with the offset and length of each section. All numbers are big-endian.
+ * <p>
+ * {@link #open()} maps the sections through {@link FileChannel#map} and returns a {@link MappedTranscriptStore} that
+ * builds {@link TranscriptModel}s lazily on first access. {@link #load()} and {@link JannovarDataSerializer#load()},
+ * which detects files in this format, build all {@link TranscriptModel}s eagerly, as {@link JannovarData} keeps
+ * interval trees over all of them.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class MappedJannovarDataSerializer {
+
+	/**
+	 * magic bytes, same as for {@link JannovarDataSerializer}
+	 */
+	private final static byte[] MAGIC_BYTES = {'J', 'V', 'D', 'B'};
+
+	/**
+	 * magic bytes for the columnar format, following {@link #MAGIC_BYTES}
+	 */
+	private final static byte[] FORMAT_BYTES = {'C', 'O', 'L', '1'};
+
+	/**
+	 * the minimal supported version of Jannovar in this version
+	 */
+	private final String minVersion = "0.35-SNAPSHOT";
+
+	/**
+	 * section with reference dictionary, as <code>int</code>s pointing into the string pool
+	 */
+	static final int SECTION_REF_DICT = 0;
+	/**
+	 * section with <code>n + 1</code> offsets of the strings into {@link #SECTION_STRING_DATA}
+	 */
+	static final int SECTION_STRING_OFFSETS = 1;
+	/**
+	 * section with UTF-8 encoded string data
+	 */
+	static final int SECTION_STRING_DATA = 2;
+	/**
+	 * section with fixed-width transcript records of {@link #RECORD_INTS} <code>int</code>s each
+	 */
+	static final int SECTION_TRANSCRIPTS = 3;
+	/**
+	 * section with (begin, end) pairs of the exons
+	 */
+	static final int SECTION_EXONS = 4;
+	/**
+	 * section with (key, value) string pairs of the alternative gene IDs
+	 */
+	static final int SECTION_ALT_GENE_IDS = 5;
+	/**
+	 * section with (gap position, sequence position) pairs of the alignment anchors
+	 */
+	static final int SECTION_ANCHORS = 6;
+	/**
+	 * section with the transcript sequences, one byte per character
+	 */
+	static final int SECTION_SEQUENCES = 7;
+	/**
+	 * section with the transcript indices, sorted by accession
+	 */
+	static final int SECTION_ACCESSION_INDEX = 8;
+	/**
+	 * number of sections
+	 */
+	static final int NUM_SECTIONS = 9;
+
+	/**
+	 * Offsets of the fields in the transcript records
+	 */
+	static final int REC_ACCESSION = 0;
+	static final int REC_GENE_SYMBOL = 1;
+	static final int REC_GENE_ID = 2;
+	static final int REC_CHR = 3;
+	static final int REC_STRAND = 4;
+	static final int REC_TX_BEGIN = 5;
+	static final int REC_TX_END = 6;
+	static final int REC_CDS_BEGIN = 7;
+	static final int REC_CDS_END = 8;
+	static final int REC_TSL = 9;
+	static final int REC_FLAGS = 10;
+	static final int REC_EXON_OFFSET = 11;
+	static final int REC_EXON_COUNT = 12;
+	static final int REC_ALT_ID_OFFSET = 13;
+	static final int REC_ALT_ID_COUNT = 14;
+	static final int REC_ANCHOR_OFFSET = 15;
+	static final int REC_REF_ANCHOR_COUNT = 16;
+	static final int REC_QRY_ANCHOR_COUNT = 17;
+	static final int REC_SEQ_OFFSET = 18;
+	static final int REC_SEQ_LENGTH = 19;
+	/**
+	 * number of <code>int</code>s in one transcript record
+	 */
+	static final int RECORD_INTS = 20;
+
+	/**
+	 * flag for {@link TranscriptModel#isHasSubstitutions()}
+	 */
+	static final int FLAG_HAS_SUBSTITUTIONS = 1;
+	/**
+	 * flag for {@link TranscriptModel#isHasIndels()}
+	 */
+	static final int FLAG_HAS_INDELS = 2;
+
+	/**
+	 * the logger object to use
+	 */
+	private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * path to file to write to or map from
+	 */
+	private final String filename;
+
+	/**
+	 * Initialize the serializer with the path to the file to write/map.
+	 *
+	 * @param filename path to the file to write to or map from
+	 */
+	public MappedJannovarDataSerializer(String filename) {
+		this.filename = filename;
+	}
+
+	/**
+	 * @param filename path to the file to check
+	 * @return whether <code>filename</code> is a Jannovar database in the columnar format
+	 */
+	public static boolean isMappedFormat(String filename) {
+		try (FileInputStream fileIn = new FileInputStream(filename)) {
+			byte[] word = new byte[MAGIC_BYTES.length + FORMAT_BYTES.length];
+			if (fileIn.read(word) != word.length)
+				return false;
+			return Arrays.equals(Arrays.copyOfRange(word, 0, MAGIC_BYTES.length), MAGIC_BYTES)
+				&& Arrays.equals(Arrays.copyOfRange(word, MAGIC_BYTES.length, word.length), FORMAT_BYTES);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Convert a file written by {@link JannovarDataSerializer} to the columnar format.
+	 *
+	 * @param serFilename    path to the <code>.ser</code> file to convert
+	 * @param mappedFilename path to the output file
+	 * @throws SerializationException on problems with the (de)serialization
+	 */
+	public static void convert(String serFilename, String mappedFilename) throws SerializationException {
+		final JannovarData data = new JannovarDataSerializer(serFilename).load();
+		new MappedJannovarDataSerializer(mappedFilename).save(data);
+	}
+
+	/**
+	 * Write a {@link JannovarData} object to a file in the columnar format.
+	 *
+	 * @param data the {@link JannovarData} object to write
+	 * @throws SerializationException on problems with writing
+	 */
+	public void save(JannovarData data) throws SerializationException {
+		logger.info(StringUtil.concatenate("Writing JannovarData in columnar format to ", filename));
+		final long startTime = System.nanoTime();
+
+		if (data == null || data.getRefDict().getContigNameToID().isEmpty())
+			throw new SerializationException("Attempting to serialize empty data set");
+
+		final List<TranscriptModel> tms = new ArrayList<>(data.getTmByAccession().values());
+		final StringPool strings = new StringPool();
+		final long[] sectionOffsets = new long[NUM_SECTIONS];
+		final long[] sectionLengths = new long[NUM_SECTIONS];
+
+		try (RandomAccessFile file = new RandomAccessFile(filename, "rw")) {
+			file.setLength(0);
+			final FileChannel channel = file.getChannel();
+			final DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Channels.newOutputStream(channel), 1024 * 1024));
+
+			// Header with magic bytes, version, and placeholder for the section table.
+			out.write(MAGIC_BYTES);
+			out.write(FORMAT_BYTES);
+			out.writeUTF(JannovarDataSerializer.getVersion());
+			out.flush();
+			final long tablePos = channel.position();
+			for (int i = 0; i < 2 * NUM_SECTIONS; ++i)
+				out.writeLong(0);
+
+			// Reference dictionary
+			final ReferenceDictionary refDict = data.getRefDict();
+			beginSection(out, channel, sectionOffsets, SECTION_REF_DICT);
+			out.writeInt(refDict.getContigNameToID().size());
+			for (Map.Entry<String, Integer> e : refDict.getContigNameToID().entrySet()) {
+				out.writeInt(strings.put(e.getKey()));
+				out.writeInt(e.getValue());
+			}
+			out.writeInt(refDict.getContigIDToName().size());
+			for (Map.Entry<Integer, String> e : refDict.getContigIDToName().entrySet()) {
+				out.writeInt(e.getKey());
+				out.writeInt(strings.put(e.getValue()));
+			}
+			out.writeInt(refDict.getContigIDToLength().size());
+			for (Map.Entry<Integer, Integer> e : refDict.getContigIDToLength().entrySet()) {
+				out.writeInt(e.getKey());
+				out.writeInt(e.getValue());
+			}
+			endSection(out, channel, sectionOffsets, sectionLengths, SECTION_REF_DICT);
+
+			// Transcript records, the variable-length data is written in a second pass below
+			beginSection(out, channel, sectionOffsets, SECTION_TRANSCRIPTS);
+			int exonOffset = 0;
+			int altIdOffset = 0;
+			int anchorOffset = 0;
+			long seqOffset = 0;
+			for (TranscriptModel tm : tms) {
+				checkConsistency(tm);
+				final int numAnchors = tm.getSeqAlignment().getRefAnchors().size()
+					+ tm.getSeqAlignment().getQryAnchors().size();
+				if (seqOffset + tm.getSequence().length() > Integer.MAX_VALUE)
+					throw new SerializationException("Transcript sequences too large for columnar format");
+
+				out.writeInt(strings.put(tm.getAccession()));
+				out.writeInt(strings.put(tm.getGeneSymbol()));
+				out.writeInt(strings.put(tm.getGeneID()));
+				out.writeInt(tm.getChr());
+				out.writeInt(tm.getStrand().isForward() ? 0 : 1);
+				out.writeInt(tm.getTXRegion().getBeginPos());
+				out.writeInt(tm.getTXRegion().getEndPos());
+				out.writeInt(tm.getCDSRegion().getBeginPos());
+				out.writeInt(tm.getCDSRegion().getEndPos());
+				out.writeInt(tm.getTranscriptSupportLevel());
+				out.writeInt((tm.isHasSubstitutions() ? FLAG_HAS_SUBSTITUTIONS : 0)
+					| (tm.isHasIndels() ? FLAG_HAS_INDELS : 0));
+				out.writeInt(exonOffset);
+				out.writeInt(tm.getExonRegions().size());
+				out.writeInt(altIdOffset);
+				out.writeInt(tm.getAltGeneIDs().size());
+				out.writeInt(anchorOffset);
+				out.writeInt(tm.getSeqAlignment().getRefAnchors().size());
+				out.writeInt(tm.getSeqAlignment().getQryAnchors().size());
+				out.writeInt((int) seqOffset);
+				out.writeInt(tm.getSequence().length());
+
+				exonOffset += 2 * tm.getExonRegions().size();
+				altIdOffset += 2 * tm.getAltGeneIDs().size();
+				anchorOffset += 2 * numAnchors;
+				seqOffset += tm.getSequence().length();
+			}
+			endSection(out, channel, sectionOffsets, sectionLengths, SECTION_TRANSCRIPTS);
+
+			beginSection(out, channel, sectionOffsets, SECTION_EXONS);
+			for (TranscriptModel tm : tms) {
+				for (GenomeInterval exon : tm.getExonRegions()) {
+					out.writeInt(exon.getBeginPos());
+					out.writeInt(exon.getEndPos());
+				}
+			}
+			endSection(out, channel, sectionOffsets, sectionLengths, SECTION_EXONS);
+
+			beginSection(out, channel, sectionOffsets, SECTION_ALT_GENE_IDS);
+			for (TranscriptModel tm : tms) {
+				for (Map.Entry<String, String> e : tm.getAltGeneIDs().entrySet()) {
+					out.writeInt(strings.put(e.getKey()));
+					out.writeInt(strings.put(e.getValue()));
+				}
+			}
+			endSection(out, channel, sectionOffsets, sectionLengths, SECTION_ALT_GENE_IDS);
+
+			beginSection(out, channel, sectionOffsets, SECTION_ANCHORS);
+			for (TranscriptModel tm : tms) {
+				for (Anchor anchor : tm.getSeqAlignment().getRefAnchors()) {
+					out.writeInt(anchor.getGapPos());
+					out.writeInt(anchor.getSeqPos());
+				}
+				for (Anchor anchor : tm.getSeqAlignment().getQryAnchors()) {
+					out.writeInt(anchor.getGapPos());
+					out.writeInt(anchor.getSeqPos());
+				}
+			}
+			endSection(out, channel, sectionOffsets, sectionLengths, SECTION_ANCHORS);
+
+			beginSection(out, channel, sectionOffsets, SECTION_SEQUENCES);
+			for (TranscriptModel tm : tms)
+				out.write(tm.getSequence().getBytes(StandardCharsets.ISO_8859_1));
+			endSection(out, channel, sectionOffsets, sectionLengths, SECTION_SEQUENCES);
+
+			beginSection(out, channel, sectionOffsets, SECTION_ACCESSION_INDEX);
+			final Integer[] order = new Integer[tms.size()];
+			for (int i = 0; i < order.length; ++i)
+				order[i] = i;
+			Arrays.sort(order, Comparator.comparing(i -> tms.get(i).getAccession()));
+			for (Integer i : order)
+				out.writeInt(i);
+			endSection(out, channel, sectionOffsets, sectionLengths, SECTION_ACCESSION_INDEX);
+
+			// The string pool comes last, as all strings are known only now
+			beginSection(out, channel, sectionOffsets, SECTION_STRING_OFFSETS);
+			int stringOffset = 0;
+			out.writeInt(stringOffset);
+			for (byte[] bytes : strings.values) {
+				stringOffset += bytes.length;
+				out.writeInt(stringOffset);
+			}
+			endSection(out, channel, sectionOffsets, sectionLengths, SECTION_STRING_OFFSETS);
+
+			beginSection(out, channel, sectionOffsets, SECTION_STRING_DATA);
+			for (byte[] bytes : strings.values)
+				out.write(bytes);
+			endSection(out, channel, sectionOffsets, sectionLengths, SECTION_STRING_DATA);
+
+			// Patch section table
+			final ByteBuffer table = ByteBuffer.allocate(2 * NUM_SECTIONS * 8);
+			for (int i = 0; i < NUM_SECTIONS; ++i) {
+				table.putLong(sectionOffsets[i]);
+				table.putLong(sectionLengths[i]);
+			}
+			table.flip();
+			channel.write(table, tablePos);
+		} catch (IOException e) {
+			throw new SerializationException(String.format("Could not write data file: %s", e.toString()));
+		}
+
+		logger.info(String.format("Writing took %.2f sec.",
+			(System.nanoTime() - startTime) / 1000.0 / 1000.0 / 1000.0));
+	}
+
+	/**
+	 * Map the file and return a {@link MappedTranscriptStore} for lazy access to the {@link TranscriptModel}s.
+	 *
+	 * @return {@link MappedTranscriptStore} with the mapped data
+	 * @throws SerializationException on problems with reading the file
+	 */
+	public MappedTranscriptStore open() throws SerializationException {
+		logger.info(StringUtil.concatenate("Mapping JannovarData from ", filename));
+		final long startTime = System.nanoTime();
+
+		final MappedTranscriptStore result;
+		try (RandomAccessFile file = new RandomAccessFile(filename, "r")) {
+			final FileChannel channel = file.getChannel();
+			final DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Channels.newInputStream(channel)));
+			byte[] word = new byte[MAGIC_BYTES.length];
+			in.readFully(word);
+			if (!Arrays.equals(word, MAGIC_BYTES))
+				throw new SerializationException(
+					filename + " does not look like a Jannovar database, magic number incorrect!");
+			in.readFully(word);
+			if (!Arrays.equals(word, FORMAT_BYTES))
+				throw new SerializationException(filename + " is not a Jannovar database in columnar format!");
+			final String dbVersion = in.readUTF();
+			if (new VersionComparator().compare(dbVersion, minVersion) < 0)
+				throw new SerializationException(
+					filename + " was created by Jannovar " + dbVersion + " but we need at least " + minVersion);
+
+			final ByteBuffer[] sections = new ByteBuffer[NUM_SECTIONS];
+			for (int i = 0; i < NUM_SECTIONS; ++i) {
+				final long offset = in.readLong();
+				final long length = in.readLong();
+				sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+			}
+			result = new MappedTranscriptStore(dbVersion, sections);
+		} catch (IOException e) {
+			throw new SerializationException(String.format("Could not map data file: %s", e.toString()));
+		}
+
+		logger.info(String.format("Mapping took %.2f sec.",
+			(System.nanoTime() - startTime) / 1000.0 / 1000.0 / 1000.0));
+		return result;
+	}
+
+	/**
+	 * Map the file and build a {@link JannovarData} object from it.
+	 * <p>
+	 * In contrast to {@link #open()}, this builds all {@link TranscriptModel}s right away.
+	 *
+	 * @return {@link JannovarData} object with all {@link TranscriptModel}s of the file
+	 * @throws SerializationException on problems with reading the file
+	 */
+	public JannovarData load() throws SerializationException {
+		return open().toJannovarData();
+	}
+
+	/**
+	 * Ensure that all intervals of <code>tm</code> share chromosome and strand, as only stored once per record
+	 */
+	private static void checkConsistency(TranscriptModel tm) throws SerializationException {
+		final List<GenomeInterval> itvs = new ArrayList<>(tm.getExonRegions());
+		itvs.add(tm.getCDSRegion());
+		for (GenomeInterval itv : itvs)
+			if (itv.getChr() != tm.getChr() || itv.getStrand() != tm.getStrand())
+				throw new SerializationException("Inconsistent chromosome or strand in transcript " + tm);
+	}
+
+	/**
+	 * Flush <code>out</code> and record the current position as start of section <code>section</code>
+	 */
+	private static void beginSection(DataOutputStream out, FileChannel channel, long[] offsets, int section)
+		throws IOException {
+		out.flush();
+		offsets[section] = channel.position();
+	}
+
+	/**
+	 * Flush <code>out</code> and record the length of section <code>section</code>
+	 */
+	private static void endSection(DataOutputStream out, FileChannel channel, long[] offsets, long[] lengths,
+								   int section) throws IOException {
+		out.flush();
+		lengths[section] = channel.position() - offsets[section];
+		if (lengths[section] > Integer.MAX_VALUE)
+			throw new IOException("Section " + section + " is too large for memory mapping");
+	}
+
+	/**
+	 * Pool for de-duplicating strings, <code>null</code> is encoded as <code>-1</code>
+	 */
+	private static final class StringPool {
+
+		/**
+		 * UTF-8 encoded strings, in order of their index
+		 */
+		private final List<byte[]> values = new ArrayList<>();
+
+		/**
+		 * mapping from string to index in {@link #values}
+		 */
+		private final HashMap<String, Integer> indices = new HashMap<>();
+
+		/**
+		 * @return index of <code>s</code> in the pool, adding it if necessary
+		 */
+		int put(String s) {
+			if (s == null)
+				return -1;
+			Integer idx = indices.get(s);
+			if (idx == null) {
+				idx = values.size();
+				values.add(s.getBytes(StandardCharsets.UTF_8));
+				indices.put(s, idx);
+			}
+			return idx;
+		}
+
+	}
+
+}
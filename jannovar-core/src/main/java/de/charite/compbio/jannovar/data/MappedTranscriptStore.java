@@ -0,0 +1,270 @@
+package de.charite.compbio.jannovar.data;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import de.charite.compbio.jannovar.reference.Alignment;
+import de.charite.compbio.jannovar.reference.Anchor;
+import de.charite.compbio.jannovar.reference.GenomeInterval;
+import de.charite.compbio.jannovar.reference.PositionType;
+import de.charite.compbio.jannovar.reference.Strand;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static de.charite.compbio.jannovar.data.MappedJannovarDataSerializer.*;
+
+// NOTE(holtgrem): Part of the public interface of the Jannovar library.
+
+/**
+ * Read-only access to a memory-mapped database in the format written by {@link MappedJannovarDataSerializer}.
+ * <p>
+ * {@link TranscriptModel} objects are built from the mapped regions on first access and then cached. Only absolute
+ * reads are performed on the mapped buffers, so instances can be shared between threads.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class MappedTranscriptStore {
+
+	/**
+	 * Jannovar version that wrote the file
+	 */
+	private final String version;
+
+	/**
+	 * the reference dictionary, read eagerly
+	 */
+	private final ReferenceDictionary refDict;
+
+	/**
+	 * offsets into {@link #stringData}
+	 */
+	private final IntBuffer stringOffsets;
+
+	/**
+	 * UTF-8 encoded string data
+	 */
+	private final ByteBuffer stringData;
+
+	/**
+	 * fixed-width transcript records
+	 */
+	private final IntBuffer records;
+
+	/**
+	 * exon (begin, end) pairs
+	 */
+	private final IntBuffer exons;
+
+	/**
+	 * alternative gene ID (key, value) string index pairs
+	 */
+	private final IntBuffer altGeneIDs;
+
+	/**
+	 * alignment anchor (gap position, sequence position) pairs
+	 */
+	private final IntBuffer anchors;
+
+	/**
+	 * transcript sequences
+	 */
+	private final ByteBuffer sequences;
+
+	/**
+	 * transcript indices, sorted by accession
+	 */
+	private final IntBuffer accessionIndex;
+
+	/**
+	 * lazily built transcript models
+	 */
+	private final AtomicReferenceArray<TranscriptModel> transcriptModels;
+
+	/**
+	 * Construct from the mapped sections, see {@link MappedJannovarDataSerializer#open()}
+	 */
+	MappedTranscriptStore(String version, ByteBuffer[] sections) {
+		this.version = version;
+		this.stringOffsets = sections[SECTION_STRING_OFFSETS].asIntBuffer();
+		this.stringData = sections[SECTION_STRING_DATA];
+		this.records = sections[SECTION_TRANSCRIPTS].asIntBuffer();
+		this.exons = sections[SECTION_EXONS].asIntBuffer();
+		this.altGeneIDs = sections[SECTION_ALT_GENE_IDS].asIntBuffer();
+		this.anchors = sections[SECTION_ANCHORS].asIntBuffer();
+		this.sequences = sections[SECTION_SEQUENCES];
+		this.accessionIndex = sections[SECTION_ACCESSION_INDEX].asIntBuffer();
+		this.transcriptModels = new AtomicReferenceArray<>(records.limit() / RECORD_INTS);
+		this.refDict = readRefDict(sections[SECTION_REF_DICT].asIntBuffer());
+	}
+
+	/**
+	 * @return Jannovar version that wrote the file
+	 */
+	public String getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return the {@link ReferenceDictionary} of the database
+	 */
+	public ReferenceDictionary getRefDict() {
+		return refDict;
+	}
+
+	/**
+	 * @return number of transcripts in the database
+	 */
+	public int size() {
+		return transcriptModels.length();
+	}
+
+	/**
+	 * @param i 0-based index of the transcript
+	 * @return accession of the <code>i</code>-th transcript, without building its {@link TranscriptModel}
+	 */
+	public String getAccession(int i) {
+		return getString(records.get(i * RECORD_INTS + REC_ACCESSION));
+	}
+
+	/**
+	 * @param i 0-based index of the transcript
+	 * @return the <code>i</code>-th {@link TranscriptModel}, built on first access
+	 */
+	public TranscriptModel getTranscriptModel(int i) {
+		TranscriptModel result = transcriptModels.get(i);
+		if (result == null) {
+			transcriptModels.compareAndSet(i, null, buildTranscriptModel(i));
+			result = transcriptModels.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Look up transcript by accession using binary search in the accession index.
+	 *
+	 * @param accession the transcript accession to look for
+	 * @return {@link TranscriptModel} with the given accession or <code>null</code> if there is none
+	 */
+	public TranscriptModel findByAccession(String accession) {
+		int lo = 0;
+		int hi = accessionIndex.limit() - 1;
+		while (lo <= hi) {
+			final int mid = (lo + hi) >>> 1;
+			final int idx = accessionIndex.get(mid);
+			final int cmp = getAccession(idx).compareTo(accession);
+			if (cmp < 0)
+				lo = mid + 1;
+			else if (cmp > 0)
+				hi = mid - 1;
+			else
+				return getTranscriptModel(idx);
+		}
+		return null;
+	}
+
+	/**
+	 * Build all {@link TranscriptModel}s and construct a {@link JannovarData} object from them.
+	 *
+	 * @return {@link JannovarData} with all transcripts of the database
+	 */
+	public JannovarData toJannovarData() {
+		final ImmutableList.Builder<TranscriptModel> builder = ImmutableList.builder();
+		for (int i = 0; i < size(); ++i)
+			builder.add(getTranscriptModel(i));
+		return new JannovarData(refDict, builder.build());
+	}
+
+	/**
+	 * Decode the <code>i</code>-th transcript record
+	 */
+	private TranscriptModel buildTranscriptModel(int i) {
+		final int rec = i * RECORD_INTS;
+		final int chr = records.get(rec + REC_CHR);
+		final Strand strand = (records.get(rec + REC_STRAND) == 0) ? Strand.FWD : Strand.REV;
+
+		final GenomeInterval txRegion = new GenomeInterval(refDict, strand, chr,
+			records.get(rec + REC_TX_BEGIN), records.get(rec + REC_TX_END), PositionType.ZERO_BASED);
+		final GenomeInterval cdsRegion = new GenomeInterval(refDict, strand, chr,
+			records.get(rec + REC_CDS_BEGIN), records.get(rec + REC_CDS_END), PositionType.ZERO_BASED);
+
+		final int exonOffset = records.get(rec + REC_EXON_OFFSET);
+		final int exonCount = records.get(rec + REC_EXON_COUNT);
+		final ImmutableList.Builder<GenomeInterval> exonRegions = ImmutableList.builder();
+		for (int j = 0; j < exonCount; ++j)
+			exonRegions.add(new GenomeInterval(refDict, strand, chr, exons.get(exonOffset + 2 * j),
+				exons.get(exonOffset + 2 * j + 1), PositionType.ZERO_BASED));
+
+		final int altIdOffset = records.get(rec + REC_ALT_ID_OFFSET);
+		final int altIdCount = records.get(rec + REC_ALT_ID_COUNT);
+		final ImmutableSortedMap.Builder<String, String> altIDs = ImmutableSortedMap.naturalOrder();
+		for (int j = 0; j < altIdCount; ++j)
+			altIDs.put(getString(altGeneIDs.get(altIdOffset + 2 * j)),
+				getString(altGeneIDs.get(altIdOffset + 2 * j + 1)));
+
+		final int anchorOffset = records.get(rec + REC_ANCHOR_OFFSET);
+		final int refAnchorCount = records.get(rec + REC_REF_ANCHOR_COUNT);
+		final int qryAnchorCount = records.get(rec + REC_QRY_ANCHOR_COUNT);
+		final Alignment alignment = new Alignment(readAnchors(anchorOffset, refAnchorCount),
+			readAnchors(anchorOffset + 2 * refAnchorCount, qryAnchorCount));
+
+		final byte[] seq = new byte[records.get(rec + REC_SEQ_LENGTH)];
+		final ByteBuffer seqBuffer = sequences.duplicate();
+		seqBuffer.position(records.get(rec + REC_SEQ_OFFSET));
+		seqBuffer.get(seq);
+
+		final int flags = records.get(rec + REC_FLAGS);
+		return new TranscriptModel(getString(records.get(rec + REC_ACCESSION)),
+			getString(records.get(rec + REC_GENE_SYMBOL)), txRegion, cdsRegion, exonRegions.build(),
+			new String(seq, StandardCharsets.ISO_8859_1), getString(records.get(rec + REC_GENE_ID)),
+			records.get(rec + REC_TSL), (flags & FLAG_HAS_SUBSTITUTIONS) != 0, (flags & FLAG_HAS_INDELS) != 0,
+			altIDs.build(), alignment);
+	}
+
+	/**
+	 * @return <code>count</code> anchors starting at <code>offset</code>
+	 */
+	private List<Anchor> readAnchors(int offset, int count) {
+		final List<Anchor> result = new ArrayList<>(count);
+		for (int j = 0; j < count; ++j)
+			result.add(new Anchor(anchors.get(offset + 2 * j), anchors.get(offset + 2 * j + 1)));
+		return result;
+	}
+
+	/**
+	 * @return string with index <code>idx</code> from the string pool, <code>null</code> for <code>-1</code>
+	 */
+	private String getString(int idx) {
+		if (idx < 0)
+			return null;
+		final int begin = stringOffsets.get(idx);
+		final byte[] bytes = new byte[stringOffsets.get(idx + 1) - begin];
+		final ByteBuffer buffer = stringData.duplicate();
+		buffer.position(begin);
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Decode the reference dictionary section
+	 */
+	private ReferenceDictionary readRefDict(IntBuffer buffer) {
+		final ReferenceDictionaryBuilder builder = new ReferenceDictionaryBuilder();
+		int pos = 0;
+		final int numIDs = buffer.get(pos++);
+		for (int i = 0; i < numIDs; ++i, pos += 2)
+			builder.putContigID(getString(buffer.get(pos)), buffer.get(pos + 1));
+		final int numNames = buffer.get(pos++);
+		for (int i = 0; i < numNames; ++i, pos += 2)
+			builder.putContigName(buffer.get(pos), getString(buffer.get(pos + 1)));
+		final int numLengths = buffer.get(pos++);
+		for (int i = 0; i < numLengths; ++i, pos += 2)
+			builder.putContigLength(buffer.get(pos), buffer.get(pos + 1));
+		return builder.build();
+	}
+
+}
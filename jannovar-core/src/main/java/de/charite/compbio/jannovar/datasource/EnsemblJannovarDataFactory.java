@@ -2,6 +2,7 @@ package de.charite.compbio.jannovar.datasource;
 
 import com.google.common.collect.ImmutableList;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.impl.parse.ParallelBuild;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParseException;
 import de.charite.compbio.jannovar.impl.parse.ensembl.EnsemblParser;
 import de.charite.compbio.jannovar.reference.TranscriptModel;
@@ -30,8 +31,9 @@ final class EnsemblJannovarDataFactory extends JannovarDataFactory {
 
 	@Override
 	protected ImmutableList<TranscriptModel> parseTranscripts(ReferenceDictionary refDict, String targetDir,
-															  List<String> geneIdentifiers) throws TranscriptParseException {
-		return new EnsemblParser(refDict, targetDir, geneIdentifiers, iniSection).run();
+															  List<String> geneIdentifiers, ParallelBuild parallelBuild)
+		throws TranscriptParseException {
+		return new EnsemblParser(refDict, targetDir, geneIdentifiers, iniSection, parallelBuild).run();
 	}
 
 }
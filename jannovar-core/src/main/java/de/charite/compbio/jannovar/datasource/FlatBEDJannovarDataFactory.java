@@ -2,6 +2,7 @@ package de.charite.compbio.jannovar.datasource;
 
 import com.google.common.collect.ImmutableList;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.impl.parse.ParallelBuild;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParseException;
 import de.charite.compbio.jannovar.impl.parse.flatbed.FlatBEDParser;
 import de.charite.compbio.jannovar.reference.TranscriptModel;
@@ -32,8 +33,10 @@ public class FlatBEDJannovarDataFactory extends JannovarDataFactory {
 
 	@Override
 	protected ImmutableList<TranscriptModel> parseTranscripts(ReferenceDictionary refDict, String targetDir,
-															  List<String> geneIdentifiers) throws TranscriptParseException {
-		return new FlatBEDParser(refDict, targetDir, iniSection, options.doPrintProgressBars()).run();
+															  List<String> geneIdentifiers, ParallelBuild parallelBuild)
+		throws TranscriptParseException {
+		return new FlatBEDParser(refDict, targetDir, geneIdentifiers, iniSection, options.doPrintProgressBars(),
+			parallelBuild).run();
 	}
 
 }
@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableList;
 import de.charite.compbio.jannovar.data.JannovarData;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
 import de.charite.compbio.jannovar.datasource.FileDownloader.ProxyOptions;
+import de.charite.compbio.jannovar.impl.parse.ParallelBuild;
 import de.charite.compbio.jannovar.impl.parse.ReferenceDictParser;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParseException;
 import de.charite.compbio.jannovar.impl.util.PathUtil;
@@ -16,6 +17,7 @@ import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -57,6 +59,8 @@ public abstract class JannovarDataFactory {
 	}
 
 	/**
+	 * Download the files and build the {@link JannovarData} on the calling thread
+	 *
 	 * @param downloadDir       path of directory to download files to
 	 * @param printProgressBars whether or not to print progress bars
 	 * @param geneIdentifiers   List of gene identifiers to limit to
@@ -67,6 +71,27 @@ public abstract class JannovarDataFactory {
 	 */
 	public final JannovarData build(String downloadDir, boolean printProgressBars, List<String> geneIdentifiers)
 		throws InvalidDataSourceException, TranscriptParseException, FileDownloadException {
+		return build(downloadDir, printProgressBars, geneIdentifiers, null);
+	}
+
+	/**
+	 * Download the files and build the {@link JannovarData}
+	 * <p>
+	 * When <code>pool</code> is given, the transcript files are parsed and the {@link TranscriptModel}s and the
+	 * per-chromosome interval trees are built in parallel on this pool.
+	 *
+	 * @param downloadDir       path of directory to download files to
+	 * @param printProgressBars whether or not to print progress bars
+	 * @param geneIdentifiers   List of gene identifiers to limit to
+	 * @param pool              {@link ForkJoinPool} to build on, <code>null</code> for building on the calling thread
+	 * @return {@link JannovarData} object for the factory's state.
+	 * @throws InvalidDataSourceException on problems with the data source or data source file
+	 * @throws TranscriptParseException   on problems with processing the transcript and reference dictionary data
+	 * @throws FileDownloadException      on problems while downloading files.
+	 */
+	public final JannovarData build(String downloadDir, boolean printProgressBars, List<String> geneIdentifiers,
+									ForkJoinPool pool)
+		throws InvalidDataSourceException, TranscriptParseException, FileDownloadException {
 		String targetDir = PathUtil.join(downloadDir, dataSource.getName());
 
 		FileDownloader downloader = new FileDownloader(buildOptions(printProgressBars));
@@ -103,9 +128,10 @@ public abstract class JannovarDataFactory {
 
 		// Parse transcript files.
 		LOGGER.info("Parsing transcripts...");
-		ImmutableList<TranscriptModel> transcripts = parseTranscripts(refDict, targetDir, geneIdentifiers);
+		ImmutableList<TranscriptModel> transcripts = parseTranscripts(refDict, targetDir, geneIdentifiers,
+			ParallelBuild.on(pool));
 
-		return new JannovarData(refDict, transcripts);
+		return new JannovarData(refDict, transcripts, pool);
 	}
 
 	/**
@@ -165,11 +191,14 @@ public abstract class JannovarDataFactory {
 	 * @param refDict         {@link ReferenceDictionary} to use
 	 * @param targetDir       path where the downloaded files are
 	 * @param geneIdentifiers List of gene identifiers to extract data for
+	 * @param parallelBuild   {@link ParallelBuild} for parsing the files and building the transcripts
 	 * @return list of {@link TranscriptModel} objects that are parsed from the files in
 	 * <code>targetDir</code>
 	 * @throws TranscriptParseException on problems with parsing the transcript database
 	 */
 	protected abstract ImmutableList<TranscriptModel> parseTranscripts(ReferenceDictionary refDict, String targetDir,
-																	   List<String> geneIdentifiers) throws TranscriptParseException;
+																	   List<String> geneIdentifiers,
+																	   ParallelBuild parallelBuild)
+		throws TranscriptParseException;
 
 }
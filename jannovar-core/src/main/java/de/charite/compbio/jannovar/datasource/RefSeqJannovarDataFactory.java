@@ -2,6 +2,7 @@ package de.charite.compbio.jannovar.datasource;
 
 import com.google.common.collect.ImmutableList;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.impl.parse.ParallelBuild;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParseException;
 import de.charite.compbio.jannovar.impl.parse.refseq.RefSeqParser;
 import de.charite.compbio.jannovar.reference.TranscriptModel;
@@ -31,9 +32,9 @@ final class RefSeqJannovarDataFactory extends JannovarDataFactory {
 
 	@Override
 	protected ImmutableList<TranscriptModel> parseTranscripts(ReferenceDictionary refDict, String targetDir,
-															  List<String> geneIdentifiers)
+															  List<String> geneIdentifiers, ParallelBuild parallelBuild)
 		throws TranscriptParseException {
-		return new RefSeqParser(refDict, targetDir, geneIdentifiers, iniSection).run();
+		return new RefSeqParser(refDict, targetDir, geneIdentifiers, iniSection, parallelBuild).run();
 	}
 
 }
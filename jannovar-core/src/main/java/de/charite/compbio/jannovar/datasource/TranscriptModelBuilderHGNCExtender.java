@@ -61,6 +61,19 @@ public class TranscriptModelBuilderHGNCExtender {
 	 * @throws JannovarException
 	 */
 	public void run(Map<String, TranscriptModelBuilder> builders) throws JannovarException {
+		run(builders, loadRecords(basePath));
+	}
+
+	/**
+	 * Load the {@link HGNCRecord}s from the downloaded HGNC file
+	 * <p>
+	 * This does not depend on the builders, so it can run while the transcript files are parsed.
+	 *
+	 * @param basePath path to the directory with the downloaded HGNC file
+	 * @return the {@link HGNCRecord}s for {@link #run(Map, ImmutableList)}
+	 * @throws JannovarException on problems with reading the HGNC file
+	 */
+	public static ImmutableList<HGNCRecord> loadRecords(String basePath) throws JannovarException {
 		// Get path of downloaded TSV file and parse it
 		String pathTSV;
 		try {
@@ -68,8 +81,16 @@ public class TranscriptModelBuilderHGNCExtender {
 		} catch (MalformedURLException e) {
 			throw new JannovarException("Could not parse URL " + HGNCParser.DOWNLOAD_URL, e);
 		}
-		final ImmutableList<HGNCRecord> hgncRecords = new HGNCParser(pathTSV).run();
+		return new HGNCParser(pathTSV).run();
+	}
 
+	/**
+	 * Augment the {@link TranscriptModelBuilder}s with previously loaded HGNC information
+	 *
+	 * @param builders    to augment
+	 * @param hgncRecords {@link HGNCRecord}s as returned by {@link #loadRecords(String)}
+	 */
+	public void run(Map<String, TranscriptModelBuilder> builders, ImmutableList<HGNCRecord> hgncRecords) {
 		// Build data structure for easier access to the records
 		final HashMap<String, HGNCRecord> recordByGeneID = new HashMap<>();
 		for (HGNCRecord record : hgncRecords) {
@@ -2,6 +2,7 @@ package de.charite.compbio.jannovar.datasource;
 
 import com.google.common.collect.ImmutableList;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.impl.parse.ParallelBuild;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParseException;
 import de.charite.compbio.jannovar.impl.parse.ucsc.UCSCParser;
 import de.charite.compbio.jannovar.reference.TranscriptModel;
@@ -29,8 +30,9 @@ final class UCSCJannovarDataFactory extends JannovarDataFactory {
 
 	@Override
 	protected ImmutableList<TranscriptModel> parseTranscripts(ReferenceDictionary refDict, String targetDir,
-															  List<String> geneIdentifiers) throws TranscriptParseException {
-		return new UCSCParser(refDict, targetDir, geneIdentifiers, iniSection).run();
+															  List<String> geneIdentifiers, ParallelBuild parallelBuild)
+		throws TranscriptParseException {
+		return new UCSCParser(refDict, targetDir, geneIdentifiers, iniSection, parallelBuild).run();
 	}
 
 }
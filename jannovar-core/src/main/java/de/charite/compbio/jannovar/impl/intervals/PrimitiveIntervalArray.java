@@ -0,0 +1,300 @@
+package de.charite.compbio.jannovar.impl.intervals;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable interval tree stored in parallel primitive arrays.
+ * <p>
+ * Alternative to {@link IntervalArray} that keeps the begin, end, and max-end positions in <code>int</code> arrays
+ * sorted by <code>(begin, end)</code>, with the same implicit tree layout (the root of the subtree for the index range
+ * <code>[lo, hi)</code> is at <code>(lo + hi) / 2</code>). The queries walk the tree without recursion and fill a
+ * caller-supplied {@link QueryResult} that can be reused between queries, such that no objects are allocated per
+ * query.
+ * <p>
+ * The query results are sorted lexicographically by <code>(begin, end)</code>, as for {@link IntervalArray}.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class PrimitiveIntervalArray<T> implements Serializable {
+
+	/**
+	 * version number to use when serializing
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * maximal depth of the implicit tree, enough for any array size
+	 */
+	private static final int MAX_DEPTH = 33;
+
+	/**
+	 * Reusable query result, not thread-safe.
+	 */
+	public static final class QueryResult<T> {
+		/**
+		 * the values that overlapped with the given point or interval
+		 */
+		private final ArrayList<T> entries = new ArrayList<>();
+		/**
+		 * read-only view on {@link #entries}
+		 */
+		private final List<T> entriesView = Collections.unmodifiableList(entries);
+		/**
+		 * the value to the left of the given point
+		 */
+		private T left;
+		/**
+		 * the value to the right of the given point
+		 */
+		private T right;
+		/**
+		 * stack with begin indices of subtrees for the traversal
+		 */
+		private final int[] stackLo = new int[MAX_DEPTH];
+		/**
+		 * stack with end indices of subtrees for the traversal
+		 */
+		private final int[] stackHi = new int[MAX_DEPTH];
+
+		/**
+		 * @return the values that overlapped with the given point or interval, valid until the next query
+		 */
+		public List<T> getEntries() {
+			return entriesView;
+		}
+
+		/**
+		 * @return the value to the left of the given point if there was no overlap, otherwise <code>null</code>
+		 */
+		public T getLeft() {
+			return left;
+		}
+
+		/**
+		 * @return the value to the right of the given point if there was no overlap, otherwise <code>null</code>
+		 */
+		public T getRight() {
+			return right;
+		}
+
+		/**
+		 * Reset to empty result.
+		 */
+		public void clear() {
+			entries.clear();
+			left = null;
+			right = null;
+		}
+	}
+
+	/**
+	 * begin positions, sorted by <code>(begin, end)</code>
+	 */
+	private final int[] begins;
+
+	/**
+	 * end positions, in the order of {@link #begins}
+	 */
+	private final int[] ends;
+
+	/**
+	 * maximal end position in the subtree of each node, in the order of {@link #begins}
+	 */
+	private final int[] maxEnds;
+
+	/**
+	 * values, in the order of {@link #begins}
+	 */
+	private final Object[] values;
+
+	/**
+	 * end positions, sorted by <code>(end, begin)</code>
+	 */
+	private final int[] sortedEnds;
+
+	/**
+	 * values, in the order of {@link #sortedEnds}
+	 */
+	private final Object[] valuesByEnd;
+
+	/**
+	 * Construct object with the given values.
+	 */
+	public PrimitiveIntervalArray(Collection<T> elements, IntervalEndExtractor<T> extractor) {
+		final int n = elements.size();
+		final Object[] elems = elements.toArray();
+		final int[] bs = new int[n];
+		final int[] es = new int[n];
+		for (int i = 0; i < n; ++i) {
+			@SuppressWarnings("unchecked")
+			T element = (T) elems[i];
+			bs[i] = extractor.getBegin(element);
+			es[i] = extractor.getEnd(element);
+		}
+
+		// Sort by (begin, end).
+		final Integer[] order = new Integer[n];
+		for (int i = 0; i < n; ++i)
+			order[i] = i;
+		Arrays.sort(order, (lhs, rhs) -> (bs[lhs] != bs[rhs]) ? Integer.compare(bs[lhs], bs[rhs])
+			: Integer.compare(es[lhs], es[rhs]));
+		this.begins = new int[n];
+		this.ends = new int[n];
+		this.maxEnds = new int[n];
+		this.values = new Object[n];
+		for (int i = 0; i < n; ++i) {
+			begins[i] = bs[order[i]];
+			ends[i] = es[order[i]];
+			values[i] = elems[order[i]];
+		}
+		computeMaxEnds(0, n);
+
+		// Sort by (end, begin) for the left neighbour search.
+		Arrays.sort(order, (lhs, rhs) -> (es[lhs] != es[rhs]) ? Integer.compare(es[lhs], es[rhs])
+			: Integer.compare(bs[lhs], bs[rhs]));
+		this.sortedEnds = new int[n];
+		this.valuesByEnd = new Object[n];
+		for (int i = 0; i < n; ++i) {
+			sortedEnds[i] = es[order[i]];
+			valuesByEnd[i] = elems[order[i]];
+		}
+	}
+
+	/**
+	 * Fill {@link #maxEnds} for the subtree <code>[lo, hi)</code>, bottom-up
+	 *
+	 * @return max end of the subtree or <code>Integer.MIN_VALUE</code> if empty
+	 */
+	private int computeMaxEnds(int lo, int hi) {
+		if (lo >= hi)
+			return Integer.MIN_VALUE;
+		final int center = (lo + hi) >>> 1;
+		maxEnds[center] = Math.max(ends[center],
+			Math.max(computeMaxEnds(lo, center), computeMaxEnds(center + 1, hi)));
+		return maxEnds[center];
+	}
+
+	/**
+	 * @return the number of elements in the tree
+	 */
+	public int size() {
+		return begins.length;
+	}
+
+	/**
+	 * @return new {@link QueryResult} to use for queries
+	 */
+	public QueryResult<T> newQueryResult() {
+		return new QueryResult<>();
+	}
+
+	/**
+	 * Query for all values with intervals overlapping with a given <code>point</code>.
+	 * <p>
+	 * If there is no overlap then the left and right neighbours are written to <code>result</code>.
+	 *
+	 * @param point  zero-based point for the query
+	 * @param result {@link QueryResult} to write the result to, cleared before
+	 */
+	public void findOverlappingWithPoint(int point, QueryResult<T> result) {
+		findOverlappingWithInterval(point, point + 1, result);
+	}
+
+	/**
+	 * Query for all values with intervals overlapping with a given interval.
+	 * <p>
+	 * If there is no overlap then the left and right neighbours of <code>begin</code> are written to
+	 * <code>result</code>.
+	 *
+	 * @param begin  zero-based begin position of the query interval
+	 * @param end    zero-based end position of the query interval
+	 * @param result {@link QueryResult} to write the result to, cleared before
+	 */
+	public void findOverlappingWithInterval(int begin, int end, QueryResult<T> result) {
+		result.clear();
+		collectOverlapping(begin, end, result);
+		if (result.entries.isEmpty()) {
+			result.left = findLeftNeighbor(begin);
+			result.right = findRightNeighbor(begin);
+		}
+	}
+
+	/**
+	 * In-order traversal of the implicit tree with pruning using {@link #maxEnds}, using the explicit stack in
+	 * <code>result</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	private void collectOverlapping(int qBegin, int qEnd, QueryResult<T> result) {
+		final int[] stackLo = result.stackLo;
+		final int[] stackHi = result.stackHi;
+		int depth = 0;
+		int lo = 0;
+		int hi = begins.length;
+		while (true) {
+			// Descend to the left as far as possible, remembering the subtrees to come back to.
+			while (lo < hi) {
+				final int center = (lo + hi) >>> 1;
+				if (maxEnds[center] <= qBegin) // all intervals in subtree are left of query
+					break;
+				stackLo[depth] = lo;
+				stackHi[depth] = hi;
+				++depth;
+				hi = center;
+			}
+			if (depth == 0)
+				return;
+
+			--depth;
+			lo = stackLo[depth];
+			hi = stackHi[depth];
+			final int center = (lo + hi) >>> 1;
+			if (qEnd <= begins[center]) // this and all following intervals are right of query
+				return;
+			if (qBegin < ends[center])
+				result.entries.add((T) values[center]);
+			lo = center + 1;
+		}
+	}
+
+	/**
+	 * @return right neighbor of the given point if any, or <code>null</code>
+	 */
+	@SuppressWarnings("unchecked")
+	private T findRightNeighbor(int point) {
+		// first index with begin > point
+		int lo = 0;
+		int hi = begins.length;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (begins[mid] <= point)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return (lo == begins.length) ? null : (T) values[lo];
+	}
+
+	/**
+	 * @return left neighbor of the given point if any, or <code>null</code>
+	 */
+	@SuppressWarnings("unchecked")
+	private T findLeftNeighbor(int point) {
+		// first index with end > point
+		int lo = 0;
+		int hi = sortedEnds.length;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (sortedEnds[mid] <= point)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return (lo == 0) ? null : (T) valuesByEnd[lo - 1];
+	}
+
+}
@@ -1,33 +1,20 @@
 package de.charite.compbio.jannovar.impl.parse;
 
-import com.google.common.base.Joiner;
-
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.zip.GZIPInputStream;
 
 /**
  * Generic FASTA parser that allow record-wise loading of FASTA files
+ * <p>
+ * Use {@link FASTAStreamReader} directly for skipping records without reading their sequence.
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
 public final class FASTAParser {
 
 	/**
-	 * Data is read line by line from this reader
-	 */
-	private final BufferedReader reader;
-
-	/**
-	 * A Buffer with the current line, null in the beginning
-	 */
-	private String lastLine = null;
-
-	/**
-	 * Lines collect for this record so far
+	 * Records are read from this reader
 	 */
-	private final List<String> recordBuffer = new ArrayList<>();
+	private final FASTAStreamReader reader;
 
 	/**
 	 * Initialize with a file, gzip compression is automatically recognized.
@@ -46,71 +33,19 @@ public final class FASTAParser {
 	 * @throws IOException on I/O problems
 	 */
 	public FASTAParser(InputStream stream) throws IOException {
-		this.reader = new BufferedReader(new InputStreamReader(openStream(stream)));
-		this.lastLine = reader.readLine(); // read first line
-		if (this.lastLine != null)
-			this.lastLine = this.lastLine.trim();
+		this.reader = new FASTAStreamReader(stream);
 	}
 
 	/**
-	 * Reads next record from the GFF file and return it, <code>null</code> when the file is at its end.
+	 * Reads next record from the FASTA file and return it, <code>null</code> when the file is at its end.
 	 *
-	 * @return GFFRecord or <code>null</code>
-	 * @throws IOException on problems with reading the GFF files
+	 * @return FASTARecord or <code>null</code>
+	 * @throws IOException on problems with reading the FASTA files
 	 */
 	public FASTARecord next() throws IOException {
-		if (lastLine == null)
+		if (!reader.next())
 			return null;
-
-		assert lastLine.startsWith(">");
-
-		while (true) {
-			// add current line to buffer
-			if (lastLine != null && !lastLine.isEmpty())
-				recordBuffer.add(lastLine);
-
-			// read next line, skipping empty lines
-			lastLine = reader.readLine();
-
-			if (lastLine == null || lastLine.startsWith(">"))
-				break;
-		}
-
-		return buildRecord();
-	}
-
-	/**
-	 * Build record from {@link #recordBuffer}
-	 */
-	private FASTARecord buildRecord() {
-		if (recordBuffer.isEmpty())
-			return null;
-
-		final String firstLine = recordBuffer.get(0);
-		String[] tokens = firstLine.substring(1).split("\\s", 2);
-		String id = tokens[0];
-		String comment = (tokens.length > 1) ? tokens[1] : "";
-		String sequence = Joiner.on("").join(recordBuffer.subList(1, recordBuffer.size()));
-
-		recordBuffer.clear();
-		return new FASTARecord(id, comment, sequence);
-	}
-
-	/**
-	 * Open the {@link InputStream} as a {@link BufferedReader}
-	 *
-	 * @return {@link InputStream}, wrapping a gzip reading stream if <code>stream</code> is gzip compressed
-	 * @throws IOException on I/O problems
-	 */
-	private InputStream openStream(InputStream stream) throws IOException {
-		PushbackInputStream pb = new PushbackInputStream(stream, 2);
-		byte[] signature = new byte[2];
-		pb.read(signature);
-		pb.unread(signature);
-		if (signature[0] == (byte) 0x1f && signature[1] == (byte) 0x8b)
-			return new GZIPInputStream(pb);
-		else
-			return pb;
+		return new FASTARecord(reader.getID(), reader.getComment(), reader.readSequence());
 	}
 
 }
@@ -0,0 +1,262 @@
+package de.charite.compbio.jannovar.impl.parse;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming reader for FASTA files that works on bytes
+ * <p>
+ * Call {@link #next} for advancing to the next record and look at its {@link #getID}. Then, either read its sequence
+ * with {@link #readSequence} or {@link #readSequenceBytes}, or go on with {@link #next}, which skips the sequence
+ * without buffering it. Sequence lines are copied from the read buffer into one reused sequence buffer, so there is no
+ * {@link String} per line and no concatenation; all whitespace in the sequence is stripped.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class FASTAStreamReader implements Closeable {
+
+	/**
+	 * Size of the read buffer
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Data is read from this stream
+	 */
+	private final InputStream stream;
+
+	/**
+	 * Read buffer
+	 */
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	/**
+	 * Position of the next byte to read in {@link #buffer}
+	 */
+	private int pos = 0;
+
+	/**
+	 * Number of valid bytes in {@link #buffer}
+	 */
+	private int limit = 0;
+
+	/**
+	 * Whether or not {@link #pos} is at the beginning of a line
+	 */
+	private boolean atLineStart = true;
+
+	/**
+	 * Header line of the current record without the leading <code>'&gt;'</code>
+	 */
+	private byte[] header = new byte[256];
+
+	/**
+	 * Length of the header line in {@link #header}
+	 */
+	private int headerLength = 0;
+
+	/**
+	 * ID of the current record, <code>null</code> before the first and after the last record
+	 */
+	private String id = null;
+
+	/**
+	 * Whether or not the sequence of the current record has not been read yet
+	 */
+	private boolean sequencePending = false;
+
+	/**
+	 * Reused buffer for the sequence of the current record
+	 */
+	private byte[] sequence = new byte[BUFFER_SIZE];
+
+	/**
+	 * Length of the sequence in {@link #sequence}
+	 */
+	private int sequenceLength = 0;
+
+	/**
+	 * Initialize with a file, gzip compression is automatically recognized.
+	 *
+	 * @param file The file to read from
+	 * @throws IOException on I/O problems
+	 */
+	public FASTAStreamReader(File file) throws IOException {
+		this(new FileInputStream(file));
+	}
+
+	/**
+	 * Initialize from a {@link InputStream}, gzip compression is automatically recognized.
+	 *
+	 * @param stream {@link InputStream} to read from
+	 * @throws IOException on I/O problems
+	 */
+	public FASTAStreamReader(InputStream stream) throws IOException {
+		this.stream = openStream(stream);
+	}
+
+	/**
+	 * Advance to the next record, skipping the sequence of the current one if it has not been read
+	 *
+	 * @return <code>true</code> if there is a next record, <code>false</code> at the end of the file
+	 * @throws IOException on problems with reading the file
+	 */
+	public boolean next() throws IOException {
+		// skip sequence or anything before the first record until the next header line
+		scanSequence(false);
+		id = null;
+		if (!fill())
+			return false;
+
+		// read header line, buffer[pos] is the '>'
+		++pos;
+		headerLength = 0;
+		while (fill()) {
+			int i = pos;
+			while (i < limit && buffer[i] != '\n')
+				++i;
+			if (headerLength + i - pos > header.length)
+				header = Arrays.copyOf(header, Math.max(2 * header.length, headerLength + i - pos));
+			System.arraycopy(buffer, pos, header, headerLength, i - pos);
+			headerLength += i - pos;
+			pos = i;
+			if (i < limit) {
+				++pos;
+				break;
+			}
+		}
+		atLineStart = true;
+		while (headerLength > 0 && isSpace(header[headerLength - 1]))
+			--headerLength;
+
+		int idLength = 0;
+		while (idLength < headerLength && !isSpace(header[idLength]))
+			++idLength;
+		id = new String(header, 0, idLength, StandardCharsets.ISO_8859_1);
+		sequencePending = true;
+		return true;
+	}
+
+	/**
+	 * @return ID of the current record (header line up to the first whitespace), <code>null</code> if there is none
+	 */
+	public String getID() {
+		return id;
+	}
+
+	/**
+	 * @return comment of the current record (header line after the first whitespace), <code>null</code> if there is
+	 * no current record
+	 */
+	public String getComment() {
+		if (id == null)
+			return null;
+		int begin = id.length();
+		while (begin < headerLength && isSpace(header[begin]))
+			++begin;
+		return new String(header, begin, headerLength - begin, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Read the sequence of the current record
+	 *
+	 * @return the sequence as a {@link String}, <code>null</code> if it has already been read or there is no current
+	 * record
+	 * @throws IOException on problems with reading the file
+	 */
+	public String readSequence() throws IOException {
+		if (!sequencePending)
+			return null;
+		scanSequence(true);
+		return new String(sequence, 0, sequenceLength, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Read the sequence of the current record
+	 *
+	 * @return the sequence as a byte array of the sequence's length, <code>null</code> if it has already been read or
+	 * there is no current record
+	 * @throws IOException on problems with reading the file
+	 */
+	public byte[] readSequenceBytes() throws IOException {
+		if (!sequencePending)
+			return null;
+		scanSequence(true);
+		return Arrays.copyOf(sequence, sequenceLength);
+	}
+
+	@Override
+	public void close() throws IOException {
+		stream.close();
+	}
+
+	/**
+	 * Read up to the next header line or the end of file, storing non-whitespace characters in {@link #sequence} if
+	 * <code>store</code>
+	 */
+	private void scanSequence(boolean store) throws IOException {
+		sequencePending = false;
+		sequenceLength = 0;
+		while (fill()) {
+			if (atLineStart && buffer[pos] == '>')
+				return;
+			int i = pos;
+			while (i < limit && buffer[i] != '\n')
+				++i;
+			if (store) {
+				if (sequenceLength + i - pos > sequence.length)
+					sequence = Arrays.copyOf(sequence, Math.max(2 * sequence.length, sequenceLength + i - pos));
+				for (int j = pos; j < i; ++j)
+					if (!isSpace(buffer[j]))
+						sequence[sequenceLength++] = buffer[j];
+			}
+			atLineStart = (i < limit);
+			pos = atLineStart ? i + 1 : i;
+		}
+	}
+
+	/**
+	 * @return whether or not <code>b</code> is whitespace, as <code>\s</code> in regular expressions
+	 */
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f' || b == 0x0b;
+	}
+
+	/**
+	 * Make sure that there is data in {@link #buffer}
+	 *
+	 * @return <code>false</code> if the end of the file has been reached
+	 */
+	private boolean fill() throws IOException {
+		if (pos < limit)
+			return true;
+		int count;
+		do {
+			count = stream.read(buffer, 0, buffer.length);
+		} while (count == 0);
+		pos = 0;
+		limit = Math.max(count, 0);
+		return count > 0;
+	}
+
+	/**
+	 * Open the {@link InputStream}
+	 *
+	 * @return {@link InputStream}, wrapping a gzip reading stream if <code>stream</code> is gzip compressed
+	 * @throws IOException on I/O problems
+	 */
+	private static InputStream openStream(InputStream stream) throws IOException {
+		PushbackInputStream pb = new PushbackInputStream(stream, 2);
+		byte[] signature = new byte[2];
+		int count = pb.read(signature);
+		if (count > 0)
+			pb.unread(signature, 0, count);
+		if (count == 2 && signature[0] == (byte) 0x1f && signature[1] == (byte) 0x8b)
+			return new GZIPInputStream(pb, BUFFER_SIZE);
+		else
+			return pb;
+	}
+
+}
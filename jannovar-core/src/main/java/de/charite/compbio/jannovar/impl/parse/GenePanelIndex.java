@@ -0,0 +1,73 @@
+package de.charite.compbio.jannovar.impl.parse;
+
+import com.google.common.collect.ImmutableSet;
+import de.charite.compbio.jannovar.reference.TranscriptModelBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Hash-based index of the gene identifiers that a transcript database is limited to
+ * <p>
+ * A {@link TranscriptModelBuilder} is selected if its accession, its gene ID, or one of its alternative gene IDs is
+ * one of the identifiers. With no identifiers, all builders are selected. Each check is a hash lookup, so selection
+ * is linear in the number of transcripts, independent of the size of the gene panel.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class GenePanelIndex {
+
+	/**
+	 * The gene identifiers to limit to, empty for no limitation
+	 */
+	private final ImmutableSet<String> identifiers;
+
+	/**
+	 * @param geneIdentifiers the gene identifiers to limit to, <code>null</code> or empty for no limitation
+	 */
+	public GenePanelIndex(Collection<String> geneIdentifiers) {
+		this.identifiers = (geneIdentifiers == null) ? ImmutableSet.of() : ImmutableSet.copyOf(geneIdentifiers);
+	}
+
+	/**
+	 * @return whether or not all builders are selected
+	 */
+	public boolean isUnlimited() {
+		return identifiers.isEmpty();
+	}
+
+	/**
+	 * @param builder the {@link TranscriptModelBuilder} to check
+	 * @return whether or not <code>builder</code> is selected
+	 */
+	public boolean matches(TranscriptModelBuilder builder) {
+		if (identifiers.isEmpty())
+			return true;
+		if (contains(builder.getAccession()) || contains(builder.getGeneID()))
+			return true;
+		for (String altGeneID : builder.getAltGeneIDs().values())
+			if (contains(altGeneID))
+				return true;
+		return false;
+	}
+
+	/**
+	 * @param builders the {@link TranscriptModelBuilder}s to select from
+	 * @return list of the selected builders, in the iteration order of <code>builders</code>
+	 */
+	public List<TranscriptModelBuilder> select(Collection<TranscriptModelBuilder> builders) {
+		if (identifiers.isEmpty())
+			return new ArrayList<>(builders);
+		List<TranscriptModelBuilder> result = new ArrayList<>();
+		for (TranscriptModelBuilder builder : builders)
+			if (matches(builder))
+				result.add(builder);
+		return result;
+	}
+
+	private boolean contains(String identifier) {
+		return identifier != null && identifiers.contains(identifier);
+	}
+
+}
@@ -0,0 +1,190 @@
+package de.charite.compbio.jannovar.impl.parse;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import de.charite.compbio.jannovar.reference.TranscriptModelBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Helpers for building transcript databases, optionally on a {@link ForkJoinPool}
+ * <p>
+ * The {@link TranscriptParser}s are given a {@link ParallelBuild}. When it has been constructed with {@link #on} for a
+ * fork-join pool (e.g., passed to {@link de.charite.compbio.jannovar.datasource.JannovarDataFactory#build}),
+ * independent input files are loaded concurrently and the {@link TranscriptModel}s are built in parallel on this pool.
+ * With {@link #SEQUENTIAL}, everything runs on the calling thread as before. In both cases, the results are the same.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class ParallelBuild {
+
+	/**
+	 * Loading of a value that may throw a checked exception
+	 *
+	 * @param <T> type of the loaded value
+	 * @param <E> type of the checked exception
+	 */
+	@FunctionalInterface
+	public interface Loader<T, E extends Exception> {
+
+		/**
+		 * @return the loaded value
+		 * @throws E on problems with loading the value
+		 */
+		T load() throws E;
+
+	}
+
+	/**
+	 * A value that is loaded concurrently or has already been loaded, obtain it with {@link #get}
+	 *
+	 * @param <T> type of the loaded value
+	 * @param <E> type of the checked exception
+	 */
+	public static final class Pending<T, E extends Exception> {
+
+		/**
+		 * Task loading the value
+		 */
+		private final LoadTask<T, E> task;
+
+		private Pending(LoadTask<T, E> task) {
+			this.task = task;
+		}
+
+		/**
+		 * Wait for the loading to finish
+		 *
+		 * @return the loaded value
+		 * @throws E the exception thrown by the loader, if any
+		 */
+		@SuppressWarnings("unchecked")
+		public T get() throws E {
+			final T result = task.join();
+			if (task.error != null)
+				throw (E) task.error;
+			return result;
+		}
+
+	}
+
+	/**
+	 * Task for running a {@link Loader}, keeps its checked exception for {@link Pending#get}
+	 */
+	private static final class LoadTask<T, E extends Exception> extends RecursiveTask<T> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The loader to run
+		 */
+		private final transient Loader<T, E> loader;
+
+		/**
+		 * Checked exception thrown by {@link #loader}, visible after joining the task
+		 */
+		private Exception error;
+
+		LoadTask(Loader<T, E> loader) {
+			this.loader = loader;
+		}
+
+		@Override
+		protected T compute() {
+			try {
+				return loader.load();
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				error = e;
+				return null;
+			}
+		}
+
+	}
+
+	/**
+	 * Build everything on the calling thread
+	 */
+	public static final ParallelBuild SEQUENTIAL = new ParallelBuild(null);
+
+	/**
+	 * The pool to build on, <code>null</code> for building on the calling thread
+	 */
+	private final ForkJoinPool pool;
+
+	private ParallelBuild(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * @param pool the {@link ForkJoinPool} to build on, <code>null</code> for building on the calling thread
+	 * @return {@link ParallelBuild} for building on <code>pool</code>
+	 */
+	public static ParallelBuild on(ForkJoinPool pool) {
+		return (pool == null) ? SEQUENTIAL : new ParallelBuild(pool);
+	}
+
+	/**
+	 * @return whether or not to build in parallel, i.e., a pool was given
+	 */
+	public boolean isParallel() {
+		return pool != null;
+	}
+
+	/**
+	 * Start loading a value, concurrently to the calling thread on the pool if {@link #isParallel}, otherwise right
+	 * away
+	 *
+	 * @param loader for loading the value
+	 * @return {@link Pending} for obtaining the value
+	 */
+	public <T, E extends Exception> Pending<T, E> start(Loader<T, E> loader) {
+		final LoadTask<T, E> task = new LoadTask<>(loader);
+		if (pool == null)
+			task.invoke();
+		else if (ForkJoinTask.getPool() == pool)
+			task.fork();
+		else
+			pool.execute(task);
+		return new Pending<>(task);
+	}
+
+	/**
+	 * Apply <code>fun</code> to each of <code>values</code>, in parallel on the pool if {@link #isParallel}
+	 *
+	 * @param values the values to map, in iteration order
+	 * @param fun    the function to apply, must be safe to call concurrently for different values
+	 * @return list of the results, in the iteration order of <code>values</code>
+	 */
+	public <T, R> List<R> map(Collection<T> values, Function<? super T, ? extends R> fun) {
+		if (pool == null) {
+			final List<R> result = new ArrayList<>(values.size());
+			for (T value : values)
+				result.add(fun.apply(value));
+			return result;
+		}
+		// copy to a list as the order of, e.g., HashMap values would not be kept in parallel streams; the parallel
+		// stream runs on the pool of the task it is started from
+		final List<T> list = new ArrayList<>(values);
+		return pool.submit(() -> list.parallelStream().map(fun).collect(Collectors.<R>toList())).join();
+	}
+
+	/**
+	 * Build {@link TranscriptModel}s from <code>builders</code>, in parallel on the pool if {@link #isParallel}
+	 *
+	 * @param builders the {@link TranscriptModelBuilder}s to build, in iteration order
+	 * @return list of the {@link TranscriptModel}s, in the iteration order of <code>builders</code>
+	 */
+	public ImmutableList<TranscriptModel> buildAll(Collection<TranscriptModelBuilder> builders) {
+		return ImmutableList.copyOf(map(builders, TranscriptModelBuilder::build));
+	}
+
+}
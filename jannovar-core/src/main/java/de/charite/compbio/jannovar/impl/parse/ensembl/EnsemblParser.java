@@ -6,8 +6,10 @@ import de.charite.compbio.jannovar.UncheckedJannovarException;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
 import de.charite.compbio.jannovar.datasource.TranscriptModelBuilderHGNCExtender;
 import de.charite.compbio.jannovar.hgnc.AltGeneIDType;
-import de.charite.compbio.jannovar.impl.parse.FASTAParser;
-import de.charite.compbio.jannovar.impl.parse.FASTARecord;
+import de.charite.compbio.jannovar.hgnc.HGNCRecord;
+import de.charite.compbio.jannovar.impl.parse.FASTAStreamReader;
+import de.charite.compbio.jannovar.impl.parse.GenePanelIndex;
+import de.charite.compbio.jannovar.impl.parse.ParallelBuild;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParseException;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParser;
 import de.charite.compbio.jannovar.impl.parse.gtfgff.FeatureRecord;
@@ -63,9 +65,14 @@ public class EnsemblParser implements TranscriptParser {
 	private final Section iniSection;
 
 	/**
-	 * List of gene identifiers of genes to include, if non-empty.
+	 * Index of the gene identifiers of genes to include, if non-empty.
 	 */
-	private final List<String> geneIdentifiers;
+	private final GenePanelIndex genePanel;
+
+	/**
+	 * For loading the input files and building the transcript models, possibly in parallel.
+	 */
+	private final ParallelBuild parallelBuild;
 
 	/**
 	 * @param refDict path to {@link ReferenceDictionary} to use for name/id and id/length mapping.
@@ -75,26 +82,48 @@ public class EnsemblParser implements TranscriptParser {
 	 */
 	public EnsemblParser(ReferenceDictionary refDict, String basePath, List<String> geneIdentifiers,
 		Section iniSection) {
+		this(refDict, basePath, geneIdentifiers, iniSection, ParallelBuild.SEQUENTIAL);
+	}
+
+	/**
+	 * @param refDict path to {@link ReferenceDictionary} to use for name/id and id/length mapping.
+	 * @param basePath path to where the to-be-parsed files live
+	 * @param iniSection {@link Section} with configuration from INI file
+	 * @param geneIdentifiers list of gene identifiers to include if non-empty
+	 * @param parallelBuild {@link ParallelBuild} for loading and building, possibly in parallel
+	 */
+	public EnsemblParser(ReferenceDictionary refDict, String basePath, List<String> geneIdentifiers,
+		Section iniSection, ParallelBuild parallelBuild) {
 		this.refDict = refDict;
 		this.contigDict = refDict.getContigNameToID();
 		this.basePath = basePath;
 		this.iniSection = iniSection;
-		this.geneIdentifiers = geneIdentifiers;
+		this.genePanel = new GenePanelIndex(geneIdentifiers);
+		this.parallelBuild = parallelBuild;
 	}
 
 	@Override
 	public ImmutableList<TranscriptModel> run() throws TranscriptParseException {
-		// Load features from GTF file, clustered by the gene they belong to
-		final String pathGTF = PathUtil.join(basePath, getINIFileName("gtf"));
-		Map<String, TranscriptModelBuilder> builders = loadTranscriptModels(pathGTF);
+		// The ENSEMBL and HGNC mapping files do not depend on the GTF file, so start loading them (concurrently to
+		// parsing the GTF file when building in parallel)
+		final ParallelBuild.Pending<ImmutableList<HGNCRecord>, JannovarException> hgncRecords = parallelBuild
+			.start(() -> TranscriptModelBuilderHGNCExtender.loadRecords(basePath));
 
 		// Load mappings that allows mapping from ENSG to HGNC ID.
 		LOGGER.info("Loading ENSEMBL to HGNC mappings...");
-		final Map<String, String> ensgToHgnc = loadEngsToHgnc();
+		final ParallelBuild.Pending<Map<String, String>, TranscriptParseException> pendingEnsgToHgnc = parallelBuild
+			.start(this::loadEngsToHgnc);
 
 		// Load files that give the ENSG to Entrez ID mapping that comes directly from ENSEMBL.
 		LOGGER.info("Loading ENSEMBL to ENTREZ mappings...");
-		final Map<String, String> ensgToEntrez = loadEngsToEntrez();
+		final ParallelBuild.Pending<Map<String, String>, TranscriptParseException> pendingEnsgToEntrez = parallelBuild
+			.start(this::loadEngsToEntrez);
+
+		// Load features from GTF file, clustered by the gene they belong to
+		final String pathGTF = PathUtil.join(basePath, getINIFileName("gtf"));
+		Map<String, TranscriptModelBuilder> builders = loadTranscriptModels(pathGTF);
+		final Map<String, String> ensgToHgnc = pendingEnsgToHgnc.get();
+		final Map<String, String> ensgToEntrez = pendingEnsgToEntrez.get();
 
 		// Augment information in builders with
 		LOGGER.info("Assigning additional HGNC information to transcripts..");
@@ -103,7 +132,7 @@ public class EnsemblParser implements TranscriptParser {
 				basePath,
 				r -> Lists.newArrayList(r.getHgncID()),
 				tx -> "HGNC:" + ensgToHgnc.get(tx.getGeneID())
-			).run(builders);
+			).run(builders, hgncRecords.get());
 		} catch (JannovarException e) {
 			throw new UncheckedJannovarException(
 				"Problem extending transcripts with HGNC information", e);
@@ -133,22 +162,8 @@ public class EnsemblParser implements TranscriptParser {
 
 		LOGGER.info("Finalising TranscriptModels...");
 		// Create final list of TranscriptModels.
-		ImmutableList.Builder<TranscriptModel> result = new ImmutableList.Builder<>();
-		for (Entry<String, TranscriptModelBuilder> entry : builders.entrySet()) {
-			TranscriptModelBuilder builder = entry.getValue();
-			if (geneIdentifiers == null || geneIdentifiers.isEmpty()) {
-				result.add(builder.build());
-			} else {
-				if (geneIdentifiers.contains(builder.getAccession()) || geneIdentifiers.contains(builder.getGeneID())
-					|| !Sets.intersection(ImmutableSet.copyOf(geneIdentifiers),
-					ImmutableSet.copyOf(builder.getAltGeneIDs().values())).isEmpty()
-
-				) {
-					result.add(builder.build());
-				}
-			}
-		}
-		ImmutableList<TranscriptModel> transcriptModels = result.build();
+		List<TranscriptModelBuilder> selected = genePanel.select(builders.values());
+		ImmutableList<TranscriptModel> transcriptModels = parallelBuild.buildAll(selected);
 		LOGGER.info("Built {} TranscriptModels", transcriptModels.size());
 		return transcriptModels;
 	}
@@ -304,17 +319,11 @@ public class EnsemblParser implements TranscriptParser {
 		// We must remove variants for which we did not find any sequence
 		Set<String> missingSequence = new HashSet<>(builders.keySet());
 
-		// Next iterate over the FASTA file and assign sequence to the transcript
-		FASTAParser fastaParser;
-		try {
-			fastaParser = new FASTAParser(new File(pathFASTA));
-		} catch (IOException e) {
-			throw new TranscriptParseException("Problem with opening FASTA file", e);
-		}
-		FASTARecord record;
-		try {
-			while ((record = fastaParser.next()) != null) {
-				final String accession = record.getID();
+		// Next iterate over the FASTA file and assign sequence to the transcript, only reading the sequences of
+		// records that map to a transcript.
+		try (FASTAStreamReader reader = new FASTAStreamReader(new File(pathFASTA))) {
+			while (reader.next()) {
+				final String accession = reader.getID();
 				final TranscriptModelBuilder builder = txMap.get(accession);
 				if (builder == null) {
 					// This is not a warning as we observed this for some records regularly
@@ -326,7 +335,7 @@ public class EnsemblParser implements TranscriptParser {
 				missingSequence.remove(builder.getAccession());
 
 				builder.setAccession(builder.getSequence());
-				builder.setSequence(record.getSequence());
+				builder.setSequence(reader.readSequence());
 				LOGGER.debug("Found sequence for transcript {}", builder.getAccession());
 			}
 		} catch (IOException e) {
@@ -2,6 +2,8 @@ package de.charite.compbio.jannovar.impl.parse.flatbed;
 
 import com.google.common.collect.ImmutableList;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.impl.parse.GenePanelIndex;
+import de.charite.compbio.jannovar.impl.parse.ParallelBuild;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParseException;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParser;
 import de.charite.compbio.jannovar.impl.util.PathUtil;
@@ -15,6 +17,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Class for parsing flat BED data.
@@ -48,6 +51,16 @@ public class FlatBEDParser implements TranscriptParser {
 	 */
 	private final boolean printProgressBars;
 
+	/**
+	 * Index of the gene identifiers of genes to include, if non-empty.
+	 */
+	private final GenePanelIndex genePanel;
+
+	/**
+	 * For loading the input files and building the transcript models, possibly in parallel.
+	 */
+	private final ParallelBuild parallelBuild;
+
 	/**
 	 * @param refDict           path to {@link ReferenceDictionary} to use for name/id and id/length mapping.
 	 * @param basePath          path to where the to-be-parsed files live
@@ -55,10 +68,37 @@ public class FlatBEDParser implements TranscriptParser {
 	 * @param printProgressBars whether or not to print progress bars
 	 */
 	public FlatBEDParser(ReferenceDictionary refDict, String basePath, Section iniSection, boolean printProgressBars) {
+		this(refDict, basePath, ImmutableList.of(), iniSection, printProgressBars);
+	}
+
+	/**
+	 * @param refDict           path to {@link ReferenceDictionary} to use for name/id and id/length mapping.
+	 * @param basePath          path to where the to-be-parsed files live
+	 * @param geneIdentifiers   list of gene identifiers to include if non-empty
+	 * @param iniSection        INI {@link Section} for the configuration
+	 * @param printProgressBars whether or not to print progress bars
+	 */
+	public FlatBEDParser(ReferenceDictionary refDict, String basePath, List<String> geneIdentifiers,
+						 Section iniSection, boolean printProgressBars) {
+		this(refDict, basePath, geneIdentifiers, iniSection, printProgressBars, ParallelBuild.SEQUENTIAL);
+	}
+
+	/**
+	 * @param refDict           path to {@link ReferenceDictionary} to use for name/id and id/length mapping.
+	 * @param basePath          path to where the to-be-parsed files live
+	 * @param geneIdentifiers   list of gene identifiers to include if non-empty
+	 * @param iniSection        INI {@link Section} for the configuration
+	 * @param printProgressBars whether or not to print progress bars
+	 * @param parallelBuild     {@link ParallelBuild} for loading and building, possibly in parallel
+	 */
+	public FlatBEDParser(ReferenceDictionary refDict, String basePath, List<String> geneIdentifiers,
+						 Section iniSection, boolean printProgressBars, ParallelBuild parallelBuild) {
 		this.refDict = refDict;
 		this.basePath = basePath;
 		this.iniSection = iniSection;
 		this.printProgressBars = printProgressBars;
+		this.genePanel = new GenePanelIndex(geneIdentifiers);
+		this.parallelBuild = parallelBuild;
 	}
 
 	@Override
@@ -85,10 +125,7 @@ public class FlatBEDParser implements TranscriptParser {
 		*/
 
 		// Create final list of TranscriptModels.
-		ImmutableList.Builder<TranscriptModel> result = new ImmutableList.Builder<TranscriptModel>();
-		for (TranscriptModelBuilder builder : builders)
-			result.add(builder.build());
-		return result.build();
+		return parallelBuild.buildAll(genePanel.select(builders));
 	}
 
 	/**
@@ -5,7 +5,6 @@ import static java.util.stream.Collectors.toList;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import de.charite.compbio.jannovar.JannovarException;
@@ -13,8 +12,10 @@ import de.charite.compbio.jannovar.UncheckedJannovarException;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
 import de.charite.compbio.jannovar.datasource.TranscriptModelBuilderHGNCExtender;
 import de.charite.compbio.jannovar.hgnc.AltGeneIDType;
-import de.charite.compbio.jannovar.impl.parse.FASTAParser;
-import de.charite.compbio.jannovar.impl.parse.FASTARecord;
+import de.charite.compbio.jannovar.hgnc.HGNCRecord;
+import de.charite.compbio.jannovar.impl.parse.FASTAStreamReader;
+import de.charite.compbio.jannovar.impl.parse.GenePanelIndex;
+import de.charite.compbio.jannovar.impl.parse.ParallelBuild;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParseException;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParser;
 import de.charite.compbio.jannovar.impl.parse.gtfgff.FeatureRecord;
@@ -28,6 +29,7 @@ import de.charite.compbio.jannovar.reference.TranscriptModelBuilder;
 import de.charite.compbio.jannovar.reference.TranscriptModelBuilder.AlignmentPart;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -72,9 +74,14 @@ public class RefSeqParser implements TranscriptParser {
 	private Section iniSection;
 
 	/**
-	 * List of gene identifiers of genes to include, if non-empty.
+	 * Index of the gene identifiers of genes to include, if non-empty.
 	 */
-	private final List<String> geneIdentifiers;
+	private final GenePanelIndex genePanel;
+
+	/**
+	 * For loading the input files and building the transcript models, possibly in parallel.
+	 */
+	private final ParallelBuild parallelBuild;
 
 	/**
 	 * @param refDict         path to {@link ReferenceDictionary} to use for name/id and id/length mapping.
@@ -84,16 +91,36 @@ public class RefSeqParser implements TranscriptParser {
 	 */
 	public RefSeqParser(ReferenceDictionary refDict, String basePath, List<String> geneIdentifiers,
 						Section iniSection) {
+		this(refDict, basePath, geneIdentifiers, iniSection, ParallelBuild.SEQUENTIAL);
+	}
+
+	/**
+	 * @param refDict         path to {@link ReferenceDictionary} to use for name/id and id/length mapping.
+	 * @param basePath        path to where the to-be-parsed files live
+	 * @param iniSection      {@link Section} with configuration from INI file
+	 * @param geneIdentifiers list of gene identifiers to include if non-empty
+	 * @param parallelBuild   {@link ParallelBuild} for loading and building, possibly in parallel
+	 */
+	public RefSeqParser(ReferenceDictionary refDict, String basePath, List<String> geneIdentifiers,
+						Section iniSection, ParallelBuild parallelBuild) {
 		this.refDict = refDict;
 		this.contigDict = refDict.getContigNameToID();
 
 		this.basePath = basePath;
 		this.iniSection = iniSection;
-		this.geneIdentifiers = geneIdentifiers;
+		this.genePanel = new GenePanelIndex(geneIdentifiers);
+		this.parallelBuild = parallelBuild;
 	}
 
 	@Override
 	public ImmutableList<TranscriptModel> run() throws TranscriptParseException {
+		// The HGNC records and the chrMT sequence do not depend on the GFF3 file, so start loading them (concurrently
+		// to parsing the GFF3 file when building in parallel)
+		final ParallelBuild.Pending<ImmutableList<HGNCRecord>, JannovarException> hgncRecords = parallelBuild
+			.start(() -> TranscriptModelBuilderHGNCExtender.loadRecords(basePath));
+		final ParallelBuild.Pending<byte[], TranscriptParseException> chrMTSequence = parallelBuild
+			.start(this::loadMitochondrialSequence);
+
 		// Load features from GFF3 file, clustered by the gene they belong to
 		final String pathGFF = PathUtil.join(basePath, getINIFileName("gff"));
 		Map<String, TranscriptModelBuilder> builders = loadTranscriptModels(pathGFF);
@@ -102,7 +129,7 @@ public class RefSeqParser implements TranscriptParser {
 		LOGGER.info("Assigning additional HGNC information to {} transcripts..", builders.size());
 		try {
 			new TranscriptModelBuilderHGNCExtender(basePath, r -> Lists.newArrayList(r.getEntrezID()),
-				TranscriptModelBuilder::getGeneID).run(builders);
+				TranscriptModelBuilder::getGeneID).run(builders, hgncRecords.get());
 		} catch (JannovarException e) {
 			throw new UncheckedJannovarException("Problem extending transcripts with HGNC information", e);
 		}
@@ -118,79 +145,62 @@ public class RefSeqParser implements TranscriptParser {
 
 		// Load the FASTA file and assign to the builders.
 		final String pathFASTA = PathUtil.join(basePath, getINIFileName("rna"));
-		loadMitochondrialFASTA(builders);
+		assignMitochondrialSequence(builders, chrMTSequence.get());
 
 		loadFASTA(builders, pathFASTA);
 
 		// Create final list of TranscriptModels.
-		ImmutableList.Builder<TranscriptModel> result = new ImmutableList.Builder<>();
-		for (Entry<String, TranscriptModelBuilder> entry : builders.entrySet()) {
-			TranscriptModelBuilder builder = entry.getValue();
-			if (geneIdentifiers == null || geneIdentifiers.isEmpty()) {
-				result.add(builder.build());
-			} else {
-				if (geneIdentifiers.contains(builder.getAccession()) || geneIdentifiers.contains(builder.getGeneID())
-					|| !Sets.intersection(ImmutableSet.copyOf(geneIdentifiers),
-					ImmutableSet.copyOf(builder.getAltGeneIDs().values())).isEmpty()
-
-				) {
-					result.add(builder.build());
-				}
-			}
-		}
-		return result.build();
+		List<TranscriptModelBuilder> selected = genePanel.select(builders.values());
+		return parallelBuild.buildAll(selected);
 	}
 
 	/**
-	 * Load chrMT sequence (if available) and assign into chrMT builders.
-	 *
-	 * @param builders The transcript builders to update.
-	 * @param pathFasta The path to the fasta file.
+	 * Load chrMT sequence (if available).
 	 *
+	 * @return the chrMT sequence as bytes, <code>null</code> if there is none
 	 * @throws TranscriptParseException on problems with parsing the FASTA.
 	 */
-	private void loadMitochondrialFASTA(Map<String, TranscriptModelBuilder> builders)
-		throws TranscriptParseException {
+	private byte[] loadMitochondrialSequence() throws TranscriptParseException {
 		if (!refDict.getContigNameToID().containsKey("chrMT")) {
 			LOGGER.info("The genome does not have a chrMT, skipping.");
-			return;
+			return null;
 		} else if (!iniSection.containsKey("faMT")) {
 			LOGGER.warn("Key for chrMT FASTA File does not exist, skipping.");
-			return;
+			return null;
 		}
 
 		final String pathFasta = PathUtil.join(basePath, getINIFileName("faMT"));
 		if (!new File(pathFasta).exists()) {
 			LOGGER.warn("The chrMT FASTA File {} does not exist, skipping.", new Object[]{ pathFasta });
-			return;
+			return null;
 		}
 
-
-		final int idMT = refDict.getContigNameToID().get("chrMT");
-
-		String chrMT = "";
-
-		FASTAParser fastaParser;
-		try {
-			fastaParser = new FASTAParser(new File(pathFasta));
-		} catch (IOException e) {
-			throw new TranscriptParseException("Problem with opening FASTA file", e);
-		}
-		FASTARecord record;
-		try {
-			while ((record = fastaParser.next()) != null) {
-				chrMT = record.getSequence();
-				break;
-			}
+		try (FASTAStreamReader reader = new FASTAStreamReader(new File(pathFasta))) {
+			if (!reader.next())
+				return new byte[0];
+			return reader.readSequenceBytes();
 		} catch (IOException e) {
 			throw new TranscriptParseException("Problem with reading FASTA file", e);
 		}
+	}
+
+	/**
+	 * Assign chrMT sequence into chrMT builders.
+	 *
+	 * @param builders The transcript builders to update.
+	 * @param chrMT The chrMT sequence from {@link #loadMitochondrialSequence}, <code>null</code> to skip.
+	 */
+	private void assignMitochondrialSequence(Map<String, TranscriptModelBuilder> builders, byte[] chrMT) {
+		if (chrMT == null)
+			return;
+
+		final int idMT = refDict.getContigNameToID().get("chrMT");
 
 		int count = 0;
 		for (TranscriptModelBuilder builder : builders.values()) {
 			if (builder.getTXRegion().getChr() == idMT) {
 				GenomeInterval txRegion = builder.getTXRegion().withStrand(Strand.FWD);
-				String seq = chrMT.substring(txRegion.getBeginPos(), txRegion.getEndPos());
+				String seq = new String(chrMT, txRegion.getBeginPos(), txRegion.length(), StandardCharsets.ISO_8859_1);
 				if (builder.getTXRegion().getStrand() == Strand.REV) {
 					seq = DNAUtils.reverseComplement(seq);
 				}
@@ -236,17 +246,11 @@ public class RefSeqParser implements TranscriptParser {
 			}
 		}
 
-		// Next iterate over the FASTA file and assign sequence to the transcript
-		FASTAParser fastaParser;
-		try {
-			fastaParser = new FASTAParser(new File(pathFASTA));
-		} catch (IOException e) {
-			throw new TranscriptParseException("Problem with opening FASTA file", e);
-		}
-		FASTARecord record;
-		try {
-			while ((record = fastaParser.next()) != null) {
-				Optional<String> accessionOpt = RefSeqFastaRecordIdFormat.extractAccession(record.getID());
+		// Next iterate over the FASTA file and assign sequence to the transcript, only reading the sequences of
+		// records that map to a transcript.
+		try (FASTAStreamReader reader = new FASTAStreamReader(new File(pathFASTA))) {
+			while (reader.next()) {
+				Optional<String> accessionOpt = RefSeqFastaRecordIdFormat.extractAccession(reader.getID());
 				if (!accessionOpt.isPresent()) {
 					continue;
 				}
@@ -262,7 +266,7 @@ public class RefSeqParser implements TranscriptParser {
 				missingSequence.remove(accession);
 
 				builder.setAccession(accession);
-				builder.setSequence(record.getSequence());
+				builder.setSequence(reader.readSequence());
 				LOGGER.debug("Found sequence for transcript {}", builder.getAccession());
 			}
 		} catch (IOException e) {
@@ -1,14 +1,15 @@
 package de.charite.compbio.jannovar.impl.parse.ucsc;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import de.charite.compbio.jannovar.JannovarException;
 import de.charite.compbio.jannovar.UncheckedJannovarException;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
 import de.charite.compbio.jannovar.datasource.TranscriptModelBuilderHGNCExtender;
 import de.charite.compbio.jannovar.hgnc.AltGeneIDType;
+import de.charite.compbio.jannovar.hgnc.HGNCRecord;
+import de.charite.compbio.jannovar.impl.parse.GenePanelIndex;
+import de.charite.compbio.jannovar.impl.parse.ParallelBuild;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParseException;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParser;
 import de.charite.compbio.jannovar.impl.parse.TranscriptSupportLevelsSetterFromLengths;
@@ -105,9 +106,14 @@ public class UCSCParser implements TranscriptParser {
 	private HashMap<String, TranscriptModelBuilder> knownGeneMap;
 
 	/**
-	 * List of gene identifiers of genes to include, if non-empty.
+	 * Index of the gene identifiers of genes to include, if non-empty.
 	 */
-	private final List<String> geneIdentifiers;
+	private final GenePanelIndex genePanel;
+
+	/**
+	 * For loading the input files and building the transcript models, possibly in parallel.
+	 */
+	private final ParallelBuild parallelBuild;
 
 	/**
 	 * @param refDict         path to {@link ReferenceDictionary} to use for name/id and id/length mapping.
@@ -117,11 +123,24 @@ public class UCSCParser implements TranscriptParser {
 	 */
 	public UCSCParser(ReferenceDictionary refDict, String basePath, List<String> geneIdentifiers,
 					  Section iniSection) {
+		this(refDict, basePath, geneIdentifiers, iniSection, ParallelBuild.SEQUENTIAL);
+	}
+
+	/**
+	 * @param refDict         path to {@link ReferenceDictionary} to use for name/id and id/length mapping.
+	 * @param basePath        path to where the to-be-parsed files live
+	 * @param iniSection      {@link Section} with configuration from INI file
+	 * @param geneIdentifiers list of gene identifiers to include if non-empty
+	 * @param parallelBuild   {@link ParallelBuild} for loading and building, possibly in parallel
+	 */
+	public UCSCParser(ReferenceDictionary refDict, String basePath, List<String> geneIdentifiers,
+					  Section iniSection, ParallelBuild parallelBuild) {
 		this.refDict = refDict;
 		this.basePath = basePath;
 		this.iniSection = iniSection;
 		this.knownGeneMap = new HashMap<>();
-		this.geneIdentifiers = geneIdentifiers;
+		this.genePanel = new GenePanelIndex(geneIdentifiers);
+		this.parallelBuild = parallelBuild;
 	}
 
 	public ImmutableList<TranscriptModel> run() throws TranscriptParseException {
@@ -134,6 +153,11 @@ public class UCSCParser implements TranscriptParser {
 		if (getINIFileName("knownCanonical") != null && !"".equals(getINIFileName("knownCanonical")))
 			knownCanonicalPath = PathUtil.join(basePath, getINIFileName("knownCanonical"));
 
+		// The HGNC records do not depend on the UCSC files, so start loading them (concurrently to parsing the UCSC
+		// files when building in parallel)
+		final ParallelBuild.Pending<ImmutableList<HGNCRecord>, JannovarException> hgncRecords = parallelBuild
+			.start(() -> TranscriptModelBuilderHGNCExtender.loadRecords(basePath));
+
 		// Parse the UCSC files.
 		parseKnownGeneFile(knownGenePath);
 		parseKnownGeneMrna(knownGeneMrnaPath);
@@ -147,35 +171,24 @@ public class UCSCParser implements TranscriptParser {
 		// Augment information in builders with
 		try {
 			new TranscriptModelBuilderHGNCExtender(basePath, r -> Lists.newArrayList(r.getEntrezID()),
-				tx -> tx.getGeneID()).run(this.knownGeneMap);
+				tx -> tx.getGeneID()).run(this.knownGeneMap, hgncRecords.get());
 		} catch (JannovarException e) {
 			throw new UncheckedJannovarException("Problem extending transcripts with HGNC information", e);
 		}
 
 		// Build result list.
-		ImmutableList.Builder<TranscriptModel> result = new ImmutableList.Builder<TranscriptModel>();
-		for (Map.Entry<String, TranscriptModelBuilder> entry : knownGeneMap.entrySet()) {
-			if (entry.getValue().getAltGeneIDs().isEmpty() && entry.getValue().getGeneID() != null) {
+		for (TranscriptModelBuilder builder : knownGeneMap.values()) {
+			if (builder.getAltGeneIDs().isEmpty() && builder.getGeneID() != null) {
 				LOGGER.debug("Using UCSC Entrez ID {} for transcript {} as HGNC did not provide alternative gene ID",
-					new Object[]{entry.getValue().getGeneID(), entry.getValue().getAccession()});
-				entry.getValue().getAltGeneIDs().put(AltGeneIDType.ENTREZ_ID.toString(), entry.getValue().getGeneID());
-			}
-			TranscriptModel model = entry.getValue().build();
-			if (checkTranscriptModel(model)) {
-				TranscriptModelBuilder builder = entry.getValue();
-				if (geneIdentifiers == null || geneIdentifiers.isEmpty()) {
-					result.add(model);
-				} else {
-					if (geneIdentifiers.contains(builder.getAccession()) || geneIdentifiers.contains(builder.getGeneID())
-						|| !Sets.intersection(ImmutableSet.copyOf(geneIdentifiers),
-						ImmutableSet.copyOf(builder.getAltGeneIDs().values())).isEmpty()
-
-					) {
-						result.add(model);
-					}
-				}
+					new Object[]{builder.getGeneID(), builder.getAccession()});
+				builder.getAltGeneIDs().put(AltGeneIDType.ENTREZ_ID.toString(), builder.getGeneID());
 			}
 		}
+		final List<TranscriptModelBuilder> builders = genePanel.select(knownGeneMap.values());
+		ImmutableList.Builder<TranscriptModel> result = new ImmutableList.Builder<TranscriptModel>();
+		for (TranscriptModel model : parallelBuild.buildAll(builders))
+			if (checkTranscriptModel(model))
+				result.add(model);
 		return result.build();
 	}
 
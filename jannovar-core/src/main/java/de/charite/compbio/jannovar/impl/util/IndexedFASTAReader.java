@@ -5,16 +5,27 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import de.charite.compbio.jannovar.Immutable;
 import de.charite.compbio.jannovar.JannovarException;
-import de.charite.compbio.jannovar.UncheckedJannovarException;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
 import java.io.BufferedReader;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Helper class for reading FAI-indexed FASTA files.
+ * <p>
+ * The FASTA region of each contig is memory-mapped on first access and kept for the lifetime of the reader. The
+ * position of each base in the file is computed from the line length information in the FAI file, so no newline
+ * characters need to be scanned for. Only absolute reads are performed on the mapped buffers and instances can be
+ * used concurrently from multiple threads.
  *
  * @author <a href="mailto:manuel.holtgrewe@charite.de">Manuel Holtgrewe</a>
  */
@@ -42,6 +53,9 @@ public class IndexedFASTAReader {
 	 */
 	private final ImmutableMap<Integer, Integer> idx2idx;
 
+	/** Lazily mapped FASTA regions, one for each entry in {@code faiRecords}. */
+	private final AtomicReferenceArray<ByteBuffer> contigBuffers;
+
 	/**
 	 * Construct with default FAI path ({@code fastaPath + ".fai"}.
 	 *
@@ -69,6 +83,7 @@ public class IndexedFASTAReader {
 		this.faiPath = faiPath;
 		this.faiRecords = loadFAIRecord();
 		this.idx2idx = buildIdx2Idx();
+		this.contigBuffers = new AtomicReferenceArray<>(faiRecords.size());
 	}
 
 	private ImmutableList<FAIRecord> loadFAIRecord() throws JannovarException {
@@ -125,36 +140,71 @@ public class IndexedFASTAReader {
 	 * @throws JannovarException on problems with I/O.
 	 */
 	public String readBases(String contigName, int beginPos, int endPos) throws JannovarException {
-		final int faiIdx = idx2idx.get(refDict.getContigNameToID().get(contigName));
-		final FAIRecord faiRecord = faiRecords.get(faiIdx);
-
-		int beginLine = beginPos / faiRecord.lineBases;
-		int beginRow = beginPos - beginLine * faiRecord.lineBases;
-		long beginOffset = faiRecord.offset + beginLine * faiRecord.lineWidth + beginRow;
-
-		int endLine = endPos / faiRecord.lineBases;
-		int endRow = endPos - endLine * faiRecord.lineBases;
-		long endOffset = faiRecord.offset + endLine * faiRecord.lineWidth + endRow;
+		final byte[] bases = new byte[Math.max(0, endPos - beginPos)];
+		final int count = readBases(contigName, beginPos, endPos, bases, 0);
+		return new String(bases, 0, count, StandardCharsets.ISO_8859_1);
+	}
 
-		final char[] buffer = new char[(int)(endOffset - beginOffset)];
-		try (
-			FileInputStream fis = new FileInputStream(faiPath);
-			InputStreamReader reader = new InputStreamReader(fis);
-			BufferedReader bufReader = new BufferedReader(reader)
-		) {
-			bufReader.skip(beginOffset);
-			bufReader.read(buffer, 0, (int)(endOffset - beginOffset));
-		} catch (Exception e) {
-			throw new UncheckedJannovarException("Could not load FAI file", e);
+	/**
+	 * Read the bases from contig {@code contigName} between 0-based {@code beginPos} and
+	 * {@code endPos} into {@code target}, starting at {@code targetOffset}.
+	 * <p>
+	 * The bases are copied line by line from the mapped FASTA file without further buffering. {@code endPos} is
+	 * clamped to the contig length.
+	 *
+	 * @param contigName   Name of the contig to read from.
+	 * @param beginPos     0-based start position to read from.
+	 * @param endPos       0-based end position to start reading
+	 * @param target       Array to write the bases to.
+	 * @param targetOffset Offset in {@code target} to write the first base to.
+	 * @return Number of bases written to {@code target}.
+	 * @throws JannovarException on problems with I/O or unknown contig.
+	 */
+	public int readBases(String contigName, int beginPos, int endPos, byte[] target, int targetOffset)
+		throws JannovarException {
+		final Integer contigID = refDict.getContigNameToID().get(contigName);
+		final Integer faiIdx = (contigID == null) ? null : idx2idx.get(contigID);
+		if (faiIdx == null)
+			throw new JannovarException("Contig " + contigName + " not found in FASTA index");
+		final FAIRecord faiRecord = faiRecords.get(faiIdx);
+		endPos = Math.min(endPos, faiRecord.length);
+		if (beginPos < 0 || beginPos > endPos)
+			throw new JannovarException("Invalid range " + contigName + ":" + beginPos + "-" + endPos);
+
+		final ByteBuffer buffer = getContigBuffer(faiIdx).duplicate();
+		int pos = beginPos;
+		int written = 0;
+		while (pos < endPos) {
+			final int line = pos / faiRecord.lineBases;
+			final int column = pos - line * faiRecord.lineBases;
+			final int count = Math.min(endPos - pos, faiRecord.lineBases - column);
+			buffer.position(line * faiRecord.lineWidth + column);
+			buffer.get(target, targetOffset + written, count);
+			pos += count;
+			written += count;
 		}
+		return written;
+	}
 
-		final StringBuilder builder = new StringBuilder();
-		for (int i = 0; i < buffer.length; ++i) {
-			if (!Character.isSpaceChar(buffer[i])) {
-				builder.append(buffer[i]);
-			}
+	/**
+	 * @return Mapped FASTA region of the {@code faiIdx}-th contig, mapped on first call.
+	 */
+	private ByteBuffer getContigBuffer(int faiIdx) throws JannovarException {
+		ByteBuffer result = contigBuffers.get(faiIdx);
+		if (result != null)
+			return result;
+
+		final FAIRecord faiRecord = faiRecords.get(faiIdx);
+		final long fullLines = faiRecord.length / faiRecord.lineBases;
+		final long size = fullLines * faiRecord.lineWidth + faiRecord.length % faiRecord.lineBases;
+		try (FileChannel channel = FileChannel.open(Paths.get(fastaPath), StandardOpenOption.READ)) {
+			result = channel.map(FileChannel.MapMode.READ_ONLY, faiRecord.offset,
+				Math.min(size, channel.size() - faiRecord.offset));
+		} catch (IOException e) {
+			throw new JannovarException("Could not map FASTA file " + fastaPath, e);
 		}
-		return builder.toString();
+		contigBuffers.compareAndSet(faiIdx, null, result);
+		return contigBuffers.get(faiIdx);
 	}
 
 	/**
@@ -87,6 +87,11 @@ public final class TranscriptModel implements Serializable, Comparable<Transcrip
 	 */
 	private final boolean hasIndels;
 
+	/**
+	 * Exon coordinates for the coordinate projections, built on first use by {@link #getProjectionIndex}.
+	 */
+	private transient TranscriptProjectionIndex projectionIndex;
+
 	/**
 	 * Class version (for serialization).
 	 */
@@ -232,19 +237,26 @@ public final class TranscriptModel implements Serializable, Comparable<Transcrip
 	 * @return the length of the coding exon sequence
 	 */
 	public int cdsTranscriptLength() {
-		int result = 0;
-		for (GenomeInterval region : exonRegions)
-			result += region.intersection(cdsRegion).length();
-		return result;
+		return getProjectionIndex().getCDSTranscriptLength();
 	}
 
 	/**
 	 * @return the sum of the exon sequence lengths
 	 */
 	public int transcriptLength() {
-		int result = 0;
-		for (GenomeInterval region : exonRegions)
-			result += region.length();
+		return getProjectionIndex().getTranscriptLength();
+	}
+
+	/**
+	 * @return the {@link TranscriptProjectionIndex} of this transcript, built on the first call
+	 */
+	TranscriptProjectionIndex getProjectionIndex() {
+		// Racing threads build equal indices; the index only has final fields and is thus safely published.
+		TranscriptProjectionIndex result = projectionIndex;
+		if (result == null) {
+			result = new TranscriptProjectionIndex(this);
+			projectionIndex = result;
+		}
 		return result;
 	}
 
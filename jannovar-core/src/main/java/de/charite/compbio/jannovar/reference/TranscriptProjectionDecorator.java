@@ -78,24 +78,17 @@ public final class TranscriptProjectionDecorator {
 				+ transcript.getTXRegion());
 		pos = pos.withStrand(transcript.getStrand());
 
-		// Look through all exons, find containing one, and compute the position.
-		int tOffset = 0; // offset in transcript
-		for (GenomeInterval region : transcript.getExonRegions()) {
-			if (region.contains(pos)) {
-				// Note that we have to use *the region's position* as the base object for the difference operation so
-				// the case of the transcript on the reverse strand but position on forward strand is handled correctly.
-				// Consequently, we have to *subtract* this difference from transcriptPos.
-				int posInExon = pos.differenceTo(region.getGenomeBeginPos());
-				int transcriptPos = tOffset + posInExon;
-				// Project for position on genomic exons to position in sequence.
-				int projectedTranscriptPos = transcript.getSeqAlignment().projectRefToQry(transcriptPos) -
-					transcript.getSeqAlignment().refLeadingGapLength();
-				return new TranscriptPosition(transcript, projectedTranscriptPos, PositionType.ZERO_BASED);
-			}
-			tOffset += region.length();
-		}
-
-		throw new ProjectionException("Position " + pos + " does not lie in an exon.");
+		// Find containing exon through the index and compute the position, pos is on the transcript's strand now.
+		final TranscriptProjectionIndex index = transcript.getProjectionIndex();
+		final int exonID = index.locateExon(pos.getPos());
+		if (exonID == INVALID_EXON_ID)
+			throw new ProjectionException("Position " + pos + " does not lie in an exon.");
+		int posInExon = pos.getPos() - index.getExonBeginPos(exonID);
+		int transcriptPos = index.getExonTranscriptBeginPos(exonID) + posInExon;
+		// Project for position on genomic exons to position in sequence.
+		int projectedTranscriptPos = transcript.getSeqAlignment().projectRefToQry(transcriptPos) -
+			transcript.getSeqAlignment().refLeadingGapLength();
+		return new TranscriptPosition(transcript, projectedTranscriptPos, PositionType.ZERO_BASED);
 	}
 
 	/**
@@ -128,18 +121,7 @@ public final class TranscriptProjectionDecorator {
 	 */
 	public TranscriptPosition cdsToTranscriptPos(CDSPosition pos) {
 		// TODO: adjust for possibly gapped alignments
-		final GenomePosition cdsBeginPos = transcript.getCDSRegion().getGenomeBeginPos();
-
-		int currPos = 0; // current transcript position
-		for (GenomeInterval region : transcript.getExonRegions()) {
-			if (region.getGenomeEndPos().isLeq(cdsBeginPos)) {
-				currPos += region.length();
-			} else {
-				currPos += cdsBeginPos.differenceTo(region.getGenomeBeginPos());
-				break;
-			}
-		}
-
+		final int currPos = transcript.getProjectionIndex().getCDSBeginTranscriptPos();
 		return new TranscriptPosition(transcript, currPos + pos.getPos());
 	}
 
@@ -175,17 +157,16 @@ public final class TranscriptProjectionDecorator {
 		if (targetPos < 0)
 			throw new ProjectionException("Invalid transcript exon position " + targetPos);
 
-		int currPos = 0; // relative begin position of current exon
-		for (GenomeInterval region : transcript.getExonRegions()) {
-			if (targetPos < currPos + region.length())
-				return region.getGenomeBeginPos().shifted(targetPos - currPos);
-			currPos += region.length();
-		}
+		final TranscriptProjectionIndex index = transcript.getProjectionIndex();
+		final int exonID = index.locateExonOfTranscriptPos(targetPos);
+		if (exonID != INVALID_EXON_ID)
+			return transcript.getExonRegions().get(exonID).getGenomeBeginPos()
+				.shifted(targetPos - index.getExonTranscriptBeginPos(exonID));
 
 		// handling case of transcript end position
 		// TODO(holtgrewe): add test for this
 		GenomeInterval lastRegion = transcript.getExonRegions().get(transcript.getExonRegions().size() - 1);
-		if (targetPos == currPos)
+		if (targetPos == index.getTranscriptLength())
 			return lastRegion.getGenomeEndPos();
 
 		throw new ProjectionException("Invalid transcript position " + targetPos);
@@ -222,17 +203,8 @@ public final class TranscriptProjectionDecorator {
 		if (transcript.getTXRegion().isLeftOf(pos) || transcript.getTXRegion().isRightOf(pos))
 			return INVALID_INTRON_ID;
 
-		// find exon containing pos or return null
-		int i = 0;
-		for (GenomeInterval region : transcript.getExonRegions()) {
-			if (region.isRightOf(pos))
-				return i - 1;
-			if (region.contains(pos))
-				return INVALID_INTRON_ID; // not in intron
-			++i;
-		}
-
-		return INVALID_INTRON_ID;
+		// find intron containing pos, through the index
+		return transcript.getProjectionIndex().locateIntron(pos.getPos());
 	}
 
 	/**
@@ -252,16 +224,8 @@ public final class TranscriptProjectionDecorator {
 		if (transcript.getTXRegion().isLeftOf(pos) || transcript.getTXRegion().isRightOf(pos))
 			return INVALID_EXON_ID;
 
-		// find exon containing pos or return null
-		GenomeInterval posBase = new GenomeInterval(pos, 1); // region of referenced base
-		int i = 0;
-		for (GenomeInterval region : transcript.getExonRegions()) {
-			if (region.contains(posBase))
-				return i;
-			++i;
-		}
-
-		return INVALID_EXON_ID;
+		// find exon containing the referenced base, through the index
+		return transcript.getProjectionIndex().locateExon(pos.getPos());
 	}
 
 	/**
@@ -277,16 +241,10 @@ public final class TranscriptProjectionDecorator {
 		if (pos.getPos() < 0)
 			throw new ProjectionException("Problem with transcript position " + pos + " (< 0)");
 
-		// find exon containing pos or return null
-		int currEndPos = 0; // current end position of exon in transcript
-		int i = 0;
-		for (GenomeInterval region : transcript.getExonRegions()) {
-			int regionLength = region.length();
-			if (pos.getPos() < currEndPos + regionLength)
-				return i;
-			++i;
-			currEndPos += regionLength;
-		}
+		// find exon containing pos through the index
+		final int exonID = transcript.getProjectionIndex().locateExonOfTranscriptPos(pos.getPos());
+		if (exonID != INVALID_EXON_ID)
+			return exonID;
 
 		// if pos was a valid transcript position then we should not reach here
 		throw new ProjectionException("Problem with transcript position " + pos + " (after last exon)");
@@ -304,7 +262,7 @@ public final class TranscriptProjectionDecorator {
 	public CDSPosition projectGenomeToCDSPosition(GenomePosition pos) {
 		// TODO: adjust for possibly gapped alignments
 		// TODO(holtgrem): Test me!
-		TranscriptProjectionDecorator projector = new TranscriptProjectionDecorator(transcript);
+		TranscriptProjectionDecorator projector = this;
 		TranscriptSequenceOntologyDecorator soDecorator = new TranscriptSequenceOntologyDecorator(transcript);
 
 		try {
@@ -352,7 +310,7 @@ public final class TranscriptProjectionDecorator {
 	 */
 	public TranscriptPosition projectGenomeToTXPosition(GenomePosition pos) {
 		// TODO(holtgrem): Test me!
-		TranscriptProjectionDecorator projector = new TranscriptProjectionDecorator(transcript);
+		TranscriptProjectionDecorator projector = this;
 		TranscriptSequenceOntologyDecorator soDecorator = new TranscriptSequenceOntologyDecorator(transcript);
 
 		try {
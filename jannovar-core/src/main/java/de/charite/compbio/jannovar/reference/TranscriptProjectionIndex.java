@@ -0,0 +1,215 @@
+package de.charite.compbio.jannovar.reference;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.Immutable;
+
+/**
+ * Exon coordinates of a {@link TranscriptModel} as primitive arrays, for the coordinate projections in
+ * {@link TranscriptProjectionDecorator}
+ * <p>
+ * All positions are 0-based and on the transcript's strand, i.e., in the order of
+ * {@link TranscriptModel#getExonRegions}. For exons that are sorted and do not overlap (the normal case), exons are
+ * located using binary search, otherwise, the arrays are scanned linearly. In both cases, the first matching exon is
+ * returned, as when iterating over {@link TranscriptModel#getExonRegions}.
+ * <p>
+ * Obtain the index through {@link TranscriptModel#getProjectionIndex}, it is built once per transcript.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@Immutable
+final class TranscriptProjectionIndex {
+
+	/**
+	 * Begin position of each exon
+	 */
+	private final int[] exonBeginPos;
+
+	/**
+	 * End position of each exon
+	 */
+	private final int[] exonEndPos;
+
+	/**
+	 * Position of each exon's first base in the exon sequence, followed by the total length of the exons
+	 */
+	private final int[] exonTranscriptBeginPos;
+
+	/**
+	 * Whether or not the exons are sorted by position and do not overlap
+	 */
+	private final boolean sorted;
+
+	/**
+	 * Position of the CDS begin in the exon sequence, as computed by
+	 * {@link TranscriptProjectionDecorator#cdsToTranscriptPos}
+	 */
+	private final int cdsBeginTranscriptPos;
+
+	/**
+	 * Number of exon bases overlapping with the CDS
+	 */
+	private final int cdsTranscriptLength;
+
+	/**
+	 * Build index for the given transcript
+	 *
+	 * @param transcript the {@link TranscriptModel} to build the index for
+	 */
+	TranscriptProjectionIndex(TranscriptModel transcript) {
+		final ImmutableList<GenomeInterval> exonRegions = transcript.getExonRegions();
+		final int numExons = exonRegions.size();
+		this.exonBeginPos = new int[numExons];
+		this.exonEndPos = new int[numExons];
+		this.exonTranscriptBeginPos = new int[numExons + 1];
+		boolean sorted = true;
+		for (int i = 0; i < numExons; ++i) {
+			final GenomeInterval region = exonRegions.get(i);
+			exonBeginPos[i] = region.getBeginPos();
+			exonEndPos[i] = region.getEndPos();
+			exonTranscriptBeginPos[i + 1] = exonTranscriptBeginPos[i] + region.length();
+			if (exonBeginPos[i] > exonEndPos[i] || (i > 0 && exonEndPos[i - 1] > exonBeginPos[i]))
+				sorted = false;
+		}
+		this.sorted = sorted;
+
+		final GenomeInterval cdsRegion = transcript.getCDSRegion();
+		final GenomePosition cdsBeginPos = cdsRegion.getGenomeBeginPos();
+		int currPos = 0;
+		int cdsLength = 0;
+		boolean foundCDSBegin = false;
+		for (GenomeInterval region : exonRegions) {
+			if (!foundCDSBegin) {
+				if (region.getGenomeEndPos().isLeq(cdsBeginPos)) {
+					currPos += region.length();
+				} else {
+					currPos += cdsBeginPos.differenceTo(region.getGenomeBeginPos());
+					foundCDSBegin = true;
+				}
+			}
+			cdsLength += region.intersection(cdsRegion).length();
+		}
+		this.cdsBeginTranscriptPos = currPos;
+		this.cdsTranscriptLength = cdsLength;
+	}
+
+	/**
+	 * @param i 0-based index of the exon
+	 * @return begin position of the exon on the transcript's strand
+	 */
+	int getExonBeginPos(int i) {
+		return exonBeginPos[i];
+	}
+
+	/**
+	 * @param i 0-based index of the exon, may be the number of exons
+	 * @return position of the exon's first base in the exon sequence, the total exon length for the number of exons
+	 */
+	int getExonTranscriptBeginPos(int i) {
+		return exonTranscriptBeginPos[i];
+	}
+
+	/**
+	 * @return sum of the exon lengths
+	 */
+	int getTranscriptLength() {
+		return exonTranscriptBeginPos[exonBeginPos.length];
+	}
+
+	/**
+	 * @return position of the CDS begin in the exon sequence
+	 */
+	int getCDSBeginTranscriptPos() {
+		return cdsBeginTranscriptPos;
+	}
+
+	/**
+	 * @return number of exon bases overlapping with the CDS
+	 */
+	int getCDSTranscriptLength() {
+		return cdsTranscriptLength;
+	}
+
+	/**
+	 * @param pos position on the transcript's strand
+	 * @return index of the first exon containing <code>pos</code>, <code>-1</code> if there is none
+	 */
+	int locateExon(int pos) {
+		if (sorted) {
+			// the first exon ending right of pos is the only candidate
+			final int i = upperBound(exonEndPos, pos);
+			return (i < exonEndPos.length && exonBeginPos[i] <= pos) ? i : -1;
+		}
+		for (int i = 0; i < exonBeginPos.length; ++i)
+			if (exonBeginPos[i] <= pos && pos < exonEndPos[i])
+				return i;
+		return -1;
+	}
+
+	/**
+	 * @param pos position on the transcript's strand
+	 * @return index of the intron containing <code>pos</code> as in
+	 * {@link TranscriptProjectionDecorator#locateIntron}, <code>-1</code> if there is none
+	 */
+	int locateIntron(int pos) {
+		if (sorted) {
+			// exons before the first exon right of pos cannot be right of it, so it is in an intron if not in an exon
+			final int i = upperBound(exonBeginPos, pos);
+			if (i == exonBeginPos.length || locateExon(pos) != -1)
+				return -1;
+			return i - 1;
+		}
+		for (int i = 0; i < exonBeginPos.length; ++i) {
+			if (pos < exonBeginPos[i])
+				return i - 1;
+			if (pos < exonEndPos[i])
+				return -1;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param beginPos begin position of the interval on the transcript's strand
+	 * @param endPos   end position of the interval on the transcript's strand
+	 * @return whether or not the interval overlaps with an exon
+	 */
+	boolean overlapsWithExon(int beginPos, int endPos) {
+		if (sorted) {
+			// the first exon ending right of beginPos is the only candidate
+			final int i = upperBound(exonEndPos, beginPos);
+			return i < exonEndPos.length && exonBeginPos[i] < endPos;
+		}
+		for (int i = 0; i < exonBeginPos.length; ++i)
+			if (exonBeginPos[i] < endPos && beginPos < exonEndPos[i])
+				return true;
+		return false;
+	}
+
+	/**
+	 * @param txPos position in the exon sequence
+	 * @return index of the first exon containing <code>txPos</code>, <code>-1</code> if <code>txPos</code> is right of
+	 * the last exon
+	 */
+	int locateExonOfTranscriptPos(int txPos) {
+		// the transcript begin positions are sorted in any case, find first exon ending right of txPos
+		final int i = upperBound(exonTranscriptBeginPos, txPos) - 1;
+		return (i < exonBeginPos.length) ? Math.max(i, 0) : -1;
+	}
+
+	/**
+	 * @return index of the first value in sorted <code>arr</code> that is greater than <code>value</code>, the length
+	 * of <code>arr</code> if there is none
+	 */
+	private static int upperBound(int[] arr, int value) {
+		int lo = 0;
+		int hi = arr.length;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (arr[mid] <= value)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+}
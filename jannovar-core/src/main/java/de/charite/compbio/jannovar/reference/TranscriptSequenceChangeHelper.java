@@ -1,6 +1,9 @@
 package de.charite.compbio.jannovar.reference;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import de.charite.compbio.jannovar.Immutable;
+import de.charite.compbio.jannovar.hgvs.Translator;
 
 /**
  * Helper class for getting updated transcript sequence for deletions and block substitutions.
@@ -10,11 +13,29 @@ import de.charite.compbio.jannovar.Immutable;
 @Immutable
 public final class TranscriptSequenceChangeHelper {
 
+	/**
+	 * Translations of the wild type CDS (extended to the right) of recently used transcripts, see
+	 * {@link #getWildTypeProtein}.
+	 * <p>
+	 * This cache is shared by the whole process on purpose: a helper is built for each pair of variant and transcript
+	 * deep inside the annotation builders, so there is no annotator-owned object to keep it in. Sharing is safe
+	 * because the value is a pure function of the immutable {@link TranscriptModel}, the keys are compared by
+	 * identity and only weakly referenced (so entries vanish with the transcript database), and the size is bounded.
+	 */
+	private static final Cache<TranscriptModel, String> WILD_TYPE_PROTEINS = CacheBuilder.newBuilder().weakKeys()
+		.maximumSize(4096).build();
+
 	/**
 	 * The {@link TranscriptModel} with the sequence and position infos.
 	 */
 	private final TranscriptModel transcript;
 
+	/**
+	 * Offset of the CDS begin in the trimmed transcript sequence, <code>-1</code> if the CDS begin cannot be projected
+	 * onto the transcript, see {@link #getCDSBeginOffset}
+	 */
+	private final int cdsBeginOffset;
+
 	/**
 	 * Construct helper with the given {@link TranscriptModel}
 	 *
@@ -22,6 +43,20 @@ public final class TranscriptSequenceChangeHelper {
 	 */
 	public TranscriptSequenceChangeHelper(TranscriptModel transcript) {
 		this.transcript = transcript;
+		this.cdsBeginOffset = projectCDSBegin(transcript);
+	}
+
+	/**
+	 * @return offset of the CDS begin of <code>transcript</code> in its trimmed sequence, <code>-1</code> if it cannot
+	 * be projected (e.g., for some non-coding transcripts)
+	 */
+	private static int projectCDSBegin(TranscriptModel transcript) {
+		try {
+			return new TranscriptProjectionDecorator(transcript)
+				.genomeToTranscriptPos(transcript.getCDSRegion().getGenomeBeginPos()).getPos();
+		} catch (ProjectionException e) {
+			return -1;
+		}
 	}
 
 	/**
@@ -139,63 +174,186 @@ public final class TranscriptSequenceChangeHelper {
 	 * @return CDS of transcript with applied {@link GenomeVariant}
 	 */
 	public String getCDSWithGenomeVariant(GenomeVariant change) {
+		final String seq = transcript.getTrimmedSequence();
+		final int cdsBegin = getCDSBeginOffset();
+		CDSEdit edit = getCDSEdit(change);
+		if (edit == null)
+			return seq.substring(cdsBegin);
+
+		// Update string using StringBuilder.
+		StringBuilder builder = new StringBuilder(seq.length() - cdsBegin + edit.alt.length());
+		builder.append(seq, cdsBegin, seq.length());
+		if (edit.isSNV) {
+			builder.setCharAt(edit.beginPos, edit.alt.charAt(0));
+		} else {
+			builder.delete(edit.beginPos, Math.min(edit.endPos, builder.length()));
+			builder.insert(edit.beginPos, edit.alt);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * @param change {@link GenomeVariant} to apply to the CDS region of the transcript
+	 * @return difference of the lengths of {@link #getCDSWithGenomeVariant} and the unchanged CDS
+	 */
+	public int getCDSLengthChange(GenomeVariant change) {
+		CDSEdit edit = getCDSEdit(change);
+		if (edit == null)
+			return 0;
+		int cdsLength = transcript.getTrimmedSequence().length() - getCDSBeginOffset();
+		return edit.alt.length() - (Math.min(edit.endPos, cdsLength) - edit.beginPos);
+	}
+
+	/**
+	 * @return translation of the CDS extended to the right as in {@link #getCDSWithGenomeVariant}, without any change
+	 * applied; cached for each {@link TranscriptModel}
+	 */
+	public String getWildTypeProtein() {
+		String result = WILD_TYPE_PROTEINS.getIfPresent(transcript);
+		if (result == null) {
+			final String seq = transcript.getTrimmedSequence();
+			final int cdsBegin = getCDSBeginOffset();
+			final char[] buffer = new char[(seq.length() - cdsBegin) / 3];
+			result = new String(buffer, 0,
+				Translator.getTranslator().translateDNA(seq, cdsBegin, seq.length(), buffer, 0));
+			WILD_TYPE_PROTEINS.put(transcript, result);
+		}
+		return result;
+	}
+
+	/**
+	 * @return offset of the CDS begin in the trimmed transcript sequence
+	 */
+	private int getCDSBeginOffset() {
+		if (cdsBeginOffset == -1)
+			throw new Error("Bug: CDS begin must be translatable into transcript positions");
+		return cdsBeginOffset;
+	}
+
+	/**
+	 * Translation of the CDS with applied {@link GenomeVariant}, equal to translating the result of
+	 * {@link #getCDSWithGenomeVariant}.
+	 * <p>
+	 * The codons upstream of the change and, for in-frame changes, downstream of the change are taken from
+	 * {@link #getWildTypeProtein}, so only the codons overlapping with the change (and for frameshifts, the ones
+	 * downstream of it) are translated, and the changed CDS is not built.
+	 *
+	 * @param change {@link GenomeVariant} to apply to the CDS region of the transcript
+	 * @return translated CDS of transcript with applied {@link GenomeVariant}
+	 */
+	public String getProteinWithGenomeVariant(GenomeVariant change) {
+		final String wtAASeq = getWildTypeProtein();
+		final CDSEdit edit = getCDSEdit(change);
+		if (edit == null)
+			return wtAASeq;
+
+		// The CDS extended to the right is cdsLength characters of seq, starting at cdsBegin.
+		final String seq = transcript.getTrimmedSequence();
+		final int cdsBegin = getCDSBeginOffset();
+		final int cdsLength = seq.length() - cdsBegin;
+		final int endPos = Math.min(edit.endPos, cdsLength);
+		if (edit.beginPos < 0 || edit.beginPos >= cdsLength + (edit.isSNV ? 0 : 1) || endPos < edit.beginPos)
+			return Translator.getTranslator().translateDNA(getCDSWithGenomeVariant(change)); // fails the same way
+		final int delta = edit.alt.length() - (endPos - edit.beginPos);
+		final int varLength = cdsLength + delta;
+
+		// Translation stops at an unknown codon upstream of the change, as in the wild type.
+		final int firstCodon = edit.beginPos / 3;
+		if (wtAASeq.length() < firstCodon)
+			return wtAASeq;
+		final StringBuilder builder = new StringBuilder(wtAASeq.length() + Math.max(0, delta / 3) + 1);
+		builder.append(wtAASeq, 0, firstCodon);
+
+		// Translate codons overlapping with the changed bases.
+		final Translator translator = Translator.getTranslator();
+		final int changeEndPos = edit.beginPos + edit.alt.length();
+		int i = firstCodon;
+		for (; 3 * i < changeEndPos; ++i) {
+			if (3 * i + 3 > varLength)
+				return builder.toString();
+			final char aa = translator.translateCodon(varCDSCharAt(seq, cdsBegin, edit, delta, 3 * i),
+				varCDSCharAt(seq, cdsBegin, edit, delta, 3 * i + 1),
+				varCDSCharAt(seq, cdsBegin, edit, delta, 3 * i + 2));
+			if (aa == Translator.NO_TRANSLATION)
+				return builder.toString();
+			builder.append(aa);
+		}
+
+		// Downstream of the change, the bases are the wild type ones shifted by delta. For in-frame changes, the
+		// codons are the wild type ones if the wild type translation reaches them.
+		if (delta % 3 == 0 && i - delta / 3 <= wtAASeq.length())
+			builder.append(wtAASeq, i - delta / 3, wtAASeq.length());
+		else
+			translator.translateDNA(seq, cdsBegin + 3 * i - delta, seq.length(), builder);
+		return builder.toString();
+	}
+
+	/**
+	 * @return character at <code>pos</code> of the CDS starting at <code>cdsBegin</code> in <code>seq</code> with
+	 * <code>edit</code> applied, that changes the length by <code>delta</code>
+	 */
+	private static char varCDSCharAt(String seq, int cdsBegin, CDSEdit edit, int delta, int pos) {
+		if (pos < edit.beginPos)
+			return seq.charAt(cdsBegin + pos);
+		else if (pos < edit.beginPos + edit.alt.length())
+			return edit.alt.charAt(pos - edit.beginPos);
+		else
+			return seq.charAt(cdsBegin + pos - delta);
+	}
+
+	/**
+	 * @return {@link CDSEdit} for applying <code>change</code> to the CDS extended to the right, <code>null</code>
+	 * if the change does not affect the CDS
+	 */
+	private CDSEdit getCDSEdit(GenomeVariant change) {
 		change = change.withStrand(transcript.getStrand());
 
 		switch (change.getType()) {
 			case SNV:
 			case INSERTION:
-				return getCDSWithPointInRefAffected(change);
+				return getCDSEditWithPointInRefAffected(change);
 			case DELETION:
 			case BLOCK_SUBSTITUTION:
-				return getCDSWithRangeInRefAffected(change);
+				return getCDSEditWithRangeInRefAffected(change);
 			default:
 				throw new Error("Unhandled change type " + change.getType());
 		}
 	}
 
-	private String getCDSWithPointInRefAffected(GenomeVariant change) {
+	private CDSEdit getCDSEditWithPointInRefAffected(GenomeVariant change) {
 		TranscriptProjectionDecorator projector = new TranscriptProjectionDecorator(transcript);
 		TranscriptSequenceOntologyDecorator soDecorator = new TranscriptSequenceOntologyDecorator(transcript);
 
-		// Obtain CDS transcript sequence.
-		String cdsSeq = projector.getTranscriptStartingAtCDS();
-
 		// Short-circuit in the case of change that does not affect the transcript.
 		if (change.getType() == GenomeVariantType.SNV) {
 			if (!transcript.getCDSRegion().overlapsWith(change.getGenomeInterval())
 				|| !soDecorator.overlapsWithExon(change.getGenomeInterval()))
-				return cdsSeq;
+				return null;
 		} else { // insertion
 			// Get change position and the one left of it.
 			GenomePosition lPos = change.getGenomePos().shifted(-1);
 			if (!transcript.getCDSRegion().contains(change.getGenomePos()) || !transcript.getCDSRegion().contains(lPos)
 				|| (!soDecorator.liesInExon(change.getGenomePos()) && !soDecorator.liesInExon(lPos)))
-				return cdsSeq;
+				return null;
 		}
 
 		// Get transcript position for the change position.
 		CDSPosition cdsChangePos = projector.projectGenomeToCDSPosition(change.getGenomePos());
 
-		// Update base in string using StringBuilder.
-		StringBuilder builder = new StringBuilder(cdsSeq);
 		if (change.getType() == GenomeVariantType.SNV)
-			builder.setCharAt(cdsChangePos.getPos(), change.getAlt().charAt(0));
+			return new CDSEdit(true, cdsChangePos.getPos(), cdsChangePos.getPos() + 1, change.getAlt().substring(0, 1));
 		else
-			builder.insert(cdsChangePos.getPos(), change.getAlt());
-		return builder.toString();
+			return new CDSEdit(false, cdsChangePos.getPos(), cdsChangePos.getPos(), change.getAlt());
 	}
 
-	private String getCDSWithRangeInRefAffected(GenomeVariant change) {
+	private CDSEdit getCDSEditWithRangeInRefAffected(GenomeVariant change) {
 		TranscriptProjectionDecorator projector = new TranscriptProjectionDecorator(transcript);
 		TranscriptSequenceOntologyDecorator soDecorator = new TranscriptSequenceOntologyDecorator(transcript);
 
-		// Obtain CDS transcript sequence.
-		String cdsSeq = projector.getTranscriptStartingAtCDS();
-
 		// Short-circuit in the case of change that does not affect the transcript.
 		if (!transcript.getCDSRegion().overlapsWith(change.getGenomeInterval())
 			|| !soDecorator.overlapsWithExon(change.getGenomeInterval()))
-			return cdsSeq;
+			return null;
 
 		// Get transcript begin and end position.
 		GenomePosition changeBeginPos = change.getGenomeInterval().getGenomeBeginPos();
@@ -208,11 +366,36 @@ public final class TranscriptSequenceChangeHelper {
 		CDSPosition cdsChangeEndPos = new CDSPosition(
 			transcript, txChangeEndPos.getPos() - txCDSStartPos.getPos());
 
-		// Build resulting transcript string.
-		StringBuilder builder = new StringBuilder(cdsSeq);
-		builder.delete(cdsChangeBeginPos.getPos(), Math.min(cdsChangeEndPos.getPos(), cdsSeq.length()));
-		builder.insert(cdsChangeBeginPos.getPos(), change.getAlt());
-		return builder.toString();
+		return new CDSEdit(false, cdsChangeBeginPos.getPos(), cdsChangeEndPos.getPos(), change.getAlt());
+	}
+
+	/**
+	 * Replacement of the bases <code>[beginPos, endPos)</code> of the CDS by <code>alt</code>
+	 */
+	private static final class CDSEdit {
+		/**
+		 * Whether or not the edit replaces a single base
+		 */
+		final boolean isSNV;
+		/**
+		 * Begin position in the CDS, zero-based
+		 */
+		final int beginPos;
+		/**
+		 * End position in the CDS, zero-based, exclusive, may be beyond the sequence end
+		 */
+		final int endPos;
+		/**
+		 * The bases to insert
+		 */
+		final String alt;
+
+		CDSEdit(boolean isSNV, int beginPos, int endPos, String alt) {
+			this.isSNV = isSNV;
+			this.beginPos = beginPos;
+			this.endPos = endPos;
+			this.alt = alt;
+		}
 	}
 
 }
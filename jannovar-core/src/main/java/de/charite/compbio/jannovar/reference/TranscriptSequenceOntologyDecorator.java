@@ -562,10 +562,10 @@ public final class TranscriptSequenceOntologyDecorator {
 	 * @return <code>true</code> if the interval overlaps with an exon
 	 */
 	public boolean overlapsWithExon(GenomeInterval interval) {
-		for (int i = 0; i < transcript.getExonRegions().size(); ++i)
-			if (interval.overlapsWith(transcript.getExonRegions().get(i)))
-				return true;
-		return false;
+		if (interval.getChr() != transcript.getChr())
+			return false;
+		interval = interval.withStrand(transcript.getStrand());
+		return transcript.getProjectionIndex().overlapsWithExon(interval.getBeginPos(), interval.getEndPos());
 	}
 
 }
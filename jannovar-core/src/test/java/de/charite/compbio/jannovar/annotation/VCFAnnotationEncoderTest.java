@@ -0,0 +1,128 @@
+package de.charite.compbio.jannovar.annotation;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import de.charite.compbio.jannovar.annotation.builders.AnnotationBuilderOptions;
+import de.charite.compbio.jannovar.data.Chromosome;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.JannovarDataSerializer;
+import de.charite.compbio.jannovar.hgvs.AminoAcidCode;
+import de.charite.compbio.jannovar.impl.intervals.Interval;
+import de.charite.compbio.jannovar.reference.GenomePosition;
+import de.charite.compbio.jannovar.reference.GenomeVariant;
+import de.charite.compbio.jannovar.reference.PositionType;
+import de.charite.compbio.jannovar.reference.Strand;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import de.charite.compbio.jannovar.testutils.ResourceUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link VCFAnnotationEncoder}, comparing against {@link Annotation#toVCFAnnoString}
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class VCFAnnotationEncoderTest {
+
+	/**
+	 * The {@link JannovarData} to load the test data into.
+	 */
+	static JannovarData jvData;
+
+	/**
+	 * Annotations for variants around all transcripts
+	 */
+	static List<Annotation> annotations;
+
+	/**
+	 * Alternative allele for each of {@link #annotations}
+	 */
+	static List<String> alts;
+
+	/**
+	 * Copy out .ser file to temporary directory for tests and load, then build annotations.
+	 */
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		File tmpDir = Files.createTempDir();
+		String dbPath = tmpDir + "/hg19_refseq_indels.ser";
+		ResourceUtils.copyResourceToFile("/hg19_refseq_indels.ser", new File(dbPath));
+		jvData = new JannovarDataSerializer(dbPath).load();
+
+		final VariantAnnotator annotator = new VariantAnnotator(jvData.getRefDict(), jvData.getChromosomes(),
+			new AnnotationBuilderOptions());
+		annotations = new ArrayList<>();
+		alts = new ArrayList<>();
+		for (Chromosome chrom : jvData.getChromosomes().values()) {
+			for (Interval<TranscriptModel> interval : chrom.getTMIntervalTree().getIntervals())
+				addAnnotations(annotator, interval.getValue());
+		}
+		annotations.add(new Annotation(ImmutableList.of(AnnotationMessage.ERROR_PROBLEM_DURING_ANNOTATION,
+			AnnotationMessage.WARNING_REF_DOES_NOT_MATCH_GENOME)));
+		alts.add("<DEL>");
+	}
+
+	/**
+	 * Add annotations for SNVs and indels at interesting positions of <code>tm</code>
+	 */
+	private static void addAnnotations(VariantAnnotator annotator, TranscriptModel tm) throws AnnotationException {
+		final int begin = tm.getTXRegion().getBeginPos();
+		final int end = tm.getTXRegion().getEndPos();
+		final int cdsBegin = tm.getCDSRegion().getBeginPos();
+		for (int pos : ImmutableList.of(begin - 3000, begin, begin + 1, cdsBegin + 1, cdsBegin + 10, (begin + end) / 2,
+			end - 1, end + 2000)) {
+			for (String[] refAlt : ImmutableList.of(new String[]{"N", "T"}, new String[]{"", "AC"},
+				new String[]{"NNN", ""}, new String[]{"NN", "TTT"})) {
+				final GenomePosition gPos = new GenomePosition(jvData.getRefDict(), Strand.FWD, tm.getChr(), pos,
+					PositionType.ONE_BASED);
+				for (Annotation ann : annotator.buildAnnotations(new GenomeVariant(gPos, refAlt[0], refAlt[1]))
+					.getAnnotations()) {
+					annotations.add(ann);
+					alts.add(refAlt[1]);
+				}
+			}
+		}
+	}
+
+	private void checkSameAsAnnotation(boolean escape, AminoAcidCode code) {
+		final VCFAnnotationEncoder encoder = new VCFAnnotationEncoder(escape, code);
+		for (int i = 0; i < annotations.size(); ++i)
+			Assert.assertEquals(annotations.get(i).toVCFAnnoString(alts.get(i), escape, code),
+				encoder.encode(annotations.get(i), alts.get(i)));
+	}
+
+	@Test
+	public void testSameAsAnnotationEscaped() {
+		Assert.assertTrue(annotations.size() > 100);
+		checkSameAsAnnotation(true, AminoAcidCode.ONE_LETTER);
+		checkSameAsAnnotation(true, AminoAcidCode.THREE_LETTER);
+	}
+
+	@Test
+	public void testSameAsAnnotationUnescaped() {
+		checkSameAsAnnotation(false, AminoAcidCode.ONE_LETTER);
+		checkSameAsAnnotation(false, AminoAcidCode.THREE_LETTER);
+	}
+
+	@Test
+	public void testMultipleAnnotations() {
+		final VCFAnnotationEncoder encoder = new VCFAnnotationEncoder(true, AminoAcidCode.ONE_LETTER);
+		Assert.assertTrue(encoder.isEmpty());
+		encoder.add(annotations.get(0), alts.get(0));
+		encoder.add(annotations.get(1), "A=C");
+		Assert.assertEquals(2, encoder.size());
+		Assert.assertEquals(annotations.get(0).toVCFAnnoString(alts.get(0), AminoAcidCode.ONE_LETTER) + ","
+			+ annotations.get(1).toVCFAnnoString("A=C", AminoAcidCode.ONE_LETTER), encoder.toString());
+		Assert.assertTrue(encoder.toString().contains("A%3DC|"));
+
+		encoder.reset();
+		Assert.assertTrue(encoder.isEmpty());
+		Assert.assertEquals("", encoder.toString());
+	}
+
+}
@@ -0,0 +1,113 @@
+package de.charite.compbio.jannovar.annotation;
+
+import com.google.common.io.Files;
+import de.charite.compbio.jannovar.annotation.builders.AnnotationBuilderOptions;
+import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.JannovarDataSerializer;
+import de.charite.compbio.jannovar.reference.GenomePosition;
+import de.charite.compbio.jannovar.reference.GenomeVariant;
+import de.charite.compbio.jannovar.reference.PositionType;
+import de.charite.compbio.jannovar.reference.Strand;
+import de.charite.compbio.jannovar.testutils.ResourceUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+
+/**
+ * Tests for {@link VariantAnnotationsCache} and its use in {@link VariantAnnotator}
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class VariantAnnotationsCacheTest {
+
+	/**
+	 * The {@link JannovarData} to load the test data into.
+	 */
+	static JannovarData jvData;
+
+	/**
+	 * Copy out .ser file to temporary directory for tests and load.
+	 */
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		File tmpDir = Files.createTempDir();
+		String dbPath = tmpDir + "/hg19_refseq_indels.ser";
+		ResourceUtils.copyResourceToFile("/hg19_refseq_indels.ser", new File(dbPath));
+		jvData = new JannovarDataSerializer(dbPath).load();
+	}
+
+	private GenomeVariant buildVariant(int pos, String ref, String alt) {
+		final GenomePosition gPos = new GenomePosition(jvData.getRefDict(), Strand.FWD,
+			jvData.getRefDict().getContigNameToID().get("1"), pos, PositionType.ONE_BASED);
+		return new GenomeVariant(gPos, ref, alt);
+	}
+
+	@Test
+	public void testCachedAnnotationsEqualUncached() throws AnnotationException {
+		final VariantAnnotationsCache cache = new VariantAnnotationsCache(100);
+		final VariantAnnotator uncached = new VariantAnnotator(jvData.getRefDict(), jvData.getChromosomes(),
+			new AnnotationBuilderOptions());
+		final VariantAnnotator cached = new VariantAnnotator(jvData.getRefDict(), jvData.getChromosomes(),
+			new AnnotationBuilderOptions(), cache);
+
+		final GenomeVariant variant = buildVariant(91809014, "C", "T");
+		final VariantAnnotations expected = uncached.buildAnnotations(variant);
+		final VariantAnnotations first = cached.buildAnnotations(variant);
+		final VariantAnnotations second = cached.buildAnnotations(buildVariant(91809014, "C", "T"));
+
+		Assert.assertEquals(expected.toString(), first.toString());
+		Assert.assertSame(first, second);
+		Assert.assertEquals(1, cache.stats().hitCount());
+		Assert.assertEquals(1, cache.stats().missCount());
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testKeyUsesNormalizedVariant() throws AnnotationException {
+		final VariantAnnotationsCache cache = new VariantAnnotationsCache(100);
+		final VariantAnnotator annotator = new VariantAnnotator(jvData.getRefDict(), jvData.getChromosomes(),
+			new AnnotationBuilderOptions(), cache);
+
+		// same SNV, once with padding bases
+		annotator.buildAnnotations(buildVariant(91809014, "C", "T"));
+		annotator.buildAnnotations(buildVariant(91809013, "AC", "AT"));
+		annotator.buildAnnotations(buildVariant(91809014, "C", "T").withStrand(Strand.REV));
+		Assert.assertEquals(2, cache.stats().hitCount());
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testKeyUsesOptions() throws AnnotationException {
+		final VariantAnnotationsCache cache = new VariantAnnotationsCache(100);
+		final GenomeVariant variant = buildVariant(91809014, "C", "T");
+		new VariantAnnotator(jvData.getRefDict(), jvData.getChromosomes(), new AnnotationBuilderOptions(true, false),
+			cache).buildAnnotations(variant);
+		new VariantAnnotator(jvData.getRefDict(), jvData.getChromosomes(), new AnnotationBuilderOptions(true, false),
+			cache).buildAnnotations(variant);
+		new VariantAnnotator(jvData.getRefDict(), jvData.getChromosomes(), new AnnotationBuilderOptions(false, false),
+			cache).buildAnnotations(variant);
+		Assert.assertEquals(1, cache.stats().hitCount());
+		Assert.assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testMaximumSize() throws AnnotationException {
+		final VariantAnnotationsCache cache = new VariantAnnotationsCache(2);
+		final VariantAnnotator annotator = new VariantAnnotator(jvData.getRefDict(), jvData.getChromosomes(),
+			new AnnotationBuilderOptions(), cache);
+		for (int i = 0; i < 10; ++i)
+			annotator.buildAnnotations(buildVariant(91809014 + i, "N", "T"));
+		Assert.assertTrue(cache.size() <= 2);
+		Assert.assertEquals(8, cache.stats().evictionCount());
+	}
+
+	@Test(expected = AnnotationException.class)
+	public void testExceptionIsPassedOn() throws AnnotationException {
+		new VariantAnnotationsCache(10).get(buildVariant(1, "A", "C"), new AnnotationBuilderOptions(), () -> {
+			throw new AnnotationException("failed");
+		});
+	}
+
+}
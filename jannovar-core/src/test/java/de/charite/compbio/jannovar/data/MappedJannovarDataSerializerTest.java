@@ -0,0 +1,81 @@
+package de.charite.compbio.jannovar.data;
+
+import com.google.common.io.Files;
+import de.charite.compbio.jannovar.reference.TranscriptModel;
+import de.charite.compbio.jannovar.testutils.ResourceUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+
+public class MappedJannovarDataSerializerTest {
+
+	/**
+	 * Path to .ser file.
+	 */
+	static String serPath;
+
+	/**
+	 * Path to columnar file, converted from {@link #serPath}.
+	 */
+	static String mappedPath;
+
+	/**
+	 * The {@link JannovarData} loaded from the .ser file.
+	 */
+	static JannovarData serData;
+
+	/**
+	 * Copy out .ser file to temporary directory, load, and convert.
+	 */
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		File tmpDir = Files.createTempDir();
+		serPath = tmpDir + "/hg19_refseq_indels.ser";
+		mappedPath = tmpDir + "/hg19_refseq_indels.jvdb";
+		ResourceUtils.copyResourceToFile("/hg19_refseq_indels.ser", new File(serPath));
+		serData = new JannovarDataSerializer(serPath).load();
+		MappedJannovarDataSerializer.convert(serPath, mappedPath);
+	}
+
+	@Test
+	public void testFormatDetection() {
+		Assert.assertFalse(MappedJannovarDataSerializer.isMappedFormat(serPath));
+		Assert.assertTrue(MappedJannovarDataSerializer.isMappedFormat(mappedPath));
+	}
+
+	@Test
+	public void testRoundTrip() throws SerializationException {
+		final JannovarData mappedData = new JannovarDataSerializer(mappedPath).load();
+
+		Assert.assertEquals(serData.getRefDict().getContigNameToID(), mappedData.getRefDict().getContigNameToID());
+		Assert.assertEquals(serData.getRefDict().getContigIDToName(), mappedData.getRefDict().getContigIDToName());
+		Assert.assertEquals(serData.getRefDict().getContigIDToLength(),
+			mappedData.getRefDict().getContigIDToLength());
+
+		Assert.assertEquals(serData.getTmByAccession().keySet(), mappedData.getTmByAccession().keySet());
+		for (TranscriptModel expected : serData.getTmByAccession().values()) {
+			final TranscriptModel actual = mappedData.getTmByAccession().get(expected.getAccession());
+			Assert.assertEquals(expected, actual);
+			Assert.assertEquals(expected.getAltGeneIDs(), actual.getAltGeneIDs());
+			Assert.assertEquals(expected.isHasIndels(), actual.isHasIndels());
+			Assert.assertEquals(expected.isHasSubstitutions(), actual.isHasSubstitutions());
+		}
+		Assert.assertEquals(serData.getChromosomes().keySet(), mappedData.getChromosomes().keySet());
+	}
+
+	@Test
+	public void testLazyAccess() throws SerializationException {
+		final MappedTranscriptStore store = new MappedJannovarDataSerializer(mappedPath).open();
+
+		Assert.assertEquals(serData.getTmByAccession().size(), store.size());
+		for (TranscriptModel expected : serData.getTmByAccession().values()) {
+			final TranscriptModel actual = store.findByAccession(expected.getAccession());
+			Assert.assertEquals(expected, actual);
+			Assert.assertSame(actual, store.findByAccession(expected.getAccession()));
+		}
+		Assert.assertNull(store.findByAccession("NM_000000.0"));
+	}
+
+}
@@ -0,0 +1,156 @@
+package de.charite.compbio.jannovar.impl.intervals;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+public class PrimitiveIntervalArrayTest {
+
+	static class Triple {
+
+		final int beginPos;
+		final int endPos;
+		final String text;
+
+		Triple(int beginPos, int endPos, String text) {
+			this.beginPos = beginPos;
+			this.endPos = endPos;
+			this.text = text;
+		}
+
+		@Override
+		public String toString() {
+			return "Triple [beginPos=" + beginPos + ", endPos=" + endPos + ", text=" + text + "]";
+		}
+
+	}
+
+	static class TripleEndExtractor implements IntervalEndExtractor<Triple> {
+
+		public int getBegin(Triple triple) {
+			return triple.beginPos;
+		}
+
+		public int getEnd(Triple triple) {
+			return triple.endPos;
+		}
+
+	}
+
+	ArrayList<Triple> getList1() {
+		ArrayList<Triple> lst = new ArrayList<Triple>();
+
+		lst.add(new Triple(1, 4, "a"));
+		lst.add(new Triple(5, 9, "b"));
+		lst.add(new Triple(4, 8, "c"));
+		lst.add(new Triple(5, 7, "d"));
+		lst.add(new Triple(16, 20, "e"));
+		lst.add(new Triple(11, 16, "f"));
+		lst.add(new Triple(30, 67, "g"));
+
+		return lst;
+	}
+
+	@Test
+	public void testSearchOverlapping() {
+		PrimitiveIntervalArray<Triple> tree = new PrimitiveIntervalArray<Triple>(getList1(),
+			new TripleEndExtractor());
+		PrimitiveIntervalArray.QueryResult<Triple> res = tree.newQueryResult();
+		tree.findOverlappingWithInterval(6, 8, res);
+
+		Assert.assertEquals(3, res.getEntries().size());
+		Assert.assertEquals("c", res.getEntries().get(0).text);
+		Assert.assertEquals("d", res.getEntries().get(1).text);
+		Assert.assertEquals("b", res.getEntries().get(2).text);
+		Assert.assertNull(res.getLeft());
+		Assert.assertNull(res.getRight());
+	}
+
+	@Test
+	public void testSearchNeighbours() {
+		PrimitiveIntervalArray<Triple> tree = new PrimitiveIntervalArray<Triple>(getList1(),
+			new TripleEndExtractor());
+		PrimitiveIntervalArray.QueryResult<Triple> res = tree.newQueryResult();
+		tree.findOverlappingWithInterval(20, 21, res);
+
+		Assert.assertEquals(0, res.getEntries().size());
+		Assert.assertEquals("e", res.getLeft().text);
+		Assert.assertEquals("g", res.getRight().text);
+
+		// reuse the result object
+		tree.findOverlappingWithPoint(512, res);
+
+		Assert.assertEquals(0, res.getEntries().size());
+		Assert.assertEquals("g", res.getLeft().text);
+		Assert.assertNull(res.getRight());
+
+		tree.findOverlappingWithPoint(11, res);
+
+		Assert.assertEquals(1, res.getEntries().size());
+		Assert.assertEquals("f", res.getEntries().get(0).text);
+		Assert.assertNull(res.getLeft());
+		Assert.assertNull(res.getRight());
+	}
+
+	@Test
+	public void testEmpty() {
+		PrimitiveIntervalArray<Triple> tree = new PrimitiveIntervalArray<Triple>(new ArrayList<Triple>(),
+			new TripleEndExtractor());
+		PrimitiveIntervalArray.QueryResult<Triple> res = tree.newQueryResult();
+		tree.findOverlappingWithPoint(10, res);
+
+		Assert.assertEquals(0, res.getEntries().size());
+		Assert.assertNull(res.getLeft());
+		Assert.assertNull(res.getRight());
+	}
+
+	/**
+	 * Compare against {@link IntervalArray} on random intervals with distinct begin and end positions
+	 */
+	@Test
+	public void testRandomAgainstIntervalArray() {
+		Random rng = new Random(42);
+		ArrayList<Triple> lst = new ArrayList<Triple>();
+		for (int i = 0; i < 1000; ++i) {
+			final int begin = 4 * rng.nextInt(100000);
+			final int end = begin + 4 * rng.nextInt(2000) + 1 + (i % 3);
+			lst.add(new Triple(begin, end, "x" + i));
+		}
+
+		IntervalArray<Triple> expectedTree = new IntervalArray<Triple>(lst, new TripleEndExtractor());
+		PrimitiveIntervalArray<Triple> tree = new PrimitiveIntervalArray<Triple>(lst, new TripleEndExtractor());
+		PrimitiveIntervalArray.QueryResult<Triple> res = tree.newQueryResult();
+		for (int i = 0; i < 2000; ++i) {
+			final int begin = rng.nextInt(420000);
+			final int end = begin + 1 + rng.nextInt(100);
+
+			IntervalArray<Triple>.QueryResult expected = expectedTree.findOverlappingWithInterval(begin, end);
+			tree.findOverlappingWithInterval(begin, end, res);
+			assertSameResult(expected, res);
+
+			expected = expectedTree.findOverlappingWithPoint(begin);
+			tree.findOverlappingWithPoint(begin, res);
+			assertSameResult(expected, res);
+		}
+	}
+
+	private void assertSameResult(IntervalArray<Triple>.QueryResult expected,
+		PrimitiveIntervalArray.QueryResult<Triple> actual) {
+		Assert.assertEquals(expected.getEntries().size(), actual.getEntries().size());
+		for (int j = 0; j < expected.getEntries().size(); ++j) {
+			Assert.assertEquals(expected.getEntries().get(j).beginPos, actual.getEntries().get(j).beginPos);
+			Assert.assertEquals(expected.getEntries().get(j).endPos, actual.getEntries().get(j).endPos);
+		}
+		if (expected.getLeft() == null)
+			Assert.assertNull(actual.getLeft());
+		else
+			Assert.assertEquals(expected.getLeft().endPos, actual.getLeft().endPos);
+		if (expected.getRight() == null)
+			Assert.assertNull(actual.getRight());
+		else
+			Assert.assertEquals(expected.getRight().beginPos, actual.getRight().beginPos);
+	}
+
+}
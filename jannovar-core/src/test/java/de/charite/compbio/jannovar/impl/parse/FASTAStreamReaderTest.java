@@ -0,0 +1,81 @@
+package de.charite.compbio.jannovar.impl.parse;
+
+import com.google.common.base.Strings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+public class FASTAStreamReaderTest {
+
+	private static FASTAStreamReader open(String lines) throws IOException {
+		return new FASTAStreamReader(new ByteArrayInputStream(lines.getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	@Test
+	public void testReadAndSkip() throws IOException {
+		FASTAStreamReader reader = open(">1 comment 1\nACGT\nAACT\n\nACGT\n>2\tcomment 2 \r\nAA\r\n\r\nAA\r\n>3\nCC\n\n");
+
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals("1", reader.getID());
+		Assert.assertEquals("comment 1", reader.getComment());
+		// skip the sequence of the first record
+
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals("2", reader.getID());
+		Assert.assertEquals("comment 2", reader.getComment());
+		Assert.assertEquals("AAAA", reader.readSequence());
+		Assert.assertNull(reader.readSequence());
+
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals("3", reader.getID());
+		Assert.assertEquals("", reader.getComment());
+		Assert.assertArrayEquals("CC".getBytes(StandardCharsets.US_ASCII), reader.readSequenceBytes());
+
+		Assert.assertFalse(reader.next());
+		Assert.assertNull(reader.getID());
+		Assert.assertNull(reader.readSequence());
+		reader.close();
+	}
+
+	@Test
+	public void testEmptyInput() throws IOException {
+		Assert.assertFalse(open("").next());
+	}
+
+	@Test
+	public void testLongRecordsAcrossBuffers() throws IOException {
+		// records are longer than the read buffer, with lines crossing buffer boundaries
+		StringBuilder lines = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+		for (int i = 0; i < 3; ++i) {
+			lines.append(">").append(Strings.repeat("x", 70000)).append(i).append(" comment\n");
+			for (int j = 0; j < 3000; ++j) {
+				String line = Strings.repeat("ACGT".substring(j % 4), 1 + j % 61);
+				lines.append(line).append('\n');
+				if (i == 1)
+					expected.append(line);
+			}
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream gz = new GZIPOutputStream(bytes)) {
+			gz.write(lines.toString().getBytes(StandardCharsets.US_ASCII));
+		}
+		FASTAStreamReader reader = new FASTAStreamReader(new ByteArrayInputStream(bytes.toByteArray()));
+
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals(Strings.repeat("x", 70000) + "0", reader.getID());
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals(Strings.repeat("x", 70000) + "1", reader.getID());
+		Assert.assertEquals("comment", reader.getComment());
+		Assert.assertEquals(expected.toString(), reader.readSequence());
+		Assert.assertTrue(reader.next());
+		Assert.assertFalse(reader.next());
+	}
+
+}
@@ -0,0 +1,65 @@
+package de.charite.compbio.jannovar.impl.parse;
+
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.hgnc.AltGeneIDType;
+import de.charite.compbio.jannovar.reference.TranscriptModelBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Tests for the {@link GenePanelIndex}
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class GenePanelIndexTest {
+
+	TranscriptModelBuilder byAccession;
+	TranscriptModelBuilder byGeneID;
+	TranscriptModelBuilder byAltGeneID;
+	TranscriptModelBuilder noMatch;
+
+	private static TranscriptModelBuilder builder(String accession, String geneID, String hgncSymbol) {
+		TranscriptModelBuilder result = new TranscriptModelBuilder();
+		result.setAccession(accession);
+		result.setGeneID(geneID);
+		if (hgncSymbol != null)
+			result.getAltGeneIDs().put(AltGeneIDType.HGNC_SYMBOL.toString(), hgncSymbol);
+		return result;
+	}
+
+	@Before
+	public void setUp() {
+		byAccession = builder("NM_000001.1", null, null);
+		byGeneID = builder("NM_000002.1", "1234", "GENE2");
+		byAltGeneID = builder("NM_000003.1", "5678", "BRCA1");
+		noMatch = builder("NM_000004.1", "9999", "OTHER");
+	}
+
+	@Test
+	public void testUnlimited() {
+		for (GenePanelIndex index : ImmutableList.of(new GenePanelIndex(null), new GenePanelIndex(ImmutableList.of()))) {
+			Assert.assertTrue(index.isUnlimited());
+			Assert.assertTrue(index.matches(noMatch));
+			Assert.assertEquals(ImmutableList.of(noMatch, byAccession), index.select(ImmutableList.of(noMatch,
+				byAccession)));
+		}
+	}
+
+	@Test
+	public void testLimited() {
+		GenePanelIndex index = new GenePanelIndex(ImmutableList.of("NM_000001.1", "1234", "BRCA1", "GENE5"));
+		Assert.assertFalse(index.isUnlimited());
+		Assert.assertTrue(index.matches(byAccession));
+		Assert.assertTrue(index.matches(byGeneID));
+		Assert.assertTrue(index.matches(byAltGeneID));
+		Assert.assertFalse(index.matches(noMatch));
+
+		List<TranscriptModelBuilder> selected = index.select(ImmutableList.of(noMatch, byAltGeneID, byAccession,
+			byGeneID));
+		Assert.assertEquals(ImmutableList.of(byAltGeneID, byAccession, byGeneID), selected);
+	}
+
+}
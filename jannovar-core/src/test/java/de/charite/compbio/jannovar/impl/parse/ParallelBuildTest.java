@@ -0,0 +1,72 @@
+package de.charite.compbio.jannovar.impl.parse;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for the {@link ParallelBuild} helpers, sequentially and on a fork-join pool
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class ParallelBuildTest {
+
+	private static void checkMapKeepsOrder(ParallelBuild parallelBuild) {
+		Set<Integer> values = new HashSet<>();
+		for (int i = 0; i < 10000; ++i)
+			values.add(i * 7919);
+		List<String> expected = new ArrayList<>();
+		for (Integer value : values)
+			expected.add(value.toString());
+		Assert.assertEquals(expected, parallelBuild.map(values, Object::toString));
+	}
+
+	private static void checkStart(ParallelBuild parallelBuild) {
+		Assert.assertEquals("value", parallelBuild.start(() -> "value").get());
+
+		ParallelBuild.Pending<String, TranscriptParseException> pending = parallelBuild.start(() -> {
+			throw new TranscriptParseException("expected");
+		});
+		try {
+			pending.get();
+			Assert.fail();
+		} catch (TranscriptParseException e) {
+			Assert.assertEquals("expected", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testSequential() {
+		Assert.assertFalse(ParallelBuild.SEQUENTIAL.isParallel());
+		Assert.assertSame(ParallelBuild.SEQUENTIAL, ParallelBuild.on(null));
+		checkMapKeepsOrder(ParallelBuild.SEQUENTIAL);
+		checkStart(ParallelBuild.SEQUENTIAL);
+		Assert.assertEquals(ImmutableList.of(), ParallelBuild.SEQUENTIAL.buildAll(ImmutableList.of()));
+	}
+
+	@Test
+	public void testParallel() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			ParallelBuild parallelBuild = ParallelBuild.on(pool);
+			Assert.assertTrue(parallelBuild.isParallel());
+			// from outside of the pool
+			checkMapKeepsOrder(parallelBuild);
+			checkStart(parallelBuild);
+			// from a task on the pool
+			pool.submit(() -> {
+				checkMapKeepsOrder(parallelBuild);
+				checkStart(parallelBuild);
+			}).get();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
@@ -12,6 +12,7 @@ import com.google.common.collect.Sets;
 import de.charite.compbio.jannovar.data.JannovarData;
 import de.charite.compbio.jannovar.data.JannovarDataSerializer;
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.impl.parse.ParallelBuild;
 import de.charite.compbio.jannovar.impl.parse.ReferenceDictParser;
 import de.charite.compbio.jannovar.impl.parse.TranscriptParseException;
 import de.charite.compbio.jannovar.reference.GenomeInterval;
@@ -37,6 +38,7 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.StringJoiner;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -130,6 +132,21 @@ public class RefSeqParserTest {
 			result.get(0).getAltGeneIDs().toString());
 	}
 
+	@Test public void testAllParallel() throws Exception {
+		RefSeqParser parser = new RefSeqParser(refDict, dataDirectory.getAbsolutePath(),
+			new ArrayList<String>(), allIniSection);
+		ImmutableList<TranscriptModel> expected = parser.run();
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			ImmutableList<TranscriptModel> result = new RefSeqParser(refDict, dataDirectory.getAbsolutePath(),
+				new ArrayList<String>(), allIniSection, ParallelBuild.on(pool)).run();
+			Assert.assertEquals(expected, result);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 	@Test public void testOnlyCurated() throws TranscriptParseException {
 		RefSeqParser parser = new RefSeqParser(refDict, dataDirectory.getAbsolutePath(),
 			new ArrayList<>(), curatedIniSection);
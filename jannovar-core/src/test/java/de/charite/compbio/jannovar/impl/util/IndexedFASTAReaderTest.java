@@ -0,0 +1,113 @@
+package de.charite.compbio.jannovar.impl.util;
+
+import de.charite.compbio.jannovar.JannovarException;
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.data.ReferenceDictionaryBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class IndexedFASTAReaderTest {
+
+	@Rule
+	public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	/** sequence of contig "1", 25 bases, wrapped at 10 bases */
+	static final String SEQ1 = "ACGTACGTAACCGGTTAACCGGTTA";
+
+	/** sequence of contig "2", 8 bases, wrapped at 4 bases */
+	static final String SEQ2 = "GGGGCCCC";
+
+	ReferenceDictionary refDict;
+
+	String fastaPath;
+
+	@Before
+	public void setUp() throws IOException {
+		ReferenceDictionaryBuilder builder = new ReferenceDictionaryBuilder();
+		builder.putContigID("1", 1);
+		builder.putContigName(1, "1");
+		builder.putContigLength(1, SEQ1.length());
+		builder.putContigID("2", 2);
+		builder.putContigName(2, "2");
+		builder.putContigLength(2, SEQ2.length());
+		refDict = builder.build();
+
+		File fastaFile = tmpFolder.newFile("ref.fa");
+		try (PrintWriter out = new PrintWriter(new FileWriter(fastaFile))) {
+			out.print(">1\nACGTACGTAA\nCCGGTTAACC\nGGTTA\n>2 description\nGGGG\nCCCC\n");
+		}
+		try (PrintWriter out = new PrintWriter(new FileWriter(fastaFile.getAbsolutePath() + ".fai"))) {
+			out.print("1\t25\t3\t10\t11\n");
+			out.print("2\t8\t46\t4\t5\n");
+		}
+		fastaPath = fastaFile.getAbsolutePath();
+	}
+
+	@Test
+	public void testReadAllRanges() throws JannovarException {
+		IndexedFASTAReader reader = new IndexedFASTAReader(refDict, fastaPath);
+		for (int begin = 0; begin <= SEQ1.length(); ++begin)
+			for (int end = begin; end <= SEQ1.length(); ++end)
+				Assert.assertEquals(SEQ1.substring(begin, end), reader.readBases("1", begin, end));
+		for (int begin = 0; begin <= SEQ2.length(); ++begin)
+			for (int end = begin; end <= SEQ2.length(); ++end)
+				Assert.assertEquals(SEQ2.substring(begin, end), reader.readBases("2", begin, end));
+	}
+
+	@Test
+	public void testReadIntoArray() throws JannovarException {
+		IndexedFASTAReader reader = new IndexedFASTAReader(refDict, fastaPath);
+		byte[] target = new byte[12];
+		Assert.assertEquals(10, reader.readBases("1", 5, 15, target, 2));
+		Assert.assertEquals(SEQ1.substring(5, 15), new String(target, 2, 10));
+	}
+
+	@Test
+	public void testClampToContigLength() throws JannovarException {
+		IndexedFASTAReader reader = new IndexedFASTAReader(refDict, fastaPath);
+		Assert.assertEquals("CCC", reader.readBases("2", 5, 100));
+	}
+
+	@Test(expected = JannovarException.class)
+	public void testUnknownContig() throws JannovarException {
+		IndexedFASTAReader reader = new IndexedFASTAReader(refDict, fastaPath);
+		reader.readBases("X", 0, 1);
+	}
+
+	@Test
+	public void testConcurrentReads() throws Exception {
+		IndexedFASTAReader reader = new IndexedFASTAReader(refDict, fastaPath);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (int t = 0; t < 8; ++t) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 1000; ++i) {
+						final int begin = i % 20;
+						if (!SEQ1.substring(begin, begin + 5).equals(reader.readBases("1", begin, begin + 5)))
+							return false;
+					}
+					return true;
+				}));
+			}
+			for (Future<Boolean> future : futures)
+				Assert.assertTrue(future.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
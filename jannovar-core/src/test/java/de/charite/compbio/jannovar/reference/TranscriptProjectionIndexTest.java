@@ -0,0 +1,129 @@
+package de.charite.compbio.jannovar.reference;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link TranscriptProjectionIndex}, comparing with linear scans over the exon regions.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class TranscriptProjectionIndexTest {
+
+	/**
+	 * this test uses this static hg19 reference dictionary
+	 */
+	static final ReferenceDictionary refDict = HG19RefDictBuilder.build();
+
+	/**
+	 * transcript info for the forward strand
+	 */
+	TranscriptModel infoForward;
+	/**
+	 * transcript info for the reverse strand
+	 */
+	TranscriptModel infoReverse;
+
+	@Before
+	public void setUp() {
+		TranscriptModelBuilder builderForward = TranscriptModelFactory.parseKnownGenesLine(refDict,
+			"uc001anx.3\tchr1\t+\t6640062\t6649340\t6640669\t6649272\t11"
+				+ "\t6640062,6640600,6642117,6645978,6646754,6647264,6647537,"
+				+ "6648119,6648337,6648815,6648975,\t6640196,6641359,6642359,"
+				+ "6646090,6646847,6647351,6647692,6648256,6648502,6648904,6649340,\tP10074\tuc001anx.3");
+		builderForward.setGeneSymbol("ZBTB48");
+		this.infoForward = builderForward.build();
+
+		TranscriptModelBuilder builderReverse = TranscriptModelFactory.parseKnownGenesLine(refDict,
+			"uc001bgu.3\tchr1\t-\t23685940\t23696357\t23688461\t23694498\t4"
+				+ "\t23685940,23693534,23694465,23695858,\t23689714,23693661,23694558,"
+				+ "23696357,\tQ9C0F3\tuc001bgu.3");
+		builderReverse.setGeneSymbol("ZNF436");
+		this.infoReverse = builderReverse.build();
+	}
+
+	/**
+	 * Compare index against linear scans for all positions around the transcript
+	 */
+	private void checkIndex(TranscriptModel transcript) {
+		final TranscriptProjectionIndex index = transcript.getProjectionIndex();
+		final ImmutableList<GenomeInterval> exons = transcript.getExonRegions();
+
+		int txLength = 0;
+		for (GenomeInterval exon : exons)
+			txLength += exon.length();
+		Assert.assertEquals(txLength, index.getTranscriptLength());
+
+		int cdsLength = 0;
+		for (GenomeInterval exon : exons)
+			cdsLength += exon.intersection(transcript.getCDSRegion()).length();
+		Assert.assertEquals(cdsLength, index.getCDSTranscriptLength());
+
+		final GenomeInterval txRegion = transcript.getTXRegion();
+		for (int pos = txRegion.getBeginPos() - 10; pos < txRegion.getEndPos() + 10; ++pos) {
+			int expectedExon = -1;
+			int expectedIntron = -1;
+			for (int i = 0; i < exons.size(); ++i) {
+				if (pos < exons.get(i).getBeginPos()) {
+					expectedIntron = i - 1;
+					break;
+				}
+				if (pos < exons.get(i).getEndPos())
+					break;
+			}
+			for (int i = 0; i < exons.size() && expectedExon == -1; ++i)
+				if (exons.get(i).getBeginPos() <= pos && pos < exons.get(i).getEndPos())
+					expectedExon = i;
+			Assert.assertEquals("pos=" + pos, expectedExon, index.locateExon(pos));
+			Assert.assertEquals("pos=" + pos, expectedIntron, index.locateIntron(pos));
+
+			for (int len = 0; len < 3; ++len) {
+				boolean expectedOverlap = false;
+				for (GenomeInterval exon : exons)
+					expectedOverlap |= (exon.getBeginPos() < pos + len && pos < exon.getEndPos());
+				Assert.assertEquals("pos=" + pos, expectedOverlap, index.overlapsWithExon(pos, pos + len));
+			}
+		}
+
+		for (int txPos = 0; txPos <= txLength; ++txPos) {
+			int expected = -1;
+			for (int i = 0, offset = 0; i < exons.size(); offset += exons.get(i++).length()) {
+				if (txPos < offset + exons.get(i).length()) {
+					expected = i;
+					break;
+				}
+			}
+			Assert.assertEquals("txPos=" + txPos, expected, index.locateExonOfTranscriptPos(txPos));
+		}
+	}
+
+	@Test
+	public void testForward() {
+		checkIndex(infoForward);
+		Assert.assertEquals(203, infoForward.getProjectionIndex().getCDSBeginTranscriptPos());
+	}
+
+	@Test
+	public void testReverse() {
+		checkIndex(infoReverse);
+		Assert.assertEquals(559, infoReverse.getProjectionIndex().getCDSBeginTranscriptPos());
+	}
+
+	@Test
+	public void testUnsortedExons() {
+		ImmutableList<GenomeInterval> exons = ImmutableList.of(
+			new GenomeInterval(refDict, Strand.FWD, 1, 300, 400, PositionType.ZERO_BASED),
+			new GenomeInterval(refDict, Strand.FWD, 1, 100, 200, PositionType.ZERO_BASED),
+			new GenomeInterval(refDict, Strand.FWD, 1, 150, 250, PositionType.ZERO_BASED));
+		TranscriptModel transcript = new TranscriptModel("tx", "GENE",
+			new GenomeInterval(refDict, Strand.FWD, 1, 100, 400, PositionType.ZERO_BASED),
+			new GenomeInterval(refDict, Strand.FWD, 1, 100, 400, PositionType.ZERO_BASED), exons,
+			Strings.repeat("A", 300), null, 0, false, false);
+		checkIndex(transcript);
+	}
+
+}
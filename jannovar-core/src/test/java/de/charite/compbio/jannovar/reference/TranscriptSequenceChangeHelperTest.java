@@ -1,6 +1,7 @@
 package de.charite.compbio.jannovar.reference;
 
 import de.charite.compbio.jannovar.data.ReferenceDictionary;
+import de.charite.compbio.jannovar.hgvs.Translator;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -489,4 +490,44 @@ public class TranscriptSequenceChangeHelperTest {
 		Assert.assertEquals(expectedBuilder.toString(), resultTranscript);
 	}
 
+	/**
+	 * Check {@link TranscriptSequenceChangeHelper#getProteinWithGenomeVariant} and
+	 * {@link TranscriptSequenceChangeHelper#getCDSLengthChange} against translating
+	 * {@link TranscriptSequenceChangeHelper#getCDSWithGenomeVariant} for changes around each exonic position.
+	 */
+	private void checkProteinWithGenomeVariant(TranscriptModel info, TranscriptSequenceChangeHelper helper) {
+		final String wtCDS = new TranscriptProjectionDecorator(info).getTranscriptStartingAtCDS();
+		Assert.assertEquals(Translator.getTranslator().translateDNA(wtCDS), helper.getWildTypeProtein());
+
+		final String[][] refAlts = {{"A", "C"}, {"C", "A"}, {"", "T"}, {"", "TA"}, {"", "TAA"}, {"", "GGGG"},
+			{"A", ""}, {"AC", ""}, {"ACG", ""}, {"ACGTAC", ""}, {"AC", "T"}, {"A", "TAG"}, {"ACGT", "CA"},
+			{"ACGTA", "N"}};
+		for (GenomeInterval exon : info.getExonRegions()) {
+			exon = exon.withStrand(Strand.FWD);
+			// all positions around the exon boundaries, and every 7th position (in all frames) in between
+			for (int pos = exon.getBeginPos() - 8; pos < exon.getEndPos() + 8;
+				pos += (pos < exon.getBeginPos() + 8 || pos >= exon.getEndPos() - 8) ? 1 : 7) {
+				for (String[] refAlt : refAlts) {
+					GenomeVariant change = new GenomeVariant(new GenomePosition(refDict, Strand.FWD, 1, pos,
+						PositionType.ZERO_BASED), refAlt[0], refAlt[1]);
+					String varCDS = helper.getCDSWithGenomeVariant(change);
+					Assert.assertEquals(change.toString(), Translator.getTranslator().translateDNA(varCDS),
+						helper.getProteinWithGenomeVariant(change));
+					Assert.assertEquals(change.toString(), varCDS.length() - wtCDS.length(),
+						helper.getCDSLengthChange(change));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testProteinWithGenomeVariantForward() {
+		checkProteinWithGenomeVariant(infoForward, helperForward);
+	}
+
+	@Test
+	public void testProteinWithGenomeVariantReverse() {
+		checkProteinWithGenomeVariant(infoReverse, helperReverse);
+	}
+
 }
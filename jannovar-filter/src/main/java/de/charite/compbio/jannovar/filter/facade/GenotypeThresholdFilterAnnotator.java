@@ -1,11 +1,15 @@
 package de.charite.compbio.jannovar.filter.facade;
 
 import de.charite.compbio.jannovar.filter.impl.gt.GenotypeFilterAnnotator;
+import de.charite.compbio.jannovar.filter.impl.gt.SupportedVarCaller;
 import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFHeader;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Perform annotation (sof-filtering) based on coverage/alternative allele fraction/genotype call
@@ -25,34 +29,63 @@ public class GenotypeThresholdFilterAnnotator {
 	 */
 	private final GenotypeFilterAnnotator gtAnnotator;
 
+	/**
+	 * Construct annotator that guesses the variant caller for each genotype
+	 *
+	 * @param options configuration for the threshold-based filter
+	 */
 	public GenotypeThresholdFilterAnnotator(ThresholdFilterOptions options) {
 		this.options = options;
 		this.gtAnnotator = new GenotypeFilterAnnotator(this.options);
 	}
 
+	/**
+	 * Construct annotator that guesses the variant caller once from the FORMAT lines of the VCF header, or from the
+	 * first genotypes if there are none
+	 *
+	 * @param options configuration for the threshold-based filter
+	 * @param header  {@link VCFHeader} of the VCF file to annotate
+	 */
+	public GenotypeThresholdFilterAnnotator(ThresholdFilterOptions options, VCFHeader header) {
+		this.options = options;
+		this.gtAnnotator = new GenotypeFilterAnnotator(this.options, SupportedVarCaller.guessFromHeader(header));
+	}
+
 	/**
 	 * Annotate VariantContext with the threshold-based filters.
 	 *
 	 * @param vc the {@link VariantContext} to annotate
-	 * @return copy of <code>vc</code> with applied annotations
+	 * @return <code>vc</code> itself if no genotype filter applies, otherwise a copy with applied annotations
 	 */
 	public VariantContext annotateVariantContext(VariantContext vc) {
-		VariantContextBuilder builder = new VariantContextBuilder(vc);
-		annotateGenotypes(builder, vc);
-		return builder.make();
+		final List<Genotype> gts = annotateGenotypes(vc);
+		if (gts == null)
+			return vc;
+		return new VariantContextBuilder(vc).genotypes(gts).make();
 	}
 
 	/**
 	 * Annotate genotypes individually in <code>vc</code>
 	 *
-	 * @param builder the {@link VariantContextBuilder} used for building variant
-	 * @param vc      {@link VariantContext} to annotate
+	 * @param vc {@link VariantContext} to annotate
+	 * @return list of the annotated genotypes, <code>null</code> if all genotypes are unchanged
 	 */
-	private void annotateGenotypes(VariantContextBuilder builder, VariantContext vc) {
-		ArrayList<Genotype> gts = new ArrayList<>();
-		for (Genotype gt : vc.getGenotypes())
-			gts.add(gtAnnotator.gtWithAppliedFilters(gt));
-		builder.genotypes(gts);
+	private List<Genotype> annotateGenotypes(VariantContext vc) {
+		final GenotypesContext genotypes = vc.getGenotypes();
+		ArrayList<Genotype> gts = null;
+		for (int i = 0; i < genotypes.size(); ++i) {
+			final Genotype gt = genotypes.get(i);
+			final Genotype annotated = gtAnnotator.gtWithAppliedFilters(gt);
+			if (gts == null && annotated != gt) {
+				// first changed genotype, copy the unchanged ones before
+				gts = new ArrayList<>(genotypes.size());
+				for (int j = 0; j < i; ++j)
+					gts.add(genotypes.get(j));
+			}
+			if (gts != null)
+				gts.add(annotated);
+		}
+		return gts;
 	}
 
 }
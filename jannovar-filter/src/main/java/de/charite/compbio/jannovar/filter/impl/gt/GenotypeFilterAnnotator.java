@@ -1,7 +1,6 @@
 package de.charite.compbio.jannovar.filter.impl.gt;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableList.Builder;
 import com.google.common.collect.ImmutableMap;
 import de.charite.compbio.jannovar.filter.facade.ThresholdFilterHeaderExtender;
 import de.charite.compbio.jannovar.filter.facade.ThresholdFilterOptions;
@@ -9,6 +8,7 @@ import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.GenotypeBuilder;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Facade class for performing annotation on a genotype-wide level
@@ -27,8 +27,43 @@ public class GenotypeFilterAnnotator {
 	 */
 	private final ThresholdFilterOptions options;
 
+	/**
+	 * Whether or not to guess the caller once for all genotypes instead of for each genotype
+	 */
+	private final boolean cacheCaller;
+
+	/**
+	 * The caller guessed once, <code>null</code> if not guessed yet
+	 */
+	private SupportedVarCaller caller;
+
+	/**
+	 * Construct annotator that guesses the variant caller for each genotype
+	 *
+	 * @param options threshold based filter configuration
+	 */
 	public GenotypeFilterAnnotator(ThresholdFilterOptions options) {
+		this(options, false, null);
+	}
+
+	/**
+	 * Construct annotator that guesses the variant caller only once
+	 * <p>
+	 * Genotypes that do not have all FORMAT fields of the caller, e.g., no-calls with missing values, are handled by
+	 * guessing the caller for the genotype.
+	 *
+	 * @param options threshold based filter configuration
+	 * @param caller  the variant caller, e.g., as guessed with {@link SupportedVarCaller#guessFromHeader};
+	 *                <code>null</code> for guessing from the first genotype with all FORMAT fields of a caller
+	 */
+	public GenotypeFilterAnnotator(ThresholdFilterOptions options, SupportedVarCaller caller) {
+		this(options, true, caller);
+	}
+
+	private GenotypeFilterAnnotator(ThresholdFilterOptions options, boolean cacheCaller, SupportedVarCaller caller) {
 		this.options = options;
+		this.cacheCaller = cacheCaller;
+		this.caller = caller;
 
 		ImmutableMap.Builder<SupportedVarCaller, GenotypeFilterImpl> builder = ImmutableMap.builder();
 		builder.put(SupportedVarCaller.GATK_CALLER, new GatkGenotypeFilterImpl());
@@ -39,59 +74,93 @@ public class GenotypeFilterAnnotator {
 	}
 
 	/**
-	 * Augment genotype with the given filters and return modified GenotypeBuilder
+	 * Augment genotype with the given filters
+	 *
+	 * @return <code>gt</code> itself if no filter applies, otherwise a copy with the filters added
 	 */
 	public Genotype gtWithAppliedFilters(Genotype gt) {
-		GenotypeBuilder gtBuilder = new GenotypeBuilder(gt);
+		final List<String> newFilters = collectFilters(gt);
+		if (newFilters == null)
+			return gt;
 
+		GenotypeBuilder gtBuilder = new GenotypeBuilder(gt);
 		ArrayList<String> filters = new ArrayList<>();
 		if (gt.isFiltered())
 			filters.add(gt.getFilters());
-		filters.addAll(getFiltersFor(gt));
+		filters.addAll(newFilters);
 		gtBuilder.filters(filters);
 
 		return gtBuilder.make();
 	}
 
 	public ImmutableList<String> getFiltersFor(Genotype gt) {
-		GenotypeFilterImpl impl = impls.get(SupportedVarCaller.guessFromGenotype(gt));
-		ImmutableList.Builder<String> builder = ImmutableList.builder();
-		checkCoverage(gt, builder, impl);
-		checkGenotypeQuality(gt, builder, impl);
-		checkAaf(gt, builder, impl);
-		return builder.build();
+		final List<String> filters = collectFilters(gt);
+		return (filters == null) ? ImmutableList.of() : ImmutableList.copyOf(filters);
 	}
 
-	private void checkCoverage(Genotype gt, Builder<String> builder, GenotypeFilterImpl impl) {
+	/**
+	 * Extract coverage, genotype quality, and alternative allele fraction once and check them against the thresholds
+	 *
+	 * @return list of the filters that apply to <code>gt</code>, <code>null</code> if there are none
+	 */
+	private List<String> collectFilters(Genotype gt) {
+		final GenotypeFilterImpl impl = impls.get(getCaller(gt));
+		final int coverage = impl.getCoverage(gt);
+		final int genotypeQuality = impl.getGenotypeQuality(gt);
+		final double aaf = impl.getAlternativeAlleleFraction(gt);
+
+		List<String> result = null;
+		// check coverage
 		if (gt.isHet()) {
-			if (impl.getCoverage(gt) < options.getMinGtCovHet())
-				builder.add(ThresholdFilterHeaderExtender.FILTER_GT_MIN_COV_HET);
+			if (coverage < options.getMinGtCovHet())
+				result = add(result, ThresholdFilterHeaderExtender.FILTER_GT_MIN_COV_HET);
 		} else if (!gt.isHomRef()) {
-			if (impl.getCoverage(gt) < options.getMinGtCovHomAlt())
-				builder.add(ThresholdFilterHeaderExtender.FILTER_GT_MIN_COV_HOM_ALT);
+			if (coverage < options.getMinGtCovHomAlt())
+				result = add(result, ThresholdFilterHeaderExtender.FILTER_GT_MIN_COV_HOM_ALT);
 		}
-		if (impl.getCoverage(gt) > options.getMaxCov())
-			builder.add(ThresholdFilterHeaderExtender.FILTER_GT_MAX_COV);
-	}
-
-	private void checkGenotypeQuality(Genotype gt, Builder<String> builder, GenotypeFilterImpl impl) {
-		if (impl.getGenotypeQuality(gt) < options.getMinGtGq())
-			builder.add(ThresholdFilterHeaderExtender.FILTER_GT_MIN_GQ);
-	}
-
-	private void checkAaf(Genotype gt, Builder<String> builder, GenotypeFilterImpl impl) {
+		if (coverage > options.getMaxCov())
+			result = add(result, ThresholdFilterHeaderExtender.FILTER_GT_MAX_COV);
+		// check genotype quality
+		if (genotypeQuality < options.getMinGtGq())
+			result = add(result, ThresholdFilterHeaderExtender.FILTER_GT_MIN_GQ);
+		// check alternative allele fraction
 		if (gt.isHet()) {
-			if (impl.getAlternativeAlleleFraction(gt) < options.getMinGtAafHet())
-				builder.add(ThresholdFilterHeaderExtender.FILTER_GT_MIN_AAF_HET);
-			if (impl.getAlternativeAlleleFraction(gt) > options.getMaxGtAafHet())
-				builder.add(ThresholdFilterHeaderExtender.FILTER_GT_MAX_AAF_HET);
+			if (aaf < options.getMinGtAafHet())
+				result = add(result, ThresholdFilterHeaderExtender.FILTER_GT_MIN_AAF_HET);
+			if (aaf > options.getMaxGtAafHet())
+				result = add(result, ThresholdFilterHeaderExtender.FILTER_GT_MAX_AAF_HET);
 		} else if (gt.isHomRef()) {
-			if (impl.getAlternativeAlleleFraction(gt) > options.getMaxGtAafHomRef())
-				builder.add(ThresholdFilterHeaderExtender.FILTER_GT_MAX_AAF_HOM_REF);
+			if (aaf > options.getMaxGtAafHomRef())
+				result = add(result, ThresholdFilterHeaderExtender.FILTER_GT_MAX_AAF_HOM_REF);
 		} else {
-			if (impl.getAlternativeAlleleFraction(gt) < options.getMinGtAafHomAlt())
-				builder.add(ThresholdFilterHeaderExtender.FILTER_GT_MIN_AAF_HOM_ALT);
+			if (aaf < options.getMinGtAafHomAlt())
+				result = add(result, ThresholdFilterHeaderExtender.FILTER_GT_MIN_AAF_HOM_ALT);
 		}
+		return result;
+	}
+
+	/**
+	 * @return the caller to use for <code>gt</code>
+	 */
+	private SupportedVarCaller getCaller(Genotype gt) {
+		if (!cacheCaller)
+			return SupportedVarCaller.guessFromGenotype(gt);
+		if (caller != null && caller.hasFormatFields(gt))
+			return caller;
+		final SupportedVarCaller guessed = SupportedVarCaller.guessFromGenotype(gt);
+		if (caller == null && guessed.hasFormatFields(gt))
+			caller = guessed;
+		return guessed;
+	}
+
+	/**
+	 * Add <code>filter</code> to <code>filters</code>, allocating the list on the first filter
+	 */
+	private static List<String> add(List<String> filters, String filter) {
+		if (filters == null)
+			filters = new ArrayList<>();
+		filters.add(filter);
+		return filters;
 	}
 
 }
@@ -1,6 +1,8 @@
 package de.charite.compbio.jannovar.filter.impl.gt;
 
+import com.google.common.collect.ImmutableList;
 import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.vcf.VCFHeader;
 
 /**
  * Enumeration of suported variant caller
@@ -11,38 +13,78 @@ public enum SupportedVarCaller {
 	/**
 	 * GATK UG or HC
 	 */
-	GATK_CALLER,
+	GATK_CALLER("GT", "AD", "DP", "GQ", "PL"),
 	/**
 	 * Bcftools
 	 */
-	BCFTOOLS,
+	BCFTOOLS("DP", "DV", "DPR"),
 	/**
 	 * Freebayes
 	 */
-	FREEBAYES,
+	FREEBAYES("GT", "GQ", "RO", "QR", "AO", "QA"),
 	/**
 	 * Platypus
 	 */
-	PLATYPUS;
+	PLATYPUS("GT", "GQ", "NR", "NV");
+
+	/**
+	 * Order in which the callers are tried when guessing, the first one with all FORMAT fields wins
+	 */
+	private static final ImmutableList<SupportedVarCaller> GUESS_ORDER = ImmutableList.of(BCFTOOLS, FREEBAYES,
+		GATK_CALLER, PLATYPUS);
+
+	/**
+	 * The FORMAT fields written by the caller
+	 */
+	private final ImmutableList<String> formatKeys;
+
+	SupportedVarCaller(String... formatKeys) {
+		this.formatKeys = ImmutableList.copyOf(formatKeys);
+	}
+
+	/**
+	 * @return whether or not <code>gt</code> has all FORMAT fields written by this caller
+	 */
+	public boolean hasFormatFields(Genotype gt) {
+		for (int i = 0; i < formatKeys.size(); ++i)
+			if (!gt.hasAnyAttribute(formatKeys.get(i)))
+				return false;
+		return true;
+	}
+
+	/**
+	 * @return whether or not <code>header</code> has FORMAT lines for all fields written by this caller
+	 */
+	public boolean hasFormatLines(VCFHeader header) {
+		for (String key : formatKeys)
+			if (!header.hasFormatLine(key))
+				return false;
+		return true;
+	}
 
 	/**
 	 * @return {@link SupportedVarCaller} as guessed from the FORMAT fields of <code>gt</code>
 	 */
 	public static SupportedVarCaller guessFromGenotype(Genotype gt) {
-		if (gt.hasAnyAttribute("DP") && gt.hasAnyAttribute("DV") && gt.hasAnyAttribute("DPR")) {
-			return BCFTOOLS;
-		} else if (gt.hasAnyAttribute("GT") && gt.hasAnyAttribute("GQ") && gt.hasAnyAttribute("RO")
-			&& gt.hasAnyAttribute("QR") && gt.hasAnyAttribute("AO") && gt.hasAnyAttribute("QA")) {
-			return FREEBAYES;
-		} else if (gt.hasAnyAttribute("GT") && gt.hasAnyAttribute("AD") && gt.hasAnyAttribute("DP")
-			&& gt.hasAnyAttribute("GQ") && gt.hasAnyAttribute("PL")) {
-			return GATK_CALLER;
-		} else if (gt.hasAnyAttribute("GT") && gt.hasAnyAttribute("GQ") && gt.hasAnyAttribute("NR")
-			&& gt.hasAnyAttribute("NV")) {
-			return PLATYPUS;
-		} else {
-			return GATK_CALLER;  // sometimes GATK does not write out anything here... :(
-		}
+		for (int i = 0; i < GUESS_ORDER.size(); ++i)
+			if (GUESS_ORDER.get(i).hasFormatFields(gt))
+				return GUESS_ORDER.get(i);
+		return GATK_CALLER;  // sometimes GATK does not write out anything here... :(
+	}
+
+	/**
+	 * Guess the caller once for a whole VCF file, in the same way as {@link #guessFromGenotype}
+	 *
+	 * @return {@link SupportedVarCaller} as guessed from the FORMAT header lines of <code>header</code>,
+	 * <code>null</code> if there are none
+	 */
+	public static SupportedVarCaller guessFromHeader(VCFHeader header) {
+		if (header.getFormatHeaderLines().isEmpty())
+			return null;
+		for (SupportedVarCaller caller : GUESS_ORDER)
+			if (caller.hasFormatLines(header))
+				return caller;
+		return GATK_CALLER;
 	}
 
 }
@@ -1,8 +1,10 @@
 package de.charite.compbio.jannovar.filter.impl.var;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import de.charite.compbio.jannovar.filter.facade.ThresholdFilterHeaderExtender;
 import de.charite.compbio.jannovar.filter.facade.ThresholdFilterOptions;
+import de.charite.compbio.jannovar.htsjdk.SampleIndex;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
@@ -28,10 +30,52 @@ public class VariantThresholdFilterAnnotator {
 	 */
 	private final ImmutableList<String> affecteds;
 
+	/**
+	 * Index of the samples for accessing the genotypes by index
+	 */
+	private final SampleIndex sampleIndex;
+
+	/**
+	 * Indices of the affected samples in {@link #sampleIndex}
+	 */
+	private final BitSet affectedIdxs;
+
+	/**
+	 * Whether or not one of the {@link #affecteds} is not in {@link #sampleIndex}; such a sample has no genotype and
+	 * thus no filtered genotype
+	 */
+	private final boolean affectedWithoutGenotype;
+
+	/**
+	 * Construct with the affected samples only, their genotypes are looked up by name
+	 *
+	 * @param options   configuration for threshold-based filter
+	 * @param affecteds names of samples of affected individuals
+	 */
 	public VariantThresholdFilterAnnotator(ThresholdFilterOptions options,
 										   List<String> affecteds) {
+		this(options, affecteds, new SampleIndex(ImmutableSet.copyOf(affecteds)));
+	}
+
+	/**
+	 * Construct with the index of the samples of the VCF file, e.g., built from the VCF header, for accessing the
+	 * genotypes of the affected samples by index
+	 *
+	 * @param options     configuration for threshold-based filter
+	 * @param affecteds   names of samples of affected individuals
+	 * @param sampleIndex {@link SampleIndex} of the samples in the VCF file
+	 */
+	public VariantThresholdFilterAnnotator(ThresholdFilterOptions options,
+										   List<String> affecteds, SampleIndex sampleIndex) {
 		this.options = options;
 		this.affecteds = ImmutableList.copyOf(affecteds);
+		this.sampleIndex = sampleIndex;
+		this.affectedIdxs = sampleIndex.toBitSet(affecteds);
+		boolean withoutGenotype = false;
+		for (String affected : affecteds)
+			if (sampleIndex.indexOf(affected) < 0)
+				withoutGenotype = true;
+		this.affectedWithoutGenotype = withoutGenotype;
 	}
 
 	/**
@@ -47,14 +91,8 @@ public class VariantThresholdFilterAnnotator {
 
 		// If all genotype calls are filtered out then add filter to variant-level FILTER column
 		HashSet<String> filters = new HashSet<String>(vc.getFilters());
-		if (!affecteds.isEmpty()) {
-			HashSet<String> unfilteredAffecteds = new HashSet<>(affecteds);
-			for (Genotype gt : vc.getGenotypes())
-				if (affecteds.contains(gt.getSampleName()) && gt.isFiltered())
-					unfilteredAffecteds.remove(gt.getSampleName());
-			if (unfilteredAffecteds.isEmpty())
-				filters.add(ThresholdFilterHeaderExtender.FILTER_VAR_ALL_AFFECTED_GTS_FILTERED);
-		}
+		if (!affecteds.isEmpty() && allAffectedGenotypesFiltered(vc))
+			filters.add(ThresholdFilterHeaderExtender.FILTER_VAR_ALL_AFFECTED_GTS_FILTERED);
 
 		// Check best frequency from EXAC
 		final String keyExacBestAf = options.getExacPrefix() + "BEST_AF";
@@ -112,4 +150,18 @@ public class VariantThresholdFilterAnnotator {
 		return builder.make();
 	}
 
+	/**
+	 * @return whether or not all affected samples have a filtered genotype in <code>vc</code>
+	 */
+	private boolean allAffectedGenotypesFiltered(VariantContext vc) {
+		if (affectedWithoutGenotype)
+			return false;
+		for (int idx = affectedIdxs.nextSetBit(0); idx >= 0; idx = affectedIdxs.nextSetBit(idx + 1)) {
+			final Genotype gt = sampleIndex.getGenotype(vc, idx);
+			if (gt == null || !gt.isFiltered())
+				return false;
+		}
+		return true;
+	}
+
 }
@@ -40,4 +40,42 @@ public class TresholdFilterAnnotatorTest extends TresholdFilterTestBase {
 			updatedVC.toString());
 	}
 
+	/**
+	 * Test that variants without filtered genotypes are passed through unchanged
+	 */
+	@Test
+	public void testPassThroughUnfiltered() throws Exception {
+		String headerLines = GATK_HEADER;
+		String vcfLine = "1\t17452\t.\tG\tA\t35.74\t.\t.\tGT:AD:DP:GQ:PL\t0/1:20,20:40:99:63,6,0\n";
+		VariantContext variant = writeAndReadVcfLine(vcfLine, headerLines);
+
+		VariantContext updatedVC = annotator.annotateVariantContext(variant);
+
+		Assert.assertSame(variant, updatedVC);
+		Assert.assertFalse(updatedVC.getGenotype("individual").isFiltered());
+	}
+
+	/**
+	 * Test that the caller guessed once from the header is used, and genotypes without its FORMAT fields are handled,
+	 * too
+	 */
+	@Test
+	public void testAnnotateVariantCallerFromHeader() throws Exception {
+		String headerLines = FREEBAYES_HEADER;
+		GenotypeThresholdFilterAnnotator headerAnnotator = new GenotypeThresholdFilterAnnotator(
+			ThresholdFilterOptions.buildDefaultOptions(), writeAndReadVcfHeader(headerLines));
+
+		String vcfLine = "1\t17452\t.\tCT\tC\t3.86312e-05\t.\t.\t"
+			+ "GT:GQ:DP:RO:QR:AO:QA:GL\t0/1:50.5085:10:7:228:1:24:0,-0.568818,-14.1241\n";
+		VariantContext variant = writeAndReadVcfLine(vcfLine, headerLines);
+		Assert.assertEquals("MinAafHet",
+			headerAnnotator.annotateVariantContext(variant).getGenotype("individual").getFilters());
+
+		String noCallLine = "1\t17452\t.\tCT\tC\t3.86312e-05\t.\t.\tGT\t./.\n";
+		VariantContext noCall = writeAndReadVcfLine(noCallLine, headerLines);
+		Assert.assertEquals(
+			annotator.annotateVariantContext(noCall).toString(),
+			headerAnnotator.annotateVariantContext(noCall).toString());
+	}
+
 }
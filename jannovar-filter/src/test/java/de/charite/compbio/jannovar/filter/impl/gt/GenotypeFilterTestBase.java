@@ -3,6 +3,7 @@ package de.charite.compbio.jannovar.filter.impl.gt;
 import com.google.common.io.Files;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFFileReader;
+import htsjdk.variant.vcf.VCFHeader;
 
 import java.io.File;
 import java.io.PrintWriter;
@@ -18,6 +19,25 @@ public class GenotypeFilterTestBase {
 	 * @throws Exception in case of any problems
 	 */
 	protected VariantContext writeAndReadVcfLine(String vcfLine, String vcfHeaderLines) throws Exception {
+		try (VCFFileReader vcfReader = new VCFFileReader(writeVcfFile(vcfLine, vcfHeaderLines), false)) {
+			return vcfReader.iterator().next();
+		}
+	}
+
+	/**
+	 * Write out VCF file without records and with additional header, read in header again and return it
+	 *
+	 * @param vcfHeaderLines Additional VCF headers to write
+	 * @return the {@link VCFHeader}
+	 * @throws Exception in case of any problems
+	 */
+	protected VCFHeader writeAndReadVcfHeader(String vcfHeaderLines) throws Exception {
+		try (VCFFileReader vcfReader = new VCFFileReader(writeVcfFile("", vcfHeaderLines), false)) {
+			return vcfReader.getFileHeader();
+		}
+	}
+
+	private File writeVcfFile(String vcfLine, String vcfHeaderLines) throws Exception {
 		// Setup dbSNP VCF file
 		File tmpDir = Files.createTempDir();
 
@@ -30,9 +50,7 @@ public class GenotypeFilterTestBase {
 		writer.write(vcfLine);
 		writer.close();
 
-		try (VCFFileReader vcfReader = new VCFFileReader(new File(testVCFPath), false)) {
-			return vcfReader.iterator().next();
-		}
+		return new File(testVCFPath);
 	}
 
 	public static final String BCFTOOLS_HEADER = "##ALT=<ID=X,Description=\"Represents allele(s) other than observed.\">\n"
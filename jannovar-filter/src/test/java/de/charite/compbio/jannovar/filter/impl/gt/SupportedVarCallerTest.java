@@ -61,4 +61,17 @@ public class SupportedVarCallerTest extends GenotypeFilterTestBase {
 		Assert.assertEquals(SupportedVarCaller.PLATYPUS, SupportedVarCaller.guessFromGenotype(gt));
 	}
 
+	@Test
+	public void testGuessFromHeader() throws Exception {
+		Assert.assertEquals(SupportedVarCaller.BCFTOOLS,
+			SupportedVarCaller.guessFromHeader(writeAndReadVcfHeader(BCFTOOLS_HEADER)));
+		Assert.assertEquals(SupportedVarCaller.FREEBAYES,
+			SupportedVarCaller.guessFromHeader(writeAndReadVcfHeader(FREEBAYES_HEADER)));
+		Assert.assertEquals(SupportedVarCaller.GATK_CALLER,
+			SupportedVarCaller.guessFromHeader(writeAndReadVcfHeader(GATK_HEADER)));
+		Assert.assertEquals(SupportedVarCaller.PLATYPUS,
+			SupportedVarCaller.guessFromHeader(writeAndReadVcfHeader(PLATYPUS_HEADER)));
+		Assert.assertNull(SupportedVarCaller.guessFromHeader(writeAndReadVcfHeader("")));
+	}
+
 }
@@ -1,11 +1,17 @@
 package de.charite.compbio.jannovar.hgvs;
 
-import com.google.common.collect.ImmutableMap;
-
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * This singleton class helps to translate DNA sequences.
+ * <p>
+ * Nucleotides are encoded as 2-bit values such that each codon is an index into a table of 64 amino acids. Codons
+ * containing an <code>N</code> are translated to <code>X</code>, translation stops at the first codon containing any
+ * other character, including the other IUPAC ambiguity codes and lower-case characters.
+ * <p>
+ * Besides the {@link String}-based methods, {@link #translateDNA(CharSequence, int, int, char[], int)} and
+ * {@link #translateDNA(CharSequence, int, int, StringBuilder)} allow for translating a window of a sequence into a
+ * reusable buffer without any intermediate allocation.
  *
  * @author <a href="mailto:Peter.Robinson@jax.org">Peter N Robinson</a>
  * @author <a href="mailto:marten.jaeger@charite.de">Marten Jaeger</a>
@@ -14,34 +20,68 @@ import java.util.Map;
 public final class Translator {
 
 	/**
-	 * Map of genetic code. Keys are codons and values are the corresponding amino acid (one-letter code)
+	 * Value returned by {@link #translateCodon} for codons that cannot be translated
+	 */
+	public static final char NO_TRANSLATION = '\0';
+
+	/**
+	 * Code of <code>N</code> in {@link #ntCodes}
+	 */
+	private static final byte CODE_N = 4;
+
+	/**
+	 * Code of the other IUPAC ambiguity codes in {@link #ntCodes}
 	 */
-	private ImmutableMap<String, String> codon1 = null;
+	private static final byte CODE_AMBIGUOUS = 5;
+
 	/**
-	 * Map of genetic code. Keys are codons and values are the corresponding amino acid (three-letter code)
+	 * Code of all other characters in {@link #ntCodes}
 	 */
-	private ImmutableMap<String, String> codon3 = null;
+	private static final byte CODE_INVALID = 6;
+
 	/**
-	 * Map of IUPAC ambiguity codes.
+	 * Amino acids (one-letter code) of the codons, in lexicographical order of the codons (<code>AAA</code>,
+	 * <code>AAC</code>, ..., <code>TTT</code>), such that the index of a codon is
+	 * <code>16 * code(c1) + 4 * code(c2) + code(c3)</code>
 	 */
-	@SuppressWarnings("unused")
-	private ImmutableMap<String, String> iupac = null;
+	private static final String GENETIC_CODE = "KNKNTTTTRSRSIIMIQHQHPPPPRRRRLLLLEDEDAAAAGGGGVVVV*Y*YSSSS*CWCLFLF";
+
 	/**
-	 * Map of short AA codes to long ones
+	 * Pairs of one- and three-letter amino acid codes
 	 */
-	private ImmutableMap<String, String> shortToLong = null;
+	private static final String[][] AMINO_ACID_CODES = {{"A", "Ala"}, {"C", "Cys"}, {"D", "Asp"}, {"E", "Glu"},
+		{"F", "Phe"}, {"G", "Gly"}, {"H", "His"}, {"I", "Ile"}, {"K", "Lys"}, {"L", "Leu"}, {"M", "Met"},
+		{"N", "Asn"}, {"O", "Pyl"}, {"P", "Pro"}, {"Q", "Gln"}, {"R", "Arg"}, {"S", "Ser"}, {"T", "Thr"},
+		{"U", "Sec"}, {"V", "Val"}, {"W", "Trp"}, {"Y", "Tyr"}, {"*", "*"}};
+
+	private static final Translator translator = new Translator();
+
 	/**
-	 * Map of long AA codes to short ones
+	 * Code for each ASCII character, the 2-bit value for <code>A</code>, <code>C</code>, <code>G</code>, and
+	 * <code>T</code>, or one of {@link #CODE_N}, {@link #CODE_AMBIGUOUS}, and {@link #CODE_INVALID}
 	 */
-	private ImmutableMap<String, String> longToShort = null;
+	private final byte[] ntCodes = new byte[128];
 
-	private static Translator translator = null;
+	/**
+	 * Amino acid (one-letter code) for each codon index
+	 */
+	private final char[] codon1 = new char[64];
+
+	/**
+	 * Amino acid (three-letter code) for each codon index
+	 */
+	private final String[] codon3 = new String[64];
+
+	/**
+	 * Three-letter code for each one-letter code, <code>null</code> for unknown amino acids
+	 */
+	private final String[] shortToLong = new String[128];
 
 	/**
 	 * Private constructor, initializes singleton instance. Use {@link #getTranslator} for obtaining an object.
 	 */
 	private Translator() {
-		initializeMaps();
+		initializeTables();
 	}
 
 	/**
@@ -50,9 +90,6 @@ public final class Translator {
 	 * @return {@link Translator} singleton
 	 */
 	static public Translator getTranslator() {
-		if (Translator.translator == null) {
-			Translator.translator = new Translator();
-		}
 		return Translator.translator;
 	}
 
@@ -67,12 +104,89 @@ public final class Translator {
 	 * @return corresonding aminoacid sequence
 	 */
 	public String translateDNA(String dnaseq) {
-		return translateDNA(dnaseq, this.codon1);
+		final char[] buffer = new char[dnaseq.length() / 3];
+		return new String(buffer, 0, translateDNA(dnaseq, 0, dnaseq.length(), buffer, 0));
 	}
 
 	// same as above but returning 3-letter AA codes
 	public String translateDNA3(String dnaseq) {
-		return translateDNA(dnaseq, this.codon3);
+		final StringBuilder result = new StringBuilder();
+		final int len = dnaseq.length() - dnaseq.length() % 3;
+		for (int i = 0; i < len; i += 3) {
+			final int idx = codonIndex(dnaseq.charAt(i), dnaseq.charAt(i + 1), dnaseq.charAt(i + 2));
+			if (idx >= 0)
+				result.append(codon3[idx]);
+			else if (idx == -1)
+				result.append("X");
+			else
+				break; /* stop translation */
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Translate the codons in <code>dnaseq[beginPos, endPos)</code> into <code>target</code>, ignoring a trailing
+	 * partial codon and stopping at the first codon that cannot be translated
+	 *
+	 * @param dnaseq    DNA sequence to translate
+	 * @param beginPos  begin position of the window to translate, 0-based
+	 * @param endPos    end position of the window to translate, 0-based, exclusive
+	 * @param target    buffer for the amino acids (one-letter code), must have room for
+	 *                  <code>(endPos - beginPos) / 3</code> characters from <code>targetPos</code> on
+	 * @param targetPos position in <code>target</code> to write the first amino acid to
+	 * @return number of amino acids written to <code>target</code>
+	 */
+	public int translateDNA(CharSequence dnaseq, int beginPos, int endPos, char[] target, int targetPos) {
+		final int len = (endPos - beginPos) - (endPos - beginPos) % 3;
+		int count = 0;
+		for (int i = beginPos; i < beginPos + len; i += 3) {
+			final char aa = translateCodon(dnaseq.charAt(i), dnaseq.charAt(i + 1), dnaseq.charAt(i + 2));
+			if (aa == NO_TRANSLATION)
+				break; /* stop translation */
+			target[targetPos + count++] = aa;
+		}
+		return count;
+	}
+
+	/**
+	 * Translate the codons in <code>dnaseq[beginPos, endPos)</code> and append them to <code>target</code>, ignoring a
+	 * trailing partial codon and stopping at the first codon that cannot be translated
+	 *
+	 * @param dnaseq   DNA sequence to translate
+	 * @param beginPos begin position of the window to translate, 0-based
+	 * @param endPos   end position of the window to translate, 0-based, exclusive
+	 * @param target   {@link StringBuilder} to append the amino acids (one-letter code) to
+	 * @return number of amino acids appended to <code>target</code>
+	 */
+	public int translateDNA(CharSequence dnaseq, int beginPos, int endPos, StringBuilder target) {
+		final int len = (endPos - beginPos) - (endPos - beginPos) % 3;
+		target.ensureCapacity(target.length() + len / 3);
+		int count = 0;
+		for (int i = beginPos; i < beginPos + len; i += 3) {
+			final char aa = translateCodon(dnaseq.charAt(i), dnaseq.charAt(i + 1), dnaseq.charAt(i + 2));
+			if (aa == NO_TRANSLATION)
+				break; /* stop translation */
+			target.append(aa);
+			++count;
+		}
+		return count;
+	}
+
+	/**
+	 * @param c1 first base of the codon
+	 * @param c2 second base of the codon
+	 * @param c3 third base of the codon
+	 * @return amino acid (one-letter code), <code>X</code> for codons containing an <code>N</code>, or
+	 * {@link #NO_TRANSLATION} if the codon cannot be translated
+	 */
+	public char translateCodon(char c1, char c2, char c3) {
+		final int idx = codonIndex(c1, c2, c3);
+		if (idx >= 0)
+			return codon1[idx];
+		else if (idx == -1)
+			return 'X';
+		else
+			return NO_TRANSLATION;
 	}
 
 	/**
@@ -80,9 +194,9 @@ public final class Translator {
 	 * @return String with long versions of short AA seqs.
 	 */
 	public String toLong(String shortAASeq) {
-		StringBuilder result = new StringBuilder();
+		StringBuilder result = new StringBuilder(3 * shortAASeq.length());
 		for (int i = 0; i < shortAASeq.length(); ++i)
-			result.append(shortToLong.get(shortAASeq.substring(i, i + 1)));
+			result.append(toLong(shortAASeq.charAt(i)));
 		return result.toString();
 	}
 
@@ -91,228 +205,48 @@ public final class Translator {
 	 * @return String with long versions of short AA char.
 	 */
 	public String toLong(char c) {
-		return shortToLong.get("" + c);
-	}
-
-	private String translateDNA(String dnaseq, ImmutableMap<String, String> codonTable) {
-		StringBuilder aminoAcidSeq = new StringBuilder();
-		int len = dnaseq.length();
-		if (!(len % 3 == 0)) {
-			len = len - (len % 3);
-			/* this forces len to be a multiple of 3. */
-			// String err =
-			// String.format("Attempt to translate sequence [%s] with length %d (should be 3n)",dnaseq,len);
-			// throw new AnnotationException(err);
-		}
-		for (int i = 0; i < len; i += 3) {
-			String nt3 = dnaseq.substring(i, i + 3);
-			String aa = codonTable.get(nt3);
-			if (aa == null) {
-				if (nt3.contains("N")) {
-					aa = "X";
-				} else {
-					/*
-					 * String err = String.format("Could not find translation for codon:\"%s\" in sequence:\"%s\"", nt3,
-					 * dnaseq); throw new AnnotationException(err);
-					 */
-					break; /* stop translation */
-				}
-			}
-			aminoAcidSeq.append(aa);
-		}
-		return aminoAcidSeq.toString();
+		return (c < shortToLong.length) ? shortToLong[c] : null;
 	}
 
 	/**
-	 * Initializes a set of maps that represent the gene code with various aminoacid codes. Also initializes map of
-	 * IUPAC codes.
+	 * @return index of the codon in {@link #GENETIC_CODE}, <code>-1</code> for codons containing an <code>N</code>,
+	 * and <code>-2</code> for codons that cannot be translated
 	 */
-	private void initializeMaps() {
-		ImmutableMap.Builder<String, String> codon1 = new ImmutableMap.Builder<String, String>();
-		ImmutableMap.Builder<String, String> codon3 = new ImmutableMap.Builder<String, String>();
-		ImmutableMap.Builder<String, String> iupac = new ImmutableMap.Builder<String, String>();
-		ImmutableMap.Builder<String, String> shortToLong = new ImmutableMap.Builder<String, String>();
-		ImmutableMap.Builder<String, String> longToShort = new ImmutableMap.Builder<String, String>();
-
-		codon1.put("AAA", "K");
-		codon1.put("AAC", "N");
-		codon1.put("AAG", "K");
-		codon1.put("AAT", "N");
-		codon1.put("ACA", "T");
-		codon1.put("ACC", "T");
-		codon1.put("ACG", "T");
-		codon1.put("ACT", "T");
-		codon1.put("AGA", "R");
-		codon1.put("AGC", "S");
-		codon1.put("AGG", "R");
-		codon1.put("AGT", "S");
-		codon1.put("ATA", "I");
-		codon1.put("ATC", "I");
-		codon1.put("ATG", "M");
-		codon1.put("ATT", "I");
-		codon1.put("CAA", "Q");
-		codon1.put("CAC", "H");
-		codon1.put("CAG", "Q");
-		codon1.put("CAT", "H");
-		codon1.put("CCA", "P");
-		codon1.put("CCC", "P");
-		codon1.put("CCG", "P");
-		codon1.put("CCT", "P");
-		codon1.put("CGA", "R");
-		codon1.put("CGC", "R");
-		codon1.put("CGG", "R");
-		codon1.put("CGT", "R");
-		codon1.put("CTA", "L");
-		codon1.put("CTC", "L");
-		codon1.put("CTG", "L");
-		codon1.put("CTT", "L");
-		codon1.put("GAA", "E");
-		codon1.put("GAC", "D");
-		codon1.put("GAG", "E");
-		codon1.put("GAT", "D");
-		codon1.put("GCA", "A");
-		codon1.put("GCC", "A");
-		codon1.put("GCG", "A");
-		codon1.put("GCT", "A");
-		codon1.put("GGA", "G");
-		codon1.put("GGC", "G");
-		codon1.put("GGG", "G");
-		codon1.put("GGT", "G");
-		codon1.put("GTA", "V");
-		codon1.put("GTC", "V");
-		codon1.put("GTG", "V");
-		codon1.put("GTT", "V");
-		codon1.put("TAA", "*");
-		codon1.put("TAC", "Y");
-		codon1.put("TAG", "*");
-		codon1.put("TAT", "Y");
-		codon1.put("TCA", "S");
-		codon1.put("TCC", "S");
-		codon1.put("TCG", "S");
-		codon1.put("TCT", "S");
-		codon1.put("TGA", "*");
-		codon1.put("TGC", "C");
-		codon1.put("TGG", "W");
-		codon1.put("TGT", "C");
-		codon1.put("TTA", "L");
-		codon1.put("TTC", "F");
-		codon1.put("TTG", "L");
-		codon1.put("TTT", "F");
-
-		codon3.put("AAA", "Lys");
-		codon3.put("AAC", "Asn");
-		codon3.put("AAG", "Lys");
-		codon3.put("AAT", "Asn");
-		codon3.put("ACA", "Thr");
-		codon3.put("ACC", "Thr");
-		codon3.put("ACG", "Thr");
-		codon3.put("ACT", "Thr");
-		codon3.put("AGA", "Arg");
-		codon3.put("AGC", "Ser");
-		codon3.put("AGG", "Arg");
-		codon3.put("AGT", "Ser");
-		codon3.put("ATA", "Ile");
-		codon3.put("ATC", "Ile");
-		codon3.put("ATG", "Met");
-		codon3.put("ATT", "Ile");
-		codon3.put("CAA", "Gln");
-		codon3.put("CAC", "His");
-		codon3.put("CAG", "Gln");
-		codon3.put("CAT", "His");
-		codon3.put("CCA", "Pro");
-		codon3.put("CCC", "Pro");
-		codon3.put("CCG", "Pro");
-		codon3.put("CCT", "Pro");
-		codon3.put("CGA", "Arg");
-		codon3.put("CGC", "Arg");
-		codon3.put("CGG", "Arg");
-		codon3.put("CGT", "Arg");
-		codon3.put("CTA", "Leu");
-		codon3.put("CTC", "Leu");
-		codon3.put("CTG", "Leu");
-		codon3.put("CTT", "Leu");
-		codon3.put("GAA", "Glu");
-		codon3.put("GAC", "Asp");
-		codon3.put("GAG", "Glu");
-		codon3.put("GAT", "Asp");
-		codon3.put("GCA", "Ala");
-		codon3.put("GCC", "Ala");
-		codon3.put("GCG", "Ala");
-		codon3.put("GCT", "Ala");
-		codon3.put("GGA", "Gly");
-		codon3.put("GGC", "Gly");
-		codon3.put("GGG", "Gly");
-		codon3.put("GGT", "Gly");
-		codon3.put("GTA", "Val");
-		codon3.put("GTC", "Val");
-		codon3.put("GTG", "Val");
-		codon3.put("GTT", "Val");
-		codon3.put("TAA", "*");
-		codon3.put("TAC", "Tyr");
-		codon3.put("TAG", "*");
-		codon3.put("TAT", "Tyr");
-		codon3.put("TCA", "Ser");
-		codon3.put("TCC", "Ser");
-		codon3.put("TCG", "Ser");
-		codon3.put("TCT", "Ser");
-		codon3.put("TGA", "*");
-		codon3.put("TGC", "Cys");
-		codon3.put("TGG", "Trp");
-		codon3.put("TGT", "Cys");
-		codon3.put("TTA", "Leu");
-		codon3.put("TTC", "Phe");
-		codon3.put("TTG", "Leu");
-		codon3.put("TTT", "Phe");
-
-		iupac.put("-", "-");
-		iupac.put(".", "-");
-		iupac.put("A", "AA");
-		iupac.put("B", "CGT");
-		iupac.put("C", "CC");
-		iupac.put("D", "AGT");
-		iupac.put("G", "GG");
-		iupac.put("H", "ACT");
-		iupac.put("K", "GT");
-		iupac.put("M", "AC");
-		iupac.put("N", "ACGT");
-		iupac.put("R", "AG");
-		iupac.put("S", "GC");
-		iupac.put("T", "TT");
-		iupac.put("V", "ACG");
-		iupac.put("W", "AT");
-		iupac.put("Y", "CT");
-
-		longToShort.put("Ala", "A");
-		longToShort.put("Cys", "C");
-		longToShort.put("Asp", "D");
-		longToShort.put("Glu", "E");
-		longToShort.put("Phe", "F");
-		longToShort.put("Gly", "G");
-		longToShort.put("His", "H");
-		longToShort.put("Ile", "I");
-		longToShort.put("Lys", "K");
-		longToShort.put("Leu", "L");
-		longToShort.put("Met", "M");
-		longToShort.put("Asn", "N");
-		longToShort.put("Pyl", "O");
-		longToShort.put("Pro", "P");
-		longToShort.put("Gln", "Q");
-		longToShort.put("Arg", "R");
-		longToShort.put("Ser", "S");
-		longToShort.put("Thr", "T");
-		longToShort.put("Sec", "U");
-		longToShort.put("Val", "V");
-		longToShort.put("Trp", "W");
-		longToShort.put("Tyr", "Y");
-		longToShort.put("*", "*");
+	private int codonIndex(char c1, char c2, char c3) {
+		final int x1 = ntCode(c1);
+		final int x2 = ntCode(c2);
+		final int x3 = ntCode(c3);
+		if ((x1 | x2 | x3) < CODE_N) // all of ACGT
+			return (x1 << 4) | (x2 << 2) | x3;
+		else if (x1 == CODE_N || x2 == CODE_N || x3 == CODE_N)
+			return -1;
+		else
+			return -2;
+	}
 
-		this.longToShort = longToShort.build();
-		for (Map.Entry<String, String> entry : this.longToShort.entrySet())
-			shortToLong.put(entry.getValue(), entry.getKey());
+	private int ntCode(char c) {
+		return (c < ntCodes.length) ? ntCodes[c] : CODE_INVALID;
+	}
 
-		this.codon1 = codon1.build();
-		this.codon3 = codon3.build();
-		this.iupac = iupac.build();
-		this.shortToLong = shortToLong.build();
+	/**
+	 * Initializes the tables that represent the genetic code with the one- and three-letter amino acid codes.
+	 */
+	private void initializeTables() {
+		Arrays.fill(ntCodes, CODE_INVALID);
+		ntCodes['A'] = 0;
+		ntCodes['C'] = 1;
+		ntCodes['G'] = 2;
+		ntCodes['T'] = 3;
+		ntCodes['N'] = CODE_N;
+		for (char c : "BDHKMRSVWY".toCharArray())
+			ntCodes[c] = CODE_AMBIGUOUS;
+
+		for (String[] codes : AMINO_ACID_CODES)
+			shortToLong[codes[0].charAt(0)] = codes[1];
+
+		for (int i = 0; i < GENETIC_CODE.length(); ++i) {
+			codon1[i] = GENETIC_CODE.charAt(i);
+			codon3[i] = shortToLong[codon1[i]];
+		}
 	}
 }
@@ -0,0 +1,115 @@
+package de.charite.compbio.jannovar.hgvs;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for the Translator class.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@charite.de">Manuel Holtgrewe</a>
+ */
+public class TranslatorTest {
+
+	Translator translator;
+
+	@Before
+	public void setUp() {
+		translator = Translator.getTranslator();
+	}
+
+	/**
+	 * Test for translateDNA() with too short input
+	 */
+	@Test
+	public void testTranslateDna_tooShort() {
+		Assert.assertEquals("", translator.translateDNA("A"));
+		Assert.assertEquals("", translator.translateDNA("AC"));
+	}
+
+	/**
+	 * Test for translateDNA() with short input
+	 */
+	@Test
+	public void testTranslateDna_short() {
+		Assert.assertEquals("T", translator.translateDNA("ACT"));
+	}
+
+	/**
+	 * Test for translateDNA() with longer input (ignore remainder)
+	 */
+	@Test
+	public void testTranslateDna_longer() {
+		Assert.assertEquals("M*S", translator.translateDNA("ATGTAGAGT"));
+	}
+
+	/**
+	 * Test for translateDNA() with too long input (ignore remainder)
+	 */
+	@Test
+	public void testTranslateDna_tooLonger() {
+		Assert.assertEquals("T", translator.translateDNA("ACTG"));
+	}
+
+	/**
+	 * Test for translateDNA() with N, ambiguity codes, and lower-case characters
+	 */
+	@Test
+	public void testTranslateDna_nonACGT() {
+		Assert.assertEquals("MXT", translator.translateDNA("ATGANTACT"));
+		Assert.assertEquals("MXT", translator.translateDNA("ATGNRZACT"));
+		Assert.assertEquals("M", translator.translateDNA("ATGARTACT"));
+		Assert.assertEquals("M", translator.translateDNA("ATGactACT"));
+	}
+
+	/**
+	 * Test for translateDNA3()
+	 */
+	@Test
+	public void testTranslateDna3() {
+		Assert.assertEquals("MetX*Thr", translator.translateDNA3("ATGNNNTAGACTA"));
+		Assert.assertEquals("Met", translator.translateDNA3("ATGRCT"));
+	}
+
+	/**
+	 * Test for translateDNA() of a window into a reusable buffer
+	 */
+	@Test
+	public void testTranslateDna_window() {
+		char[] buffer = new char[4];
+		Assert.assertEquals(2, translator.translateDNA("xxATGTAGAGTx", 2, 10, buffer, 1));
+		Assert.assertEquals("M*", new String(buffer, 1, 2));
+
+		StringBuilder builder = new StringBuilder("K");
+		Assert.assertEquals(3, translator.translateDNA(new StringBuilder("xATGTAGAGT"), 1, 10, builder));
+		Assert.assertEquals(1, translator.translateDNA("ACTRCT", 0, 6, builder));
+		Assert.assertEquals("KM*ST", builder.toString());
+	}
+
+	/**
+	 * Test for translateCodon() with all codons
+	 */
+	@Test
+	public void testTranslateCodon() {
+		String bases = "ACGT";
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 64; ++i)
+			builder.append(translator.translateCodon(bases.charAt(i / 16), bases.charAt((i / 4) % 4),
+				bases.charAt(i % 4)));
+		Assert.assertEquals("KNKNTTTTRSRSIIMIQHQHPPPPRRRRLLLLEDEDAAAAGGGGVVVV*Y*YSSSS*CWCLFLF", builder.toString());
+		Assert.assertEquals('X', translator.translateCodon('A', 'C', 'N'));
+		Assert.assertEquals(Translator.NO_TRANSLATION, translator.translateCodon('A', 'C', 'Y'));
+		Assert.assertEquals(Translator.NO_TRANSLATION, translator.translateCodon('A', '\u00c4', 'T'));
+	}
+
+	/**
+	 * Test for toLong()
+	 */
+	@Test
+	public void testToLong() {
+		Assert.assertEquals("MetTrp*", translator.toLong("MW*"));
+		Assert.assertEquals("Sec", translator.toLong('U'));
+		Assert.assertNull(translator.toLong('B'));
+	}
+
+}
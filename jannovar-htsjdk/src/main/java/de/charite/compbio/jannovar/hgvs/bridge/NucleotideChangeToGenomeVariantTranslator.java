@@ -3,6 +3,7 @@ package de.charite.compbio.jannovar.hgvs.bridge;
 import com.google.common.base.Joiner;
 import de.charite.compbio.jannovar.annotation.InvalidGenomeVariant;
 import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
 import de.charite.compbio.jannovar.hgvs.SequenceType;
 import de.charite.compbio.jannovar.hgvs.nts.change.*;
 import de.charite.compbio.jannovar.hgvs.nts.variant.SingleAlleleNucleotideVariant;
@@ -13,6 +14,8 @@ import htsjdk.samtools.reference.IndexedFastaSequenceFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.function.Function;
+
 /**
  * Helper for converting a {@link NucleotideChange} to a {@link GenomeVariant}.
  *
@@ -26,17 +29,30 @@ public class NucleotideChangeToGenomeVariantTranslator {
 	private static final Logger LOGGER = LoggerFactory.getLogger(NucleotideChangeToGenomeVariantTranslator.class);
 
 	/**
-	 * transcript database and reference dictionary to use for translation
+	 * lookup of {@link TranscriptModel} by accession to use for translation, returns <code>null</code> if not found
 	 */
-	final private JannovarData jvDB;
+	final private Function<String, TranscriptModel> tmByAccession;
 	/**
 	 * extraction of {@link String} from FASTA files
 	 */
 	private final GenomeRegionSequenceExtractor seqExtractor;
 
 	public NucleotideChangeToGenomeVariantTranslator(JannovarData jvDB, IndexedFastaSequenceFile indexedFasta) {
-		this.jvDB = jvDB;
-		this.seqExtractor = new GenomeRegionSequenceExtractor(jvDB, indexedFasta);
+		this(jvDB.getRefDict(), jvDB.getTmByAccession()::get, indexedFasta);
+	}
+
+	/**
+	 * Construct translator that looks up the transcripts through <code>tmByAccession</code>, e.g., in a
+	 * {@link de.charite.compbio.jannovar.data.MappedTranscriptStore} without building all transcripts
+	 *
+	 * @param refDict       reference dictionary for mapping contig names
+	 * @param tmByAccession lookup of {@link TranscriptModel} by accession, returns <code>null</code> if not found
+	 * @param indexedFasta  FASTA file to load reference sequence from
+	 */
+	public NucleotideChangeToGenomeVariantTranslator(ReferenceDictionary refDict,
+		Function<String, TranscriptModel> tmByAccession, IndexedFastaSequenceFile indexedFasta) {
+		this.tmByAccession = tmByAccession;
+		this.seqExtractor = new GenomeRegionSequenceExtractor(refDict, indexedFasta);
 	}
 
 	/**
@@ -68,7 +84,7 @@ public class NucleotideChangeToGenomeVariantTranslator {
 		if (variant.getAllele().size() != 1)
 			throw new CannotTranslateHGVSVariant("Too many alles in variant " + variant.toHGVSString()
 				+ ", must be one allele.");
-		TranscriptModel tm = jvDB.getTmByAccession().get(variant.getRefIDWithVersion());
+		TranscriptModel tm = tmByAccession.apply(variant.getRefIDWithVersion());
 		if (tm == null)
 			throw new CannotTranslateHGVSVariant("No transcript found for id " + variant.getRefIDWithVersion());
 
@@ -0,0 +1,243 @@
+package de.charite.compbio.jannovar.htsjdk;
+
+import htsjdk.samtools.util.RuntimeIOException;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFHeader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * {@link VariantContextWriter} that passes the records to a delegate writer on a dedicated writer thread
+ * <p>
+ * The records are collected in batches that are handed to the writer thread through a bounded queue, such that
+ * encoding, compression, and I/O overlap with the work of the calling thread and the memory use is bounded. The
+ * records are written in the order of the calls to {@link #add}. Problems on the writer thread are rethrown on the
+ * next call to {@link #add} or on {@link #close}, which waits for all records to be written and the delegate to be
+ * closed by the writer thread.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class AsyncVariantContextWriter implements VariantContextWriter {
+
+	/**
+	 * Default number of records in one batch
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * Default number of batches in the queue
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+	/**
+	 * Marker task for ending the writer thread
+	 */
+	private static final Runnable END = () -> {
+	};
+
+	/**
+	 * The writer that the records are passed to on the writer thread
+	 */
+	private final VariantContextWriter delegate;
+
+	/**
+	 * Maximal number of records in one batch
+	 */
+	private final int batchSize;
+
+	/**
+	 * Tasks for the writer thread
+	 */
+	private final BlockingQueue<Runnable> queue;
+
+	/**
+	 * The writer thread
+	 */
+	private final Thread writerThread;
+
+	/**
+	 * Records to hand to the writer thread as one batch
+	 */
+	private List<VariantContext> batch;
+
+	/**
+	 * Problem on the writer thread, <code>null</code> if none
+	 */
+	private volatile Throwable error = null;
+
+	/**
+	 * Whether or not the writer has been closed
+	 */
+	private boolean closed = false;
+
+	/**
+	 * Construct with default batch size and queue capacity
+	 *
+	 * @param delegate the {@link VariantContextWriter} to write to, used only from the writer thread
+	 */
+	public AsyncVariantContextWriter(VariantContextWriter delegate) {
+		this(delegate, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * @param delegate      the {@link VariantContextWriter} to write to, used only from the writer thread
+	 * @param batchSize     maximal number of records in one batch
+	 * @param queueCapacity maximal number of batches waiting for the writer thread
+	 */
+	public AsyncVariantContextWriter(VariantContextWriter delegate, int batchSize, int queueCapacity) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size must be >= 1 but was " + batchSize);
+		this.delegate = delegate;
+		this.batchSize = batchSize;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.batch = new ArrayList<>(batchSize);
+		this.writerThread = new Thread(this::runWriter, "vcf-writer");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	@Override
+	public void writeHeader(VCFHeader header) {
+		checkWriterError();
+		submitBatch();
+		submit(() -> delegate.writeHeader(header));
+	}
+
+	@Override
+	public void setHeader(VCFHeader header) {
+		checkWriterError();
+		submitBatch();
+		submit(() -> delegate.setHeader(header));
+	}
+
+	@Override
+	public void add(VariantContext vc) {
+		checkWriterError();
+		batch.add(vc);
+		if (batch.size() >= batchSize)
+			submitBatch();
+	}
+
+	@Override
+	public boolean checkError() {
+		return error != null;
+	}
+
+	/**
+	 * Wait for all records to be written and the delegate writer to be closed
+	 * <p>
+	 * When interrupted, the writer thread is interrupted as well, it then discards the remaining records and closes the
+	 * delegate writer on its own.
+	 *
+	 * @throws RuntimeIOException on problems on the writer thread or when interrupted
+	 */
+	@Override
+	public void close() {
+		if (closed)
+			return;
+		closed = true;
+		boolean finished = false;
+		try {
+			submitBatch();
+			submit(END);
+			writerThread.join();
+			finished = true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeIOException("Interrupted while waiting for the VCF writer thread", e);
+		} finally {
+			if (!finished) {
+				// END might not have been queued, make sure that the writer thread ends and closes the delegate
+				queue.clear();
+				queue.offer(END);
+				writerThread.interrupt();
+			}
+		}
+		checkWriterError();
+	}
+
+	/**
+	 * Hand the current batch to the writer thread if not empty
+	 */
+	private void submitBatch() {
+		if (batch.isEmpty())
+			return;
+		final List<VariantContext> records = batch;
+		batch = new ArrayList<>(batchSize);
+		submit(() -> {
+			for (VariantContext vc : records)
+				delegate.add(vc);
+		});
+	}
+
+	/**
+	 * Put <code>task</code> into the queue, waiting for space
+	 */
+	private void submit(Runnable task) {
+		try {
+			queue.put(task);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeIOException("Interrupted while waiting for the VCF writer thread", e);
+		}
+	}
+
+	/**
+	 * Rethrow the problem from the writer thread, if any
+	 */
+	private void checkWriterError() {
+		final Throwable e = error;
+		if (e == null)
+			return;
+		if (e instanceof RuntimeException)
+			throw (RuntimeException) e;
+		if (e instanceof Error)
+			throw (Error) e;
+		throw new RuntimeIOException("Problem writing VCF file", e);
+	}
+
+	/**
+	 * Main loop of the writer thread, runs the tasks until {@link #END} and then closes {@link #delegate}; after a
+	 * problem, the remaining tasks are discarded such that the calling thread does not block
+	 */
+	private void runWriter() {
+		try {
+			while (true) {
+				final Runnable task = queue.take();
+				if (task == END)
+					return;
+				if (error == null) {
+					try {
+						task.run();
+					} catch (Throwable e) {
+						error = e;
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			// interrupted from close(), end thread
+		} finally {
+			closeDelegate();
+		}
+	}
+
+	/**
+	 * Close {@link #delegate} on the writer thread, a problem on closing is only reported if there was no problem
+	 * before
+	 */
+	private void closeDelegate() {
+		// clear the interrupt from close() such that the delegate can finish writing
+		Thread.interrupted();
+		try {
+			delegate.close();
+		} catch (Throwable e) {
+			if (error == null)
+				error = e;
+		}
+	}
+
+}
@@ -2,6 +2,7 @@ package de.charite.compbio.jannovar.htsjdk;
 
 import de.charite.compbio.jannovar.UncheckedJannovarException;
 import de.charite.compbio.jannovar.data.JannovarData;
+import de.charite.compbio.jannovar.data.ReferenceDictionary;
 import de.charite.compbio.jannovar.reference.GenomeInterval;
 import de.charite.compbio.jannovar.reference.Strand;
 import htsjdk.samtools.SAMSequenceRecord;
@@ -16,17 +17,21 @@ import htsjdk.samtools.reference.ReferenceSequence;
 public class GenomeRegionSequenceExtractor {
 
 	/**
-	 * Jannovar database for mapping between canonical name and name in FASTA
+	 * reference dictionary for mapping between canonical name and name in FASTA
 	 */
-	final JannovarData jannovarData;
+	final ReferenceDictionary refDict;
 	/**
 	 * object to load sequences from
 	 */
 	IndexedFastaSequenceFile indexedFile;
 
 	public GenomeRegionSequenceExtractor(JannovarData jannovarData, IndexedFastaSequenceFile indexedFile) {
+		this(jannovarData.getRefDict(), indexedFile);
+	}
+
+	public GenomeRegionSequenceExtractor(ReferenceDictionary refDict, IndexedFastaSequenceFile indexedFile) {
 		super();
-		this.jannovarData = jannovarData;
+		this.refDict = refDict;
 		this.indexedFile = indexedFile;
 		if (this.indexedFile.getSequenceDictionary() == null) {
 			throw new UncheckedJannovarException(
@@ -54,15 +59,15 @@ public class GenomeRegionSequenceExtractor {
 	 */
 	private String mapContigToFasta(String contigName) {
 		// Map genome variant's contig to unique ID
-		Integer contigID = jannovarData.getRefDict().getContigNameToID().get(contigName);
+		Integer contigID = refDict.getContigNameToID().get(contigName);
 		if (contigID == null)
 			throw new UncheckedJannovarException("Unknown contig name " + contigName);
 		// Try to find matching contig in fasta
 		String nameInFasta = null;
 		for (SAMSequenceRecord record : indexedFile.getSequenceDictionary().getSequences()) {
-			if (jannovarData.getRefDict().getContigNameToID().containsKey(record.getSequenceName())) {
+			if (refDict.getContigNameToID().containsKey(record.getSequenceName())) {
 				String contigInFasta = record.getSequenceName();
-				if (jannovarData.getRefDict().getContigNameToID().get(contigInFasta) == contigID) {
+				if (refDict.getContigNameToID().get(contigInFasta) == contigID) {
 					nameInFasta = contigInFasta;
 					break;
 				}
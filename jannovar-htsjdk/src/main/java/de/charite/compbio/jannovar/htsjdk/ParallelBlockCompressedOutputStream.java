@@ -0,0 +1,339 @@
+package de.charite.compbio.jannovar.htsjdk;
+
+import htsjdk.samtools.util.BlockCompressedFilePointerUtil;
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * {@link OutputStream} writing the BGZF format, deflating the blocks in parallel on a pool of worker threads
+ * <p>
+ * The data is cut into blocks of {@link BlockCompressedStreamConstants#DEFAULT_UNCOMPRESSED_BLOCK_SIZE} bytes just as
+ * with {@link BlockCompressedOutputStream}, and {@link #flush} ends the current block. Full blocks are deflated by the
+ * worker threads and written out in order on the calling thread, at most <code>2 * numThreads</code> blocks are in
+ * flight at any time. As the compressed size of a block is only known after deflating, the position of a byte is
+ * given as block number and offset in the block (see {@link #getBlockNumber} and {@link #getBlockOffset}) and
+ * translated to a virtual file pointer once its block has been written (see {@link BlockListener}).
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class ParallelBlockCompressedOutputStream extends OutputStream {
+
+	/**
+	 * Listener that is notified about each block written out
+	 */
+	@FunctionalInterface
+	public interface BlockListener {
+
+		/**
+		 * Called on the writing thread after block <code>blockNumber</code> has been written, in order of the blocks
+		 *
+		 * @param blockNumber  number of the block, starting at <code>0</code>
+		 * @param blockAddress offset of the block in the compressed output
+		 */
+		void blockWritten(long blockNumber, long blockAddress);
+
+	}
+
+	/**
+	 * Size of the buffer for the deflated data of a block, such that the whole block fits into
+	 * {@link BlockCompressedStreamConstants#MAX_COMPRESSED_BLOCK_SIZE}
+	 */
+	private static final int MAX_DEFLATED_SIZE = BlockCompressedStreamConstants.MAX_COMPRESSED_BLOCK_SIZE
+		- BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH - BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH;
+
+	/**
+	 * The compressed data is written to this stream
+	 */
+	private final OutputStream out;
+
+	/**
+	 * Compression level to use
+	 */
+	private final int compressionLevel;
+
+	/**
+	 * Maximal number of blocks in flight
+	 */
+	private final int maxInFlight;
+
+	/**
+	 * Pool of worker threads for deflating
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * {@link Deflater}s that are not in use by a worker thread
+	 */
+	private final ConcurrentLinkedQueue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Blocks being deflated, in order
+	 */
+	private final ArrayDeque<Future<byte[]>> inFlight = new ArrayDeque<>();
+
+	/**
+	 * Listener to notify about written blocks, <code>null</code> for none
+	 */
+	private BlockListener blockListener;
+
+	/**
+	 * Uncompressed data of the current block
+	 */
+	private byte[] buffer = new byte[BlockCompressedStreamConstants.DEFAULT_UNCOMPRESSED_BLOCK_SIZE];
+
+	/**
+	 * Number of bytes in {@link #buffer}
+	 */
+	private int bufferLength = 0;
+
+	/**
+	 * Number of the current block
+	 */
+	private long blockNumber = 0;
+
+	/**
+	 * Number of blocks written to {@link #out}
+	 */
+	private long numWrittenBlocks = 0;
+
+	/**
+	 * Number of compressed bytes written to {@link #out}
+	 */
+	private long compressedLength = 0;
+
+	/**
+	 * Whether or not the stream has been closed
+	 */
+	private boolean closed = false;
+
+	/**
+	 * Construct with the default compression level of {@link BlockCompressedOutputStream}
+	 *
+	 * @param out        {@link OutputStream} to write the compressed data to, closed on {@link #close}
+	 * @param numThreads number of worker threads for deflating
+	 */
+	public ParallelBlockCompressedOutputStream(OutputStream out, int numThreads) {
+		this(out, numThreads, BlockCompressedOutputStream.getDefaultCompressionLevel());
+	}
+
+	/**
+	 * @param out              {@link OutputStream} to write the compressed data to, closed on {@link #close}
+	 * @param numThreads       number of worker threads for deflating
+	 * @param compressionLevel compression level, from <code>0</code> to <code>9</code>
+	 */
+	public ParallelBlockCompressedOutputStream(OutputStream out, int numThreads, int compressionLevel) {
+		if (numThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be >= 1 but was " + numThreads);
+		this.out = out;
+		this.compressionLevel = compressionLevel;
+		this.maxInFlight = 2 * numThreads;
+		final AtomicInteger threadCount = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(numThreads, r -> {
+			Thread thread = new Thread(r, "bgzf-worker-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @param blockListener listener to notify about written blocks, <code>null</code> for none
+	 */
+	public void setBlockListener(BlockListener blockListener) {
+		this.blockListener = blockListener;
+	}
+
+	/**
+	 * @return number of the block the next byte will be written to
+	 */
+	public long getBlockNumber() {
+		return blockNumber;
+	}
+
+	/**
+	 * @return offset of the next byte in its uncompressed block
+	 */
+	public int getBlockOffset() {
+		return bufferLength;
+	}
+
+	/**
+	 * @return virtual file pointer of the end of the compressed data, before the terminating empty block; only valid
+	 * after {@link #close}
+	 */
+	public long getEndFilePointer() {
+		return BlockCompressedFilePointerUtil.makeFilePointer(compressedLength, 0);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		buffer[bufferLength++] = (byte) b;
+		if (bufferLength == buffer.length)
+			submitBlock();
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		while (length > 0) {
+			final int count = Math.min(length, buffer.length - bufferLength);
+			System.arraycopy(bytes, offset, buffer, bufferLength, count);
+			bufferLength += count;
+			offset += count;
+			length -= count;
+			if (bufferLength == buffer.length)
+				submitBlock();
+		}
+	}
+
+	/**
+	 * End the current block and write out all blocks
+	 */
+	@Override
+	public void flush() throws IOException {
+		submitBlock();
+		while (!inFlight.isEmpty())
+			writeBlock(inFlight.removeFirst());
+		out.flush();
+	}
+
+	/**
+	 * Write out all blocks and the terminating empty block, then close the underlying stream
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		try (OutputStream closedOut = out) {
+			flush();
+			closedOut.write(BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK);
+		} finally {
+			for (Future<byte[]> future : inFlight)
+				future.cancel(true);
+			executor.shutdownNow();
+			for (Deflater deflater : deflaters)
+				deflater.end();
+			deflaters.clear();
+		}
+	}
+
+	/**
+	 * Hand the current block to the worker threads if not empty, write out completed blocks
+	 */
+	private void submitBlock() throws IOException {
+		if (bufferLength > 0) {
+			final byte[] data = buffer;
+			final int length = bufferLength;
+			inFlight.add(executor.submit(() -> compressBlock(data, length)));
+			buffer = new byte[buffer.length];
+			bufferLength = 0;
+			++blockNumber;
+		}
+
+		if (inFlight.size() > maxInFlight)
+			writeBlock(inFlight.removeFirst());
+		while (!inFlight.isEmpty() && inFlight.peekFirst().isDone())
+			writeBlock(inFlight.removeFirst());
+	}
+
+	/**
+	 * Wait for the block from <code>future</code> and write it out
+	 */
+	private void writeBlock(Future<byte[]> future) throws IOException {
+		final byte[] block;
+		try {
+			block = future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for block compression");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IOException("Problem with block compression", e.getCause());
+		}
+		out.write(block);
+		if (blockListener != null)
+			blockListener.blockWritten(numWrittenBlocks, compressedLength);
+		++numWrittenBlocks;
+		compressedLength += block.length;
+	}
+
+	/**
+	 * Deflate <code>length</code> bytes from <code>data</code>, called on a worker thread
+	 *
+	 * @return the complete BGZF block
+	 */
+	private byte[] compressBlock(byte[] data, int length) {
+		final byte[] deflated = new byte[MAX_DEFLATED_SIZE];
+		Deflater deflater = deflaters.poll();
+		if (deflater == null)
+			deflater = new Deflater(compressionLevel, true);
+		int deflatedSize;
+		try {
+			deflater.reset();
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			deflatedSize = deflater.deflate(deflated, 0, deflated.length);
+			if (!deflater.finished())
+				deflatedSize = storeUncompressed(data, length, deflated);
+		} finally {
+			deflaters.add(deflater);
+		}
+
+		final CRC32 crc32 = new CRC32();
+		crc32.update(data, 0, length);
+
+		final byte[] preamble = BlockCompressedStreamConstants.GZIP_BLOCK_PREAMBLE;
+		final int blockSize = BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH + deflatedSize
+			+ BlockCompressedStreamConstants.BLOCK_FOOTER_LENGTH;
+		final byte[] block = new byte[blockSize];
+		System.arraycopy(preamble, 0, block, 0, preamble.length);
+		putShort(block, BlockCompressedStreamConstants.BLOCK_LENGTH_OFFSET, blockSize - 1);
+		System.arraycopy(deflated, 0, block, BlockCompressedStreamConstants.BLOCK_HEADER_LENGTH, deflatedSize);
+		putInt(block, blockSize - 8, (int) crc32.getValue());
+		putInt(block, blockSize - 4, length);
+		return block;
+	}
+
+	/**
+	 * Deflate without compression, for data that does not become smaller
+	 *
+	 * @return number of bytes written to <code>deflated</code>
+	 */
+	private static int storeUncompressed(byte[] data, int length, byte[] deflated) {
+		final Deflater deflater = new Deflater(Deflater.NO_COMPRESSION, true);
+		try {
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			final int deflatedSize = deflater.deflate(deflated, 0, deflated.length);
+			if (!deflater.finished())
+				throw new IllegalStateException("Block does not fit into BGZF block without compression");
+			return deflatedSize;
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static void putShort(byte[] buf, int offset, int value) {
+		buf[offset] = (byte) value;
+		buf[offset + 1] = (byte) (value >>> 8);
+	}
+
+	private static void putInt(byte[] buf, int offset, int value) {
+		putShort(buf, offset, value);
+		putShort(buf, offset + 2, value >>> 16);
+	}
+
+}
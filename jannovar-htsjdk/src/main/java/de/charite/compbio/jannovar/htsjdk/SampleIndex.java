@@ -0,0 +1,140 @@
+package de.charite.compbio.jannovar.htsjdk;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypesContext;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFHeader;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Index of the sample names of a VCF file, built once from the {@link VCFHeader}
+ * <p>
+ * The genotypes of the records read from a VCF file are in the order of the samples in the header. Thus, a sample's
+ * {@link Genotype} can be accessed by its index instead of through a lookup by name for each record, and sets of
+ * samples can be represented as {@link BitSet}s of sample indices. Genotypes that are not in header order are looked
+ * up by name as a fallback.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class SampleIndex {
+
+	/**
+	 * Sample names, in the order of the genotypes
+	 */
+	private final ImmutableList<String> sampleNames;
+
+	/**
+	 * Mapping from sample name to index in {@link #sampleNames}
+	 */
+	private final ImmutableMap<String, Integer> indices;
+
+	/**
+	 * @param sampleNames the sample names, in the order of the genotypes
+	 * @throws IllegalArgumentException if a sample name occurs more than once
+	 */
+	public SampleIndex(Collection<String> sampleNames) {
+		this.sampleNames = ImmutableList.copyOf(sampleNames);
+		ImmutableMap.Builder<String, Integer> builder = new ImmutableMap.Builder<>();
+		for (int i = 0; i < this.sampleNames.size(); ++i)
+			builder.put(this.sampleNames.get(i), i);
+		this.indices = builder.build();
+	}
+
+	/**
+	 * @param header the {@link VCFHeader} to take the sample names from
+	 */
+	public SampleIndex(VCFHeader header) {
+		this(header.getGenotypeSamples());
+	}
+
+	/**
+	 * @return sample names, in the order of the genotypes
+	 */
+	public ImmutableList<String> getSampleNames() {
+		return sampleNames;
+	}
+
+	/**
+	 * @return number of samples
+	 */
+	public int size() {
+		return sampleNames.size();
+	}
+
+	/**
+	 * @param sampleName the sample name to look up
+	 * @return index of the sample, <code>-1</code> if there is no such sample
+	 */
+	public int indexOf(String sampleName) {
+		final Integer idx = indices.get(sampleName);
+		return (idx == null) ? -1 : idx;
+	}
+
+	/**
+	 * @param sampleNames the sample names to look up, names of unknown samples are ignored
+	 * @return {@link BitSet} with the indices of the samples
+	 */
+	public BitSet toBitSet(Collection<String> sampleNames) {
+		BitSet result = new BitSet(this.sampleNames.size());
+		for (String sampleName : sampleNames) {
+			final int idx = indexOf(sampleName);
+			if (idx >= 0)
+				result.set(idx);
+		}
+		return result;
+	}
+
+	/**
+	 * @param vc        the {@link VariantContext} to get the genotype from
+	 * @param sampleIdx index of the sample
+	 * @return {@link Genotype} of the sample, looked up by name only if the genotypes are not in the order of the
+	 * sample names, <code>null</code> if <code>vc</code> has no genotype for the sample
+	 */
+	public Genotype getGenotype(VariantContext vc, int sampleIdx) {
+		final String sampleName = sampleNames.get(sampleIdx);
+		final GenotypesContext genotypes = vc.getGenotypes();
+		if (sampleIdx < genotypes.size()) {
+			final Genotype gt = genotypes.get(sampleIdx);
+			if (sampleName.equals(gt.getSampleName()))
+				return gt;
+		}
+		return genotypes.get(sampleName);
+	}
+
+	/**
+	 * Collect the indices of the distinct alternative alleles of a genotype, ignoring reference and no-call alleles
+	 *
+	 * @param vc     the {@link VariantContext} that <code>gt</code> belongs to
+	 * @param gt     the {@link Genotype} to collect the alternative alleles of
+	 * @param result {@link BitSet} to write the allele indices to, cleared before
+	 * @return number of distinct alternative alleles
+	 */
+	public static int collectAltAlleles(VariantContext vc, Genotype gt, BitSet result) {
+		result.clear();
+		final List<Allele> alleles = vc.getAlleles();
+		for (Allele allele : gt.getAlleles()) {
+			final int aIdx = getAlleleIndex(alleles, allele);
+			if (aIdx > 0)
+				result.set(aIdx);
+		}
+		return result.cardinality();
+	}
+
+	/**
+	 * @return index of <code>allele</code> in <code>alleles</code>, <code>-1</code> if not found; the genotype alleles
+	 * of parsed records usually are the instances of the record, so these are compared by identity first
+	 */
+	private static int getAlleleIndex(List<Allele> alleles, Allele allele) {
+		for (int i = 0; i < alleles.size(); ++i)
+			if (alleles.get(i) == allele)
+				return i;
+		return alleles.indexOf(allele);
+	}
+
+}
@@ -0,0 +1,143 @@
+package de.charite.compbio.jannovar.htsjdk;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.BlockCompressedFilePointerUtil;
+import htsjdk.samtools.util.RuntimeIOException;
+import htsjdk.tribble.SimpleFeature;
+import htsjdk.tribble.index.Index;
+import htsjdk.tribble.index.tabix.TabixFormat;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFHeader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * {@link VariantContextWriter} that builds a tabix index on the fly for a {@link ParallelBlockCompressedOutputStream}
+ * <p>
+ * The position of each record is taken from the stream as block number and block offset before the record is written.
+ * The records are passed to the {@link TabixIndexCreator} with their virtual file pointer once their block has been
+ * written, and the index is written next to the output file on {@link #close}.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class TabixIndexingVariantContextWriter implements VariantContextWriter,
+	ParallelBlockCompressedOutputStream.BlockListener {
+
+	/**
+	 * Record whose block has not been written yet
+	 */
+	private static final class PendingRecord {
+
+		/**
+		 * Contig, begin, and end position of the record
+		 */
+		final SimpleFeature feature;
+
+		/**
+		 * Number of the block that the record starts in
+		 */
+		final long blockNumber;
+
+		/**
+		 * Offset of the record in its uncompressed block
+		 */
+		final int blockOffset;
+
+		PendingRecord(SimpleFeature feature, long blockNumber, int blockOffset) {
+			this.feature = feature;
+			this.blockNumber = blockNumber;
+			this.blockOffset = blockOffset;
+		}
+
+	}
+
+	/**
+	 * The writer writing to {@link #stream}
+	 */
+	private final VariantContextWriter delegate;
+
+	/**
+	 * The stream that {@link #delegate} writes to
+	 */
+	private final ParallelBlockCompressedOutputStream stream;
+
+	/**
+	 * The output file, the index is written next to it
+	 */
+	private final File file;
+
+	/**
+	 * Builds the index
+	 */
+	private final TabixIndexCreator indexCreator;
+
+	/**
+	 * Records whose block has not been written yet, in order
+	 */
+	private final ArrayDeque<PendingRecord> pending = new ArrayDeque<>();
+
+	/**
+	 * @param delegate the {@link VariantContextWriter} writing to <code>stream</code>
+	 * @param stream   the {@link ParallelBlockCompressedOutputStream} writing to <code>file</code>
+	 * @param file     the output file
+	 * @param seqDict  the sequence dictionary for the index
+	 */
+	TabixIndexingVariantContextWriter(VariantContextWriter delegate, ParallelBlockCompressedOutputStream stream,
+									  File file, SAMSequenceDictionary seqDict) {
+		this.delegate = delegate;
+		this.stream = stream;
+		this.file = file;
+		this.indexCreator = new TabixIndexCreator(seqDict, TabixFormat.VCF);
+		stream.setBlockListener(this);
+	}
+
+	@Override
+	public void writeHeader(VCFHeader header) {
+		delegate.writeHeader(header);
+	}
+
+	@Override
+	public void setHeader(VCFHeader header) {
+		delegate.setHeader(header);
+	}
+
+	@Override
+	public void add(VariantContext vc) {
+		pending.add(new PendingRecord(new SimpleFeature(vc.getContig(), vc.getStart(), vc.getEnd()),
+			stream.getBlockNumber(), stream.getBlockOffset()));
+		delegate.add(vc);
+	}
+
+	@Override
+	public void blockWritten(long blockNumber, long blockAddress) {
+		while (!pending.isEmpty() && pending.peekFirst().blockNumber == blockNumber) {
+			final PendingRecord record = pending.removeFirst();
+			indexCreator.addFeature(record.feature,
+				BlockCompressedFilePointerUtil.makeFilePointer(blockAddress, record.blockOffset));
+		}
+	}
+
+	@Override
+	public boolean checkError() {
+		return delegate.checkError();
+	}
+
+	/**
+	 * Close the output file, then write the index
+	 */
+	@Override
+	public void close() {
+		delegate.close();
+		final Index index = indexCreator.finalizeIndex(stream.getEndFilePointer());
+		try {
+			index.writeBasedOnFeatureFile(file);
+		} catch (IOException e) {
+			throw new RuntimeIOException("Problem writing index for " + file, e);
+		}
+	}
+
+}
@@ -25,6 +25,8 @@ import java.util.regex.Pattern;
 
 /**
  * Helper class for generating {@link VariantAnnotations} objects from {@link VariantContext}s.
+ * <p>
+ * Instances can be shared between threads, the buffer for writing the <code>ANN</code> field is kept per thread.
  *
  * @author <a href="mailto:manuel.holtgrewe@charite.de">Manuel Holtgrewe</a>
  */
@@ -184,6 +186,11 @@ public final class VariantContextAnnotator {
 	 */
 	private final SVAnnotator svAnnotator;
 
+	/**
+	 * encoder for the ANN field, one per thread and reused for each record
+	 */
+	private final ThreadLocal<VCFAnnotationEncoder> annEncoder;
+
 	/**
 	 * Construct annotator with default options.
 	 *
@@ -203,12 +210,28 @@ public final class VariantContextAnnotator {
 	 */
 	public VariantContextAnnotator(ReferenceDictionary refDict, ImmutableMap<Integer, Chromosome> chromosomeMap,
 								   Options options) {
+		this(refDict, chromosomeMap, options, null);
+	}
+
+	/**
+	 * Construct Annotator with a cache for the annotations of small variants.
+	 *
+	 * @param refDict       {@link ReferenceDictionary} to use, probably from {@link JannovarData}
+	 * @param chromosomeMap {@link Chromosome} map to use, probably from {@link JannovarData}
+	 * @param options       configuration of the Annotator, for {@link #applyAnnotations}
+	 * @param cache         {@link VariantAnnotationsCache} to use, may be shared between annotators for the same
+	 *                      database, <code>null</code> for no caching
+	 */
+	public VariantContextAnnotator(ReferenceDictionary refDict, ImmutableMap<Integer, Chromosome> chromosomeMap,
+								   Options options, VariantAnnotationsCache cache) {
 		this.refDict = refDict;
 		this.chromosomeMap = chromosomeMap;
 		this.options = options;
 		this.annotator = new VariantAnnotator(refDict, chromosomeMap,
-			new AnnotationBuilderOptions(options.nt3PrimeShifting, false));
+			new AnnotationBuilderOptions(options.nt3PrimeShifting, false), cache);
 		this.svAnnotator = new SVAnnotator(refDict, chromosomeMap);
+		this.annEncoder = ThreadLocal.withInitial(
+			() -> new VCFAnnotationEncoder(options.escapeAnnField, options.aminoAcidCode));
 	}
 
 	/**
@@ -386,34 +409,37 @@ public final class VariantContextAnnotator {
 		// Whether or not variant is off-target in all annotations
 		boolean offTargetInAll = true;
 
-		ArrayList<String> annotations = new ArrayList<String>();
+		final VCFAnnotationEncoder encoder = annEncoder.get();
+		encoder.reset();
 		for (int alleleID = 0; alleleID < vc.getAlternateAlleles().size(); ++alleleID) {
 			if (!annos.get(alleleID).getAnnotations().isEmpty()) {
+				final String alt = vc.getAlternateAllele(alleleID).getBaseString();
 				for (Annotation ann : annos.get(alleleID).getAnnotations()) {
 					boolean offTargetInThis = ann.getEffects().stream()
 						.allMatch(e -> e.isOffExome(options.offTargetFilterUtrIsOffTarget,
 							options.offTargetFilterIntronicSpliceIsOffTarget));
 					offTargetInAll = offTargetInAll && offTargetInThis;
 
-					if (!options.oneAnnotationOnly || annotations.isEmpty()) {
-						final String alt = vc.getAlternateAllele(alleleID).getBaseString();
-						annotations.add(ann.toVCFAnnoString(alt, options.escapeAnnField, options.aminoAcidCode));
-					}
+					if (!options.oneAnnotationOnly || encoder.isEmpty())
+						encoder.add(ann, alt);
 				}
 			}
 		}
 
-		if (options.isOffTargetFilterEnabled() && (offTargetInAll && !annotations.isEmpty())) {
+		if (encoder.isEmpty())
+			return vc;
+
+		if (options.isOffTargetFilterEnabled() && offTargetInAll) {
+			// The builder copies the attributes, no need for another copy.
 			Set<String> filters = new HashSet<>(vc.getFilters());
 			filters.add(VariantEffectHeaderExtender.FILTER_EFFECT_OFF_EXOME);
-			vc = new VariantContextBuilder(vc).filters(filters).make();
+			return new VariantContextBuilder(vc).filters(filters).attribute("ANN", encoder.toString()).make();
 		}
 
-		// If a VC builder is used before the attributes can be unmodifiable.
-		Map<String, Object> attributes = new HashMap<>(vc.getAttributes());
-		if (!annotations.isEmpty())
-			attributes.put("ANN", Joiner.on(',').join(annotations));
-		vc.getCommonInfo().setAttributes(attributes);
+		// If a VC builder is used before the attributes can be unmodifiable, setAttributes() copies them into a fresh
+		// map that we can then add to.
+		vc.getCommonInfo().setAttributes(vc.getAttributes());
+		vc.getCommonInfo().putAttribute("ANN", encoder.toString(), true);
 
 		return vc;
 	}
@@ -3,6 +3,8 @@ package de.charite.compbio.jannovar.htsjdk;
 import com.google.common.collect.ImmutableList;
 import de.charite.compbio.jannovar.annotation.Annotation;
 import de.charite.compbio.jannovar.annotation.SVAnnotation;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.util.RuntimeIOException;
 import htsjdk.variant.variantcontext.writer.Options;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
@@ -13,6 +15,8 @@ import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import htsjdk.variant.vcf.VCFHeaderLineCount;
 
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.util.Collection;
 
@@ -75,13 +79,25 @@ public final class VariantContextWriterConstructionHelper {
 	 */
 	public static VariantContextWriter openVariantContextWriter(VCFHeader header, String fileName,
 																Collection<VCFHeaderLine> additionalHeaderLines, boolean generateIndex) {
-		VariantContextWriterBuilder builder = makeBuilder(header);
-		builder.setOutputFile(new File(fileName));
-		if (!generateIndex)
-			builder.unsetOption(Options.INDEX_ON_THE_FLY);
+		return openVariantContextWriter(header, fileName, additionalHeaderLines, generateIndex, 1);
+	}
 
+	/**
+	 * Return a new {@link VariantContextWriter} that uses the header from <code>reader</code> but has the header
+	 * extended header through {@link #extendHeaderFields}, see {@link #openFileWriter} for the use of threads.
+	 *
+	 * @param header                the VCF header to use for the construction
+	 * @param fileName              path to output file
+	 * @param additionalHeaderLines additional {@link VCFHeaderLine}s to add
+	 * @param generateIndex         whether or not to generate an index
+	 * @param numThreads            number of threads for compressing the output
+	 * @return A correct writer for variantContexts
+	 */
+	public static VariantContextWriter openVariantContextWriter(VCFHeader header, String fileName,
+																Collection<VCFHeaderLine> additionalHeaderLines, boolean generateIndex, int numThreads) {
 		// construct VariantContextWriter and write out header
-		VariantContextWriter out = builder.build();
+		VariantContextWriter out = openFileWriter(header.getSequenceDictionary(), new File(fileName), generateIndex,
+			numThreads);
 		final VCFHeader updatedHeader = extendHeaderFields(new VCFHeader(header));
 		for (VCFHeaderLine headerLine : additionalHeaderLines)
 			updatedHeader.addMetaDataLine(headerLine);
@@ -89,17 +105,63 @@ public final class VariantContextWriterConstructionHelper {
 		return out;
 	}
 
+	/**
+	 * Return a new {@link VariantContextWriter} for <code>file</code>, without writing the header
+	 * <p>
+	 * With more than one thread, the records are encoded and written on a dedicated writer thread (see
+	 * {@link AsyncVariantContextWriter}). For block-compressed output (e.g., <code>.vcf.gz</code>), the BGZF blocks
+	 * are additionally deflated on <code>numThreads</code> worker threads (see
+	 * {@link ParallelBlockCompressedOutputStream}), and the tabix index is built on the fly.
+	 *
+	 * @param seqDict       sequence dictionary for the index, no index is generated if <code>null</code>
+	 * @param file          the output file, its extension determines the output format
+	 * @param generateIndex whether or not to generate an index
+	 * @param numThreads    number of threads for compressing the output
+	 * @return the {@link VariantContextWriter}
+	 */
+	public static VariantContextWriter openFileWriter(SAMSequenceDictionary seqDict, File file,
+													  boolean generateIndex, int numThreads) {
+		VariantContextWriterBuilder builder = makeBuilder(seqDict);
+		final boolean isBlockCompressed = VariantContextWriterBuilder.determineOutputTypeFromFile(file)
+			== VariantContextWriterBuilder.OutputType.BLOCK_COMPRESSED_VCF;
+		if (numThreads <= 1 || !isBlockCompressed) {
+			builder.setOutputFile(file);
+			if (!generateIndex)
+				builder.unsetOption(Options.INDEX_ON_THE_FLY);
+			VariantContextWriter out = builder.build();
+			return (numThreads <= 1) ? out : new AsyncVariantContextWriter(out);
+		}
+
+		// write uncompressed VCF into parallel BGZF stream, build index from the stream's block positions
+		final ParallelBlockCompressedOutputStream stream;
+		try {
+			stream = new ParallelBlockCompressedOutputStream(new FileOutputStream(file), numThreads);
+		} catch (FileNotFoundException e) {
+			throw new RuntimeIOException("Could not open " + file + " for writing", e);
+		}
+		builder.unsetOption(Options.INDEX_ON_THE_FLY);
+		builder.setOutputVCFStream(stream);
+		VariantContextWriter out = builder.build();
+		if (generateIndex && seqDict != null)
+			out = new TabixIndexingVariantContextWriter(out, stream, file, seqDict);
+		return new AsyncVariantContextWriter(out);
+	}
+
 	/**
 	 * Common parts of {@link VariantContextWriterBuilder} creation for the openVariantContextWriter functions.
 	 */
 	private static VariantContextWriterBuilder makeBuilder(VCFHeader header) {
+		return makeBuilder(header.getSequenceDictionary());
+	}
+
+	private static VariantContextWriterBuilder makeBuilder(SAMSequenceDictionary seqDict) {
 		// construct factory object for VariantContextWriter
 		VariantContextWriterBuilder builder = new VariantContextWriterBuilder();
-		builder.setReferenceDictionary(header.getSequenceDictionary());
+		builder.setReferenceDictionary(seqDict);
 		// Be more lenient in missing header fields.
 		builder.setOption(Options.ALLOW_MISSING_FIELDS_IN_HEADER);
 		// Disable on-the-fly generation of Tribble index if the input file does not have a sequence dictionary.
-		if (header.getSequenceDictionary() == null)
+		if (seqDict == null)
 			builder.unsetOption(Options.INDEX_ON_THE_FLY);
 		return builder;
 	}
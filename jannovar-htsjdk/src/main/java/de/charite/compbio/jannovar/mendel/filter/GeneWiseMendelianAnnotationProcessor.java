@@ -15,8 +15,8 @@ import de.charite.compbio.jannovar.mendel.bridge.MendelVCFHeaderExtender;
 import de.charite.compbio.jannovar.mendel.bridge.VariantContextMendelianAnnotator;
 import de.charite.compbio.jannovar.pedigree.Pedigree;
 import de.charite.compbio.jannovar.reference.GenomeInterval;
-import de.charite.compbio.jannovar.reference.Strand;
 import de.charite.compbio.jannovar.reference.TranscriptModel;
+import htsjdk.variant.variantcontext.LazyGenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.vcf.VCFHeader;
@@ -25,6 +25,12 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -32,6 +38,11 @@ import java.util.stream.Collectors;
  * Process {@link VariantContext} objects and annotate them with mendelian inheritance compatibility
  * <p>
  * The variants put into the processor must be clustered by contig name and sorted by begin position
+ * <p>
+ * When constructed with more than one thread, the compatible modes of inheritance of the genes that are done are
+ * computed on a pool of worker threads while the caller goes on putting variants. The results are merged on the
+ * calling thread and each variant is written out once all genes that it touches have been checked, in coordinate
+ * order as with one thread.
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
@@ -79,6 +90,29 @@ public class GeneWiseMendelianAnnotationProcessor implements VariantContextProce
 	 * Currently buffered variants.
 	 */
 	HashMap<VariantContext, VariantContextCounter> activeVariants = new HashMap<>();
+	/**
+	 * The genes from {@link #activeGenes} by numeric contig ID, each in a min-heap by end position such that genes
+	 * that are done can be popped.
+	 */
+	HashMap<Integer, PriorityQueue<Gene>> activeGenesByChr = new HashMap<>();
+
+	/**
+	 * Orders genes by end position of their region, for {@link #activeGenesByChr}
+	 */
+	private static final Comparator<Gene> GENE_END_POS_ORDER = Comparator.comparingInt(g -> g.getRegion().getEndPos());
+
+	/**
+	 * Number of threads for checking genes, the genes are checked on the calling thread if <code>1</code>
+	 */
+	private final int numThreads;
+	/**
+	 * Worker pool for checking genes, <code>null</code> if checked on the calling thread
+	 */
+	private final ExecutorService executor;
+	/**
+	 * Genes that are done and submitted to {@link #executor}, in order of submission
+	 */
+	private final ArrayDeque<PendingGene> pendingGenes = new ArrayDeque<>();
 
 	/**
 	 * List of genes, indexed by interval tree
@@ -95,6 +129,23 @@ public class GeneWiseMendelianAnnotationProcessor implements VariantContextProce
 	 */
 	public GeneWiseMendelianAnnotationProcessor(Pedigree pedigree, JannovarData jannovarData,
 												Consumer<VariantContext> sink, boolean interpretFilters) {
+		this(pedigree, jannovarData, sink, interpretFilters, 1);
+	}
+
+	/**
+	 * Construct processor with the path to the PED file to use, checking genes on <code>numThreads</code> threads
+	 *
+	 * @param pedigree         the {@link Pedigree} object to use
+	 * @param jannovarData     {@link JannovarData} object to use for getting the genes from
+	 * @param sink             location to write the {@link VariantContext} to, called on the calling thread only
+	 * @param interpretFilters whether or not to interpret genotype- or variant-wise filters
+	 * @param numThreads       number of worker threads for checking genes, <code>1</code> for checking on the
+	 *                         calling thread
+	 */
+	public GeneWiseMendelianAnnotationProcessor(Pedigree pedigree, JannovarData jannovarData,
+												Consumer<VariantContext> sink, boolean interpretFilters, int numThreads) {
+		if (numThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be >= 1 but was " + numThreads);
 		this.pedigree = pedigree;
 		this.jannovarData = jannovarData;
 		this.sink = sink;
@@ -107,6 +158,18 @@ public class GeneWiseMendelianAnnotationProcessor implements VariantContextProce
 			interpretVariantFilters);
 
 		this.contigInfoProvider = new ContigInfoProvider();
+
+		this.numThreads = numThreads;
+		if (numThreads > 1) {
+			final AtomicInteger threadCount = new AtomicInteger();
+			this.executor = Executors.newFixedThreadPool(numThreads, r -> {
+				Thread thread = new Thread(r, "mendelian-worker-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		} else {
+			this.executor = null;
+		}
 	}
 
 	@Override
@@ -134,62 +197,51 @@ public class GeneWiseMendelianAnnotationProcessor implements VariantContextProce
 		if (!iTree.isPresent()) {
 			LOGGER.trace("Unknown contig or contig without annotation in " + vc.getContig()
 				+ ", flushing current contig and writing out.");
-			markDoneGenes(-1, -1);
+			flushAll();
 			sink.accept(vc);
 			return;
 		}
 
-		// Consider this variant for each affected gene
-		Optional<GenomeInterval> changeInterval = contigID
-			.map(x -> new GenomeInterval(refDict, Strand.FWD, x, vc.getStart() - 1, vc.getEnd()));
-		Optional<IntervalArray<Gene>.QueryResult> qr = Optional.empty();
-		if (changeInterval.isPresent()) {
-			if (changeInterval.get().length() == 0)
-				qr = iTree.map(x -> x.findOverlappingWithPoint(changeInterval.get().getBeginPos()));
-			else
-				qr = iTree.map(x -> x.findOverlappingWithInterval(changeInterval.get().getBeginPos(),
-					changeInterval.get().getEndPos()));
-		}
+		// Consider this variant for each affected gene, the change interval is computed once and kept with the variant
+		final VariantContextCounter counter = new VariantContextCounter(vc, 0, contigID.get(), vc.getStart() - 1,
+			vc.getEnd());
+		final IntervalArray<Gene>.QueryResult qr;
+		if (counter.getChangeBeginPos() == counter.getChangeEndPos())
+			qr = iTree.get().findOverlappingWithPoint(counter.getChangeBeginPos());
+		else
+			qr = iTree.get().findOverlappingWithInterval(counter.getChangeBeginPos(), counter.getChangeEndPos());
 
-		if (qr.isPresent()) {
-			if (qr.get().getEntries().isEmpty()) {
-				putVariantForGene(vc, null);
-			} else {
-				for (Gene gene : qr.get().getEntries())
-					if (isGeneAffectedByChange(gene, vc))
-						putVariantForGene(vc, gene);
-			}
+		if (qr.getEntries().isEmpty()) {
+			putVariantForGene(counter, null);
+		} else {
+			for (Gene gene : qr.getEntries())
+				if (isGeneAffectedByChange(gene, counter))
+					putVariantForGene(counter, gene);
 		}
 
-		// Write out all variants left of variant. If contig ID not known then write out everything currently in cache
-		if (contigID.isPresent())
-			markDoneGenes(contigID.get(), vc.getStart() - 1);
-		else
-			markDoneGenes(-1, -1);
+		// Write out all variants left of variant
+		markDoneGenes(contigID.get(), vc.getStart() - 1);
 	}
 
 	/**
-	 * @return <code>true</code> if <code>gene</code> is affected by <code>variantContext</code>
+	 * @return <code>true</code> if <code>gene</code> is affected by the change of <code>counter</code>
 	 */
-	private boolean isGeneAffectedByChange(Gene gene, VariantContext vc) {
-		final ReferenceDictionary refDict = jannovarData.getRefDict();
-		final int contigID = refDict.getContigNameToID().get(vc.getContig());
-		final GenomeInterval changeInterval = new GenomeInterval(refDict, Strand.FWD, contigID, vc.getStart() - 1,
-			vc.getEnd());
-
-		if (changeInterval.length() == 0 && gene.getRegion().contains(changeInterval.getGenomeBeginPos())
-			&& gene.getRegion().contains(changeInterval.getGenomeBeginPos().shifted(-1)))
-			return false;
-		else if (changeInterval.length() != 0 && gene.getRegion().overlapsWith(changeInterval))
-			return true;
-		else
-			return false;
+	private static boolean isGeneAffectedByChange(Gene gene, VariantContextCounter counter) {
+		// gene regions are on the forward strand, as is the change interval; empty changes never affect a gene
+		final GenomeInterval region = gene.getRegion();
+		return counter.getChangeBeginPos() != counter.getChangeEndPos() && region.getChr() == counter.getChangeChr()
+			&& region.getBeginPos() < counter.getChangeEndPos() && counter.getChangeBeginPos() < region.getEndPos();
 	}
 
 	@Override
 	public void close() {
 		LOGGER.trace("Closing mendelian annotation processor");
-		markDoneGenes(-1, -1);
+		try {
+			flushAll();
+		} finally {
+			if (executor != null)
+				executor.shutdownNow();
+		}
 
 		// There should be no more active variants or genes
 		if (!activeVariants.isEmpty())
@@ -234,10 +286,11 @@ public class GeneWiseMendelianAnnotationProcessor implements VariantContextProce
 	 *
 	 * @throws UncheckedJannovarException on problems with annotation of the variant
 	 */
-	private void putVariantForGene(VariantContext vc, Gene gene) {
+	private void putVariantForGene(VariantContextCounter counter, Gene gene) {
+		final VariantContext vc = counter.getVariantContext();
 		LOGGER.trace("Assigning variant {} to gene {}", new Object[]{vc, gene});
 		// Register VariantContext as active
-		activeVariants.computeIfAbsent(vc, x -> new VariantContextCounter(x, 0));
+		activeVariants.putIfAbsent(vc, counter);
 
 		if (gene == null) {
 			// Compute modes of inheritance on its own, don't assign to any gene, just marked as active
@@ -251,12 +304,18 @@ public class GeneWiseMendelianAnnotationProcessor implements VariantContextProce
 
 		activeVariants.get(vc).increment();
 		// Register VariantContext for gene
-		activeGenes.computeIfAbsent(gene, x -> new ArrayList<>());
-		activeGenes.get(gene).add(vc);
+		activeGenes.computeIfAbsent(gene, x -> {
+			activeGenesByChr.computeIfAbsent(x.getRegion().getChr(), chr -> new PriorityQueue<>(GENE_END_POS_ORDER))
+				.add(x);
+			return new ArrayList<>();
+		}).add(vc);
 	}
 
 	/**
 	 * Mark genes left of <code>(contigID, pos)</code> as done.
+	 * <p>
+	 * The genes on other contigs are all done, the genes on <code>contigID</code> are popped from the heap in
+	 * {@link #activeGenesByChr} while they end left of <code>pos</code>.
 	 *
 	 * @param contigID numeric contig ID, as taken from {@link JannovarDB#refDict} from {@link #jannovarDB}.
 	 * @param pos      zero-based position on the given contig
@@ -264,12 +323,17 @@ public class GeneWiseMendelianAnnotationProcessor implements VariantContextProce
 	 */
 	private void markDoneGenes(int contigID, int pos) throws VariantContextFilterException {
 		ArrayList<Gene> doneGenes = new ArrayList<Gene>();
-		for (Entry<Gene, ArrayList<VariantContext>> entry : activeGenes.entrySet()) {
-			Gene gene = entry.getKey();
-			if (gene.getRegion().getChr() != contigID)
-				doneGenes.add(gene);
-			else if (gene.getRegion().getEndPos() <= pos)
-				doneGenes.add(gene);
+		Iterator<Entry<Integer, PriorityQueue<Gene>>> it = activeGenesByChr.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<Integer, PriorityQueue<Gene>> entry = it.next();
+			PriorityQueue<Gene> heap = entry.getValue();
+			if (entry.getKey() != contigID) {
+				doneGenes.addAll(heap);
+				it.remove();
+			} else {
+				while (!heap.isEmpty() && heap.peek().getRegion().getEndPos() <= pos)
+					doneGenes.add(heap.poll());
+			}
 		}
 
 		if (doneGenes.isEmpty()) {
@@ -281,41 +345,80 @@ public class GeneWiseMendelianAnnotationProcessor implements VariantContextProce
 			}
 		}
 
-		if (!doneGenes.isEmpty() && activeGenes.isEmpty() && !activeVariants.isEmpty())
+		if (!doneGenes.isEmpty() && activeGenes.isEmpty() && pendingGenes.isEmpty() && !activeVariants.isEmpty())
 			throw new RuntimeException("All genes inactive, there should be no active variant");
 	}
 
 	/**
-	 * Builds genotype call lists for variants in currently active genes, checks for compatibility, and in case of
-	 * compatibility, marks variants in <code>gene</code> as compatible.
+	 * Mark <code>gene</code> as done and check it for compatible modes of inheritance, then write out the variants that
+	 * are done.
+	 * <p>
+	 * With a worker pool, the check of <code>gene</code> is submitted and the results of the checks completed so far are
+	 * merged. At most <code>2 * numThreads</code> checks are pending, otherwise, the oldest one is waited for.
 	 *
-	 * @throws VariantContextFilterException      in case of problems with processing the variant
-	 * @throws CannotAnnotateMendelianInheritance in case of problems with Mendelian inheritance annotation
+	 * @param gene the {@link Gene} to mark the variants for, <code>null</code> to trigger processing variants without
+	 *             marking a gene as processed
+	 * @throws VariantContextFilterException in case of problems with processing the variant
 	 */
-	private void checkVariantsForGene(Gene gene)
-		throws VariantContextFilterException, CannotAnnotateMendelianInheritance {
-		// Compute compatible modes for all variants in the gene
-		final ArrayList<VariantContext> variantsForGene = activeGenes.get(gene);
-		ImmutableMap<SubModeOfInheritance, ImmutableList<VariantContext>> compatibleMap = annotator
-			.computeCompatibleInheritanceSubModes(variantsForGene);
-		// Annotate the variants with new compatible modes
-		for (Entry<SubModeOfInheritance, ImmutableList<VariantContext>> e : compatibleMap.entrySet()) {
-			for (VariantContext vc : e.getValue()) {
-				activeVariants.get(vc).addCompatibleMode(e.getKey());
+	private void processedGene(Gene gene) throws VariantContextFilterException {
+		if (gene != null) {
+			LOGGER.trace("Gene done {}", new Object[]{gene.getName()});
+			// Mark gene as done
+			final ArrayList<VariantContext> variantsForGene = activeGenes.remove(gene);
+			final PendingGene pending;
+			if (executor == null) {
+				pending = new PendingGene(gene, variantsForGene,
+					CompletableFuture.completedFuture(checkVariants(variantsForGene)));
+			} else {
+				// decode lazily parsed genotypes here as this is not safe for concurrent access
+				for (VariantContext vc : variantsForGene)
+					if (vc.getGenotypes() instanceof LazyGenotypesContext)
+						((LazyGenotypesContext) vc.getGenotypes()).decode();
+				pending = new PendingGene(gene, variantsForGene,
+					executor.submit(() -> checkVariants(variantsForGene)));
+			}
+			pendingGenes.add(pending);
+			if (pendingGenes.size() > 2 * numThreads)
+				mergeGeneResult(pendingGenes.removeFirst());
+		} else {
+			LOGGER.trace("Marking variants as done without any gene");
+		}
+
+		Iterator<PendingGene> it = pendingGenes.iterator();
+		while (it.hasNext()) {
+			PendingGene pending = it.next();
+			if (pending.result.isDone()) {
+				it.remove();
+				mergeGeneResult(pending);
 			}
 		}
+
+		writeDoneVariants();
 	}
 
 	/**
-	 * Decrease counter for all variants located in <code>gene</code>.
+	 * Mark all genes as done, wait for all pending checks, and write out all variants
 	 *
-	 * @param gene the {@link Gene} to mark the variants for, <code>null</code> to trigger processing variants without
-	 *             marking a gene as processed
+	 * @throws VariantContextFilterException in case of problems with processing the variant
 	 */
-	private void processedGene(Gene gene) throws VariantContextFilterException {
+	private void flushAll() throws VariantContextFilterException {
+		markDoneGenes(-1, -1);
+		while (!pendingGenes.isEmpty())
+			mergeGeneResult(pendingGenes.removeFirst());
+		writeDoneVariants();
+	}
+
+	/**
+	 * Compute compatible modes for all variants in a gene
+	 *
+	 * @param variantsForGene the variants in the gene
+	 * @return {@link ImmutableMap} with the compatible variants for each {@link SubModeOfInheritance}
+	 * @throws VariantContextFilterException in case of problems with Mendelian inheritance annotation
+	 */
+	private ImmutableMap<SubModeOfInheritance, ImmutableList<VariantContext>> checkVariants(
+		List<VariantContext> variantsForGene) throws VariantContextFilterException {
 		try {
-			if (gene != null)
-				checkVariantsForGene(gene);
+			return annotator.computeCompatibleInheritanceSubModes(variantsForGene);
 		} catch (CannotAnnotateMendelianInheritance e) {
 			if (e.getCause().getClass().equals(IncompatiblePedigreeException.class))
 				throw new VariantContextFilterException(
@@ -323,21 +426,48 @@ public class GeneWiseMendelianAnnotationProcessor implements VariantContextProce
 			else
 				throw new VariantContextFilterException("Problem with annotating variant for Mendelian inheritance", e);
 		}
+	}
 
-		if (gene != null)
-			LOGGER.trace("Gene done {}", new Object[]{gene.getName()});
-		else
-			LOGGER.trace("Marking variants as done without any gene");
+	/**
+	 * Wait for the check of <code>pending</code>, annotate its variants with the compatible modes, and decrease their
+	 * counters.
+	 *
+	 * @throws VariantContextFilterException in case of problems with processing the variant
+	 */
+	private void mergeGeneResult(PendingGene pending) throws VariantContextFilterException {
+		final ImmutableMap<SubModeOfInheritance, ImmutableList<VariantContext>> compatibleMap;
+		try {
+			compatibleMap = pending.result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new VariantContextFilterException("Interrupted while waiting for Mendelian inheritance check", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new VariantContextFilterException("Problem with annotating variant for Mendelian inheritance",
+				e.getCause());
+		}
 
-		// Decrease count of variants that lie in gene (that is now ignored)
-		for (VariantContextCounter var : activeVariants.values()) {
-			if (gene != null && isGeneAffectedByChange(gene, var.getVariantContext())) {
-				LOGGER.trace("Gene {} done for variant {}", new Object[]{gene.getName(),
-					var.getVariantContext().getContig() + ":" + var.getVariantContext().getStart()});
-				var.decrement();
+		// Annotate the variants with new compatible modes
+		for (Entry<SubModeOfInheritance, ImmutableList<VariantContext>> e : compatibleMap.entrySet()) {
+			for (VariantContext vc : e.getValue()) {
+				activeVariants.get(vc).addCompatibleMode(e.getKey());
 			}
 		}
 
+		// Decrease count of variants that lie in gene (that is now ignored)
+		for (VariantContext vc : pending.variants) {
+			LOGGER.trace("Gene {} done for variant {}", new Object[]{pending.gene.getName(),
+				vc.getContig() + ":" + vc.getStart()});
+			activeVariants.get(vc).decrement();
+		}
+		LOGGER.trace("Gene {} is inactive now", new Object[]{pending.gene.getName()});
+	}
+
+	/**
+	 * Write out the variants left of the leftmost variant that has genes not checked yet
+	 */
+	private void writeDoneVariants() {
 		// Comparator for comparing two VariantContextCounter objects
 		Comparator<VariantContextCounter> cmp = new Comparator<VariantContextCounter>() {
 			@Override
@@ -383,12 +513,33 @@ public class GeneWiseMendelianAnnotationProcessor implements VariantContextProce
 				sink.accept(vcBuilder.make());
 			}
 		}
+	}
 
-		if (gene != null) {
-			LOGGER.trace("Gene {} is inactive now", new Object[]{gene.getName()});
-			// Mark gene as done
-			activeGenes.remove(gene);
+	/**
+	 * A gene that is done, with its variants and the (possibly pending) result of checking them
+	 */
+	private static final class PendingGene {
+
+		/**
+		 * The gene that is done
+		 */
+		final Gene gene;
+		/**
+		 * The variants assigned to {@link #gene}
+		 */
+		final List<VariantContext> variants;
+		/**
+		 * Compatible variants for each {@link SubModeOfInheritance}
+		 */
+		final Future<ImmutableMap<SubModeOfInheritance, ImmutableList<VariantContext>>> result;
+
+		PendingGene(Gene gene, List<VariantContext> variants,
+					Future<ImmutableMap<SubModeOfInheritance, ImmutableList<VariantContext>>> result) {
+			this.gene = gene;
+			this.variants = variants;
+			this.result = result;
 		}
+
 	}
 
 	/**
@@ -15,15 +15,44 @@ public class VariantContextCounter {
 	private VariantContext variantContext;
 	private int counter;
 	private TreeSet<SubModeOfInheritance> compatibleModes;
+	/**
+	 * Numeric contig ID of the change, <code>-1</code> if unknown
+	 */
+	private final int changeChr;
+	/**
+	 * Zero-based begin position of the change on the forward strand
+	 */
+	private final int changeBeginPos;
+	/**
+	 * Zero-based end position of the change on the forward strand
+	 */
+	private final int changeEndPos;
 
 	public VariantContextCounter(VariantContext variantContext) {
 		this(variantContext, 0);
 	}
 
 	public VariantContextCounter(VariantContext variantContext, int counter) {
+		this(variantContext, counter, -1, variantContext.getStart() - 1, variantContext.getEnd());
+	}
+
+	/**
+	 * Construct with the change interval of <code>variantContext</code>, computed once by the caller
+	 *
+	 * @param variantContext the {@link VariantContext} to count for
+	 * @param counter        initial counter value
+	 * @param changeChr      numeric contig ID of the change
+	 * @param changeBeginPos zero-based begin position of the change on the forward strand
+	 * @param changeEndPos   zero-based end position of the change on the forward strand
+	 */
+	public VariantContextCounter(VariantContext variantContext, int counter, int changeChr, int changeBeginPos,
+								 int changeEndPos) {
 		this.variantContext = variantContext;
 		this.counter = counter;
 		this.compatibleModes = new TreeSet<>();
+		this.changeChr = changeChr;
+		this.changeBeginPos = changeBeginPos;
+		this.changeEndPos = changeEndPos;
 	}
 
 	public int increment() {
@@ -55,6 +84,27 @@ public class VariantContextCounter {
 			throw new RuntimeException("Negative counter " + this.counter);
 	}
 
+	/**
+	 * @return numeric contig ID of the change, <code>-1</code> if unknown
+	 */
+	public int getChangeChr() {
+		return changeChr;
+	}
+
+	/**
+	 * @return zero-based begin position of the change on the forward strand
+	 */
+	public int getChangeBeginPos() {
+		return changeBeginPos;
+	}
+
+	/**
+	 * @return zero-based end position of the change on the forward strand
+	 */
+	public int getChangeEndPos() {
+		return changeEndPos;
+	}
+
 	public void addCompatibleMode(SubModeOfInheritance mode) {
 		this.compatibleModes.add(mode);
 	}
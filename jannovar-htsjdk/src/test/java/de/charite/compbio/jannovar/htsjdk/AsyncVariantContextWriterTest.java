@@ -0,0 +1,100 @@
+package de.charite.compbio.jannovar.htsjdk;
+
+import com.google.common.collect.ImmutableList;
+import htsjdk.samtools.util.RuntimeIOException;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFHeader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link AsyncVariantContextWriter}
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class AsyncVariantContextWriterTest {
+
+	/**
+	 * {@link VariantContextWriter} that records the written records and the call to {@link #close}
+	 */
+	private static class RecordingWriter implements VariantContextWriter {
+
+		final List<VariantContext> records = new ArrayList<>();
+
+		final CountDownLatch closed = new CountDownLatch(1);
+
+		@Override
+		public void writeHeader(VCFHeader header) {
+		}
+
+		@Override
+		public void setHeader(VCFHeader header) {
+		}
+
+		@Override
+		public void add(VariantContext vc) {
+			records.add(vc);
+		}
+
+		@Override
+		public boolean checkError() {
+			return false;
+		}
+
+		@Override
+		public void close() {
+			closed.countDown();
+		}
+
+	}
+
+	private static List<VariantContext> buildRecords(int count) {
+		final List<Allele> alleles = ImmutableList.of(Allele.create("A", true), Allele.create("C"));
+		final List<VariantContext> records = new ArrayList<>();
+		for (int i = 0; i < count; ++i)
+			records.add(new VariantContextBuilder().chr("1").start(1000 + i).stop(1000 + i).alleles(alleles).make());
+		return records;
+	}
+
+	@Test
+	public void testWritesInOrderAndClosesDelegate() {
+		final RecordingWriter delegate = new RecordingWriter();
+		final List<VariantContext> records = buildRecords(250);
+		try (AsyncVariantContextWriter writer = new AsyncVariantContextWriter(delegate, 7, 2)) {
+			for (VariantContext vc : records)
+				writer.add(vc);
+		}
+
+		Assert.assertEquals(records, delegate.records);
+		Assert.assertEquals(0, delegate.closed.getCount());
+	}
+
+	@Test
+	public void testInterruptedCloseClosesDelegate() throws InterruptedException {
+		final RecordingWriter delegate = new RecordingWriter();
+		final AsyncVariantContextWriter writer = new AsyncVariantContextWriter(delegate, 7, 2);
+		for (VariantContext vc : buildRecords(5))
+			writer.add(vc);
+
+		Thread.currentThread().interrupt();
+		try {
+			writer.close();
+			Assert.fail("Expected RuntimeIOException");
+		} catch (RuntimeIOException e) {
+			// expected
+		} finally {
+			Assert.assertTrue(Thread.interrupted());
+		}
+
+		Assert.assertTrue(delegate.closed.await(10, TimeUnit.SECONDS));
+	}
+
+}
@@ -0,0 +1,94 @@
+package de.charite.compbio.jannovar.htsjdk;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFHeader;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+public class SampleIndexTest {
+
+	Allele ref;
+	Allele alt1;
+	Allele alt2;
+
+	SampleIndex sampleIndex;
+
+	@Before
+	public void setUp() {
+		ref = Allele.create("A", true);
+		alt1 = Allele.create("C");
+		alt2 = Allele.create("G");
+		sampleIndex = new SampleIndex(new VCFHeader(ImmutableSet.of(), ImmutableList.of("father", "index", "mother")));
+	}
+
+	@Test
+	public void testIndexOf() {
+		Assert.assertEquals(3, sampleIndex.size());
+		Assert.assertEquals(ImmutableList.of("father", "index", "mother"), sampleIndex.getSampleNames());
+		Assert.assertEquals(1, sampleIndex.indexOf("index"));
+		Assert.assertEquals(-1, sampleIndex.indexOf("sibling"));
+
+		BitSet expected = new BitSet();
+		expected.set(0);
+		expected.set(2);
+		Assert.assertEquals(expected, sampleIndex.toBitSet(ImmutableList.of("mother", "sibling", "father")));
+	}
+
+	@Test
+	public void testGetGenotypeInHeaderOrder() {
+		VariantContext vc = buildVariantContext(ImmutableList.of("father", "index", "mother"));
+		Assert.assertEquals("father", sampleIndex.getGenotype(vc, 0).getSampleName());
+		Assert.assertEquals("index", sampleIndex.getGenotype(vc, 1).getSampleName());
+		Assert.assertEquals("mother", sampleIndex.getGenotype(vc, 2).getSampleName());
+	}
+
+	@Test
+	public void testGetGenotypeOtherOrder() {
+		VariantContext vc = buildVariantContext(ImmutableList.of("mother", "index"));
+		Assert.assertEquals("index", sampleIndex.getGenotype(vc, 1).getSampleName());
+		Assert.assertEquals("mother", sampleIndex.getGenotype(vc, 2).getSampleName());
+		Assert.assertNull(sampleIndex.getGenotype(vc, 0));
+	}
+
+	@Test
+	public void testCollectAltAlleles() {
+		VariantContext vc = buildVariantContext(ImmutableList.of("father"));
+		BitSet alts = new BitSet();
+
+		Assert.assertEquals(0, SampleIndex.collectAltAlleles(vc, makeGenotype(ref, ref), alts));
+		Assert.assertTrue(alts.isEmpty());
+
+		Assert.assertEquals(1, SampleIndex.collectAltAlleles(vc, makeGenotype(alt2, alt2), alts));
+		Assert.assertTrue(alts.get(2));
+
+		Assert.assertEquals(2, SampleIndex.collectAltAlleles(vc, makeGenotype(alt2, alt1), alts));
+		Assert.assertTrue(alts.get(1));
+		Assert.assertTrue(alts.get(2));
+
+		Assert.assertEquals(1, SampleIndex.collectAltAlleles(vc, makeGenotype(Allele.NO_CALL,
+			Allele.create("C")), alts));
+		Assert.assertTrue(alts.get(1));
+	}
+
+	private VariantContext buildVariantContext(ImmutableList<String> sampleNames) {
+		ImmutableList.Builder<Genotype> genotypes = new ImmutableList.Builder<>();
+		for (String sampleName : sampleNames)
+			genotypes.add(new GenotypeBuilder(sampleName, ImmutableList.of(ref, alt1)).make());
+		return new VariantContextBuilder().chr("1").start(100).stop(100).alleles(ImmutableList.of(ref, alt1, alt2))
+			.genotypes(genotypes.build()).make();
+	}
+
+	private Genotype makeGenotype(Allele first, Allele second) {
+		return new GenotypeBuilder("father", ImmutableList.of(first, second)).make();
+	}
+
+}
@@ -0,0 +1,125 @@
+package de.charite.compbio.jannovar.htsjdk;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.tribble.Tribble;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFFileReader;
+import htsjdk.variant.vcf.VCFHeader;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for writing VCF files with {@link VariantContextWriterConstructionHelper}, in particular with multiple threads
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class VariantContextWriterConstructionHelperTest {
+
+	@Rule
+	public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+	/**
+	 * Header with contig lines, taken from test file
+	 */
+	VCFHeader header;
+
+	/**
+	 * Sorted records, enough for many BGZF blocks
+	 */
+	List<VariantContext> records;
+
+	@Before
+	public void setUp() throws Exception {
+		File vcfFile = new File(this.getClass().getResource("/inheritanceFilterTest.b37.vcf").toURI());
+		try (VCFFileReader reader = new VCFFileReader(vcfFile, false)) {
+			header = new VCFHeader(reader.getFileHeader().getMetaDataInInputOrder());
+		}
+
+		final List<Allele> alleles = ImmutableList.of(Allele.create("A", true), Allele.create("C"));
+		records = new ArrayList<>();
+		for (String contig : ImmutableList.of("1", "10"))
+			for (int i = 0; i < 20000; ++i)
+				records.add(new VariantContextBuilder().chr(contig).start(1000 + 10 * i).stop(1000 + 10 * i)
+					.alleles(alleles).id("var" + i).attribute("DP", i).make());
+	}
+
+	/**
+	 * Write the records to <code>file</code> with an index, using <code>numThreads</code> threads
+	 */
+	private void writeRecords(File file, int numThreads) {
+		try (VariantContextWriter writer = VariantContextWriterConstructionHelper.openVariantContextWriter(header,
+			file.toString(), ImmutableList.of(), true, numThreads)) {
+			for (VariantContext vc : records)
+				writer.add(vc);
+		}
+	}
+
+	private static byte[] decompress(File file) throws IOException {
+		try (InputStream stream = new BlockCompressedInputStream(new FileInputStream(file))) {
+			return ByteStreams.toByteArray(stream);
+		}
+	}
+
+	private static int countRecords(File file, String contig, int start, int end) {
+		try (VCFFileReader reader = new VCFFileReader(file, true);
+			 CloseableIterator<VariantContext> it = reader.query(contig, start, end)) {
+			int count = 0;
+			while (it.hasNext()) {
+				it.next();
+				++count;
+			}
+			return count;
+		}
+	}
+
+	@Test
+	public void testWriteBlockCompressedWithThreads() throws IOException {
+		final File sequential = new File(tmpFolder.newFolder(), "out.vcf.gz");
+		final File parallel = new File(tmpFolder.newFolder(), "out.vcf.gz");
+		writeRecords(sequential, 1);
+		writeRecords(parallel, 4);
+
+		Assert.assertArrayEquals(decompress(sequential), decompress(parallel));
+		Assert.assertTrue(Files.asByteSource(parallel).size() < decompress(parallel).length / 2);
+		// same block layout and compression as htsjdk
+		Assert.assertArrayEquals(Files.toByteArray(sequential), Files.toByteArray(parallel));
+		Assert.assertArrayEquals(decompress(Tribble.tabixIndexFile(sequential)),
+			decompress(Tribble.tabixIndexFile(parallel)));
+
+		for (String contig : ImmutableList.of("1", "10")) {
+			Assert.assertEquals(20000, countRecords(parallel, contig, 1, 1000000));
+			Assert.assertEquals(101, countRecords(parallel, contig, 100000, 101000));
+			Assert.assertEquals(countRecords(sequential, contig, 150000, 151000),
+				countRecords(parallel, contig, 150000, 151000));
+		}
+	}
+
+	@Test
+	public void testWriteUncompressedWithThreads() throws IOException {
+		final File sequential = new File(tmpFolder.newFolder(), "out.vcf");
+		final File parallel = new File(tmpFolder.newFolder(), "out.vcf");
+		writeRecords(sequential, 1);
+		writeRecords(parallel, 4);
+
+		Assert.assertArrayEquals(Files.toByteArray(sequential), Files.toByteArray(parallel));
+		Assert.assertEquals(101, countRecords(parallel, "10", 100000, 101000));
+	}
+
+}
@@ -166,4 +166,31 @@ public class GeneWiseInheritanceProcessorOneAffectedTest {
 		Assert.assertNull(result.get(6).getAttribute(KEY));
 		Assert.assertNull(result.get(6).getAttribute(KEY_SUB));
 	}
+
+	@Test
+	public void testGRCh37MultipleThreads() {
+		loadVariants("b37.");
+
+		ArrayList<VariantContext> expected = new ArrayList<>();
+		try (GeneWiseMendelianAnnotationProcessor proc = new GeneWiseMendelianAnnotationProcessor(trio, jannovarDB,
+			vc -> expected.add(vc), false)) {
+			for (VariantContext vc : variants)
+				proc.put(vc);
+		}
+
+		ArrayList<VariantContext> result = new ArrayList<>();
+		try (GeneWiseMendelianAnnotationProcessor proc = new GeneWiseMendelianAnnotationProcessor(trio, jannovarDB,
+			vc -> result.add(vc), false, 4)) {
+			for (VariantContext vc : variants)
+				proc.put(vc);
+		}
+
+		Assert.assertEquals(expected.size(), result.size());
+		for (int i = 0; i < expected.size(); ++i) {
+			Assert.assertEquals(expected.get(i).getContig(), result.get(i).getContig());
+			Assert.assertEquals(expected.get(i).getStart(), result.get(i).getStart());
+			Assert.assertEquals(expected.get(i).getAttribute(KEY), result.get(i).getAttribute(KEY));
+			Assert.assertEquals(expected.get(i).getAttribute(KEY_SUB), result.get(i).getAttribute(KEY_SUB));
+		}
+	}
 }
@@ -3,13 +3,20 @@ package de.charite.compbio.jannovar.stats.facade;
 import de.charite.compbio.jannovar.annotation.PutativeImpact;
 import de.charite.compbio.jannovar.annotation.VariantEffect;
 
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 
 /**
  * Collection of statistics by certain properties of the variants
  * <p>
  * Note that for impact and predicted functional effect, only the highest-impact ones are registered.
+ * <p>
+ * The counters for enum values are stored in <code>int</code> arrays indexed by the ordinal. Statistics that have been
+ * collected independently, e.g., for different contigs, can be combined with {@link #merge}.
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
@@ -18,131 +25,233 @@ public class Statistics {
 	/**
 	 * Counts by putative impact
 	 */
-	private Map<PutativeImpact, Integer> countPutativeImpacts;
+	private final int[] countPutativeImpacts;
 
 	/**
 	 * Counts by predicted functional effect
 	 */
-	private Map<VariantEffect, Integer> countVariantEffects;
+	private final int[] countVariantEffects;
 
 	/**
 	 * Counts by genomic region
 	 */
-	private Map<GenomeRegion, Integer> countGenomeRegion;
+	private final int[] countGenomeRegion;
 
 	/**
 	 * Count of transition/transversion variants of SNVs
 	 */
-	private Map<TsTv, Integer> tsTvCount;
+	private final int[] tsTvCount;
 
 	/**
-	 * Count of multiallelic sites
+	 * Count of multiallelic sites, indexed by number of alternative alleles
 	 */
-	private Map<Integer, Integer> altAlleleCountHist;
+	private int[] altAlleleCountHist;
 
 	/**
 	 * Occurences of per-record filters
 	 */
-	private Map<String, Integer> filterCount;
+	private final Map<String, Integer> filterCount;
 
 	/**
-	 * Number of failing/passing variants (any filter is considered failing)
+	 * Number of passing (index <code>0</code>) and failing (index <code>1</code>) variants (any filter is considered
+	 * failing)
 	 */
-	private Map<Boolean, Integer> isFilteredCount;
+	private final int[] isFilteredCount;
 
 	/**
 	 * Number of variants on the contigs
 	 */
-	private Map<String, Integer> contigCount;
+	private final Map<String, Integer> contigCount;
 
 	// Counts of variant GQ scores should already be in bcftools stats
 
 	public Statistics() {
-		this.countPutativeImpacts = new HashMap<>();
-		this.countVariantEffects = new HashMap<>();
-		this.countGenomeRegion = new HashMap<>();
-		this.tsTvCount = new HashMap<>();
-		this.altAlleleCountHist = new HashMap<>();
+		this.countPutativeImpacts = new int[PutativeImpact.values().length];
+		this.countVariantEffects = new int[VariantEffect.values().length];
+		this.countGenomeRegion = new int[GenomeRegion.values().length];
+		this.tsTvCount = new int[TsTv.values().length];
+		this.altAlleleCountHist = new int[4];
 		this.filterCount = new HashMap<>();
-		this.isFilteredCount = new HashMap<>();
+		this.isFilteredCount = new int[2];
 		this.contigCount = new HashMap<>();
 	}
 
 	public void putPutativeImpact(PutativeImpact impact) {
-		this.countPutativeImpacts.putIfAbsent(impact, 0);
-		this.countPutativeImpacts.put(impact, this.countPutativeImpacts.get(impact) + 1);
+		++this.countPutativeImpacts[impact.ordinal()];
 	}
 
 	public void putVariantEffect(VariantEffect effect) {
-		this.countVariantEffects.putIfAbsent(effect, 0);
-		this.countVariantEffects.put(effect, this.countVariantEffects.get(effect) + 1);
+		++this.countVariantEffects[effect.ordinal()];
 	}
 
 	public void putGenomeRegion(GenomeRegion region) {
-		this.countGenomeRegion.putIfAbsent(region, 0);
-		this.countGenomeRegion.put(region, this.countGenomeRegion.get(region) + 1);
+		++this.countGenomeRegion[region.ordinal()];
 	}
 
 	public void putTsTv(TsTv tsTv) {
-		this.tsTvCount.putIfAbsent(tsTv, 0);
-		this.tsTvCount.put(tsTv, this.tsTvCount.get(tsTv) + 1);
+		++this.tsTvCount[tsTv.ordinal()];
 	}
 
 	public void putAltAlleleCount(int count) {
-		this.altAlleleCountHist.putIfAbsent(count, 0);
-		this.altAlleleCountHist.put(count, this.altAlleleCountHist.get(count) + 1);
+		if (count >= altAlleleCountHist.length)
+			altAlleleCountHist = Arrays.copyOf(altAlleleCountHist, Math.max(count + 1, 2 * altAlleleCountHist.length));
+		++this.altAlleleCountHist[count];
 	}
 
 	public void putFilter(String filter) {
 		if (".".equals(filter) || "PASS".equals(filter) || "".equals(filter)) {
-			isFilteredCount.putIfAbsent(false, 0);
-			isFilteredCount.put(false, isFilteredCount.get(false) + 1);
+			++isFilteredCount[0];
 		} else {
-			isFilteredCount.putIfAbsent(true, 0);
-			isFilteredCount.put(false, isFilteredCount.get(true) + 1);
+			++isFilteredCount[1];
 			String[] filters = filter.split(";");
-			for (String filterValue : filters) {
-				filterCount.putIfAbsent(filterValue, 0);
-				filterCount.put(filterValue, filterCount.get(filterValue) + 1);
-			}
+			for (String filterValue : filters)
+				filterCount.merge(filterValue, 1, Integer::sum);
 		}
 	}
 
 	public void putContig(String contig) {
-		contigCount.putIfAbsent(contig, 0);
-		contigCount.put(contig, contigCount.get(contig) + 1);
+		contigCount.merge(contig, 1, Integer::sum);
+	}
+
+	/**
+	 * Add the counts from <code>other</code> to this object
+	 *
+	 * @param other the {@link Statistics} to add
+	 */
+	public void merge(Statistics other) {
+		addTo(countPutativeImpacts, other.countPutativeImpacts);
+		addTo(countVariantEffects, other.countVariantEffects);
+		addTo(countGenomeRegion, other.countGenomeRegion);
+		addTo(tsTvCount, other.tsTvCount);
+		if (other.altAlleleCountHist.length > altAlleleCountHist.length)
+			altAlleleCountHist = Arrays.copyOf(altAlleleCountHist, other.altAlleleCountHist.length);
+		addTo(altAlleleCountHist, other.altAlleleCountHist);
+		for (Entry<String, Integer> e : other.filterCount.entrySet())
+			filterCount.merge(e.getKey(), e.getValue(), Integer::sum);
+		addTo(isFilteredCount, other.isFilteredCount);
+		for (Entry<String, Integer> e : other.contigCount.entrySet())
+			contigCount.merge(e.getKey(), e.getValue(), Integer::sum);
+	}
+
+	/**
+	 * Add the values of <code>src</code> to the ones of <code>dst</code>, which is at least as long
+	 */
+	private static void addTo(int[] dst, int[] src) {
+		for (int i = 0; i < src.length; ++i)
+			dst[i] += src[i];
+	}
+
+	/**
+	 * @return count for the putative impact, <code>0</code> if not seen
+	 */
+	public int getPutativeImpactCount(PutativeImpact impact) {
+		return countPutativeImpacts[impact.ordinal()];
+	}
+
+	/**
+	 * @return count for the predicted functional effect, <code>0</code> if not seen
+	 */
+	public int getVariantEffectCount(VariantEffect effect) {
+		return countVariantEffects[effect.ordinal()];
+	}
+
+	/**
+	 * @return count for the genomic region, <code>0</code> if not seen
+	 */
+	public int getGenomeRegionCount(GenomeRegion region) {
+		return countGenomeRegion[region.ordinal()];
+	}
+
+	/**
+	 * @return count of transitions or transversions
+	 */
+	public int getTsTvCount(TsTv tsTv) {
+		return tsTvCount[tsTv.ordinal()];
 	}
 
+	/**
+	 * @return number of variants with <code>count</code> alternative alleles
+	 */
+	public int getAltAlleleCount(int count) {
+		return (count < altAlleleCountHist.length) ? altAlleleCountHist[count] : 0;
+	}
+
+	/**
+	 * @return number of failing variants if <code>isFiltered</code>, number of passing variants otherwise
+	 */
+	public int getIsFilteredCount(boolean isFiltered) {
+		return isFilteredCount[isFiltered ? 1 : 0];
+	}
+
+	/**
+	 * @return counts by putative impact, without the impacts not seen
+	 */
 	public Map<PutativeImpact, Integer> getCountPutativeImpacts() {
-		return countPutativeImpacts;
+		return toEnumMap(PutativeImpact.class, countPutativeImpacts);
 	}
 
+	/**
+	 * @return counts by predicted functional effect, without the effects not seen
+	 */
 	public Map<VariantEffect, Integer> getCountVariantEffects() {
-		return countVariantEffects;
+		return toEnumMap(VariantEffect.class, countVariantEffects);
 	}
 
+	/**
+	 * @return counts by genomic region, without the regions not seen
+	 */
 	public Map<GenomeRegion, Integer> getCountGenomeRegion() {
-		return countGenomeRegion;
+		return toEnumMap(GenomeRegion.class, countGenomeRegion);
 	}
 
+	/**
+	 * @return count of transitions and transversions, without the ones not seen
+	 */
 	public Map<TsTv, Integer> getTsTvCount() {
-		return tsTvCount;
+		return toEnumMap(TsTv.class, tsTvCount);
 	}
 
+	/**
+	 * @return histogram of alternative allele counts, without the counts not seen
+	 */
 	public Map<Integer, Integer> getAltAlleleCountHist() {
-		return altAlleleCountHist;
+		Map<Integer, Integer> result = new TreeMap<>();
+		for (int i = 0; i < altAlleleCountHist.length; ++i)
+			if (altAlleleCountHist[i] != 0)
+				result.put(i, altAlleleCountHist[i]);
+		return result;
 	}
 
 	public Map<String, Integer> getFilterCount() {
 		return filterCount;
 	}
 
+	/**
+	 * @return number of failing/passing variants, without the ones not seen
+	 */
 	public Map<Boolean, Integer> getIsFilteredCount() {
-		return isFilteredCount;
+		Map<Boolean, Integer> result = new HashMap<>();
+		if (isFilteredCount[0] != 0)
+			result.put(false, isFilteredCount[0]);
+		if (isFilteredCount[1] != 0)
+			result.put(true, isFilteredCount[1]);
+		return result;
 	}
 
 	public Map<String, Integer> getContigCount() {
 		return contigCount;
 	}
 
+	/**
+	 * @return {@link EnumMap} with the non-zero <code>counts</code>, indexed by ordinal of <code>clazz</code>
+	 */
+	private static <E extends Enum<E>> EnumMap<E, Integer> toEnumMap(Class<E> clazz, int[] counts) {
+		EnumMap<E, Integer> result = new EnumMap<>(clazz);
+		final E[] values = clazz.getEnumConstants();
+		for (int i = 0; i < counts.length; ++i)
+			if (counts[i] != 0)
+				result.put(values[i], counts[i]);
+		return result;
+	}
+
 }
@@ -1,10 +1,10 @@
 package de.charite.compbio.jannovar.stats.facade;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSortedSet;
 import de.charite.compbio.jannovar.annotation.VariantAnnotations;
 import de.charite.compbio.jannovar.annotation.VariantEffect;
+import de.charite.compbio.jannovar.htsjdk.SampleIndex;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.Genotype;
 import htsjdk.variant.variantcontext.VariantContext;
@@ -14,28 +14,61 @@ import java.util.*;
 /**
  * Facade class for collecting statistics from a {@link VariantContext} and a list of {@link VariantAnnotations}
  * objects.
+ * <p>
+ * The per-sample statistics are indexed by the position of the sample in the {@link SampleIndex}, so the genotypes are
+ * accessed by index rather than by sample name. Collectors for the same samples that have been filled independently,
+ * e.g., for different contigs on different threads, can be combined with {@link #merge}.
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
 public class StatisticsCollector {
 
+	/**
+	 * Genome region for each {@link VariantEffect}, indexed by ordinal, <code>null</code> if the effect does not
+	 * determine the region
+	 */
+	private static final GenomeRegion[] EFFECT_REGIONS = buildEffectRegions();
+
+	/**
+	 * Index of the sample names
+	 */
+	private final SampleIndex sampleIndex;
+
 	/**
 	 * Sample names
 	 */
 	ImmutableList<String> sampleNames;
 
 	/**
-	 * Per-sample statistics, <code>null</code> codes for statistics on the variants regardless of genotype (i.e.,
-	 * het/hom will all be 0, for example).
+	 * Statistics on the variants regardless of genotype (i.e., het/hom will all be 0, for example)
 	 */
-	private Map<String, Statistics> perSampleStats;
+	private final Statistics allStats;
+
+	/**
+	 * Per-sample statistics, in the order of {@link #sampleNames}
+	 */
+	private final Statistics[] sampleStats;
+
+	/**
+	 * Reused buffer for the indices of the alternative alleles of a genotype
+	 */
+	private final BitSet altAlleles = new BitSet();
 
 	public StatisticsCollector(Collection<String> sampleNames) {
-		this.sampleNames = ImmutableList.copyOf(sampleNames);
-		perSampleStats = new HashMap<>();
-		perSampleStats.put(null, new Statistics());
-		for (String name : sampleNames)
-			perSampleStats.put(name, new Statistics());
+		this(new SampleIndex(sampleNames));
+	}
+
+	/**
+	 * @param sampleIndex {@link SampleIndex} of the samples to collect statistics for, e.g., built from the
+	 *                    {@link htsjdk.variant.vcf.VCFHeader}
+	 */
+	public StatisticsCollector(SampleIndex sampleIndex) {
+		this.sampleIndex = sampleIndex;
+		this.sampleNames = sampleIndex.getSampleNames();
+		this.allStats = new Statistics();
+		this.sampleStats = new Statistics[this.sampleNames.size()];
+		for (int i = 0; i < sampleStats.length; ++i)
+			sampleStats[i] = new Statistics();
 	}
 
 	/**
@@ -48,194 +81,155 @@ public class StatisticsCollector {
 		// Counts for the variant regardless of genotype
 		//
 		// register per-variant counts
-		putAltAlleleCount(vc, null);
-		putFilter(vc, null);
-		putContig(vc, null);
+		allStats.putAltAlleleCount(vc.getNAlleles() - 1);
+		putFilter(vc, allStats);
+		allStats.putContig(vc.getContig());
 		// register per-allele counts
 		if (alleleAnnotations != null)
 			for (int i = 1; i < vc.getNAlleles(); ++i) {
-				putPutativeImpact(null, alleleAnnotations.get(i - 1));
-				putVariantEffect(null, alleleAnnotations.get(i - 1));
-				putGenomeRegion(null, alleleAnnotations.get(i - 1));
-				putTsTv(vc, null, i - 1);
+				putPutativeImpact(allStats, alleleAnnotations.get(i - 1));
+				putVariantEffect(allStats, alleleAnnotations.get(i - 1));
+				putGenomeRegion(allStats, alleleAnnotations.get(i - 1));
+				putTsTv(vc, allStats, i);
 			}
 
 		// Counts for the variants for each sample
-		HashSet<Integer> seen = new HashSet<>();
-		for (String sampleName : sampleNames) {
-			seen.clear();
-			Genotype gt = vc.getGenotype(sampleName);
-			if (gt.isHomRef() || gt.isNoCall())
-				continue; // skip non-alternative genotypes
+		for (int sampleIdx = 0; sampleIdx < sampleStats.length; ++sampleIdx) {
+			final Genotype gt = sampleIndex.getGenotype(vc, sampleIdx);
+			if (gt == null || gt.isHomRef() || gt.isNoCall())
+				continue; // skip missing and non-alternative genotypes
+			final Statistics stats = sampleStats[sampleIdx];
 
-			// register per-variant counts
-			putContig(vc, sampleName);
-			putAltAlleleCount(vc, sampleName);
-			putFilter(vc, sampleName);
-
-			// register per-allele counts
-			for (Allele allele : gt.getAlleles()) {
-				final int aIdx = vc.getAlleleIndex(allele);
-				// ignore wild-type allele, count each variant allele only once
-				if (alleleAnnotations != null)
-					if (aIdx != 0 && !seen.contains(aIdx)) {
-						putPutativeImpact(sampleName, alleleAnnotations.get(aIdx - 1));
-						putVariantEffect(sampleName, alleleAnnotations.get(aIdx - 1));
-						putGenomeRegion(sampleName, alleleAnnotations.get(aIdx - 1));
-						putTsTv(vc, sampleName, aIdx);
-					}
-				seen.add(aIdx);
-			}
-		}
-	}
+			// collect distinct alternative allele indices (ignoring no-calls)
+			final int numAlts = SampleIndex.collectAltAlleles(vc, gt, altAlleles);
 
-	private void putContig(VariantContext vc, String sampleName) {
-		final Statistics stats = perSampleStats.get(sampleName);
-		if (sampleName == null) {
+			// register per-variant counts
 			stats.putContig(vc.getContig());
-		} else {
-			final Genotype gt = vc.getGenotype(sampleName);
-			if (!gt.isHomRef() && !gt.isNoCall())
-				stats.putContig(vc.getContig());
+			stats.putAltAlleleCount(numAlts);
+			putFilter(vc, stats);
+
+			// register per-allele counts, ignore wild-type allele, count each variant allele only once
+			if (alleleAnnotations != null)
+				for (int aIdx = altAlleles.nextSetBit(0); aIdx >= 0; aIdx = altAlleles.nextSetBit(aIdx + 1)) {
+					putPutativeImpact(stats, alleleAnnotations.get(aIdx - 1));
+					putVariantEffect(stats, alleleAnnotations.get(aIdx - 1));
+					putGenomeRegion(stats, alleleAnnotations.get(aIdx - 1));
+					putTsTv(vc, stats, aIdx);
+				}
 		}
 	}
 
-	private void putAltAlleleCount(VariantContext vc, String sampleName) {
-		final Statistics stats = perSampleStats.get(sampleName);
-		if (sampleName == null) {
-			stats.putAltAlleleCount(vc.getNAlleles() - 1);
-		} else {
-			final Genotype gt = vc.getGenotype(sampleName);
-			int count = 0;
-			HashSet<Integer> seen = new HashSet<>();
-			for (Allele a : gt.getAlleles()) {
-				final int idx = vc.getAlleleIndex(a);
-				if (!seen.contains(idx) && idx != 0)
-					count += 1;
-				seen.add(idx);
-			}
-			stats.putAltAlleleCount(count);
-		}
+	/**
+	 * Add the counts from <code>other</code> to this object
+	 *
+	 * @param other the {@link StatisticsCollector} to add, must have the same sample names
+	 * @throws IllegalArgumentException if the sample names differ
+	 */
+	public void merge(StatisticsCollector other) {
+		if (!sampleNames.equals(other.sampleNames))
+			throw new IllegalArgumentException("Cannot merge statistics of different samples");
+		allStats.merge(other.allStats);
+		for (int i = 0; i < sampleStats.length; ++i)
+			sampleStats[i].merge(other.sampleStats[i]);
 	}
 
-	private void putFilter(VariantContext vc, String sampleName) {
-		final Statistics stats = perSampleStats.get(sampleName);
-		for (String ft : vc.getFilters())
-			stats.putFilter(ft);
+	/**
+	 * Register the filters of <code>vc</code>, once per variant
+	 */
+	private static void putFilter(VariantContext vc, Statistics stats) {
+		if (vc.isFiltered())
+			stats.putFilter(Joiner.on(';').join(vc.getFilters()));
+		else
+			stats.putFilter("PASS");
 	}
 
-	private void putVariantEffect(String sampleName, VariantAnnotations alleleAnno) {
-		final Statistics stats = perSampleStats.get(sampleName);
+	private static void putVariantEffect(Statistics stats, VariantAnnotations alleleAnno) {
 		if (alleleAnno != null && alleleAnno.getHighestImpactAnnotation() != null
 			&& alleleAnno.getHighestImpactAnnotation().getMostPathogenicVarType() != null)
 			stats.putVariantEffect(alleleAnno.getHighestImpactAnnotation().getMostPathogenicVarType());
 	}
 
-	private void putGenomeRegion(String sampleName, VariantAnnotations alleleAnno) {
-		final Statistics stats = perSampleStats.get(sampleName);
-		if (alleleAnno.getHighestImpactAnnotation() == null
+	private static void putGenomeRegion(Statistics stats, VariantAnnotations alleleAnno) {
+		if (alleleAnno == null || alleleAnno.getHighestImpactAnnotation() == null
 			|| alleleAnno.getHighestImpactAnnotation().getEffects() == null)
 			return;
-		final ImmutableSet<VariantEffect> effects = alleleAnno.getHighestImpactAnnotation().getEffects();
-		final ImmutableSortedSet<VariantEffect> codingEffects = ImmutableSortedSet.of(
-			VariantEffect.FRAMESHIFT_ELONGATION, VariantEffect.FRAMESHIFT_TRUNCATION,
-			VariantEffect.FRAMESHIFT_VARIANT, VariantEffect.INTERNAL_FEATURE_ELONGATION,
-			VariantEffect.FEATURE_TRUNCATION, VariantEffect.MNV, VariantEffect.COMPLEX_SUBSTITUTION,
-			VariantEffect.STOP_GAINED, VariantEffect.STOP_LOST, VariantEffect.START_LOST,
-			VariantEffect.MISSENSE_VARIANT, VariantEffect.INFRAME_DELETION, VariantEffect.INFRAME_DELETION,
-			VariantEffect.DISRUPTIVE_INFRAME_INSERTION, VariantEffect.DISRUPTIVE_INFRAME_INSERTION,
-			VariantEffect.STOP_RETAINED_VARIANT, VariantEffect.INITIATOR_CODON_VARIANT,
-			VariantEffect.SYNONYMOUS_VARIANT, VariantEffect.NON_CODING_TRANSCRIPT_EXON_VARIANT,
-			VariantEffect.EXON_VARIANT);
-		final ImmutableSortedSet<VariantEffect> intronicEffects = ImmutableSortedSet.of(
-			VariantEffect.SPLICE_ACCEPTOR_VARIANT, VariantEffect.SPLICE_DONOR_VARIANT,
-			VariantEffect.SPLICE_REGION_VARIANT, VariantEffect.FIVE_PRIME_UTR_INTRON_VARIANT,
-			VariantEffect.THREE_PRIME_UTR_INTRON_VARIANT, VariantEffect.INTRON_VARIANT,
-			VariantEffect.CODING_TRANSCRIPT_INTRON_VARIANT, VariantEffect.NON_CODING_TRANSCRIPT_INTRON_VARIANT,
-			VariantEffect.INTRON_VARIANT);
-		final ImmutableSortedSet<VariantEffect> utr5Effects = ImmutableSortedSet.of(
-			VariantEffect.FIVE_PRIME_UTR_EXON_VARIANT, VariantEffect.FIVE_PRIME_UTR_TRUNCATION,
-			VariantEffect.FIVE_PRIME_UTR_PREMATURE_START_CODON_GAIN_VARIANT);
-		final ImmutableSortedSet<VariantEffect> utr3Effects = ImmutableSortedSet
-			.of(VariantEffect.THREE_PRIME_UTR_EXON_VARIANT, VariantEffect.THREE_PRIME_UTR_TRUNCATION);
-		final ImmutableSortedSet<VariantEffect> upstreamEffects = ImmutableSortedSet
-			.of(VariantEffect.UPSTREAM_GENE_VARIANT);
-		final ImmutableSortedSet<VariantEffect> downstreamEffects = ImmutableSortedSet
-			.of(VariantEffect.DOWNSTREAM_GENE_VARIANT);
-		final ImmutableSortedSet<VariantEffect> intergenicEffects = ImmutableSortedSet
-			.of(VariantEffect.INTERGENIC_VARIANT);
-
-		for (VariantEffect effect : effects) {
-			if (codingEffects.contains(effect)) {
-				stats.putGenomeRegion(GenomeRegion.EXONIC);
-				break;
-			} else if (intronicEffects.contains(effect)) {
-				stats.putGenomeRegion(GenomeRegion.INTRONIC);
-				break;
-			} else if (utr5Effects.contains(effect)) {
-				stats.putGenomeRegion(GenomeRegion.UTR5);
-				break;
-			} else if (utr3Effects.contains(effect)) {
-				stats.putGenomeRegion(GenomeRegion.UTR3);
-				break;
-			} else if (upstreamEffects.contains(effect)) {
-				stats.putGenomeRegion(GenomeRegion.UPSTREAM);
-				break;
-			} else if (downstreamEffects.contains(effect)) {
-				stats.putGenomeRegion(GenomeRegion.DOWNSTREAM);
-				break;
-			} else if (intergenicEffects.contains(effect)) {
-				stats.putGenomeRegion(GenomeRegion.INTERGENIC);
+		// the first effect that determines a region is used
+		for (VariantEffect effect : alleleAnno.getHighestImpactAnnotation().getEffects()) {
+			final GenomeRegion region = EFFECT_REGIONS[effect.ordinal()];
+			if (region != null) {
+				stats.putGenomeRegion(region);
 				break;
 			}
 		}
 	}
 
-	private void putTsTv(VariantContext vc, String sampleName, int alleleIdx) {
-		final Statistics stats = perSampleStats.get(sampleName);
+	/**
+	 * @return genome region for each {@link VariantEffect}, indexed by ordinal
+	 */
+	private static GenomeRegion[] buildEffectRegions() {
+		final GenomeRegion[] result = new GenomeRegion[VariantEffect.values().length];
+		setRegion(result, GenomeRegion.EXONIC, VariantEffect.FRAMESHIFT_ELONGATION,
+			VariantEffect.FRAMESHIFT_TRUNCATION, VariantEffect.FRAMESHIFT_VARIANT,
+			VariantEffect.INTERNAL_FEATURE_ELONGATION, VariantEffect.FEATURE_TRUNCATION, VariantEffect.MNV,
+			VariantEffect.COMPLEX_SUBSTITUTION, VariantEffect.STOP_GAINED, VariantEffect.STOP_LOST,
+			VariantEffect.START_LOST, VariantEffect.MISSENSE_VARIANT, VariantEffect.INFRAME_DELETION,
+			VariantEffect.DISRUPTIVE_INFRAME_INSERTION, VariantEffect.STOP_RETAINED_VARIANT,
+			VariantEffect.INITIATOR_CODON_VARIANT, VariantEffect.SYNONYMOUS_VARIANT,
+			VariantEffect.NON_CODING_TRANSCRIPT_EXON_VARIANT, VariantEffect.EXON_VARIANT);
+		setRegion(result, GenomeRegion.INTRONIC, VariantEffect.SPLICE_ACCEPTOR_VARIANT,
+			VariantEffect.SPLICE_DONOR_VARIANT, VariantEffect.SPLICE_REGION_VARIANT,
+			VariantEffect.FIVE_PRIME_UTR_INTRON_VARIANT, VariantEffect.THREE_PRIME_UTR_INTRON_VARIANT,
+			VariantEffect.INTRON_VARIANT, VariantEffect.CODING_TRANSCRIPT_INTRON_VARIANT,
+			VariantEffect.NON_CODING_TRANSCRIPT_INTRON_VARIANT);
+		setRegion(result, GenomeRegion.UTR5, VariantEffect.FIVE_PRIME_UTR_EXON_VARIANT,
+			VariantEffect.FIVE_PRIME_UTR_TRUNCATION, VariantEffect.FIVE_PRIME_UTR_PREMATURE_START_CODON_GAIN_VARIANT);
+		setRegion(result, GenomeRegion.UTR3, VariantEffect.THREE_PRIME_UTR_EXON_VARIANT,
+			VariantEffect.THREE_PRIME_UTR_TRUNCATION);
+		setRegion(result, GenomeRegion.UPSTREAM, VariantEffect.UPSTREAM_GENE_VARIANT);
+		setRegion(result, GenomeRegion.DOWNSTREAM, VariantEffect.DOWNSTREAM_GENE_VARIANT);
+		setRegion(result, GenomeRegion.INTERGENIC, VariantEffect.INTERGENIC_VARIANT);
+		return result;
+	}
+
+	private static void setRegion(GenomeRegion[] regions, GenomeRegion region, VariantEffect... effects) {
+		for (VariantEffect effect : effects)
+			regions[effect.ordinal()] = region;
+	}
+
+	private static void putTsTv(VariantContext vc, Statistics stats, int alleleIdx) {
 		final Allele ref = vc.getReference();
 		final Allele alt = vc.getAlleles().get(alleleIdx);
 		// Consider ts/tv if it is a SNV
 		if (ref.length() == 1 && !alt.isSymbolic() && alt.length() == 1) {
-			final String refStr = ref.getBaseString().toUpperCase();
-			final String altStr = alt.getBaseString().toUpperCase();
-			if (isTransition(refStr, altStr))
+			final char refChar = Character.toUpperCase((char) ref.getBases()[0]);
+			final char altChar = Character.toUpperCase((char) alt.getBases()[0]);
+			if (isTransition(refChar, altChar))
 				stats.putTsTv(TsTv.TS);
-			else if (isTransversion(refStr, altStr))
+			else if (isTransversion(refChar, altChar))
 				stats.putTsTv(TsTv.TV);
 		}
 	}
 
-	private boolean isTransversion(String refStr, String altStr) {
-		switch (refStr + altStr) {
-			case "AT":
-			case "TA":
-			case "GC":
-			case "CG":
-			case "AC":
-			case "CA":
-			case "GT":
-			case "TG":
-				return true;
-			default:
-				return false;
-		}
+	/**
+	 * @return whether or not the change from <code>ref</code> to <code>alt</code> is a transversion
+	 */
+	private static boolean isTransversion(char ref, char alt) {
+		return isNucleotide(ref) && isNucleotide(alt) && ref != alt && !isTransition(ref, alt);
 	}
 
-	private boolean isTransition(String refStr, String altStr) {
-		switch (refStr + altStr) {
-			case "AG":
-			case "GA":
-			case "CT":
-			case "TC":
-				return true;
-			default:
-				return false;
-		}
+	/**
+	 * @return whether or not the change from <code>ref</code> to <code>alt</code> is a transition
+	 */
+	private static boolean isTransition(char ref, char alt) {
+		return (ref == 'A' && alt == 'G') || (ref == 'G' && alt == 'A') || (ref == 'C' && alt == 'T')
+			|| (ref == 'T' && alt == 'C');
+	}
+
+	private static boolean isNucleotide(char c) {
+		return c == 'A' || c == 'C' || c == 'G' || c == 'T';
 	}
 
-	private void putPutativeImpact(String sampleName, VariantAnnotations alleleAnno) {
-		final Statistics stats = perSampleStats.get(sampleName);
+	private static void putPutativeImpact(Statistics stats, VariantAnnotations alleleAnno) {
 		if (alleleAnno != null && alleleAnno.getHighestImpactAnnotation() != null
 			&& alleleAnno.getHighestImpactAnnotation().getPutativeImpact() != null)
 			stats.putPutativeImpact(alleleAnno.getHighestImpactAnnotation().getPutativeImpact());
@@ -245,8 +239,31 @@ public class StatisticsCollector {
 		return sampleNames;
 	}
 
+	/**
+	 * @return statistics on the variants regardless of genotype
+	 */
+	public Statistics getAllStatistics() {
+		return allStats;
+	}
+
+	/**
+	 * @param sampleIdx index of the sample in {@link #getSampleNames}
+	 * @return statistics for the sample
+	 */
+	public Statistics getSampleStatistics(int sampleIdx) {
+		return sampleStats[sampleIdx];
+	}
+
+	/**
+	 * @return per-sample statistics by sample name, <code>null</code> for the statistics on the variants regardless of
+	 * genotype
+	 */
 	public Map<String, Statistics> getPerSampleStats() {
-		return perSampleStats;
+		Map<String, Statistics> result = new HashMap<>();
+		result.put(null, allStats);
+		for (int i = 0; i < sampleStats.length; ++i)
+			result.put(sampleNames.get(i), sampleStats[i]);
+		return result;
 	}
 
 }
@@ -9,10 +9,18 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
 
 /**
  * Implementation of writing the statistics to a CSV file
+ * <p>
+ * The per-sample columns are written in lexicographic order of the sample names, independent of the order of the
+ * samples in the {@link StatisticsCollector}.
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
@@ -21,9 +29,17 @@ public class StatisticsWriter implements AutoCloseable {
 	private StatisticsCollector statsCollector;
 	PrintWriter writer;
 
+	/**
+	 * Indices of the samples in <code>statsCollector</code>, in the order of the columns
+	 */
+	private final int[] sampleColumns;
+
 	public StatisticsWriter(StatisticsCollector statsCollector, File targetPath) throws FileNotFoundException {
 		this.statsCollector = statsCollector;
 		this.writer = new PrintWriter(targetPath);
+		final ImmutableList<String> sampleNames = statsCollector.getSampleNames();
+		this.sampleColumns = IntStream.range(0, sampleNames.size()).boxed()
+			.sorted(Comparator.comparing(sampleNames::get)).mapToInt(Integer::intValue).toArray();
 	}
 
 	public void writeStatistics() throws FileNotFoundException {
@@ -40,56 +56,56 @@ public class StatisticsWriter implements AutoCloseable {
 
 	private void printHeader(String token) {
 		writer.print(token + "\tALL");
-		if (!statsCollector.getSampleNames().isEmpty())
-			writer.println("\t" + Joiner.on('\t').join(statsCollector.getSampleNames()));
-		else
-			writer.println();
+		for (int sampleIdx : sampleColumns)
+			writer.print("\t" + statsCollector.getSampleNames().get(sampleIdx));
+		writer.println();
+	}
+
+	/**
+	 * Print row with the count for all variants and each sample
+	 *
+	 * @param label the label of the row
+	 * @param count extracts the count from the {@link Statistics}
+	 */
+	private void printRow(String label, ToIntFunction<Statistics> count) {
+		ArrayList<String> arr = new ArrayList<>();
+		arr.add(label);
+		arr.add(Integer.toString(count.applyAsInt(statsCollector.getAllStatistics())));
+		for (int sampleIdx : sampleColumns)
+			arr.add(Integer.toString(count.applyAsInt(statsCollector.getSampleStatistics(sampleIdx))));
+		writer.println(Joiner.on('\t').join(arr));
+	}
+
+	/**
+	 * @return union of the keys returned by <code>keys</code> for all variants and each sample, sorted
+	 */
+	private <T extends Comparable<T>> TreeSet<T> collectKeys(Function<Statistics, Collection<T>> keys) {
+		TreeSet<T> result = new TreeSet<>(keys.apply(statsCollector.getAllStatistics()));
+		for (int i = 0; i < statsCollector.getSampleNames().size(); ++i)
+			result.addAll(keys.apply(statsCollector.getSampleStatistics(i)));
+		return result;
 	}
 
 	private void writeVariantEffects() {
-		TreeSet<VariantEffect> keys = new TreeSet<>();
-		for (Statistics stats : statsCollector.getPerSampleStats().values())
-			keys.addAll(stats.getCountVariantEffects().keySet());
+		TreeSet<VariantEffect> keys = collectKeys(stats -> stats.getCountVariantEffects().keySet());
 
 		writer.println();
 		writer.println("[variant_effects]");
 		printHeader("variant_effect");
 
-		for (VariantEffect effect : keys) {
-			ArrayList<String> arr = new ArrayList<>();
-			arr.add(effect.toString());
-			arr.add(Integer.toString(
-				statsCollector.getPerSampleStats().get(null).getCountVariantEffects().getOrDefault(effect, 0)));
-
-			for (String name : statsCollector.getSampleNames()) {
-				arr.add(Integer.toString(
-					statsCollector.getPerSampleStats().get(name).getCountVariantEffects().getOrDefault(effect, 0)));
-			}
-			writer.println(Joiner.on('\t').join(arr));
-		}
+		for (VariantEffect effect : keys)
+			printRow(effect.toString(), stats -> stats.getVariantEffectCount(effect));
 	}
 
 	private void writeGenomeRegions() {
-		TreeSet<GenomeRegion> keys = new TreeSet<>();
-		for (Statistics stats : statsCollector.getPerSampleStats().values())
-			keys.addAll(stats.getCountGenomeRegion().keySet());
+		TreeSet<GenomeRegion> keys = collectKeys(stats -> stats.getCountGenomeRegion().keySet());
 
 		writer.println();
 		writer.println("[genome_regions]");
 		printHeader("genome_region");
 
-		for (GenomeRegion region : keys) {
-			ArrayList<String> arr = new ArrayList<>();
-			arr.add(region.toString());
-			arr.add(Integer.toString(
-				statsCollector.getPerSampleStats().get(null).getCountGenomeRegion().getOrDefault(region, 0)));
-
-			for (String name : statsCollector.getSampleNames()) {
-				arr.add(Integer.toString(
-					statsCollector.getPerSampleStats().get(name).getCountGenomeRegion().getOrDefault(region, 0)));
-			}
-			writer.println(Joiner.on('\t').join(arr));
-		}
+		for (GenomeRegion region : keys)
+			printRow(region.toString(), stats -> stats.getGenomeRegionCount(region));
 	}
 
 	private void writeTsTvCount() {
@@ -97,62 +113,28 @@ public class StatisticsWriter implements AutoCloseable {
 		writer.println("[ts_tv_count]");
 		printHeader("ts_tv_count");
 
-		for (TsTv tsTv : TsTv.values()) {
-			ArrayList<String> arr = new ArrayList<>();
-			arr.add(tsTv.toString());
-			arr.add(Integer
-				.toString(statsCollector.getPerSampleStats().get(null).getTsTvCount().getOrDefault(tsTv, 0)));
-
-			for (String name : statsCollector.getSampleNames()) {
-				arr.add(Integer
-					.toString(statsCollector.getPerSampleStats().get(name).getTsTvCount().getOrDefault(tsTv, 0)));
-			}
-			writer.println(Joiner.on('\t').join(arr));
-		}
+		for (TsTv tsTv : TsTv.values())
+			printRow(tsTv.toString(), stats -> stats.getTsTvCount(tsTv));
 	}
 
 	private void writeAltAlleleCountHist() {
-		TreeSet<Integer> keys = new TreeSet<>();
-		for (Statistics stats : statsCollector.getPerSampleStats().values())
-			keys.addAll(stats.getAltAlleleCountHist().keySet());
+		TreeSet<Integer> keys = collectKeys(stats -> stats.getAltAlleleCountHist().keySet());
 
 		writer.println();
 		writer.println("[alt_allele_count]");
 		printHeader("alt_allele_count");
-		for (Integer count : keys) {
-			ArrayList<String> arr = new ArrayList<>();
-			arr.add(count.toString());
-			arr.add(Integer.toString(
-				statsCollector.getPerSampleStats().get(null).getAltAlleleCountHist().getOrDefault(count, 0)));
-
-			for (String name : statsCollector.getSampleNames()) {
-				arr.add(Integer.toString(
-					statsCollector.getPerSampleStats().get(name).getAltAlleleCountHist().getOrDefault(count, 0)));
-			}
-			writer.println(Joiner.on('\t').join(arr));
-		}
+		for (Integer count : keys)
+			printRow(count.toString(), stats -> stats.getAltAlleleCount(count));
 	}
 
 	private void writeFilterCount() {
-		TreeSet<String> keys = new TreeSet<>();
-		for (Statistics stats : statsCollector.getPerSampleStats().values())
-			keys.addAll(stats.getFilterCount().keySet());
+		TreeSet<String> keys = collectKeys(stats -> stats.getFilterCount().keySet());
 
 		writer.println();
 		writer.println("[filter_count]");
 		printHeader("filter");
-		for (String filter : keys) {
-			ArrayList<String> arr = new ArrayList<>();
-			arr.add(filter);
-			arr.add(Integer
-				.toString(statsCollector.getPerSampleStats().get(null).getFilterCount().getOrDefault(filter, 0)));
-
-			for (String name : statsCollector.getSampleNames()) {
-				arr.add(Integer.toString(
-					statsCollector.getPerSampleStats().get(name).getFilterCount().getOrDefault(filter, 0)));
-			}
-			writer.println(Joiner.on('\t').join(arr));
-		}
+		for (String filter : keys)
+			printRow(filter, stats -> stats.getFilterCount().getOrDefault(filter, 0));
 	}
 
 	private void writeIsFilteredCount() {
@@ -160,66 +142,30 @@ public class StatisticsWriter implements AutoCloseable {
 		writer.println("[is_filtered_count]");
 		printHeader("is_filtered");
 
-		for (Boolean isFiltered : ImmutableList.of(false, true)) {
-			ArrayList<String> arr = new ArrayList<>();
-			if (isFiltered)
-				arr.add("FILTER");
-			else
-				arr.add("PASS");
-			arr.add(Integer.toString(
-				statsCollector.getPerSampleStats().get(null).getIsFilteredCount().getOrDefault(isFiltered, 0)));
-
-			for (String name : statsCollector.getSampleNames()) {
-				arr.add(Integer.toString(
-					statsCollector.getPerSampleStats().get(name).getIsFilteredCount().getOrDefault(isFiltered, 0)));
-			}
-			writer.println(Joiner.on('\t').join(arr));
-		}
+		for (Boolean isFiltered : ImmutableList.of(false, true))
+			printRow(isFiltered ? "FILTER" : "PASS", stats -> stats.getIsFilteredCount(isFiltered));
 	}
 
 	private void writePutativeImpacts() {
-		TreeSet<PutativeImpact> keys = new TreeSet<>();
-		for (Statistics stats : statsCollector.getPerSampleStats().values())
-			keys.addAll(stats.getCountPutativeImpacts().keySet());
+		TreeSet<PutativeImpact> keys = collectKeys(stats -> stats.getCountPutativeImpacts().keySet());
 
 		writer.println();
 		writer.println("[putative_impacts]");
 		printHeader("putative_impact");
 
-		for (PutativeImpact impact : keys) {
-			ArrayList<String> arr = new ArrayList<>();
-			arr.add(impact.toString());
-			arr.add(Integer.toString(
-				statsCollector.getPerSampleStats().get(null).getCountPutativeImpacts().getOrDefault(impact, 0)));
-
-			for (String name : statsCollector.getSampleNames()) {
-				arr.add(Integer.toString(statsCollector.getPerSampleStats().get(name).getCountPutativeImpacts()
-					.getOrDefault(impact, 0)));
-			}
-			writer.println(Joiner.on('\t').join(arr));
-		}
+		for (PutativeImpact impact : keys)
+			printRow(impact.toString(), stats -> stats.getPutativeImpactCount(impact));
 	}
 
 	private void writeContigCounts() {
-		TreeSet<String> contigs = new TreeSet<>();
-		for (Statistics stats : statsCollector.getPerSampleStats().values())
-			contigs.addAll(stats.getContigCount().keySet());
+		TreeSet<String> contigs = collectKeys(stats -> stats.getContigCount().keySet());
 
 		writer.println();
 		writer.println("[contig_counts]");
 		printHeader("contig");
 
-		for (String contig : contigs) {
-			ArrayList<String> arr = new ArrayList<>();
-			arr.add(contig);
-			arr.add(Integer.toString(
-				statsCollector.getPerSampleStats().get(null).getContigCount().getOrDefault(contig, 0)));
-
-			for (String name : statsCollector.getSampleNames())
-				arr.add(Integer.toString(
-					statsCollector.getPerSampleStats().get(name).getContigCount().getOrDefault(contig, 0)));
-			writer.println(Joiner.on('\t').join(arr));
-		}
+		for (String contig : contigs)
+			printRow(contig, stats -> stats.getContigCount().getOrDefault(contig, 0));
 	}
 
 	private void writeHeader() {
@@ -0,0 +1,158 @@
+package de.charite.compbio.jannovar.stats.facade;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import de.charite.compbio.jannovar.annotation.VariantAnnotations;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.GenotypeBuilder;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link StatisticsCollector}
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class StatisticsCollectorTest {
+
+	Allele ref;
+	Allele alt1;
+	Allele alt2;
+
+	VariantContext vcChr1;
+	VariantContext vcChr2;
+
+	@Before
+	public void setUp() {
+		ref = Allele.create("A", true);
+		alt1 = Allele.create("G");
+		alt2 = Allele.create("T");
+
+		vcChr1 = new VariantContextBuilder().chr("1").start(100).stop(100).alleles(ImmutableList.of(ref, alt1))
+			.genotypes(new GenotypeBuilder("father", ImmutableList.of(ref, alt1)).make(),
+				new GenotypeBuilder("mother", ImmutableList.of(ref, ref)).make())
+			.passFilters().make();
+		vcChr2 = new VariantContextBuilder().chr("2").start(200).stop(200)
+			.alleles(ImmutableList.of(ref, alt1, alt2))
+			.genotypes(new GenotypeBuilder("father", ImmutableList.of(alt1, alt1)).make(),
+				new GenotypeBuilder("mother", ImmutableList.of(alt1, alt2)).make())
+			.filter("q10").make();
+	}
+
+	private static StatisticsCollector newCollector() {
+		return new StatisticsCollector(ImmutableList.of("father", "mother"));
+	}
+
+	/**
+	 * @return allele annotations for <code>vc</code> without any annotation, such that Ts/Tv is counted
+	 */
+	private static List<VariantAnnotations> noAnnotations(VariantContext vc) {
+		return Arrays.asList(new VariantAnnotations[vc.getNAlleles() - 1]);
+	}
+
+	private static void assertSameStatistics(Statistics expected, Statistics actual) {
+		Assert.assertEquals(expected.getCountPutativeImpacts(), actual.getCountPutativeImpacts());
+		Assert.assertEquals(expected.getCountVariantEffects(), actual.getCountVariantEffects());
+		Assert.assertEquals(expected.getCountGenomeRegion(), actual.getCountGenomeRegion());
+		Assert.assertEquals(expected.getTsTvCount(), actual.getTsTvCount());
+		Assert.assertEquals(expected.getAltAlleleCountHist(), actual.getAltAlleleCountHist());
+		Assert.assertEquals(expected.getFilterCount(), actual.getFilterCount());
+		Assert.assertEquals(expected.getIsFilteredCount(), actual.getIsFilteredCount());
+		Assert.assertEquals(expected.getContigCount(), actual.getContigCount());
+	}
+
+	@Test
+	public void testMergeSameAsSequential() {
+		StatisticsCollector sequential = newCollector();
+		sequential.put(vcChr1, noAnnotations(vcChr1));
+		sequential.put(vcChr2, noAnnotations(vcChr2));
+
+		StatisticsCollector merged = newCollector();
+		merged.put(vcChr1, noAnnotations(vcChr1));
+		StatisticsCollector other = newCollector();
+		other.put(vcChr2, noAnnotations(vcChr2));
+		merged.merge(other);
+
+		Assert.assertEquals(ImmutableMap.of(TsTv.TS, 2, TsTv.TV, 1), merged.getAllStatistics().getTsTvCount());
+
+		assertSameStatistics(sequential.getAllStatistics(), merged.getAllStatistics());
+		for (int i = 0; i < 2; ++i)
+			assertSameStatistics(sequential.getSampleStatistics(i), merged.getSampleStatistics(i));
+	}
+
+	@Test
+	public void testMergePerSample() {
+		StatisticsCollector collector = newCollector();
+		collector.put(vcChr1, null);
+		StatisticsCollector other = newCollector();
+		other.put(vcChr2, null);
+		collector.merge(other);
+
+		Assert.assertEquals(ImmutableMap.of(1, 1, 2, 1), collector.getAllStatistics().getAltAlleleCountHist());
+		Assert.assertEquals(ImmutableMap.of("1", 1, "2", 1), collector.getAllStatistics().getContigCount());
+
+		// father is het on chr1 and hom alt on chr2
+		final Statistics father = collector.getSampleStatistics(0);
+		Assert.assertEquals(ImmutableMap.of(1, 2), father.getAltAlleleCountHist());
+		Assert.assertEquals(ImmutableMap.of("1", 1, "2", 1), father.getContigCount());
+		Assert.assertEquals(ImmutableMap.of(false, 1, true, 1), father.getIsFilteredCount());
+
+		// mother is hom ref on chr1 and carries both alternative alleles on chr2
+		final Statistics mother = collector.getSampleStatistics(1);
+		Assert.assertEquals(ImmutableMap.of(2, 1), mother.getAltAlleleCountHist());
+		Assert.assertEquals(ImmutableMap.of("2", 1), mother.getContigCount());
+		Assert.assertEquals(ImmutableMap.of(true, 1), mother.getIsFilteredCount());
+		Assert.assertEquals(ImmutableMap.of("q10", 1), mother.getFilterCount());
+
+		Assert.assertSame(father, collector.getPerSampleStats().get("father"));
+		Assert.assertSame(collector.getAllStatistics(), collector.getPerSampleStats().get(null));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMergeDifferentSamples() {
+		newCollector().merge(new StatisticsCollector(ImmutableList.of("mother", "father")));
+	}
+
+	@Test
+	public void testPassingAndFilteredRecords() {
+		StatisticsCollector collector = newCollector();
+		collector.put(vcChr1, null);
+		collector.put(vcChr2, null);
+
+		Assert.assertEquals(ImmutableMap.of(false, 1, true, 1), collector.getAllStatistics().getIsFilteredCount());
+		Assert.assertEquals(ImmutableMap.of("q10", 1), collector.getAllStatistics().getFilterCount());
+	}
+
+	@Test
+	public void testTsTvOfAllVariants() {
+		StatisticsCollector collector = newCollector();
+		collector.put(vcChr2, noAnnotations(vcChr2));
+
+		// A>G is a transition, A>T a transversion, regardless of the genotypes
+		Assert.assertEquals(ImmutableMap.of(TsTv.TS, 1, TsTv.TV, 1), collector.getAllStatistics().getTsTvCount());
+		Assert.assertEquals(ImmutableMap.of(TsTv.TS, 1), collector.getSampleStatistics(0).getTsTvCount());
+	}
+
+	@Test
+	public void testHalfCalledGenotype() {
+		VariantContext vc = new VariantContextBuilder().chr("1").start(100).stop(100)
+			.alleles(ImmutableList.of(ref, alt1))
+			.genotypes(new GenotypeBuilder("father", ImmutableList.of(Allele.NO_CALL, alt1)).make(),
+				new GenotypeBuilder("mother", ImmutableList.of(Allele.NO_CALL, Allele.NO_CALL)).make())
+			.passFilters().make();
+		StatisticsCollector collector = newCollector();
+		collector.put(vc, noAnnotations(vc));
+
+		// the no-call allele is skipped, only the alternative allele is counted
+		Assert.assertEquals(ImmutableMap.of(1, 1), collector.getSampleStatistics(0).getAltAlleleCountHist());
+		Assert.assertEquals(ImmutableMap.of(TsTv.TS, 1), collector.getSampleStatistics(0).getTsTvCount());
+		Assert.assertTrue(collector.getSampleStatistics(1).getContigCount().isEmpty());
+	}
+
+}
@@ -0,0 +1,118 @@
+package de.charite.compbio.jannovar.stats.facade;
+
+import com.google.common.collect.ImmutableMap;
+import de.charite.compbio.jannovar.annotation.PutativeImpact;
+import de.charite.compbio.jannovar.annotation.VariantEffect;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Statistics}
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class StatisticsTest {
+
+	@Test
+	public void testMergeCounters() {
+		Statistics stats = new Statistics();
+		stats.putPutativeImpact(PutativeImpact.HIGH);
+		stats.putPutativeImpact(PutativeImpact.HIGH);
+		stats.putVariantEffect(VariantEffect.MISSENSE_VARIANT);
+		stats.putGenomeRegion(GenomeRegion.EXONIC);
+		stats.putTsTv(TsTv.TS);
+		stats.putFilter("PASS");
+		stats.putFilter("q10;s50");
+		stats.putContig("1");
+
+		Statistics other = new Statistics();
+		other.putPutativeImpact(PutativeImpact.HIGH);
+		other.putPutativeImpact(PutativeImpact.LOW);
+		other.putVariantEffect(VariantEffect.STOP_GAINED);
+		other.putGenomeRegion(GenomeRegion.EXONIC);
+		other.putGenomeRegion(GenomeRegion.INTRONIC);
+		other.putTsTv(TsTv.TV);
+		other.putFilter("q10");
+		other.putContig("1");
+		other.putContig("2");
+
+		stats.merge(other);
+
+		Assert.assertEquals(ImmutableMap.of(PutativeImpact.HIGH, 3, PutativeImpact.LOW, 1),
+			stats.getCountPutativeImpacts());
+		Assert.assertEquals(ImmutableMap.of(VariantEffect.MISSENSE_VARIANT, 1, VariantEffect.STOP_GAINED, 1),
+			stats.getCountVariantEffects());
+		Assert.assertEquals(ImmutableMap.of(GenomeRegion.EXONIC, 2, GenomeRegion.INTRONIC, 1),
+			stats.getCountGenomeRegion());
+		Assert.assertEquals(ImmutableMap.of(TsTv.TS, 1, TsTv.TV, 1), stats.getTsTvCount());
+		Assert.assertEquals(ImmutableMap.of("q10", 2, "s50", 1), stats.getFilterCount());
+		Assert.assertEquals(ImmutableMap.of(false, 1, true, 2), stats.getIsFilteredCount());
+		Assert.assertEquals(ImmutableMap.of("1", 2, "2", 1), stats.getContigCount());
+
+		// other is left unchanged
+		Assert.assertEquals(ImmutableMap.of(PutativeImpact.HIGH, 1, PutativeImpact.LOW, 1),
+			other.getCountPutativeImpacts());
+		Assert.assertEquals(ImmutableMap.of("q10", 1), other.getFilterCount());
+		Assert.assertEquals(ImmutableMap.of("1", 1, "2", 1), other.getContigCount());
+	}
+
+	@Test
+	public void testMergeLongerAltAlleleCountHist() {
+		Statistics stats = new Statistics();
+		stats.putAltAlleleCount(1);
+
+		Statistics other = new Statistics();
+		other.putAltAlleleCount(1);
+		other.putAltAlleleCount(9);
+
+		stats.merge(other);
+
+		Assert.assertEquals(ImmutableMap.of(1, 2, 9, 1), stats.getAltAlleleCountHist());
+		Assert.assertEquals(1, stats.getAltAlleleCount(9));
+		Assert.assertEquals(0, stats.getAltAlleleCount(100));
+	}
+
+	@Test
+	public void testMergeShorterAltAlleleCountHist() {
+		Statistics stats = new Statistics();
+		stats.putAltAlleleCount(9);
+
+		Statistics other = new Statistics();
+		other.putAltAlleleCount(1);
+		other.putAltAlleleCount(2);
+
+		stats.merge(other);
+
+		Assert.assertEquals(ImmutableMap.of(1, 1, 2, 1, 9, 1), stats.getAltAlleleCountHist());
+		Assert.assertEquals(ImmutableMap.of(1, 1, 2, 1), other.getAltAlleleCountHist());
+	}
+
+	@Test
+	public void testMergeEmpty() {
+		Statistics stats = new Statistics();
+		stats.putAltAlleleCount(2);
+		stats.putContig("1");
+
+		stats.merge(new Statistics());
+
+		Assert.assertEquals(ImmutableMap.of(2, 1), stats.getAltAlleleCountHist());
+		Assert.assertEquals(ImmutableMap.of("1", 1), stats.getContigCount());
+		Assert.assertTrue(stats.getCountPutativeImpacts().isEmpty());
+		Assert.assertTrue(stats.getIsFilteredCount().isEmpty());
+	}
+
+	@Test
+	public void testPutFilterCountsPassing() {
+		Statistics stats = new Statistics();
+		stats.putFilter("PASS");
+		stats.putFilter(".");
+		stats.putFilter("");
+		Assert.assertEquals(3, stats.getIsFilteredCount(false));
+
+		// a failing variant must not overwrite the count of passing ones
+		stats.putFilter("q10;s50");
+		Assert.assertEquals(ImmutableMap.of(false, 3, true, 1), stats.getIsFilteredCount());
+		Assert.assertEquals(ImmutableMap.of("q10", 1, "s50", 1), stats.getFilterCount());
+	}
+
+}
@@ -50,6 +50,12 @@ public abstract class AbstractDBAnnotationDriver<RecordType> implements DBAnnota
 		this.options = options;
 	}
 
+	@Override
+	public void close() {
+		variantProvider.close();
+		matcher.close();
+	}
+
 	@Override
 	public VariantContext annotateVariantContext(VariantContext obsVC) {
 		try (CloseableIterator<VariantContext> iter = variantProvider.query(obsVC.getContig(), obsVC.getStart() - 1,
@@ -60,10 +66,11 @@ public abstract class AbstractDBAnnotationDriver<RecordType> implements DBAnnota
 			List<GenotypeMatch> positionOverlaps = new ArrayList<>();
 			while (iter.hasNext()) {
 				final VariantContext dbVC = iter.next();
+				final List<VariantDescription> dbVars = variantProvider.normalizedAlleles(dbVC, matcher);
 				if (!options.isReportOverlappingAsMatching()) // unnecessary in this case
-					genotypeMatches.addAll(matcher.matchGenotypes(obsVC, dbVC));
+					genotypeMatches.addAll(matcher.matchGenotypes(obsVC, dbVC, dbVars));
 				if (options.isReportOverlapping() || options.isReportOverlappingAsMatching())
-					positionOverlaps.addAll(matcher.positionOverlaps(obsVC, dbVC));
+					positionOverlaps.addAll(matcher.positionOverlaps(obsVC, dbVC, dbVars));
 			}
 
 			// Pick best record for each alternative allele
@@ -81,6 +88,8 @@ public abstract class AbstractDBAnnotationDriver<RecordType> implements DBAnnota
 				return annotateWithDBRecords(obsVC, dbRecordsMatch, dbRecordsOverlap);
 			else
 				return annotateWithDBRecords(obsVC, dbRecordsMatch, emptyMap);
+		} finally {
+			matcher.clearMemo();
 		}
 	}
 
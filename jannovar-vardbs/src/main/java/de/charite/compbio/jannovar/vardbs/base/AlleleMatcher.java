@@ -3,24 +3,42 @@ package de.charite.compbio.jannovar.vardbs.base;
 import com.google.common.collect.Lists;
 import htsjdk.variant.variantcontext.VariantContext;
 
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 /**
  * Find matches between two allels (an observed and a database variant)
  * <p>
+ * The normalized alleles of each {@link VariantContext} are memoized by object identity, such that matching one
+ * observed variant against many database variants normalizes it only once. Callers should call {@link #clearMemo()}
+ * after each database query. As a safeguard, the memo is also cleared when it grows above {@link #MAX_MEMO_SIZE}
+ * entries. Instances are not thread-safe.
+ * <p>
  * This class is an implementation detail and not part of the public interface.
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
-public final class AlleleMatcher {
+public final class AlleleMatcher implements Closeable {
+
+	/**
+	 * Maximal number of {@link VariantContext}s in the memo before it is cleared
+	 */
+	public static final int MAX_MEMO_SIZE = 1024;
 
 	/**
 	 * Helper to use for indel normalization
 	 */
 	private final VariantNormalizer normalizer;
 
+	/**
+	 * Normalized alternative alleles, by {@link VariantContext} identity
+	 */
+	private final IdentityHashMap<VariantContext, List<VariantDescription>> memo = new IdentityHashMap<>();
+
 	/**
 	 * Construct GenotypeMatcher
 	 *
@@ -31,6 +49,14 @@ public final class AlleleMatcher {
 		this.normalizer = new VariantNormalizer(pathFasta);
 	}
 
+	/**
+	 * Close the FASTA file
+	 */
+	@Override
+	public void close() {
+		normalizer.close();
+	}
+
 	/**
 	 * Match genotypes of two {@link VariantContext}s (chrom, position, ref, and alt have to be
 	 * equal)
@@ -42,11 +68,23 @@ public final class AlleleMatcher {
 	 * @return {@link Collection} of {@link GenotypeMatch}es for the two variants
 	 */
 	public Collection<GenotypeMatch> matchGenotypes(VariantContext obsVC, VariantContext dbVC) {
+		return matchGenotypes(obsVC, dbVC, normalize(dbVC));
+	}
+
+	/**
+	 * Match genotypes of two {@link VariantContext}s, using already normalized database alleles
+	 *
+	 * @param obsVC  {@link VariantContext} describing the observed variant
+	 * @param dbVC   {@link VariantContext} describing the database variant
+	 * @param dbVars Normalized alternative alleles of <code>dbVC</code>, as returned by {@link #normalize}
+	 * @return {@link Collection} of {@link GenotypeMatch}es for the two variants
+	 */
+	public Collection<GenotypeMatch> matchGenotypes(VariantContext obsVC, VariantContext dbVC,
+													List<VariantDescription> dbVars) {
 		List<GenotypeMatch> result = new ArrayList<>();
 
-		// Get normalized description of all alternative observed and database alleles
-		Collection<VariantDescription> obsVars = ctxToVariants(obsVC);
-		Collection<VariantDescription> dbVars = ctxToVariants(dbVC);
+		// Get normalized description of all alternative observed alleles
+		Collection<VariantDescription> obsVars = normalize(obsVC);
 
 		int i = 1; // excludes reference allele
 		for (VariantDescription obsVar : obsVars) {
@@ -75,11 +113,24 @@ public final class AlleleMatcher {
 	 * @return {@link Collection} of {@link GenotypeMatch}es for the two variants
 	 */
 	public Collection<GenotypeMatch> positionOverlaps(VariantContext obsVC, VariantContext dbVC) {
+		return positionOverlaps(obsVC, dbVC, normalize(dbVC));
+	}
+
+	/**
+	 * Pair genotypes of two {@link VariantContext}s based on their position, using already normalized database
+	 * alleles
+	 *
+	 * @param obsVC  {@link VariantContext} describing the observed variant
+	 * @param dbVC   {@link VariantContext} describing the database variant
+	 * @param dbVars Normalized alternative alleles of <code>dbVC</code>, as returned by {@link #normalize}
+	 * @return {@link Collection} of {@link GenotypeMatch}es for the two variants
+	 */
+	public Collection<GenotypeMatch> positionOverlaps(VariantContext obsVC, VariantContext dbVC,
+													  List<VariantDescription> dbVars) {
 		List<GenotypeMatch> result = new ArrayList<>();
 
-		// Get normalized description of all alternative observed and database alleles
-		Collection<VariantDescription> obsVars = ctxToVariants(obsVC);
-		Collection<VariantDescription> dbVars = ctxToVariants(dbVC);
+		// Get normalized description of all alternative observed alleles
+		Collection<VariantDescription> obsVars = normalize(obsVC);
 
 		int i = 1; // excludes reference allele
 		for (VariantDescription obsVar : obsVars) {
@@ -99,6 +150,30 @@ public final class AlleleMatcher {
 		return result;
 	}
 
+	/**
+	 * Get normalized descriptions of the alternative alleles of a {@link VariantContext}, memoized by identity
+	 *
+	 * @param vc {@link VariantContext} to normalize
+	 * @return Unmodifiable {@link List} of {@link VariantDescription}s, one for each alternative allele
+	 */
+	public List<VariantDescription> normalize(VariantContext vc) {
+		List<VariantDescription> vars = memo.get(vc);
+		if (vars == null) {
+			if (memo.size() >= MAX_MEMO_SIZE)
+				memo.clear();
+			vars = Collections.unmodifiableList(ctxToVariants(vc));
+			memo.put(vc, vars);
+		}
+		return vars;
+	}
+
+	/**
+	 * Forget the memoized normalized alleles, to be called after each database query
+	 */
+	public void clearMemo() {
+		memo.clear();
+	}
+
 	/**
 	 * Convert a {@link VariantContext} to a list of normalized variant descriptions
 	 * <p>
@@ -109,7 +184,7 @@ public final class AlleleMatcher {
 	 * @return A {@link Collection} of {@link VariantDescription} objects corresponding to
 	 * <code>vc</code>
 	 */
-	private Collection<VariantDescription> ctxToVariants(VariantContext vc) {
+	private List<VariantDescription> ctxToVariants(VariantContext vc) {
 		// Short-circuit in the case that we see a "database only" allele, e.g., as created when
 		// using generic TSV annotation without REF/ALT columns. In this case, the position is
 		// enough.
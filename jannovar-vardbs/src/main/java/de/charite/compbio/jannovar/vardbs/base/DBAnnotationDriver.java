@@ -2,12 +2,14 @@ package de.charite.compbio.jannovar.vardbs.base;
 
 import htsjdk.variant.variantcontext.VariantContext;
 
+import java.io.Closeable;
+
 /**
  * Interface for annotation drivers by variant databases.
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
-public interface DBAnnotationDriver {
+public interface DBAnnotationDriver extends Closeable {
 
 	/**
 	 * @return The {@link VCFHeaderExtender} to use.
@@ -25,4 +27,11 @@ public interface DBAnnotationDriver {
 	 */
 	public VariantContext annotateVariantContext(VariantContext vc);
 
+	/**
+	 * Close the database and reference files, the default implementation does nothing
+	 */
+	@Override
+	default void close() {
+	}
+
 }
@@ -45,6 +45,11 @@ public class DBAnnotationOptions {
 	 * Behaviour on multiple matching annotations
 	 */
 	private MultipleMatchBehaviour multiMatchBehaviour;
+	/**
+	 * Whether or not the queries come in coordinate-sorted order, such that the database can be read in lockstep
+	 * (default: false)
+	 */
+	private boolean streamingQueries = false;
 
 	public DBAnnotationOptions(boolean reportOverlapping, boolean reportOverlappingAsIdentical,
 							   String identifierPrefix, MultipleMatchBehaviour multiMatchBehaviour) {
@@ -93,12 +98,20 @@ public class DBAnnotationOptions {
 		return identifierPrefix;
 	}
 
+	public boolean isStreamingQueries() {
+		return streamingQueries;
+	}
+
+	public void setStreamingQueries(boolean streamingQueries) {
+		this.streamingQueries = streamingQueries;
+	}
+
 	@Override
 	public String toString() {
 		return "DBAnnotationOptions [reportOverlapping=" + reportOverlapping
 			+ ", reportOverlappingAsMatching=" + reportOverlappingAsMatching
 			+ ", identifierPrefix=" + identifierPrefix + ", multiMatchBehaviour="
-			+ multiMatchBehaviour + "]";
+			+ multiMatchBehaviour + ", streamingQueries=" + streamingQueries + "]";
 	}
 
 }
@@ -3,13 +3,16 @@ package de.charite.compbio.jannovar.vardbs.base;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.variant.variantcontext.VariantContext;
 
+import java.io.Closeable;
+import java.util.List;
+
 /**
  * Allow to query database with contig, (1-based) begin, and end position to produce a
  * {@link VariantContext} with annotating information.
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
-public interface DatabaseVariantContextProvider {
+public interface DatabaseVariantContextProvider extends Closeable {
 
 	/**
 	 * Query for {@link VariantContext}s describing the DB variant annotation between begin and end
@@ -22,4 +25,40 @@ public interface DatabaseVariantContextProvider {
 	 */
 	CloseableIterator<VariantContext> query(String contig, int beginPos, int endPos);
 
+	/**
+	 * Get normalized descriptions of the alternative alleles of a record returned by {@link #query}
+	 * <p>
+	 * The default implementation delegates to {@link AlleleMatcher#normalize}. Providers that return the same
+	 * {@link VariantContext} object for several queries override this, such that each record is normalized only once.
+	 *
+	 * @param dbVC    {@link VariantContext} returned by {@link #query}
+	 * @param matcher {@link AlleleMatcher} to use for normalization
+	 * @return Unmodifiable {@link List} of {@link VariantDescription}s, one for each alternative allele
+	 */
+	default List<VariantDescription> normalizedAlleles(VariantContext dbVC, AlleleMatcher matcher) {
+		return matcher.normalize(dbVC);
+	}
+
+	/**
+	 * Close the underlying files, the default implementation does nothing
+	 */
+	@Override
+	default void close() {
+	}
+
+	/**
+	 * Construct provider for a bgzip-compressed and tabix-indexed VCF file
+	 *
+	 * @param vcfPath Path to the VCF file
+	 * @param options {@link DBAnnotationOptions} to select the provider implementation with
+	 * @return {@link StreamingVCFVariantProvider} if {@link DBAnnotationOptions#isStreamingQueries()}, otherwise
+	 * {@link VCFReaderVariantProvider}
+	 */
+	static DatabaseVariantContextProvider forVCF(String vcfPath, DBAnnotationOptions options) {
+		if (options.isStreamingQueries())
+			return new StreamingVCFVariantProvider(vcfPath);
+		else
+			return new VCFReaderVariantProvider(vcfPath);
+	}
+
 }
@@ -0,0 +1,222 @@
+package de.charite.compbio.jannovar.vardbs.base;
+
+import htsjdk.samtools.reference.FastaSequenceIndex;
+import htsjdk.samtools.reference.FastaSequenceIndexEntry;
+import htsjdk.samtools.reference.IndexedFastaSequenceFile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Block-wise cache for reference sequence access through an {@link IndexedFastaSequenceFile}
+ * <p>
+ * Each contig is divided into blocks of <code>blockSize</code> bases. Blocks are loaded from the FASTA file on first
+ * access and kept in memory until evicted in least recently used order when more than <code>maxBlocks</code> blocks
+ * are loaded. The number of cache hits and misses is counted.
+ * <p>
+ * The methods are synchronized, such that one instance can be shared between threads.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class ReferenceBlockCache implements Closeable {
+
+	/**
+	 * Default number of bases per block
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+	/**
+	 * Default maximal number of blocks kept in memory
+	 */
+	public static final int DEFAULT_MAX_BLOCKS = 64;
+
+	/**
+	 * Random access in FASTA files using FAI
+	 */
+	private final IndexedFastaSequenceFile fai;
+
+	/**
+	 * The FAI index, for the contig lengths
+	 */
+	private final FastaSequenceIndex faiIndex;
+
+	/**
+	 * Number of bases per block
+	 */
+	private final int blockSize;
+
+	/**
+	 * The loaded blocks, in access order
+	 */
+	private final LinkedHashMap<BlockKey, byte[]> blocks;
+
+	/**
+	 * Number of base accesses served from loaded blocks
+	 */
+	private long hits;
+
+	/**
+	 * Number of base accesses that required loading a block
+	 */
+	private long misses;
+
+	/**
+	 * Construct cache with default block size and count
+	 *
+	 * @param fastaPath Path to indexed FASTA file
+	 * @throws JannovarVarDBException On problems with opening the FASTA/FAI file
+	 */
+	public ReferenceBlockCache(String fastaPath) throws JannovarVarDBException {
+		this(fastaPath, DEFAULT_BLOCK_SIZE, DEFAULT_MAX_BLOCKS);
+	}
+
+	/**
+	 * Construct cache
+	 *
+	 * @param fastaPath Path to indexed FASTA file
+	 * @param blockSize Number of bases per block
+	 * @param maxBlocks Maximal number of blocks to keep in memory
+	 * @throws JannovarVarDBException On problems with opening the FASTA/FAI file
+	 */
+	public ReferenceBlockCache(String fastaPath, int blockSize, int maxBlocks) throws JannovarVarDBException {
+		if (blockSize < 1 || maxBlocks < 1)
+			throw new IllegalArgumentException("Block size and count must be >= 1");
+		try {
+			this.fai = new IndexedFastaSequenceFile(new File(fastaPath));
+		} catch (FileNotFoundException e) {
+			throw new JannovarVarDBException("Could not find FASTA/FAI file", e);
+		}
+		this.faiIndex = new FastaSequenceIndex(new File(fastaPath + ".fai"));
+		this.blockSize = blockSize;
+		this.blocks = new LinkedHashMap<BlockKey, byte[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<BlockKey, byte[]> eldest) {
+				return size() > maxBlocks;
+			}
+		};
+	}
+
+	/**
+	 * Close the FASTA file
+	 */
+	@Override
+	public synchronized void close() {
+		try {
+			fai.close();
+		} catch (IOException e) {
+			throw new RuntimeException("Could not close FASTA file", e);
+		}
+	}
+
+	/**
+	 * Get reference base
+	 *
+	 * @param contig Name of the contig
+	 * @param pos    0-based position on the contig
+	 * @return Base at the given position, as stored in the FASTA file
+	 * @throws IllegalArgumentException if the contig is unknown or the position is out of range
+	 */
+	public synchronized char getBase(String contig, int pos) {
+		if (pos < 0)
+			throw new IllegalArgumentException("Position must be >= 0 but was " + pos);
+		final byte[] block = getBlock(contig, pos / blockSize);
+		final int offset = pos % blockSize;
+		if (offset >= block.length)
+			throw new IllegalArgumentException("Position " + pos + " out of range for contig " + contig);
+		return (char) block[offset];
+	}
+
+	/**
+	 * @return Block with the given index, loaded on cache miss
+	 */
+	private byte[] getBlock(String contig, int blockIdx) {
+		final BlockKey key = new BlockKey(contig, blockIdx);
+		byte[] block = blocks.get(key);
+		if (block != null) {
+			hits += 1;
+			return block;
+		}
+
+		misses += 1;
+		if (!faiIndex.hasIndexEntry(contig))
+			throw new IllegalArgumentException("Unknown contig " + contig);
+		final FastaSequenceIndexEntry entry = faiIndex.getIndexEntry(contig);
+		final long begin = (long) blockIdx * blockSize;
+		final long end = Math.min(begin + blockSize, entry.getSize());
+		if (begin >= end)
+			throw new IllegalArgumentException("Position " + begin + " out of range for contig " + contig);
+		block = fai.getSubsequenceAt(contig, begin + 1, end).getBases();
+		blocks.put(key, block);
+		return block;
+	}
+
+	/**
+	 * @return Number of base accesses served from loaded blocks
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return Number of base accesses that required loading a block
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return Fraction of base accesses served from loaded blocks, <code>0</code> if there were none
+	 */
+	public synchronized double getHitRate() {
+		return (hits + misses == 0) ? 0.0 : ((double) hits) / (hits + misses);
+	}
+
+	/**
+	 * @return Number of blocks currently in memory
+	 */
+	public synchronized int getNumBlocks() {
+		return blocks.size();
+	}
+
+	/**
+	 * Key for a block in the cache
+	 */
+	private static final class BlockKey {
+		/**
+		 * Name of the contig
+		 */
+		final String contig;
+		/**
+		 * Index of the block on the contig
+		 */
+		final int blockIdx;
+
+		BlockKey(String contig, int blockIdx) {
+			this.contig = contig;
+			this.blockIdx = blockIdx;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			BlockKey blockKey = (BlockKey) o;
+			return blockIdx == blockKey.blockIdx && contig.equals(blockKey.contig);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(contig, blockIdx);
+		}
+	}
+
+}
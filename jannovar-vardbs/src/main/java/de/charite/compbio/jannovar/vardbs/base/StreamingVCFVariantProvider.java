@@ -0,0 +1,252 @@
+package de.charite.compbio.jannovar.vardbs.base;
+
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFFileReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * VCF file--backed provider of {@link VariantContext}s for coordinate-sorted queries
+ * <p>
+ * Instead of performing an indexed query for each call to {@link #query}, the database VCF file is read forward in
+ * lockstep with the queries, keeping a sliding window of the database records that can still overlap with the next
+ * query. The stream is (re-)positioned using the index when switching contigs and when the next query is more than
+ * <code>maxSkip</code> bases downstream of the previous one. When a query lies upstream of the previous one (i.e., the
+ * queries are not sorted), the provider switches to plain indexed queries for the rest of its lifetime.
+ * <p>
+ * As the records in the window are returned for several queries, their normalized alleles are kept alongside them
+ * (see {@link #normalizedAlleles}), such that each database record is normalized only once.
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class StreamingVCFVariantProvider implements DatabaseVariantContextProvider {
+
+	/**
+	 * Logger object to use
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(StreamingVCFVariantProvider.class);
+
+	/**
+	 * Default maximal distance to skip by streaming before re-positioning using the index
+	 */
+	public static final int DEFAULT_MAX_SKIP = 100_000;
+
+	/**
+	 * Path to the VCF file, for log messages
+	 */
+	private final String vcfPath;
+
+	/**
+	 * VCFReader for the streaming iterator
+	 */
+	private final VCFFileReader streamReader;
+
+	/**
+	 * VCFReader for indexed queries after the queries turned out to be unsorted
+	 */
+	private final VCFFileReader queryReader;
+
+	/**
+	 * Maximal distance to skip by streaming before re-positioning using the index
+	 */
+	private final int maxSkip;
+
+	/**
+	 * Streaming iterator on {@link #currentContig}, <code>null</code> before the first query
+	 */
+	private CloseableIterator<VariantContext> stream;
+
+	/**
+	 * Contig of the current stream
+	 */
+	private String currentContig;
+
+	/**
+	 * Begin position of the previous query
+	 */
+	private int lastBegin;
+
+	/**
+	 * End position of the previous query
+	 */
+	private int lastEnd;
+
+	/**
+	 * Records read from {@link #stream} that can still overlap with the next query, sorted by begin position
+	 */
+	private final ArrayDeque<VariantContext> window = new ArrayDeque<>();
+
+	/**
+	 * Normalized alternative alleles of the records in {@link #window}, by identity
+	 */
+	private final IdentityHashMap<VariantContext, List<VariantDescription>> normalized = new IdentityHashMap<>();
+
+	/**
+	 * Next record from {@link #stream} that begins right of the previous query, if any
+	 */
+	private VariantContext lookahead;
+
+	/**
+	 * Whether or not the queries were sorted so far
+	 */
+	private boolean sorted = true;
+
+	/**
+	 * Number of times the stream was positioned using the index
+	 */
+	private long numSeeks;
+
+	/**
+	 * Construct provider with default maximal skip distance
+	 *
+	 * @param vcfPath Path to bgzip-compressed and tabix-indexed VCF file
+	 */
+	public StreamingVCFVariantProvider(String vcfPath) {
+		this(vcfPath, DEFAULT_MAX_SKIP);
+	}
+
+	/**
+	 * Construct provider
+	 *
+	 * @param vcfPath Path to bgzip-compressed and tabix-indexed VCF file
+	 * @param maxSkip Maximal distance to skip by streaming before re-positioning using the index
+	 */
+	public StreamingVCFVariantProvider(String vcfPath, int maxSkip) {
+		this.vcfPath = vcfPath;
+		this.streamReader = new VCFFileReader(new File(vcfPath), true);
+		this.queryReader = new VCFFileReader(new File(vcfPath), true);
+		this.maxSkip = maxSkip;
+	}
+
+	/**
+	 * @return Whether or not all queries so far were sorted
+	 */
+	public boolean isSorted() {
+		return sorted;
+	}
+
+	/**
+	 * @return Number of times the stream was positioned using the index
+	 */
+	public long getNumSeeks() {
+		return numSeeks;
+	}
+
+	@Override
+	public CloseableIterator<VariantContext> query(String contig, int beginPos, int endPos) {
+		if (sorted && contig.equals(currentContig) && beginPos < lastBegin) {
+			LOGGER.warn("Queries to {} are not sorted ({}:{} after {}:{}), falling back to indexed queries", vcfPath,
+				contig, beginPos, contig, lastBegin);
+			sorted = false;
+			closeStream();
+		}
+		if (!sorted)
+			return queryReader.query(contig, beginPos, endPos);
+
+		if (!contig.equals(currentContig) || beginPos > lastEnd + maxSkip)
+			seek(contig, beginPos);
+		lastBegin = beginPos;
+		lastEnd = Math.max(lastEnd, endPos);
+
+		// Drop records ending left of the query, no later query can overlap with them.
+		window.removeIf(vc -> {
+			if (vc.getEnd() >= beginPos)
+				return false;
+			normalized.remove(vc);
+			return true;
+		});
+		// Move records from the stream into the window.
+		while (lookahead != null && lookahead.getStart() <= endPos) {
+			if (lookahead.getEnd() >= beginPos)
+				window.add(lookahead);
+			lookahead = stream.hasNext() ? stream.next() : null;
+		}
+
+		final List<VariantContext> result = new ArrayList<>();
+		for (VariantContext vc : window)
+			if (vc.getStart() <= endPos && vc.getEnd() >= beginPos)
+				result.add(vc);
+		return new ListIterator(result);
+	}
+
+	@Override
+	public List<VariantDescription> normalizedAlleles(VariantContext dbVC, AlleleMatcher matcher) {
+		if (!sorted)
+			return matcher.normalize(dbVC);
+		return normalized.computeIfAbsent(dbVC, matcher::normalize);
+	}
+
+	/**
+	 * Position stream at the given position using the index
+	 */
+	private void seek(String contig, int beginPos) {
+		closeStream();
+		numSeeks += 1;
+		currentContig = contig;
+		lastBegin = beginPos;
+		lastEnd = beginPos;
+		stream = streamReader.query(contig, beginPos, Integer.MAX_VALUE);
+		lookahead = stream.hasNext() ? stream.next() : null;
+	}
+
+	/**
+	 * Close streaming iterator and clear window
+	 */
+	private void closeStream() {
+		if (stream != null)
+			stream.close();
+		stream = null;
+		currentContig = null;
+		lookahead = null;
+		window.clear();
+		normalized.clear();
+	}
+
+	@Override
+	public void close() {
+		closeStream();
+		streamReader.close();
+		queryReader.close();
+	}
+
+	/**
+	 * {@link CloseableIterator} over a list of records
+	 */
+	private static final class ListIterator implements CloseableIterator<VariantContext> {
+
+		/**
+		 * Iterator over the records
+		 */
+		private final Iterator<VariantContext> iter;
+
+		ListIterator(List<VariantContext> records) {
+			this.iter = records.iterator();
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public boolean hasNext() {
+			return iter.hasNext();
+		}
+
+		@Override
+		public VariantContext next() {
+			return iter.next();
+		}
+
+	}
+
+}
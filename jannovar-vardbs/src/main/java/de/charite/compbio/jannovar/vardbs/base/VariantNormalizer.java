@@ -1,9 +1,6 @@
 package de.charite.compbio.jannovar.vardbs.base;
 
-import htsjdk.samtools.reference.IndexedFastaSequenceFile;
-
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.Closeable;
 
 /**
  * Helper class for normalizing two variants
@@ -13,19 +10,22 @@ import java.io.FileNotFoundException;
  * <p>
  * Tan, Adrian, Gonçalo R. Abecasis, and Hyun Min Kang. "Unified representation of genetic variants." Bioinformatics
  * (2015): btv112.
+ * <p>
+ * Reference bases are read through a {@link ReferenceBlockCache}, such that shifting indels to the left (also through
+ * long homopolymers) only touches the FASTA file once per block.
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
-public final class VariantNormalizer {
+public final class VariantNormalizer implements Closeable {
 
 	/**
 	 * Path to indexed FASTA path to use
 	 */
 	final String fastaPath;
 	/**
-	 * Random access in FASTA files using FAI
+	 * Cached random access to the reference sequence
 	 */
-	final IndexedFastaSequenceFile fai;
+	final ReferenceBlockCache cache;
 
 	/**
 	 * Construct new variant normalizer object
@@ -35,11 +35,22 @@ public final class VariantNormalizer {
 	 */
 	public VariantNormalizer(String fastaPath) throws JannovarVarDBException {
 		this.fastaPath = fastaPath;
-		try {
-			this.fai = new IndexedFastaSequenceFile(new File(fastaPath));
-		} catch (FileNotFoundException e) {
-			throw new JannovarVarDBException("Could not find FASTA/FAI file", e);
-		}
+		this.cache = new ReferenceBlockCache(fastaPath);
+	}
+
+	/**
+	 * @return The {@link ReferenceBlockCache} used for reading reference bases, e.g., for its hit and miss counts
+	 */
+	public ReferenceBlockCache getReferenceCache() {
+		return cache;
+	}
+
+	/**
+	 * Close the FASTA file
+	 */
+	@Override
+	public void close() {
+		cache.close();
 	}
 
 	/**
@@ -81,7 +92,9 @@ public final class VariantNormalizer {
 			}
 			// Extend alleles to the left if there is an empty allele
 			if (ref.length() == 0 || alt.length() == 0) {
-				char extension = (char) fai.getSubsequenceAt(desc.getChrom(), pos, pos).getBases()[0];
+				if (pos == 0)
+					break; // cannot extend beyond contig start
+				char extension = cache.getBase(desc.getChrom(), pos - 1);
 				ref = extension + ref;
 				alt = extension + alt;
 				pos -= 1;
@@ -6,9 +6,7 @@ import de.charite.compbio.jannovar.vardbs.base.*;
 import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
-import htsjdk.variant.vcf.VCFFileReader;
 
-import java.io.File;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
@@ -40,9 +38,9 @@ public class ClinVarAnnotationDriver implements DBAnnotationDriver {
 	 */
 	protected final DBAnnotationOptions options;
 	/**
-	 * VCFReader to use for loading the VCF records
+	 * Provider of the VCF records
 	 */
-	protected final VCFFileReader vcfReader;
+	protected final DatabaseVariantContextProvider variantProvider;
 
 	/**
 	 * Create annotation driver for a coordinate-sorted, bgzip-compressed, VCF file
@@ -57,7 +55,7 @@ public class ClinVarAnnotationDriver implements DBAnnotationDriver {
 		this.vcfPath = vcfPath;
 		this.matcher = new AlleleMatcher(fastaPath);
 		this.vcToRecord = new ClinVarVariantContextToRecordConverter();
-		this.vcfReader = new VCFFileReader(new File(this.vcfPath), true);
+		this.variantProvider = DatabaseVariantContextProvider.forVCF(this.vcfPath, options);
 		this.options = options;
 	}
 
@@ -68,17 +66,18 @@ public class ClinVarAnnotationDriver implements DBAnnotationDriver {
 
 	@Override
 	public VariantContext annotateVariantContext(VariantContext obsVC) {
-		try (CloseableIterator<VariantContext> iter = vcfReader.query(obsVC.getContig(), obsVC.getStart(),
+		try (CloseableIterator<VariantContext> iter = variantProvider.query(obsVC.getContig(), obsVC.getStart(),
 			obsVC.getEnd())) {
 			// Fetch all overlapping and matching genotypes from database and pair them with the correct allele from vc.
 			List<GenotypeMatch> genotypeMatches = new ArrayList<>();
 			List<GenotypeMatch> positionOverlaps = new ArrayList<>();
 			while (iter.hasNext()) {
 				final VariantContext dbVC = iter.next();
-				genotypeMatches.addAll(matcher.matchGenotypes(obsVC, dbVC));
+				final List<VariantDescription> dbVars = variantProvider.normalizedAlleles(dbVC, matcher);
+				genotypeMatches.addAll(matcher.matchGenotypes(obsVC, dbVC, dbVars));
 				// TODO: what to do about non-reference/non-alt ClinVar annotation "-1"?
 				if (options.isReportOverlapping() || options.isReportOverlappingAsMatching())
-					positionOverlaps.addAll(matcher.positionOverlaps(obsVC, dbVC));
+					positionOverlaps.addAll(matcher.positionOverlaps(obsVC, dbVC, dbVars));
 			}
 
 			List<GenotypeMatch> emptyList = new ArrayList<>();
@@ -90,6 +89,8 @@ public class ClinVarAnnotationDriver implements DBAnnotationDriver {
 				return annotateWithDBRecords(obsVC, genotypeMatches, positionOverlaps);
 			else
 				return annotateWithDBRecords(obsVC, genotypeMatches, emptyList);
+		} finally {
+			matcher.clearMemo();
 		}
 	}
 
@@ -19,7 +19,8 @@ public class CosmicAnnotationDriver extends AbstractDBAnnotationDriver<CosmicRec
 
 	public CosmicAnnotationDriver(String vcfPath, String fastaPath, DBAnnotationOptions options)
 		throws JannovarVarDBException {
-		super(new VCFReaderVariantProvider(vcfPath), fastaPath, options, new CosmicVariantContextToRecordConverter());
+		super(DatabaseVariantContextProvider.forVCF(vcfPath, options), fastaPath, options,
+			new CosmicVariantContextToRecordConverter());
 	}
 
 	@Override
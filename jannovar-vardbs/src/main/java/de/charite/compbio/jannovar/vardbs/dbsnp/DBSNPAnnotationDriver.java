@@ -5,7 +5,9 @@ import com.google.common.collect.Lists;
 import de.charite.compbio.jannovar.vardbs.base.*;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFFileReader;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map.Entry;
@@ -31,10 +33,11 @@ final public class DBSNPAnnotationDriver extends AbstractDBAnnotationDriver<DBSN
 	 */
 	public DBSNPAnnotationDriver(String vcfPath, String fastaPath, DBAnnotationOptions options)
 		throws JannovarVarDBException {
-		super(new VCFReaderVariantProvider(vcfPath), fastaPath, options, new DBSNPVariantContextToRecordConverter());
-		VCFReaderVariantProvider vcfProvider = (VCFReaderVariantProvider) this.variantProvider;
-
-		this.dbSNPInfo = new DBSNPInfoFactory().build(vcfProvider.getVcfReader().getFileHeader());
+		super(DatabaseVariantContextProvider.forVCF(vcfPath, options), fastaPath, options,
+			new DBSNPVariantContextToRecordConverter());
+		try (VCFFileReader vcfReader = new VCFFileReader(new File(vcfPath), false)) {
+			this.dbSNPInfo = new DBSNPInfoFactory().build(vcfReader.getFileHeader());
+		}
 		if (dbSNPInfo.dbSNPBuildID != 147)
 			throw new JannovarVarDBException(
 				"Unsupported dbSNP build ID " + dbSNPInfo.dbSNPBuildID + " only supported is b147");
@@ -21,7 +21,8 @@ public class ExacAnnotationDriver extends AbstractDBAnnotationDriver<ExacRecord>
 
 	public ExacAnnotationDriver(String vcfPath, String fastaPath, DBAnnotationOptions options)
 		throws JannovarVarDBException {
-		super(new VCFReaderVariantProvider(vcfPath), fastaPath, options, new ExacVariantContextToRecordConverter());
+		super(DatabaseVariantContextProvider.forVCF(vcfPath, options), fastaPath, options,
+			new ExacVariantContextToRecordConverter());
 	}
 
 	@Override
@@ -6,6 +6,7 @@ import de.charite.compbio.jannovar.vardbs.base.VCFHeaderExtender;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
 
+import java.io.Closeable;
 import java.util.Collection;
 
 /**
@@ -13,7 +14,7 @@ import java.util.Collection;
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
-final public class DBVariantContextAnnotator {
+final public class DBVariantContextAnnotator implements Closeable {
 
 	/**
 	 * The DB annotation driver to use
@@ -65,4 +66,12 @@ final public class DBVariantContextAnnotator {
 			annotateVariantContext(vc);
 	}
 
+	/**
+	 * Close the database and reference files of the driver
+	 */
+	@Override
+	public void close() {
+		driver.close();
+	}
+
 }
@@ -23,7 +23,7 @@ public class ThousandGenomesAnnotationDriver
 
 	public ThousandGenomesAnnotationDriver(String vcfPath, String fastaPath,
 										   DBAnnotationOptions options) throws JannovarVarDBException {
-		super(new VCFReaderVariantProvider(vcfPath), fastaPath, options,
+		super(DatabaseVariantContextProvider.forVCF(vcfPath, options), fastaPath, options,
 			new ThousandGenomesVariantContextToRecordConverter());
 	}
 
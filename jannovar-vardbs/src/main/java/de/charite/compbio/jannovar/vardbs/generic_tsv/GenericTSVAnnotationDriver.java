@@ -29,11 +29,20 @@ public final class GenericTSVAnnotationDriver implements DBAnnotationDriver {
 
 	public GenericTSVAnnotationDriver(String fastaPath, GenericTSVAnnotationOptions options)
 		throws JannovarVarDBException {
-		this.variantProvider = new GenericTSVVariantContextProvider(options);
+		if (GenericTSVBinaryVariantContextProvider.isBinaryStore(options.getTsvFile()))
+			this.variantProvider = new GenericTSVBinaryVariantContextProvider(options);
+		else
+			this.variantProvider = new GenericTSVVariantContextProvider(options);
 		this.matcher = new AlleleMatcher(fastaPath);
 		this.options = options;
 	}
 
+	@Override
+	public void close() {
+		variantProvider.close();
+		matcher.close();
+	}
+
 	@Override
 	public VCFHeaderExtender constructVCFHeaderExtender() {
 		return new GenericTSVHeaderExtender(options);
@@ -45,13 +54,12 @@ public final class GenericTSVAnnotationDriver implements DBAnnotationDriver {
 
 		// Matching and overlapping records for each allele. For the generic TSV annotation, we
 		// assume that only one allele is given for each database record.
-		Map<Integer, List<VariantContext>> dbRecordsMatch = null;
-		Map<Integer, List<VariantContext>> dbRecordsOverlap = null;
+		final Map<Integer, List<VariantContext>> dbRecordsMatch = new HashMap<>();
+		final Map<Integer, List<VariantContext>> dbRecordsOverlap = new HashMap<>();
+		pickDBRecords(vc, dbRecordsMatch, dbRecordsOverlap);
 		if (options.isReportOverlapping() && options.isReportOverlappingAsMatching()) {
-			dbRecordsMatch = pickDBRecords(vc, false);
-		} else {
-			dbRecordsMatch = pickDBRecords(vc, true);
-			dbRecordsOverlap = pickDBRecords(vc, false);
+			dbRecordsMatch.clear();
+			dbRecordsMatch.putAll(dbRecordsOverlap);
 		}
 
 		// Annotate with records with genotype matches
@@ -83,32 +91,35 @@ public final class GenericTSVAnnotationDriver implements DBAnnotationDriver {
 
 	/**
 	 * Pick database records for the given {@link VariantContext} <code>vc</code>.
+	 * <p>
+	 * A single database query is used for classifying the records into genotype matches and position overlaps. As in
+	 * {@link AlleleMatcher#positionOverlaps}, the overlaps also include the genotype matches.
+	 *
+	 * @param vc               The {@link VariantContext} to pick the database records for
+	 * @param dbRecordsMatch   Map from allele number to records with matching genotype, to fill
+	 * @param dbRecordsOverlap Map from allele number to records with overlapping position, to fill
 	 */
-	private Map<Integer, List<VariantContext>> pickDBRecords(VariantContext vc,
-															 boolean requireGenotypeMatch) {
-		final Map<Integer, List<VariantContext>> result = new HashMap<>();
+	private void pickDBRecords(VariantContext vc, Map<Integer, List<VariantContext>> dbRecordsMatch,
+							   Map<Integer, List<VariantContext>> dbRecordsOverlap) {
 		for (int i = 0; i < vc.getNAlleles(); ++i) {
-			result.put(i, new ArrayList<>());
+			dbRecordsMatch.put(i, new ArrayList<>());
+			dbRecordsOverlap.put(i, new ArrayList<>());
 		}
 
 		try (CloseableIterator<VariantContext> it = variantProvider.query(vc.getContig(),
 			vc.getStart() - 1, vc.getEnd())) {
 			while (it.hasNext()) {
 				final VariantContext dbVC = it.next();
-				for (int i = 0; i < vc.getNAlleles(); ++i) {
-					final Collection<GenotypeMatch> matches;
-					if (requireGenotypeMatch) {
-						matches = matcher.matchGenotypes(vc, dbVC);
-					} else {
-						matches = matcher.positionOverlaps(vc, dbVC);
-					}
-					for (GenotypeMatch match : matches) {
-						result.get(match.getObservedAllele()).add(dbVC);
-					}
+				final List<VariantDescription> dbVars = variantProvider.normalizedAlleles(dbVC, matcher);
+				for (GenotypeMatch match : matcher.positionOverlaps(vc, dbVC, dbVars)) {
+					if (match.isMatch())
+						dbRecordsMatch.get(match.getObservedAllele()).add(dbVC);
+					dbRecordsOverlap.get(match.getObservedAllele()).add(dbVC);
 				}
 			}
+		} finally {
+			matcher.clearMemo();
 		}
-		return result;
 	}
 
 	/**
@@ -0,0 +1,164 @@
+package de.charite.compbio.jannovar.vardbs.generic_tsv;
+
+import htsjdk.variant.vcf.VCFHeaderLineType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Constants and helpers for the binary store format of generic TSV annotation files
+ * <p>
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: the {@link #MAGIC} bytes, the format version, and the
+ * offset of the footer. The header is followed by the fixed-width rows, sorted by contig and begin position. Each row
+ * consists of the begin and end position, the indices of the reference and alternative allele in the allele
+ * dictionary (<code>-1</code> for records without alleles), a bitmap of <code>null</code> values, and the value
+ * columns (see {@link ColumnType}). The footer contains the column descriptions, the string dictionaries, and for
+ * each contig the range of rows and the block index, i.e., the begin position of every {@link #BLOCK_SIZE}-th row.
+ * <p>
+ * All numbers are stored in big-endian byte order.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class GenericTSVBinaryStore {
+
+	/**
+	 * Magic bytes at the beginning of the file
+	 */
+	static final byte[] MAGIC = "JVTSVDB\n".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * Current version of the format
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * Size of the header: magic bytes, version, and footer offset
+	 */
+	static final int HEADER_SIZE = 8 + 4 + 8;
+
+	/**
+	 * Offset of the footer offset in the header
+	 */
+	static final int FOOTER_OFFSET_POS = 8 + 4;
+
+	/**
+	 * Size of the fixed part of each row: begin, end, reference and alternative allele index
+	 */
+	static final int ROW_PREFIX_SIZE = 4 * 4;
+
+	/**
+	 * Number of rows per block of the block index
+	 */
+	static final int BLOCK_SIZE = 64;
+
+	/**
+	 * Type of a value column
+	 */
+	enum ColumnType {
+		/**
+		 * 4 byte integer
+		 */
+		INTEGER(4),
+		/**
+		 * 8 byte floating point number, such that values are written out exactly as from the TSV file
+		 */
+		FLOAT(8),
+		/**
+		 * 4 byte index into the column's string dictionary
+		 */
+		STRING(4),
+		/**
+		 * 1 byte boolean
+		 */
+		FLAG(1);
+
+		/**
+		 * Number of bytes in the row
+		 */
+		final int width;
+
+		ColumnType(int width) {
+			this.width = width;
+		}
+
+		/**
+		 * @return Column type for storing values of the given VCF type
+		 */
+		static ColumnType forValueType(VCFHeaderLineType valueType) {
+			switch (valueType) {
+				case Integer:
+					return INTEGER;
+				case Float:
+					return FLOAT;
+				case Flag:
+					return FLAG;
+				case Character:
+				case String:
+				default:
+					return STRING;
+			}
+		}
+	}
+
+	private GenericTSVBinaryStore() {
+	}
+
+	/**
+	 * @return Number of bytes of the <code>null</code> bitmap for the given number of columns
+	 */
+	static int nullBitmapSize(int numColumns) {
+		return (numColumns + 7) / 8;
+	}
+
+	/**
+	 * @param file File to check
+	 * @return Whether or not the file starts with the binary store's magic bytes
+	 */
+	static boolean isBinaryStore(File file) {
+		final byte[] buf = new byte[MAGIC.length];
+		try (InputStream in = new FileInputStream(file)) {
+			int pos = 0;
+			while (pos < buf.length) {
+				final int n = in.read(buf, pos, buf.length - pos);
+				if (n < 0)
+					return false;
+				pos += n;
+			}
+		} catch (IOException e) {
+			return false;
+		}
+		return Arrays.equals(MAGIC, buf);
+	}
+
+	/**
+	 * Write string as length-prefixed UTF-8, <code>null</code> is written as length <code>-1</code>
+	 */
+	static void writeString(DataOutput out, String s) throws IOException {
+		if (s == null) {
+			out.writeInt(-1);
+		} else {
+			final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Read string written with {@link #writeString}
+	 */
+	static String readString(DataInput in) throws IOException {
+		final int len = in.readInt();
+		if (len < 0)
+			return null;
+		final byte[] bytes = new byte[len];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,302 @@
+package de.charite.compbio.jannovar.vardbs.generic_tsv;
+
+import de.charite.compbio.jannovar.vardbs.base.JannovarVarDBException;
+import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVBinaryStore.ColumnType;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.tribble.readers.TabixReader;
+import htsjdk.variant.variantcontext.VariantContext;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Convert a TABIX-indexed TSV file into the binary store format read by {@link GenericTSVBinaryVariantContextProvider}
+ * <p>
+ * The records are read through {@link GenericTSVVariantContextProvider}, such that the values stored for the columns
+ * selected in the {@link GenericTSVAnnotationOptions} are exactly the ones used for annotation from the TSV file.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class GenericTSVBinaryStoreWriter {
+
+	/**
+	 * Configuration, including the column selection
+	 */
+	private final GenericTSVAnnotationOptions options;
+
+	/**
+	 * Types of the selected columns
+	 */
+	private final ColumnType[] columnTypes;
+
+	/**
+	 * Number of bytes per row
+	 */
+	private final int rowSize;
+
+	/**
+	 * Dictionary of the allele strings
+	 */
+	private final Dictionary alleles = new Dictionary();
+
+	/**
+	 * Dictionary for each column, <code>null</code> for non-string columns
+	 */
+	private final Dictionary[] dictionaries;
+
+	/**
+	 * Construct writer
+	 *
+	 * @param options Configuration with the TSV file and the columns to convert
+	 */
+	public GenericTSVBinaryStoreWriter(GenericTSVAnnotationOptions options) {
+		this.options = options;
+		final List<String> columnNames = options.getColumnNames();
+		this.columnTypes = new ColumnType[columnNames.size()];
+		this.dictionaries = new Dictionary[columnNames.size()];
+		int size = GenericTSVBinaryStore.ROW_PREFIX_SIZE
+			+ GenericTSVBinaryStore.nullBitmapSize(columnNames.size());
+		for (int i = 0; i < columnNames.size(); ++i) {
+			final GenericTSVValueColumnDescription desc = options.getValueColumnDescriptions()
+				.get(columnNames.get(i));
+			columnTypes[i] = ColumnType.forValueType(desc.getValueType());
+			if (columnTypes[i] == ColumnType.STRING)
+				dictionaries[i] = new Dictionary();
+			size += columnTypes[i].width;
+		}
+		this.rowSize = size;
+	}
+
+	/**
+	 * Convert the TSV file to the binary store format
+	 *
+	 * @param outputFile Path to the output file
+	 * @return Number of records written
+	 * @throws JannovarVarDBException on problems reading the TSV file or writing the output file
+	 */
+	public long write(File outputFile) throws JannovarVarDBException {
+		final String tsvPath = options.getTsvFile().toString();
+		final TreeSet<String> contigNames;
+		try {
+			final TabixReader tabixReader = new TabixReader(tsvPath, tsvPath + ".tbi");
+			contigNames = new TreeSet<>(tabixReader.getChromosomes());
+			tabixReader.close();
+		} catch (IOException e) {
+			throw new JannovarVarDBException("Could not open TABIX file " + tsvPath, e);
+		}
+
+		final GenericTSVVariantContextProvider provider = new GenericTSVVariantContextProvider(options);
+		final List<ContigInfo> contigs = new ArrayList<>();
+		long numRows = 0;
+		try (DataOutputStream out = new DataOutputStream(
+			new BufferedOutputStream(new FileOutputStream(outputFile)))) {
+			out.write(GenericTSVBinaryStore.MAGIC);
+			out.writeInt(GenericTSVBinaryStore.VERSION);
+			out.writeLong(0); // footer offset, written below
+
+			final ByteBuffer row = ByteBuffer.allocate(rowSize);
+			for (String contig : contigNames) {
+				final ContigInfo info = new ContigInfo(contig, numRows);
+				try (CloseableIterator<VariantContext> it = provider.query(contig, 0, Integer.MAX_VALUE)) {
+					while (it.hasNext()) {
+						final VariantContext vc = it.next();
+						if (info.numRows > 0 && vc.getStart() < info.lastBegin)
+							throw new JannovarVarDBException("TSV file is not sorted by position at " + contig + ":"
+								+ vc.getStart());
+						if (info.numRows % GenericTSVBinaryStore.BLOCK_SIZE == 0)
+							info.blockBegins.add(vc.getStart());
+						info.lastBegin = vc.getStart();
+						info.maxSpan = Math.max(info.maxSpan, vc.getEnd() - vc.getStart());
+						info.numRows += 1;
+
+						encodeRow(vc, row);
+						out.write(row.array());
+					}
+				}
+				if (info.numRows > 0)
+					contigs.add(info);
+				numRows += info.numRows;
+			}
+
+			writeFooter(out, contigs);
+		} catch (IOException e) {
+			throw new JannovarVarDBException("Problem writing binary store " + outputFile, e);
+		}
+
+		final long footerOffset = GenericTSVBinaryStore.HEADER_SIZE + numRows * rowSize;
+		try (RandomAccessFile raf = new RandomAccessFile(outputFile, "rw")) {
+			raf.seek(GenericTSVBinaryStore.FOOTER_OFFSET_POS);
+			raf.writeLong(footerOffset);
+		} catch (IOException e) {
+			throw new JannovarVarDBException("Problem writing binary store " + outputFile, e);
+		}
+		return numRows;
+	}
+
+	/**
+	 * Encode {@link VariantContext} as produced by {@link GenericTSVVariantContextProvider} into <code>row</code>
+	 */
+	private void encodeRow(VariantContext vc, ByteBuffer row) throws JannovarVarDBException {
+		row.clear();
+		row.putInt(vc.getStart());
+		row.putInt(vc.getEnd());
+		if (options.getRefAlleleColumnIndex() > 0 && options.getAltAlleleColumnIndex() > 0) {
+			row.putInt(alleles.indexOf(vc.getReference().getDisplayString()));
+			row.putInt(alleles.indexOf(vc.getAlternateAllele(0).getDisplayString()));
+		} else {
+			row.putInt(-1);
+			row.putInt(-1);
+		}
+
+		final List<String> columnNames = options.getColumnNames();
+		final int bitmapPos = row.position();
+		final byte[] nullBitmap = new byte[GenericTSVBinaryStore.nullBitmapSize(columnNames.size())];
+		row.put(nullBitmap);
+		for (int i = 0; i < columnNames.size(); ++i) {
+			final GenericTSVValueColumnDescription desc = options.getValueColumnDescriptions()
+				.get(columnNames.get(i));
+			final Object value = vc.getAttribute(desc.getFieldName());
+			if (value == null) {
+				nullBitmap[i / 8] |= (byte) (1 << (i % 8));
+				for (int k = 0; k < columnTypes[i].width; ++k)
+					row.put((byte) 0);
+				continue;
+			}
+			try {
+				switch (columnTypes[i]) {
+					case INTEGER:
+						row.putInt((Integer) value);
+						break;
+					case FLOAT:
+						row.putDouble((Double) value);
+						break;
+					case FLAG:
+						row.put((byte) ((Boolean) value ? 1 : 0));
+						break;
+					case STRING:
+					default:
+						row.putInt(dictionaries[i].indexOf((String) value));
+						break;
+				}
+			} catch (ClassCastException e) {
+				throw new JannovarVarDBException("Unexpected value " + value + " in column " + columnNames.get(i)
+					+ " at " + vc.getContig() + ":" + vc.getStart(), e);
+			}
+		}
+		for (int i = 0; i < nullBitmap.length; ++i)
+			row.put(bitmapPos + i, nullBitmap[i]);
+	}
+
+	/**
+	 * Write the column descriptions, dictionaries, and contig index
+	 */
+	private void writeFooter(DataOutputStream out, List<ContigInfo> contigs) throws IOException {
+		final List<String> columnNames = options.getColumnNames();
+		out.writeInt(rowSize);
+		out.writeInt(columnNames.size());
+		for (String columnName : columnNames) {
+			final GenericTSVValueColumnDescription desc = options.getValueColumnDescriptions().get(columnName);
+			GenericTSVBinaryStore.writeString(out, columnName);
+			GenericTSVBinaryStore.writeString(out, desc.getFieldName());
+			GenericTSVBinaryStore.writeString(out, desc.getValueType().name());
+			GenericTSVBinaryStore.writeString(out, desc.getRefField());
+			GenericTSVBinaryStore.writeString(out,
+				desc.getAccumulationStrategy() == null ? null : desc.getAccumulationStrategy().name());
+		}
+
+		alleles.write(out);
+		for (Dictionary dictionary : dictionaries) {
+			if (dictionary == null)
+				out.writeInt(0);
+			else
+				dictionary.write(out);
+		}
+
+		out.writeInt(contigs.size());
+		for (ContigInfo info : contigs) {
+			GenericTSVBinaryStore.writeString(out, info.name);
+			out.writeLong(info.firstRow);
+			out.writeInt(info.numRows);
+			out.writeInt(info.maxSpan);
+			out.writeInt(info.blockBegins.size());
+			for (int begin : info.blockBegins)
+				out.writeInt(begin);
+		}
+	}
+
+	/**
+	 * Dictionary for coding strings as integers
+	 */
+	private static final class Dictionary {
+		/**
+		 * Mapping from string to index
+		 */
+		final Map<String, Integer> indices = new HashMap<>();
+		/**
+		 * The strings, in order of their index
+		 */
+		final List<String> values = new ArrayList<>();
+
+		/**
+		 * @return Index of <code>value</code>, added on first occurrence
+		 */
+		int indexOf(String value) {
+			return indices.computeIfAbsent(value, v -> {
+				values.add(v);
+				return values.size() - 1;
+			});
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			out.writeInt(values.size());
+			for (String value : values)
+				GenericTSVBinaryStore.writeString(out, value);
+		}
+	}
+
+	/**
+	 * Rows and block index of one contig
+	 */
+	private static final class ContigInfo {
+		/**
+		 * Name of the contig
+		 */
+		final String name;
+		/**
+		 * Index of the contig's first row in the file
+		 */
+		final long firstRow;
+		/**
+		 * Number of rows on the contig
+		 */
+		int numRows;
+		/**
+		 * Largest difference between end and begin position
+		 */
+		int maxSpan;
+		/**
+		 * Begin position of the previous row, for checking the sort order
+		 */
+		int lastBegin;
+		/**
+		 * Begin position of each block's first row
+		 */
+		final List<Integer> blockBegins = new ArrayList<>();
+
+		ContigInfo(String name, long firstRow) {
+			this.name = name;
+			this.firstRow = firstRow;
+		}
+	}
+
+}
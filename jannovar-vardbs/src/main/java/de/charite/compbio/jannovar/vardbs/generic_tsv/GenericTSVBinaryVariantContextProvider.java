@@ -0,0 +1,363 @@
+package de.charite.compbio.jannovar.vardbs.generic_tsv;
+
+import de.charite.compbio.jannovar.vardbs.base.DatabaseVariantContextProvider;
+import de.charite.compbio.jannovar.vardbs.base.JannovarVarDBException;
+import de.charite.compbio.jannovar.vardbs.generic_tsv.GenericTSVBinaryStore.ColumnType;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFHeaderLineType;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Read generic TSV annotation records from the binary store written by {@link GenericTSVBinaryStoreWriter}
+ * <p>
+ * The rows are memory-mapped and located using the per-contig block index, so no decompression or text parsing
+ * happens at query time. The returned {@link VariantContext}s are equal to the ones that
+ * {@link GenericTSVVariantContextProvider} returns for the TSV file that the store was created from. Queries only read
+ * from the mapped buffers, so one instance can be shared between threads.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class GenericTSVBinaryVariantContextProvider implements DatabaseVariantContextProvider {
+
+	/**
+	 * Maximal number of bytes per mapped buffer
+	 */
+	private static final long MAX_CHUNK_BYTES = Integer.MAX_VALUE;
+
+	/**
+	 * Number of bytes per row
+	 */
+	private final int rowSize;
+
+	/**
+	 * Number of rows per mapped buffer
+	 */
+	private final long rowsPerChunk;
+
+	/**
+	 * The mapped rows
+	 */
+	private final MappedByteBuffer[] chunks;
+
+	/**
+	 * Allele dictionary
+	 */
+	private final String[] alleles;
+
+	/**
+	 * Field names to write values to, in the order of the column selection
+	 */
+	private final String[] fieldNames;
+
+	/**
+	 * Index of the selected columns in the store, in the order of the column selection
+	 */
+	private final int[] storeColumns;
+
+	/**
+	 * Type of each column in the store
+	 */
+	private final ColumnType[] columnTypes;
+
+	/**
+	 * Byte offset of each column in the store within the row
+	 */
+	private final int[] columnOffsets;
+
+	/**
+	 * String dictionary of each column in the store, <code>null</code> for non-string columns
+	 */
+	private final String[][] dictionaries;
+
+	/**
+	 * Index of each contig
+	 */
+	private final Map<String, ContigIndex> contigs = new HashMap<>();
+
+	/**
+	 * @param file File to check
+	 * @return Whether or not <code>file</code> is a binary store written by {@link GenericTSVBinaryStoreWriter}
+	 */
+	public static boolean isBinaryStore(File file) {
+		return GenericTSVBinaryStore.isBinaryStore(file);
+	}
+
+	/**
+	 * Open binary store
+	 *
+	 * @param options Configuration with the path to the store in {@link GenericTSVAnnotationOptions#getTsvFile()} and
+	 *                the columns to annotate with, which have to be contained in the store with equal descriptions
+	 * @throws JannovarVarDBException on problems reading the store or if the selected columns do not match the store
+	 */
+	public GenericTSVBinaryVariantContextProvider(GenericTSVAnnotationOptions options) throws JannovarVarDBException {
+		final File file = options.getTsvFile();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			final ByteBuffer header = ByteBuffer.allocate(GenericTSVBinaryStore.HEADER_SIZE);
+			channel.read(header, 0);
+			header.flip();
+			final byte[] magic = new byte[GenericTSVBinaryStore.MAGIC.length];
+			header.get(magic);
+			if (!Arrays.equals(magic, GenericTSVBinaryStore.MAGIC))
+				throw new JannovarVarDBException("Not a binary TSV store: " + file);
+			final int version = header.getInt();
+			if (version != GenericTSVBinaryStore.VERSION)
+				throw new JannovarVarDBException("Unsupported binary TSV store version " + version + " in " + file);
+			final long footerOffset = header.getLong();
+
+			final ByteBuffer footerBuf = ByteBuffer.allocate((int) (channel.size() - footerOffset));
+			channel.read(footerBuf, footerOffset);
+			final DataInputStream footer = new DataInputStream(new ByteArrayInputStream(footerBuf.array()));
+
+			// Column descriptions, checked against the selection
+			this.rowSize = footer.readInt();
+			final int numColumns = footer.readInt();
+			final List<String> storeNames = new ArrayList<>();
+			final List<String[]> storeDescriptions = new ArrayList<>();
+			this.columnTypes = new ColumnType[numColumns];
+			this.columnOffsets = new int[numColumns];
+			int offset = GenericTSVBinaryStore.ROW_PREFIX_SIZE + GenericTSVBinaryStore.nullBitmapSize(numColumns);
+			for (int i = 0; i < numColumns; ++i) {
+				storeNames.add(GenericTSVBinaryStore.readString(footer));
+				final String[] description = new String[4];
+				for (int j = 0; j < description.length; ++j)
+					description[j] = GenericTSVBinaryStore.readString(footer);
+				storeDescriptions.add(description);
+				columnTypes[i] = ColumnType.forValueType(VCFHeaderLineType.valueOf(description[1]));
+				columnOffsets[i] = offset;
+				offset += columnTypes[i].width;
+			}
+
+			final List<String> columnNames = options.getColumnNames();
+			this.fieldNames = new String[columnNames.size()];
+			this.storeColumns = new int[columnNames.size()];
+			for (int i = 0; i < columnNames.size(); ++i) {
+				final GenericTSVValueColumnDescription desc = options.getValueColumnDescriptions()
+					.get(columnNames.get(i));
+				final int idx = storeNames.indexOf(columnNames.get(i));
+				if (idx < 0)
+					throw new JannovarVarDBException(
+						"Column " + columnNames.get(i) + " not in binary TSV store " + file);
+				final String[] description = storeDescriptions.get(idx);
+				final String strategy = desc.getAccumulationStrategy() == null ? null
+					: desc.getAccumulationStrategy().name();
+				if (!Objects.equals(description[0], desc.getFieldName())
+					|| !Objects.equals(description[1], desc.getValueType().name())
+					|| !Objects.equals(description[2], desc.getRefField())
+					|| !Objects.equals(description[3], strategy))
+					throw new JannovarVarDBException("Column " + columnNames.get(i)
+						+ " has a different description in binary TSV store " + file);
+				fieldNames[i] = desc.getFieldName();
+				storeColumns[i] = idx;
+			}
+
+			// Dictionaries
+			this.alleles = readDictionary(footer);
+			this.dictionaries = new String[numColumns][];
+			for (int i = 0; i < numColumns; ++i) {
+				final String[] dictionary = readDictionary(footer);
+				if (columnTypes[i] == ColumnType.STRING)
+					dictionaries[i] = dictionary;
+			}
+
+			// Contig index
+			final int numContigs = footer.readInt();
+			long numRows = 0;
+			for (int i = 0; i < numContigs; ++i) {
+				final String name = GenericTSVBinaryStore.readString(footer);
+				final long firstRow = footer.readLong();
+				final int contigRows = footer.readInt();
+				final int maxSpan = footer.readInt();
+				final int[] blockBegins = new int[footer.readInt()];
+				for (int j = 0; j < blockBegins.length; ++j)
+					blockBegins[j] = footer.readInt();
+				contigs.put(name, new ContigIndex(firstRow, contigRows, maxSpan, blockBegins));
+				numRows += contigRows;
+			}
+
+			// Map the rows, in chunks of whole rows
+			this.rowsPerChunk = MAX_CHUNK_BYTES / rowSize;
+			final int numChunks = (int) ((numRows + rowsPerChunk - 1) / rowsPerChunk);
+			this.chunks = new MappedByteBuffer[numChunks];
+			for (int i = 0; i < numChunks; ++i) {
+				final long chunkRows = Math.min(rowsPerChunk, numRows - i * rowsPerChunk);
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+					GenericTSVBinaryStore.HEADER_SIZE + i * rowsPerChunk * rowSize, chunkRows * rowSize);
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			throw new JannovarVarDBException("Problem reading binary TSV store " + file, e);
+		}
+	}
+
+	/**
+	 * Read dictionary written by the {@link GenericTSVBinaryStoreWriter}
+	 */
+	private static String[] readDictionary(DataInputStream in) throws IOException {
+		final String[] result = new String[in.readInt()];
+		for (int i = 0; i < result.length; ++i)
+			result[i] = GenericTSVBinaryStore.readString(in);
+		return result;
+	}
+
+	/**
+	 * Query for records, with the same semantics as a TABIX query
+	 *
+	 * @param contig   Name of the contig to perform query on.
+	 * @param beginPos 0-based begin position
+	 * @param endPos   end position
+	 * @return {@link CloseableIterator} of {@link VariantContext}s with <code>begin &lt;= endPos</code> and
+	 * <code>end &gt; beginPos</code>
+	 */
+	@Override
+	public CloseableIterator<VariantContext> query(String contig, int beginPos, int endPos) {
+		final List<VariantContext> result = new ArrayList<>();
+		final ContigIndex index = contigs.get(contig);
+		if (index != null) {
+			// Rows beginning left of minBegin cannot reach beginPos
+			final long minBegin = (long) beginPos + 1 - index.maxSpan;
+			// Start at the last block beginning left of minBegin, rows with equal begin may be in the previous block
+			int block = 0;
+			int lo = 0;
+			int hi = index.blockBegins.length - 1;
+			while (lo <= hi) {
+				final int mid = (lo + hi) >>> 1;
+				if (index.blockBegins[mid] < minBegin) {
+					block = mid;
+					lo = mid + 1;
+				} else {
+					hi = mid - 1;
+				}
+			}
+
+			for (int i = block * GenericTSVBinaryStore.BLOCK_SIZE; i < index.numRows; ++i) {
+				final long row = index.firstRow + i;
+				final ByteBuffer buf = chunks[(int) (row / rowsPerChunk)];
+				final int pos = (int) (row % rowsPerChunk) * rowSize;
+				final int begin = buf.getInt(pos);
+				if (begin > endPos)
+					break;
+				final int end = buf.getInt(pos + 4);
+				if (end > beginPos)
+					result.add(buildVariantContext(contig, buf, pos, begin, end));
+			}
+		}
+		return new ListIterator(result);
+	}
+
+	/**
+	 * Build {@link VariantContext} from the row at <code>pos</code> in <code>buf</code>
+	 */
+	private VariantContext buildVariantContext(String contig, ByteBuffer buf, int pos, int begin, int end) {
+		final VariantContextBuilder builder = new VariantContextBuilder();
+		builder.chr(contig);
+		builder.start(begin);
+		builder.stop(end);
+		final int refIdx = buf.getInt(pos + 8);
+		if (refIdx >= 0)
+			builder.alleles(alleles[refIdx], alleles[buf.getInt(pos + 12)]);
+		else
+			builder.alleles("N");
+
+		final int bitmapPos = pos + GenericTSVBinaryStore.ROW_PREFIX_SIZE;
+		for (int i = 0; i < storeColumns.length; ++i) {
+			final int col = storeColumns[i];
+			if ((buf.get(bitmapPos + col / 8) & (1 << (col % 8))) != 0) {
+				builder.attribute(fieldNames[i], null);
+				continue;
+			}
+			final int valuePos = pos + columnOffsets[col];
+			switch (columnTypes[col]) {
+				case INTEGER:
+					builder.attribute(fieldNames[i], buf.getInt(valuePos));
+					break;
+				case FLOAT:
+					builder.attribute(fieldNames[i], buf.getDouble(valuePos));
+					break;
+				case FLAG:
+					builder.attribute(fieldNames[i], buf.get(valuePos) != 0);
+					break;
+				case STRING:
+				default:
+					builder.attribute(fieldNames[i], dictionaries[col][buf.getInt(valuePos)]);
+					break;
+			}
+		}
+		return builder.make();
+	}
+
+	/**
+	 * Rows and block index of one contig
+	 */
+	private static final class ContigIndex {
+		/**
+		 * Index of the contig's first row in the file
+		 */
+		final long firstRow;
+		/**
+		 * Number of rows on the contig
+		 */
+		final int numRows;
+		/**
+		 * Largest difference between end and begin position
+		 */
+		final int maxSpan;
+		/**
+		 * Begin position of each block's first row
+		 */
+		final int[] blockBegins;
+
+		ContigIndex(long firstRow, int numRows, int maxSpan, int[] blockBegins) {
+			this.firstRow = firstRow;
+			this.numRows = numRows;
+			this.maxSpan = maxSpan;
+			this.blockBegins = blockBegins;
+		}
+	}
+
+	/**
+	 * {@link CloseableIterator} over a list of records
+	 */
+	private static final class ListIterator implements CloseableIterator<VariantContext> {
+
+		/**
+		 * Iterator over the records
+		 */
+		private final Iterator<VariantContext> iter;
+
+		ListIterator(List<VariantContext> records) {
+			this.iter = records.iterator();
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public boolean hasNext() {
+			return iter.hasNext();
+		}
+
+		@Override
+		public VariantContext next() {
+			return iter.next();
+		}
+
+	}
+
+}
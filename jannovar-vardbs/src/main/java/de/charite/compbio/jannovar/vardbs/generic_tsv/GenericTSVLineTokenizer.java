@@ -0,0 +1,69 @@
+package de.charite.compbio.jannovar.vardbs.generic_tsv;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Tokenizer for tab-separated lines that only materializes selected columns
+ * <p>
+ * Lines of files such as dbNSFP have hundreds of columns of which only a handful are used for annotation.
+ * Instead of splitting the whole line, the tokenizer scans for the tab characters and only creates {@link String}s
+ * for the selected columns, stopping after the right-most one.
+ * <p>
+ * The array returned by {@link #tokenize} is reused between calls, so instances are not thread-safe.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class GenericTSVLineTokenizer {
+
+	/**
+	 * Whether or not the column with the given 0-based index is selected
+	 */
+	private final boolean[] selected;
+
+	/**
+	 * Result buffer, indexed by 0-based column index
+	 */
+	private final String[] tokens;
+
+	/**
+	 * Construct tokenizer
+	 *
+	 * @param columnIndices 1-based indices of the columns to materialize, values <code>&lt;= 0</code> are ignored
+	 */
+	GenericTSVLineTokenizer(Collection<Integer> columnIndices) {
+		int numColumns = 0;
+		for (int idx : columnIndices)
+			numColumns = Math.max(numColumns, idx);
+		this.selected = new boolean[numColumns];
+		for (int idx : columnIndices)
+			if (idx > 0)
+				this.selected[idx - 1] = true;
+		this.tokens = new String[numColumns];
+	}
+
+	/**
+	 * Tokenize line
+	 *
+	 * @param line Tab-separated line to tokenize
+	 * @return Array indexed by 0-based column index with the selected columns set and all others <code>null</code>
+	 * @throws IllegalArgumentException if the line has fewer columns than the right-most selected one
+	 */
+	String[] tokenize(String line) {
+		Arrays.fill(tokens, null);
+		int begin = 0;
+		for (int col = 0; col < selected.length; ++col) {
+			if (begin > line.length())
+				throw new IllegalArgumentException(
+					"Line has only " + col + " columns but column " + selected.length + " is required");
+			int end = line.indexOf('\t', begin);
+			if (end < 0)
+				end = line.length();
+			if (selected[col])
+				tokens[col] = line.substring(begin, end);
+			begin = end + 1;
+		}
+		return tokens;
+	}
+
+}
@@ -25,10 +25,25 @@ import java.util.stream.Collectors;
  */
 public class GenericTSVVariantContextProvider implements DatabaseVariantContextProvider {
 
+	/**
+	 * Values interpreted as <code>true</code> for flag columns
+	 */
+	private static final ImmutableList<String> TRUE_VALUES = ImmutableList.of("1", "Y", "y", "T", "t", "yes", "true");
+
 	private final GenericTSVAnnotationOptions options;
 
 	private final TabixReader tabixReader;
 
+	/**
+	 * Names of all columns to read values from, including the reference columns that are not selected for printing
+	 */
+	private final Set<String> allColNames;
+
+	/**
+	 * Tokenizer that only materializes the columns used
+	 */
+	private final GenericTSVLineTokenizer tokenizer;
+
 	public GenericTSVVariantContextProvider(GenericTSVAnnotationOptions options) {
 		this.options = options;
 		final String tsvPath = this.options.getTsvFile().toString();
@@ -37,6 +52,25 @@ public class GenericTSVVariantContextProvider implements DatabaseVariantContextP
 		} catch (IOException e) {
 			throw new RuntimeException("Could not open TABIX file " + tsvPath, e);
 		}
+
+		// Collect all required column names (ref column names might not be selected for printing)
+		this.allColNames = new HashSet<>(options.getColumnNames());
+		for (String colName : options.getColumnNames()) {
+			final GenericTSVValueColumnDescription desc = options.getValueColumnDescriptions().get(colName);
+			if (desc.getRefField() != null) {
+				allColNames.add(desc.getRefField());
+			}
+		}
+
+		final List<Integer> columnIndices = new ArrayList<>();
+		columnIndices.add(options.getContigColumnIndex());
+		columnIndices.add(options.getBeginColumnIndex());
+		columnIndices.add(options.getEndColumnIndex());
+		columnIndices.add(options.getRefAlleleColumnIndex());
+		columnIndices.add(options.getAltAlleleColumnIndex());
+		for (String colName : allColNames)
+			columnIndices.add(options.getValueColumnDescriptions().get(colName).getColumnIndex());
+		this.tokenizer = new GenericTSVLineTokenizer(columnIndices);
 	}
 
 	@Override
@@ -44,6 +78,11 @@ public class GenericTSVVariantContextProvider implements DatabaseVariantContextP
 		return new TabixIteratorWrapper(tabixReader.query(contig, beginPos, endPos));
 	}
 
+	@Override
+	public void close() {
+		tabixReader.close();
+	}
+
 	/**
 	 * Wrapper for iterator from {@link TabixReader}.
 	 *
@@ -81,7 +120,7 @@ public class GenericTSVVariantContextProvider implements DatabaseVariantContextP
 		}
 
 		private VariantContext parseTabixLine(String resultLine) {
-			final String[] tokens = resultLine.split("\t");
+			final String[] tokens = tokenizer.tokenize(resultLine);
 
 			final VariantContextBuilder builder = new VariantContextBuilder();
 
@@ -102,17 +141,6 @@ public class GenericTSVVariantContextProvider implements DatabaseVariantContextP
 				builder.alleles("N");
 			}
 
-			// Collect all required column names (ref column names might not be selected for
-			// printing)
-			Set<String> allColNames = new HashSet<>(options.getColumnNames());
-			for (String colName : options.getColumnNames()) {
-				final GenericTSVValueColumnDescription desc = options.getValueColumnDescriptions()
-					.get(colName);
-				if (desc.getRefField() != null) {
-					allColNames.add(desc.getRefField());
-				}
-			}
-
 			// Collect values from all required columns
 			Map<String, List<Object>> colValues = new HashMap<>();
 			for (String colName : allColNames) {
@@ -128,8 +156,7 @@ public class GenericTSVVariantContextProvider implements DatabaseVariantContextP
 							if (s == null || ".".equals(s)) {
 								return null;
 							} else {
-								return (Object) ImmutableList.of("1", "Y", "y", "T", "t", "yes", "true")
-									.contains(s);
+								return (Object) TRUE_VALUES.contains(s);
 							}
 						}).collect(Collectors.toList()));
 						break;
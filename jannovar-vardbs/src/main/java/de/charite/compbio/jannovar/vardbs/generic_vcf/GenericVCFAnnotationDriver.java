@@ -22,7 +22,7 @@ public class GenericVCFAnnotationDriver extends AbstractDBAnnotationDriver<Varia
 
 	public GenericVCFAnnotationDriver(String vcfPath, String fastaPath, GenericVCFAnnotationOptions options)
 		throws JannovarVarDBException {
-		super(new VCFReaderVariantProvider(options.getPathVcfFile()), fastaPath, options,
+		super(DatabaseVariantContextProvider.forVCF(options.getPathVcfFile(), options), fastaPath, options,
 			new GenericVCFVariantContextToRecordConverter());
 		this.genericVcfOptions = options;
 	}
@@ -21,7 +21,8 @@ public class GnomadAnnotationDriver extends AbstractDBAnnotationDriver<GnomadRec
 
 	public GnomadAnnotationDriver(String vcfPath, String fastaPath, DBAnnotationOptions options)
 		throws JannovarVarDBException {
-		super(new VCFReaderVariantProvider(vcfPath), fastaPath, options, new GnomadVariantContextToRecordConverter());
+		super(DatabaseVariantContextProvider.forVCF(vcfPath, options), fastaPath, options,
+			new GnomadVariantContextToRecordConverter());
 	}
 
 	@Override
@@ -17,7 +17,8 @@ public class UK10KAnnotationDriver extends AbstractDBAnnotationDriver<UK10KRecor
 
 	public UK10KAnnotationDriver(String vcfPath, String fastaPath, DBAnnotationOptions options)
 		throws JannovarVarDBException {
-		super(new VCFReaderVariantProvider(vcfPath), fastaPath, options, new UK10KVariantContextToRecordConverter());
+		super(DatabaseVariantContextProvider.forVCF(vcfPath, options), fastaPath, options,
+			new UK10KVariantContextToRecordConverter());
 	}
 
 	@Override
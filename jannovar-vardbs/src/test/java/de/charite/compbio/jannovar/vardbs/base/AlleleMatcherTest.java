@@ -11,6 +11,7 @@ import org.junit.Test;
 import java.io.File;
 import java.io.PrintWriter;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 
@@ -137,4 +138,20 @@ public class AlleleMatcherTest {
 		Assert.assertEquals(2, second.getDbAllele());
 	}
 
+	/**
+	 * Test that normalized alleles are memoized until the memo is cleared
+	 */
+	@Test
+	public void testNormalizeMemo() throws JannovarVarDBException {
+		AlleleMatcher matcher = new AlleleMatcher(fastaPath);
+		List<VariantDescription> vars = matcher.normalize(vcMultiple);
+		assertEquals(2, vars.size());
+		Assert.assertSame(vars, matcher.normalize(vcMultiple));
+
+		matcher.clearMemo();
+		List<VariantDescription> fresh = matcher.normalize(vcMultiple);
+		Assert.assertNotSame(vars, fresh);
+		assertEquals(vars, fresh);
+	}
+
 }
@@ -0,0 +1,66 @@
+package de.charite.compbio.jannovar.vardbs.base;
+
+import com.google.common.io.Files;
+import de.charite.compbio.jannovar.utils.ResourceUtils;
+import htsjdk.samtools.reference.IndexedFastaSequenceFile;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+
+public class ReferenceBlockCacheTest {
+
+	static String fastaPath;
+	static String brafSeq;
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		File tmpDir = Files.createTempDir();
+		fastaPath = tmpDir + "/braf.fasta";
+		ResourceUtils.copyResourceToFile("/braf.fasta", new File(fastaPath));
+		ResourceUtils.copyResourceToFile("/braf.fasta.fai", new File(fastaPath + ".fai"));
+
+		try (IndexedFastaSequenceFile fai = new IndexedFastaSequenceFile(new File(fastaPath))) {
+			brafSeq = fai.getSequence("braf").getBaseString();
+		}
+	}
+
+	@Test
+	public void testGetBase() throws Exception {
+		ReferenceBlockCache cache = new ReferenceBlockCache(fastaPath, 1000, 2);
+		for (int i = 0; i < brafSeq.length(); ++i)
+			Assert.assertEquals(brafSeq.charAt(i), cache.getBase("braf", i));
+
+		// 24 blocks of 1000 bases, the last one shorter
+		Assert.assertEquals(24, cache.getMisses());
+		Assert.assertEquals(brafSeq.length() - 24, cache.getHits());
+		Assert.assertEquals(2, cache.getNumBlocks());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedEviction() throws Exception {
+		ReferenceBlockCache cache = new ReferenceBlockCache(fastaPath, 1000, 2);
+		cache.getBase("braf", 0); // miss, block 0
+		cache.getBase("braf", 1000); // miss, block 1
+		cache.getBase("braf", 1); // hit, block 0 is most recently used
+		cache.getBase("braf", 2000); // miss, evicts block 1
+		cache.getBase("braf", 2); // hit
+		cache.getBase("braf", 1001); // miss
+
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertEquals(4, cache.getMisses());
+		Assert.assertEquals(2.0 / 6.0, cache.getHitRate(), 1e-9);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownContig() throws Exception {
+		new ReferenceBlockCache(fastaPath).getBase("chr1", 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOutOfRange() throws Exception {
+		new ReferenceBlockCache(fastaPath).getBase("braf", brafSeq.length());
+	}
+
+}
@@ -0,0 +1,113 @@
+package de.charite.compbio.jannovar.vardbs.base;
+
+import com.google.common.io.Files;
+import de.charite.compbio.jannovar.utils.ResourceUtils;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StreamingVCFVariantProviderTest {
+
+	static String dbSNPVCFPath;
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		File tmpDir = Files.createTempDir();
+		dbSNPVCFPath = tmpDir + "/dbSNP147.head.vcf.gz";
+		ResourceUtils.copyResourceToFile("/dbSNP147.head.vcf.gz", new File(dbSNPVCFPath));
+		ResourceUtils.copyResourceToFile("/dbSNP147.head.vcf.gz.tbi", new File(dbSNPVCFPath + ".tbi"));
+	}
+
+	/**
+	 * @return String representation of query result, for comparison
+	 */
+	static List<String> fetch(DatabaseVariantContextProvider provider, String contig, int beginPos, int endPos) {
+		List<String> result = new ArrayList<>();
+		try (CloseableIterator<VariantContext> iter = provider.query(contig, beginPos, endPos)) {
+			while (iter.hasNext()) {
+				VariantContext vc = iter.next();
+				result.add(vc.getContig() + ":" + vc.getStart() + "-" + vc.getEnd() + ":" + vc.getID() + ":"
+					+ vc.getAlleles());
+			}
+		}
+		return result;
+	}
+
+	@Test
+	public void testSortedQueries() throws Exception {
+		VCFReaderVariantProvider expected = new VCFReaderVariantProvider(dbSNPVCFPath);
+		StreamingVCFVariantProvider provider = new StreamingVCFVariantProvider(dbSNPVCFPath);
+		int numNonEmpty = 0;
+		for (int width = 1; width <= 30; width += 7) {
+			for (int pos = 10000; pos < 13600; pos += 3) {
+				List<String> expectedRecords = fetch(expected, "1", pos, pos + width - 1);
+				Assert.assertEquals(expectedRecords, fetch(provider, "1", pos, pos + width - 1));
+				if (!expectedRecords.isEmpty())
+					numNonEmpty += 1;
+			}
+			// Switch to other contig and back, positions the stream again
+			Assert.assertTrue(fetch(provider, "2", 1, 1000).isEmpty());
+		}
+		Assert.assertTrue(numNonEmpty > 100);
+		Assert.assertTrue(provider.isSorted());
+		// One seek for the first query on each contig
+		Assert.assertEquals(10, provider.getNumSeeks());
+		provider.close();
+	}
+
+	@Test
+	public void testSkipFarDownstream() throws Exception {
+		VCFReaderVariantProvider expected = new VCFReaderVariantProvider(dbSNPVCFPath);
+		StreamingVCFVariantProvider provider = new StreamingVCFVariantProvider(dbSNPVCFPath, 1000);
+		Assert.assertEquals(fetch(expected, "1", 10019, 10019), fetch(provider, "1", 10019, 10019));
+		Assert.assertEquals(fetch(expected, "1", 10500, 10510), fetch(provider, "1", 10500, 10510));
+		Assert.assertEquals(fetch(expected, "1", 13280, 13290), fetch(provider, "1", 13280, 13290));
+		Assert.assertEquals(2, provider.getNumSeeks());
+		provider.close();
+	}
+
+	@Test
+	public void testUnsortedQueries() throws Exception {
+		VCFReaderVariantProvider expected = new VCFReaderVariantProvider(dbSNPVCFPath);
+		StreamingVCFVariantProvider provider = new StreamingVCFVariantProvider(dbSNPVCFPath);
+		Assert.assertEquals(fetch(expected, "1", 13000, 13300), fetch(provider, "1", 13000, 13300));
+		Assert.assertTrue(provider.isSorted());
+		Assert.assertEquals(fetch(expected, "1", 10000, 10300), fetch(provider, "1", 10000, 10300));
+		Assert.assertFalse(provider.isSorted());
+		Assert.assertEquals(fetch(expected, "1", 13000, 13300), fetch(provider, "1", 13000, 13300));
+		provider.close();
+	}
+
+	@Test
+	public void testNormalizedAllelesKeptInWindow() throws Exception {
+		// Copy FASTA file for the matcher
+		File tmpDir = Files.createTempDir();
+		String fastaPath = tmpDir + "/chr1.fasta";
+		ResourceUtils.copyResourceToFile("/chr1.fasta", new File(fastaPath));
+		ResourceUtils.copyResourceToFile("/chr1.fasta.fai", new File(fastaPath + ".fai"));
+		AlleleMatcher matcher = new AlleleMatcher(fastaPath);
+
+		StreamingVCFVariantProvider provider = new StreamingVCFVariantProvider(dbSNPVCFPath);
+		VariantContext first;
+		List<VariantDescription> firstVars;
+		try (CloseableIterator<VariantContext> iter = provider.query("1", 10177, 10177)) {
+			first = iter.next();
+			firstVars = provider.normalizedAlleles(first, matcher);
+		}
+		matcher.clearMemo();
+		// Overlapping query returns the same record and its normalized alleles without normalizing again
+		try (CloseableIterator<VariantContext> iter = provider.query("1", 10177, 10180)) {
+			VariantContext again = iter.next();
+			Assert.assertSame(first, again);
+			Assert.assertSame(firstVars, provider.normalizedAlleles(again, matcher));
+		}
+		provider.close();
+	}
+
+}
@@ -70,4 +70,27 @@ public class VariantNormalizerTest {
 		Assert.assertEquals("TG", descOut.getAlt());
 	}
 
+	@Test
+	public void testShiftDeletionToContigStart() {
+		// The contig starts with "GGG", shifting stops at the first base.
+		VariantDescription descIn = new VariantDescription("braf", 1, "GG", "G");
+		VariantDescription descOut = normalizer.normalizeVariant(descIn);
+
+		Assert.assertEquals("braf", descOut.getChrom());
+		Assert.assertEquals(0, descOut.getPos());
+		Assert.assertEquals("G", descOut.getRef());
+		Assert.assertEquals("", descOut.getAlt());
+	}
+
+	@Test
+	public void testReferenceCacheHits() throws Exception {
+		VariantNormalizer localNormalizer = new VariantNormalizer(fastaPath);
+		localNormalizer.normalizeVariant(new VariantDescription("braf", 180, "TGT", "T"));
+		localNormalizer.normalizeVariant(new VariantDescription("braf", 180, "T", "TGT"));
+
+		// All bases come from the single 64kbp block
+		Assert.assertEquals(1, localNormalizer.getReferenceCache().getMisses());
+		Assert.assertTrue(localNormalizer.getReferenceCache().getHits() > 0);
+	}
+
 }
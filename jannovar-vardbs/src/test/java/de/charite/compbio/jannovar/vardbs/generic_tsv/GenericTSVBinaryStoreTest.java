@@ -0,0 +1,102 @@
+package de.charite.compbio.jannovar.vardbs.generic_tsv;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import de.charite.compbio.jannovar.vardbs.base.DBAnnotationOptions.MultipleMatchBehaviour;
+import de.charite.compbio.jannovar.vardbs.base.DatabaseVariantContextProvider;
+import de.charite.compbio.jannovar.vardbs.base.JannovarVarDBException;
+import htsjdk.samtools.util.CloseableIterator;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.vcf.VCFHeaderLineType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Test for converting dbNSFP into the binary store and reading from it
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class GenericTSVBinaryStoreTest extends GenericTSVAnnotationDriverWithDbnsfpBaseTest {
+
+	/**
+	 * Options pointing to the binary store
+	 */
+	GenericTSVAnnotationOptions binaryOptions;
+
+	@Before
+	public void setUp() throws Exception {
+		super.setUp();
+		File binaryFile = new File(Files.createTempDir(), "dbNSFP.jvtsv");
+		Assert.assertEquals(999, new GenericTSVBinaryStoreWriter(options).write(binaryFile));
+
+		binaryOptions = new GenericTSVAnnotationOptions(true, false, "DBNSFP_", MultipleMatchBehaviour.BEST_ONLY,
+			binaryFile, GenericTSVAnnotationTarget.VARIANT, true, 1, 2, 2, 3, 4, true, options.getColumnNames(),
+			new HashMap<>(options.getValueColumnDescriptions()));
+	}
+
+	static List<String> fetch(DatabaseVariantContextProvider provider, String contig, int beginPos, int endPos) {
+		List<String> result = new ArrayList<>();
+		try (CloseableIterator<VariantContext> it = provider.query(contig, beginPos, endPos)) {
+			while (it.hasNext())
+				result.add(it.next().toString());
+		}
+		return result;
+	}
+
+	@Test
+	public void testIsBinaryStore() {
+		Assert.assertTrue(GenericTSVBinaryVariantContextProvider.isBinaryStore(binaryOptions.getTsvFile()));
+		Assert.assertFalse(GenericTSVBinaryVariantContextProvider.isBinaryStore(options.getTsvFile()));
+	}
+
+	@Test
+	public void testQueriesEqualToTabix() throws JannovarVarDBException {
+		GenericTSVVariantContextProvider tsvProvider = new GenericTSVVariantContextProvider(options);
+		GenericTSVBinaryVariantContextProvider binaryProvider = new GenericTSVBinaryVariantContextProvider(
+			binaryOptions);
+
+		int numRecords = 0;
+		for (int width = 1; width <= 200; width += 33) {
+			for (int pos = 0; pos < 600; pos += 7) {
+				List<String> expected = fetch(tsvProvider, "1", pos, pos + width);
+				Assert.assertEquals(expected, fetch(binaryProvider, "1", pos, pos + width));
+				numRecords += expected.size();
+			}
+		}
+		Assert.assertTrue(numRecords > 1000);
+		Assert.assertTrue(fetch(binaryProvider, "2", 0, 1000).isEmpty());
+	}
+
+	@Test
+	public void testAnnotationEqualToTabix() throws JannovarVarDBException {
+		VariantContext vc = vcfReader.iterator().next();
+		VariantContext expected = new GenericTSVAnnotationDriver(fastaPath, options).annotateVariantContext(vc);
+		VariantContext actual = new GenericTSVAnnotationDriver(fastaPath, binaryOptions).annotateVariantContext(vc);
+		Assert.assertEquals(expected.toStringDecodeGenotypes(), actual.toStringDecodeGenotypes());
+	}
+
+	@Test
+	public void testColumnSubset() throws JannovarVarDBException {
+		binaryOptions.setColumnNames(ImmutableList.of("SIFT_SCORE"));
+		GenericTSVBinaryVariantContextProvider binaryProvider = new GenericTSVBinaryVariantContextProvider(
+			binaryOptions);
+		Assert.assertEquals(
+			"[VC null @ 1:91 Q. of type=SNP alleles=[A*, C] attr={SIFT_SCORE=0.13} GT=[] filters=",
+			fetch(binaryProvider, "1", 90, 91).get(0));
+	}
+
+	@Test(expected = JannovarVarDBException.class)
+	public void testDifferentDescription() throws JannovarVarDBException {
+		binaryOptions.getValueColumnDescriptions().put("SIFT_SCORE",
+			new GenericTSVValueColumnDescription(24, VCFHeaderLineType.Float, "SIFT_SCORE", "Sift Score",
+				GenericTSVAccumulationStrategy.CHOOSE_MIN));
+		new GenericTSVBinaryVariantContextProvider(binaryOptions);
+	}
+
+}
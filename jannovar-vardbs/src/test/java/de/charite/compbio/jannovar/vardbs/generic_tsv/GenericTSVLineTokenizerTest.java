@@ -0,0 +1,34 @@
+package de.charite.compbio.jannovar.vardbs.generic_tsv;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GenericTSVLineTokenizerTest {
+
+	@Test
+	public void testSelectedColumns() {
+		GenericTSVLineTokenizer tokenizer = new GenericTSVLineTokenizer(ImmutableList.of(1, 3, 5, 0));
+		String[] tokens = tokenizer.tokenize("chr1\t100\tA\tC\t0.5\tignored\tignored");
+		Assert.assertArrayEquals(new String[]{"chr1", null, "A", null, "0.5"}, tokens);
+	}
+
+	@Test
+	public void testEmptyColumns() {
+		GenericTSVLineTokenizer tokenizer = new GenericTSVLineTokenizer(ImmutableList.of(2, 4));
+		Assert.assertArrayEquals(new String[]{null, "", null, ""}, tokenizer.tokenize("a\t\tc\t"));
+	}
+
+	@Test
+	public void testBufferIsCleared() {
+		GenericTSVLineTokenizer tokenizer = new GenericTSVLineTokenizer(ImmutableList.of(1, 2));
+		Assert.assertArrayEquals(new String[]{"a", "b"}, tokenizer.tokenize("a\tb\tc"));
+		Assert.assertArrayEquals(new String[]{"x", "y"}, tokenizer.tokenize("x\ty"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooFewColumns() {
+		new GenericTSVLineTokenizer(ImmutableList.of(1, 4)).tokenize("a\tb");
+	}
+
+}